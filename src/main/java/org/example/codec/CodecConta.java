@@ -0,0 +1,226 @@
+package org.example.codec;
+
+import org.example.model.Conta;
+import org.example.model.ContaCorrente;
+import org.example.records.AssinaturaConta;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codificador e decodificador binários (flyweight) do registro de uma {@link Conta}:
+ * dados cadastrais, saldo e assinatura de integridade do histórico (ver {@link AssinaturaConta}).
+ * O histórico em si é codificado à parte, como mensagens de {@link CodecTransacao}.
+ * <pre>
+ * Bloco (48 bytes): saldo f64 @0 | posicaoCompensacao f64 @8 | totalLancamentos f64 @16
+ *                   | quantidadeLancamentos i64 @24 | checksum i64 @32
+ *                   | tipoConta u8 @40 (0 = corrente, 1 = poupança) | agencia 4 bytes ASCII @41 | reservado @45
+ * </pre>
+ * Textos: numero, cpfTitular
+ */
+public final class CodecConta {
+
+    public static final int COMPRIMENTO_BLOCO = 48;
+    public static final byte CORRENTE = 0;
+    public static final byte POUPANCA = 1;
+
+    private static final int SALDO = 0;
+    private static final int POSICAO_COMPENSACAO = 8;
+    private static final int TOTAL_LANCAMENTOS = 16;
+    private static final int QUANTIDADE_LANCAMENTOS = 24;
+    private static final int CHECKSUM = 32;
+    private static final int TIPO_CONTA = 40;
+    private static final int AGENCIA = 41;
+    private static final int TAMANHO_AGENCIA = 4;
+
+    private CodecConta() {
+    }
+
+    /**
+     * Escreve o registro de uma conta diretamente em um {@link ByteBuffer}.
+     * Os textos devem ser escritos na ordem: número, depois CPF do titular.
+     */
+    public static final class Codificador {
+        private ByteBuffer buffer;
+        private int inicio;
+        private int bloco;
+        private int fim;
+
+        public Codificador posicionar(ByteBuffer buffer, int offset) {
+            this.buffer = EsquemaBinario.ordenar(buffer);
+            this.inicio = offset;
+            this.bloco = offset + EsquemaBinario.TAMANHO_CABECALHO;
+            this.fim = bloco + COMPRIMENTO_BLOCO;
+            EsquemaBinario.escreverCabecalho(buffer, offset, COMPRIMENTO_BLOCO, EsquemaBinario.MODELO_CONTA);
+            buffer.put(bloco + 45, (byte) 0).putShort(bloco + 46, (short) 0); // Bytes reservados.
+            return this;
+        }
+
+        public Codificador saldo(double saldo) {
+            buffer.putDouble(bloco + SALDO, saldo);
+            return this;
+        }
+
+        public Codificador posicaoCompensacao(double posicao) {
+            buffer.putDouble(bloco + POSICAO_COMPENSACAO, posicao);
+            return this;
+        }
+
+        public Codificador assinatura(double totalLancamentos, long quantidadeLancamentos, long checksum) {
+            buffer.putDouble(bloco + TOTAL_LANCAMENTOS, totalLancamentos);
+            buffer.putLong(bloco + QUANTIDADE_LANCAMENTOS, quantidadeLancamentos);
+            buffer.putLong(bloco + CHECKSUM, checksum);
+            return this;
+        }
+
+        public Codificador tipoConta(byte tipoConta) {
+            buffer.put(bloco + TIPO_CONTA, tipoConta);
+            return this;
+        }
+
+        /**
+         * @param agencia Código da agência; completado com zeros à esquerda ou cortado em 4 caracteres.
+         */
+        public Codificador agencia(String agencia) {
+            String ajustada = agencia.length() >= TAMANHO_AGENCIA
+                    ? agencia.substring(agencia.length() - TAMANHO_AGENCIA)
+                    : "0".repeat(TAMANHO_AGENCIA - agencia.length()) + agencia;
+            for (int i = 0; i < TAMANHO_AGENCIA; i++) {
+                buffer.put(bloco + AGENCIA + i, (byte) ajustada.charAt(i));
+            }
+            return this;
+        }
+
+        public Codificador numero(String numero) {
+            fim = EsquemaBinario.escreverTexto(buffer, bloco + COMPRIMENTO_BLOCO, numero);
+            return this;
+        }
+
+        public Codificador cpfTitular(String cpf) {
+            fim = EsquemaBinario.escreverTexto(buffer, fim, cpf);
+            return this;
+        }
+
+        /**
+         * Codifica o registro de uma conta. Saldo e assinatura são lidos juntos, sob o lock da conta.
+         * @return O tamanho da mensagem em bytes.
+         */
+        public int codificar(ByteBuffer buffer, int offset, Conta conta) {
+            AssinaturaConta assinatura = conta.getAssinatura();
+            return posicionar(buffer, offset)
+                    .saldo(assinatura.saldo())
+                    .posicaoCompensacao(conta.getPosicaoCompensacao())
+                    .assinatura(assinatura.totalLancamentos(), assinatura.quantidadeLancamentos(), assinatura.checksum())
+                    .tipoConta(conta instanceof ContaCorrente ? CORRENTE : POUPANCA)
+                    .agencia(conta.getAgencia())
+                    .numero(conta.getNumero())
+                    .cpfTitular(conta.getCliente().getCpf())
+                    .comprimento();
+        }
+
+        public int comprimento() {
+            return fim - inicio;
+        }
+    }
+
+    /**
+     * Lê os campos do registro de uma conta direto do {@link ByteBuffer}.
+     */
+    public static final class Decodificador {
+        private ByteBuffer buffer;
+        private int inicio;
+        private int bloco;
+        private int comprimentoBloco;
+        private int textos;
+        private int versao;
+
+        /**
+         * @throws IllegalArgumentException se a mensagem não for uma conta deste esquema.
+         */
+        public Decodificador posicionar(ByteBuffer buffer, int offset) {
+            this.buffer = EsquemaBinario.ordenar(buffer);
+            EsquemaBinario.validarCabecalho(buffer, offset, EsquemaBinario.MODELO_CONTA);
+            this.inicio = offset;
+            this.bloco = offset + EsquemaBinario.TAMANHO_CABECALHO;
+            this.comprimentoBloco = EsquemaBinario.validarBloco(buffer, offset);
+            this.textos = bloco + comprimentoBloco;
+            this.versao = EsquemaBinario.versao(buffer, offset);
+            return this;
+        }
+
+        public int versao() {
+            return versao;
+        }
+
+        public double saldo() {
+            return f64(SALDO);
+        }
+
+        public double posicaoCompensacao() {
+            return f64(POSICAO_COMPENSACAO);
+        }
+
+        public double totalLancamentos() {
+            return f64(TOTAL_LANCAMENTOS);
+        }
+
+        public long quantidadeLancamentos() {
+            return i64(QUANTIDADE_LANCAMENTOS);
+        }
+
+        public long checksum() {
+            return i64(CHECKSUM);
+        }
+
+        /**
+         * @return {@link #CORRENTE}, {@link #POUPANCA} ou {@link EsquemaBinario#NULO_U8} se a mensagem não tiver o campo.
+         * @throws IllegalArgumentException se o código do tipo de conta for desconhecido.
+         */
+        public byte tipoConta() {
+            if (!EsquemaBinario.contem(comprimentoBloco, TIPO_CONTA, 1)) return EsquemaBinario.NULO_U8;
+            byte tipo = buffer.get(bloco + TIPO_CONTA);
+            if (tipo != CORRENTE && tipo != POUPANCA) {
+                throw new IllegalArgumentException("Código de tipo de conta desconhecido: " + (tipo & 0xFF));
+            }
+            return tipo;
+        }
+
+        /**
+         * @return O código da agência, ou null se a mensagem não tiver o campo.
+         */
+        public String agencia() {
+            if (!EsquemaBinario.contem(comprimentoBloco, AGENCIA, TAMANHO_AGENCIA)) return null;
+            byte[] bytes = new byte[TAMANHO_AGENCIA];
+            buffer.get(bloco + AGENCIA, bytes);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+
+        public String numero() {
+            return EsquemaBinario.lerTexto(buffer, textos);
+        }
+
+        public String cpfTitular() {
+            return EsquemaBinario.lerTexto(buffer, EsquemaBinario.proximoTexto(buffer, textos));
+        }
+
+        public int comprimento() {
+            int cpf = EsquemaBinario.proximoTexto(buffer, textos);
+            return EsquemaBinario.proximoTexto(buffer, cpf) - inicio;
+        }
+
+        private double f64(int campo) {
+            return EsquemaBinario.contem(comprimentoBloco, campo, 8) ? buffer.getDouble(bloco + campo) : EsquemaBinario.NULO_F64;
+        }
+
+        private long i64(int campo) {
+            return EsquemaBinario.contem(comprimentoBloco, campo, 8) ? buffer.getLong(bloco + campo) : EsquemaBinario.NULO_I64;
+        }
+
+        /**
+         * Monta a assinatura de integridade gravada na mensagem, para comparar com a da conta viva.
+         */
+        public AssinaturaConta paraAssinatura() {
+            return new AssinaturaConta(numero(), saldo(), totalLancamentos(), quantidadeLancamentos(), checksum());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package org.example.codec;
+
+import org.example.enums.StatusInvestimento;
+import org.example.model.Investimento;
+import org.example.model.Produto;
+import org.example.repository.TabelaPrecos;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/**
+ * Codificador e decodificador binários (flyweight) de {@link Investimento}.
+ * <pre>
+ * Bloco (32 bytes): valorAplicado f64 @0 | valorAtual f64 @8 | dataAplicacao i32 (dias desde a época) @16
+ *                   | status u8 @20 | reservado @21 | quantidade f64 @24 (desde a versão 2)
+ * Textos: nome
+ * Status: 0 = ativo, 1 = resgatado
+ * </pre>
+ */
+public final class CodecInvestimento {
+
+    public static final int COMPRIMENTO_BLOCO = 32;
+
+    private static final int VALOR_APLICADO = 0;
+    private static final int VALOR_ATUAL = 8;
+    private static final int DATA_APLICACAO = 16;
+    private static final int STATUS = 20;
+    private static final int QUANTIDADE = 24;
+
+    private CodecInvestimento() {
+    }
+
+    /**
+     * Escreve um investimento diretamente em um {@link ByteBuffer}.
+     */
+    public static final class Codificador {
+        private ByteBuffer buffer;
+        private int inicio;
+        private int bloco;
+        private int fim;
+
+        public Codificador posicionar(ByteBuffer buffer, int offset) {
+            this.buffer = EsquemaBinario.ordenar(buffer);
+            this.inicio = offset;
+            this.bloco = offset + EsquemaBinario.TAMANHO_CABECALHO;
+            this.fim = bloco + COMPRIMENTO_BLOCO;
+            EsquemaBinario.escreverCabecalho(buffer, offset, COMPRIMENTO_BLOCO, EsquemaBinario.MODELO_INVESTIMENTO);
+            buffer.put(bloco + 21, (byte) 0).putShort(bloco + 22, (short) 0); // Bytes reservados.
+            return this;
+        }
+
+        public Codificador valorAplicado(double valor) {
+            buffer.putDouble(bloco + VALOR_APLICADO, valor);
+            return this;
+        }
+
+        public Codificador valorAtual(double valor) {
+            buffer.putDouble(bloco + VALOR_ATUAL, valor);
+            return this;
+        }
+
+        public Codificador dataAplicacao(LocalDate data) {
+            buffer.putInt(bloco + DATA_APLICACAO, (int) data.toEpochDay());
+            return this;
+        }
+
+        public Codificador status(StatusInvestimento status) {
+            buffer.put(bloco + STATUS, codigo(status));
+            return this;
+        }
+
+        public Codificador quantidade(double quantidade) {
+            buffer.putDouble(bloco + QUANTIDADE, quantidade);
+            return this;
+        }
+
+        public Codificador nome(String nome) {
+            fim = EsquemaBinario.escreverTexto(buffer, bloco + COMPRIMENTO_BLOCO, nome);
+            return this;
+        }
+
+        /**
+         * @return O tamanho da mensagem em bytes.
+         */
+        public int codificar(ByteBuffer buffer, int offset, Investimento investimento) {
+            return posicionar(buffer, offset)
+                    .valorAplicado(investimento.getValorAplicado())
+                    .valorAtual(investimento.getValorAtual())
+                    .dataAplicacao(investimento.getDataAplicacao())
+                    .status(investimento.getStatus())
+                    .quantidade(investimento.getQuantidade())
+                    .nome(investimento.getNome())
+                    .comprimento();
+        }
+
+        public int comprimento() {
+            return fim - inicio;
+        }
+    }
+
+    /**
+     * Lê os campos de um investimento direto do {@link ByteBuffer}, sem criar o {@link Investimento}.
+     */
+    public static final class Decodificador {
+        private ByteBuffer buffer;
+        private int inicio;
+        private int bloco;
+        private int comprimentoBloco;
+        private int textos;
+        private int versao;
+
+        /**
+         * @throws IllegalArgumentException se a mensagem não for um investimento deste esquema.
+         */
+        public Decodificador posicionar(ByteBuffer buffer, int offset) {
+            this.buffer = EsquemaBinario.ordenar(buffer);
+            EsquemaBinario.validarCabecalho(buffer, offset, EsquemaBinario.MODELO_INVESTIMENTO);
+            this.inicio = offset;
+            this.bloco = offset + EsquemaBinario.TAMANHO_CABECALHO;
+            this.comprimentoBloco = EsquemaBinario.validarBloco(buffer, offset);
+            this.textos = bloco + comprimentoBloco;
+            this.versao = EsquemaBinario.versao(buffer, offset);
+            return this;
+        }
+
+        public int versao() {
+            return versao;
+        }
+
+        public double valorAplicado() {
+            return EsquemaBinario.contem(comprimentoBloco, VALOR_APLICADO, 8)
+                    ? buffer.getDouble(bloco + VALOR_APLICADO) : EsquemaBinario.NULO_F64;
+        }
+
+        public double valorAtual() {
+            return EsquemaBinario.contem(comprimentoBloco, VALOR_ATUAL, 8)
+                    ? buffer.getDouble(bloco + VALOR_ATUAL) : EsquemaBinario.NULO_F64;
+        }
+
+        public long dataAplicacaoEpochDay() {
+            return EsquemaBinario.contem(comprimentoBloco, DATA_APLICACAO, 4)
+                    ? buffer.getInt(bloco + DATA_APLICACAO) : EsquemaBinario.NULO_I32;
+        }
+
+        public LocalDate dataAplicacao() {
+            long dias = dataAplicacaoEpochDay();
+            return dias == EsquemaBinario.NULO_I32 ? null : LocalDate.ofEpochDay(dias);
+        }
+
+        /**
+         * @return O status do investimento, ou null se a mensagem não tiver o campo.
+         * @throws IllegalArgumentException se o código do status for desconhecido.
+         */
+        public StatusInvestimento status() {
+            return EsquemaBinario.contem(comprimentoBloco, STATUS, 1) ? statusDoCodigo(buffer.get(bloco + STATUS)) : null;
+        }
+
+        /**
+         * @return A quantidade do produto, ou {@link EsquemaBinario#NULO_F64} em mensagens da versão 1.
+         */
+        public double quantidade() {
+            return EsquemaBinario.contem(comprimentoBloco, QUANTIDADE, 8)
+                    ? buffer.getDouble(bloco + QUANTIDADE) : EsquemaBinario.NULO_F64;
+        }
+
+        public String nome() {
+            return EsquemaBinario.lerTexto(buffer, textos);
+        }
+
+        public int comprimento() {
+            return EsquemaBinario.proximoTexto(buffer, textos) - inicio;
+        }
+
+        /**
+         * Reconstrói o {@link Investimento} com os campos da mensagem, sobre o produto da tabela de preços.
+         * Sem a quantidade (versão 1), a posição é reconstruída com o valor atual pelo preço atual do produto.
+         * @param tabelaPrecos A tabela de onde vem o produto da posição.
+         */
+        public Investimento paraInvestimento(TabelaPrecos tabelaPrecos) {
+            Produto produto = tabelaPrecos.produto(nome());
+            double quantidade = quantidade();
+            if (Double.isNaN(quantidade)) quantidade = valorAtual() / produto.getPreco();
+            return new Investimento(produto, valorAplicado(), dataAplicacao(), quantidade, status(), valorAtual());
+        }
+    }
+
+    // Códigos fixos do formato: não dependem da ordem das constantes do enum.
+    static byte codigo(StatusInvestimento status) {
+        return switch (status) {
+            case ATIVO -> 0;
+            case RESGATADO -> 1;
+        };
+    }
+
+    static StatusInvestimento statusDoCodigo(byte codigo) {
+        return switch (codigo) {
+            case 0 -> StatusInvestimento.ATIVO;
+            case 1 -> StatusInvestimento.RESGATADO;
+            default -> throw new IllegalArgumentException("Código de status de investimento desconhecido: " + (codigo & 0xFF));
+        };
+    }
+}
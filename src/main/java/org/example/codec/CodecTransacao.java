@@ -0,0 +1,205 @@
+package org.example.codec;
+
+import org.example.enums.TipoTransacao;
+import org.example.records.Transacao;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+/**
+ * Codificador e decodificador binários (flyweight) de {@link Transacao}.
+ * <pre>
+ * Bloco (24 bytes): data i64 (µs desde a época, UTC) @0 | valor f64 @8 | tipo u8 @16 | reservado @17
+ * Textos: descricao
+ * Tipo: 0 = depósito, 1 = saque, 2 = PIX enviado, 3 = PIX recebido, 4 = criação de investimento
+ * </pre>
+ */
+public final class CodecTransacao {
+
+    public static final int COMPRIMENTO_BLOCO = 24;
+
+    private static final int DATA = 0;
+    private static final int VALOR = 8;
+    private static final int TIPO = 16;
+
+    private CodecTransacao() {
+    }
+
+    /**
+     * Escreve uma transação diretamente em um {@link ByteBuffer}. Uma instância pode ser reutilizada
+     * para várias mensagens com {@link #posicionar}. O texto deve ser escrito depois dos campos fixos.
+     */
+    public static final class Codificador {
+        private ByteBuffer buffer;
+        private int inicio;
+        private int bloco;
+        private int fim;
+
+        /**
+         * Posiciona o codificador e escreve o cabeçalho da mensagem.
+         * O buffer passa a usar a ordem little-endian do esquema.
+         */
+        public Codificador posicionar(ByteBuffer buffer, int offset) {
+            this.buffer = EsquemaBinario.ordenar(buffer);
+            this.inicio = offset;
+            this.bloco = offset + EsquemaBinario.TAMANHO_CABECALHO;
+            this.fim = bloco + COMPRIMENTO_BLOCO;
+            EsquemaBinario.escreverCabecalho(buffer, offset, COMPRIMENTO_BLOCO, EsquemaBinario.MODELO_TRANSACAO);
+            // Zera os bytes reservados (17 a 23), que uma versão futura pode passar a usar.
+            buffer.put(bloco + 17, (byte) 0).putShort(bloco + 18, (short) 0).putInt(bloco + 20, 0);
+            return this;
+        }
+
+        public Codificador data(LocalDateTime data) {
+            buffer.putLong(bloco + DATA, EsquemaBinario.paraMicros(data));
+            return this;
+        }
+
+        public Codificador valor(double valor) {
+            buffer.putDouble(bloco + VALOR, valor);
+            return this;
+        }
+
+        public Codificador tipo(TipoTransacao tipo) {
+            buffer.put(bloco + TIPO, codigo(tipo));
+            return this;
+        }
+
+        public Codificador descricao(String descricao) {
+            fim = EsquemaBinario.escreverTexto(buffer, bloco + COMPRIMENTO_BLOCO, descricao);
+            return this;
+        }
+
+        /**
+         * Codifica todos os campos de uma transação.
+         * @return O tamanho da mensagem em bytes.
+         */
+        public int codificar(ByteBuffer buffer, int offset, Transacao transacao) {
+            return posicionar(buffer, offset).data(transacao.data()).valor(transacao.valor())
+                    .tipo(transacao.tipo()).descricao(transacao.descricao()).comprimento();
+        }
+
+        /**
+         * @return O tamanho da mensagem escrita até agora, com cabeçalho.
+         */
+        public int comprimento() {
+            return fim - inicio;
+        }
+    }
+
+    /**
+     * Lê os campos de uma transação direto do {@link ByteBuffer}, sem criar a {@link Transacao}.
+     * Uma instância pode ser reutilizada para percorrer várias mensagens.
+     */
+    public static final class Decodificador {
+        private ByteBuffer buffer;
+        private int inicio;
+        private int bloco;
+        private int comprimentoBloco;
+        private int textos;
+        private int versao;
+
+        /**
+         * Posiciona o decodificador sobre uma mensagem, validando o cabeçalho.
+         * O buffer passa a usar a ordem little-endian do esquema.
+         * @throws IllegalArgumentException se a mensagem não for uma transação deste esquema.
+         */
+        public Decodificador posicionar(ByteBuffer buffer, int offset) {
+            this.buffer = EsquemaBinario.ordenar(buffer);
+            EsquemaBinario.validarCabecalho(buffer, offset, EsquemaBinario.MODELO_TRANSACAO);
+            this.inicio = offset;
+            this.bloco = offset + EsquemaBinario.TAMANHO_CABECALHO;
+            // O bloco de uma versão mais nova pode ser maior: os textos começam onde o emissor disse.
+            this.comprimentoBloco = EsquemaBinario.validarBloco(buffer, offset);
+            this.textos = bloco + comprimentoBloco;
+            this.versao = EsquemaBinario.versao(buffer, offset);
+            return this;
+        }
+
+        public int versao() {
+            return versao;
+        }
+
+        /**
+         * @return A data em microssegundos desde a época (UTC), sem criar um LocalDateTime.
+         */
+        public long dataMicros() {
+            return EsquemaBinario.contem(comprimentoBloco, DATA, 8) ? buffer.getLong(bloco + DATA) : EsquemaBinario.NULO_I64;
+        }
+
+        public LocalDateTime data() {
+            long micros = dataMicros();
+            return micros == EsquemaBinario.NULO_I64 ? null : EsquemaBinario.deMicros(micros);
+        }
+
+        public double valor() {
+            return EsquemaBinario.contem(comprimentoBloco, VALOR, 8) ? buffer.getDouble(bloco + VALOR) : EsquemaBinario.NULO_F64;
+        }
+
+        /**
+         * @return O tipo da transação, ou null se a mensagem não tiver o campo.
+         * @throws IllegalArgumentException se o código do tipo for desconhecido.
+         */
+        public TipoTransacao tipo() {
+            return EsquemaBinario.contem(comprimentoBloco, TIPO, 1) ? tipoDoCodigo(buffer.get(bloco + TIPO)) : null;
+        }
+
+        public int comprimentoDescricao() {
+            return EsquemaBinario.comprimentoTexto(buffer, textos);
+        }
+
+        /**
+         * Copia os bytes UTF-8 da descrição para um vetor reutilizável, sem criar uma String.
+         * @return Quantos bytes foram copiados.
+         */
+        public int copiarDescricao(byte[] destino) {
+            return EsquemaBinario.copiarTexto(buffer, textos, destino);
+        }
+
+        public String descricao() {
+            return EsquemaBinario.lerTexto(buffer, textos);
+        }
+
+        /**
+         * @return O tamanho da mensagem em bytes, com cabeçalho (para avançar até a próxima).
+         */
+        public int comprimento() {
+            return EsquemaBinario.proximoTexto(buffer, textos) - inicio;
+        }
+
+        /**
+         * Cria a {@link Transacao} com os campos da mensagem.
+         */
+        public Transacao paraTransacao() {
+            return new Transacao(tipo(), valor(), data(), descricao());
+        }
+    }
+
+    /**
+     * Código fixo do tipo nos formatos binários (também nos segmentos de histórico arquivado):
+     * não depende da ordem das constantes do enum.
+     */
+    public static byte codigo(TipoTransacao tipo) {
+        return switch (tipo) {
+            case DEPOSITO -> 0;
+            case SAQUE -> 1;
+            case TRANSFERENCIA_PIX_ENVIADA -> 2;
+            case TRANSFERENCIA_PIX_RECEBIDA -> 3;
+            case CRIACAO_INVESTIMENTO -> 4;
+        };
+    }
+
+    /**
+     * @throws IllegalArgumentException Se o código não corresponder a nenhum tipo.
+     */
+    public static TipoTransacao tipoDoCodigo(byte codigo) {
+        return switch (codigo) {
+            case 0 -> TipoTransacao.DEPOSITO;
+            case 1 -> TipoTransacao.SAQUE;
+            case 2 -> TipoTransacao.TRANSFERENCIA_PIX_ENVIADA;
+            case 3 -> TipoTransacao.TRANSFERENCIA_PIX_RECEBIDA;
+            case 4 -> TipoTransacao.CRIACAO_INVESTIMENTO;
+            default -> throw new IllegalArgumentException("Código de tipo de transação desconhecido: " + (codigo & 0xFF));
+        };
+    }
+}
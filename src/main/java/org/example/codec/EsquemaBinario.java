@@ -0,0 +1,159 @@
+package org.example.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Esquema do formato binário do banco (no estilo SBE - Simple Binary Encoding).
+ * <p>
+ * Cada mensagem é: cabeçalho de 8 bytes + bloco de campos fixos + campos de texto de tamanho variável.
+ * <pre>
+ * Cabeçalho: comprimentoBloco u16 | idModelo u16 | idEsquema u16 | versao u16
+ * Texto:     comprimento u16 | bytes UTF-8
+ * </pre>
+ * Todos os números são little-endian. Os campos fixos ficam em posições conhecidas, então os
+ * decodificadores leem cada campo direto do {@link ByteBuffer}, sem criar objetos.
+ * <p>
+ * Evolução: uma nova versão só acrescenta campos ao final do bloco ou novos textos ao final da mensagem.
+ * O decodificador usa o comprimento do bloco informado no cabeçalho para achar os textos, então um leitor
+ * antigo ignora campos novos, e um leitor novo devolve o valor nulo do campo ({@link #NULO_F64},
+ * {@link #NULO_I64}, {@link #NULO_I32}, {@link #NULO_U8} ou null) em mensagens antigas, cujo bloco não o contém.
+ * <p>
+ * Enums são gravados como códigos fixos de cada codec, nunca pelo {@code ordinal()}: reordenar ou acrescentar
+ * constantes no enum não muda o significado de mensagens já gravadas. Um código desconhecido é recusado.
+ */
+public final class EsquemaBinario {
+
+    public static final int ID_ESQUEMA = 0x4442; // "DB"
+    public static final int VERSAO = 2; // 2: quantidade no investimento.
+
+    public static final int MODELO_TRANSACAO = 1;
+    public static final int MODELO_CONTA = 2;
+    public static final int MODELO_INVESTIMENTO = 3;
+
+    public static final int TAMANHO_CABECALHO = 8;
+    public static final int TAMANHO_MAXIMO_TEXTO = 0xFFFF;
+    public static final ByteOrder ORDEM = ByteOrder.LITTLE_ENDIAN;
+
+    public static final double NULO_F64 = Double.NaN;
+    public static final long NULO_I64 = Long.MIN_VALUE;
+    public static final int NULO_I32 = Integer.MIN_VALUE;
+    public static final byte NULO_U8 = (byte) 0xFF;
+
+    private EsquemaBinario() {
+    }
+
+    // --- CABEÇALHO ---
+
+    static void escreverCabecalho(ByteBuffer buffer, int offset, int comprimentoBloco, int idModelo) {
+        buffer.putShort(offset, (short) comprimentoBloco);
+        buffer.putShort(offset + 2, (short) idModelo);
+        buffer.putShort(offset + 4, (short) ID_ESQUEMA);
+        buffer.putShort(offset + 6, (short) VERSAO);
+    }
+
+    public static int comprimentoBloco(ByteBuffer buffer, int offset) {
+        return buffer.getShort(offset) & 0xFFFF;
+    }
+
+    public static int idModelo(ByteBuffer buffer, int offset) {
+        return buffer.getShort(offset + 2) & 0xFFFF;
+    }
+
+    public static int idEsquema(ByteBuffer buffer, int offset) {
+        return buffer.getShort(offset + 4) & 0xFFFF;
+    }
+
+    public static int versao(ByteBuffer buffer, int offset) {
+        return buffer.getShort(offset + 6) & 0xFFFF;
+    }
+
+    /**
+     * Confere se a mensagem na posição é do esquema e do modelo esperados.
+     * @throws IllegalArgumentException se o esquema ou o modelo forem outros.
+     */
+    static void validarCabecalho(ByteBuffer buffer, int offset, int idModeloEsperado) {
+        if (idEsquema(buffer, offset) != ID_ESQUEMA) {
+            throw new IllegalArgumentException("Mensagem de outro esquema: " + idEsquema(buffer, offset));
+        }
+        if (idModelo(buffer, offset) != idModeloEsperado) {
+            throw new IllegalArgumentException("Modelo " + idModelo(buffer, offset) + " encontrado; esperado " + idModeloEsperado);
+        }
+    }
+
+    /**
+     * Lê o comprimento do bloco de uma mensagem já validada, conferindo se o bloco e o primeiro texto cabem no buffer.
+     * @throws IllegalArgumentException se o bloco passar do fim do buffer.
+     */
+    static int validarBloco(ByteBuffer buffer, int offset) {
+        int comprimento = comprimentoBloco(buffer, offset);
+        if (offset + TAMANHO_CABECALHO + comprimento + 2 > buffer.limit()) {
+            throw new IllegalArgumentException("Bloco de " + comprimento + " bytes passa do fim do buffer.");
+        }
+        return comprimento;
+    }
+
+    /**
+     * @return Se um campo de {@code tamanho} bytes na posição {@code campo} do bloco existe na mensagem.
+     */
+    static boolean contem(int comprimentoBloco, int campo, int tamanho) {
+        return campo + tamanho <= comprimentoBloco;
+    }
+
+    static ByteBuffer ordenar(ByteBuffer buffer) {
+        return buffer.order() == ORDEM ? buffer : buffer.order(ORDEM);
+    }
+
+    // --- TEXTOS ---
+
+    /**
+     * Escreve um texto (comprimento u16 + UTF-8) e retorna a posição seguinte.
+     * @throws IllegalArgumentException se o texto passar de {@value #TAMANHO_MAXIMO_TEXTO} bytes.
+     */
+    static int escreverTexto(ByteBuffer buffer, int posicao, String texto) {
+        byte[] bytes = texto == null ? new byte[0] : texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > TAMANHO_MAXIMO_TEXTO) {
+            throw new IllegalArgumentException("Texto com " + bytes.length + " bytes excede o limite do formato.");
+        }
+        buffer.putShort(posicao, (short) bytes.length);
+        buffer.put(posicao + 2, bytes);
+        return posicao + 2 + bytes.length;
+    }
+
+    static int comprimentoTexto(ByteBuffer buffer, int posicao) {
+        return buffer.getShort(posicao) & 0xFFFF;
+    }
+
+    static String lerTexto(ByteBuffer buffer, int posicao) {
+        byte[] bytes = new byte[comprimentoTexto(buffer, posicao)];
+        buffer.get(posicao + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copia os bytes UTF-8 de um texto para um vetor do chamador, que pode ser reutilizado.
+     * @return Quantos bytes foram copiados.
+     */
+    static int copiarTexto(ByteBuffer buffer, int posicao, byte[] destino) {
+        int comprimento = Math.min(comprimentoTexto(buffer, posicao), destino.length);
+        buffer.get(posicao + 2, destino, 0, comprimento);
+        return comprimento;
+    }
+
+    static int proximoTexto(ByteBuffer buffer, int posicao) {
+        return posicao + 2 + comprimentoTexto(buffer, posicao);
+    }
+
+    // --- DATAS ---
+
+    static long paraMicros(LocalDateTime data) {
+        return data.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + data.getNano() / 1_000;
+    }
+
+    static LocalDateTime deMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
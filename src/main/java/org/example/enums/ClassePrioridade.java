@@ -0,0 +1,11 @@
+package org.example.enums;
+
+/**
+ * Classe de prioridade de uma operação no {@link org.example.service.AgendadorOperacoes}.
+ * INTERATIVA são as operações de um cliente esperando a resposta (depósito, saque, PIX...);
+ * LOTE são os trabalhos longos (relatórios, atualização de mercado), que só usam o que sobra.
+ */
+public enum ClassePrioridade {
+    INTERATIVA,
+    LOTE
+}
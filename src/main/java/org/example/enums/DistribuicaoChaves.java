@@ -0,0 +1,10 @@
+package org.example.enums;
+
+/**
+ * Forma como o gerador de carga escolhe as contas de cada operação.
+ * UNIFORME espalha as operações igualmente; ZIPF concentra a maior parte em poucas contas "quentes".
+ */
+public enum DistribuicaoChaves {
+    UNIFORME,
+    ZIPF
+}
@@ -0,0 +1,15 @@
+package org.example.enums;
+
+/**
+ * Tipos de alteração de estado registrados no log de mutações, usado na replicação.
+ */
+public enum TipoMutacao {
+    CRIACAO_CLIENTE,
+    CRIACAO_CONTA,
+    DEPOSITO,
+    SAQUE,
+    TRANSFERENCIA,
+    INVESTIMENTO,
+    RESGATE,
+    ATUALIZACAO_PRECO
+}
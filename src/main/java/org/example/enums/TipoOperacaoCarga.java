@@ -0,0 +1,12 @@
+package org.example.enums;
+
+/**
+ * Operações que o gerador de carga executa contra o BancoService.
+ */
+public enum TipoOperacaoCarga {
+    DEPOSITO,
+    SAQUE,
+    TRANSFERENCIA_PIX,
+    INVESTIMENTO,
+    RESGATE
+}
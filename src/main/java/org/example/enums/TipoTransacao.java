@@ -3,11 +3,26 @@ package org.example.enums;
 /**
  * Enum para representar os tipos de transações financeiras possíveis.
  * O uso de um enum torna o código mais seguro e legível, evitando o uso de strings ou números mágicos.
+ * Cada tipo sabe se soma ou subtrai do saldo, o que permite conferir o saldo pelo histórico.
  */
 public enum TipoTransacao {
-    DEPOSITO,
-    SAQUE,
-    TRANSFERENCIA_PIX_ENVIADA,
-    TRANSFERENCIA_PIX_RECEBIDA,
-    CRIACAO_INVESTIMENTO
-}
\ No newline at end of file
+    DEPOSITO(1),
+    SAQUE(-1),
+    TRANSFERENCIA_PIX_ENVIADA(-1),
+    TRANSFERENCIA_PIX_RECEBIDA(1),
+    CRIACAO_INVESTIMENTO(-1);
+
+    private final int sinal;
+
+    TipoTransacao(int sinal) {
+        this.sinal = sinal;
+    }
+
+    /**
+     * @param valor O valor (positivo) da transação.
+     * @return O efeito da transação no saldo da conta: positivo para entradas, negativo para saídas.
+     */
+    public double efeitoNoSaldo(double valor) {
+        return sinal * valor;
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Árvore de hashes (estilo Merkle) sobre os checksums de todas as contas de um banco,
+ * mantida de forma incremental a cada transação registrada.
+ * <p>
+ * As contas são espalhadas em {@value #FOLHAS} grupos pelo número. O hash de cada nó é a soma
+ * (módulo 2^64) dos hashes dos filhos, então trocar a folha de uma conta só exige somar a diferença
+ * em cada nível, sem recalcular nada. Duas árvores (ex: primário e seguidor, ou a árvore atual e uma
+ * cópia anterior) são comparadas descendo apenas pelos ramos com hashes diferentes: o custo é
+ * proporcional às contas alteradas, não ao total de contas.
+ */
+public class ArvoreMerkle {
+
+    public static final int RAMIFICACAO = 16;
+    public static final int NIVEIS = 4;
+    public static final int FOLHAS = 4096; // RAMIFICACAO ^ (NIVEIS - 1)
+
+    // niveis[0] é a raiz (1 nó); niveis[NIVEIS - 1] são os grupos de contas.
+    private final AtomicLongArray[] niveis = new AtomicLongArray[NIVEIS];
+    private final List<Map<String, Long>> contasPorGrupo = new ArrayList<>(FOLHAS);
+
+    public ArvoreMerkle() {
+        for (int nivel = 0, tamanho = 1; nivel < NIVEIS; nivel++, tamanho *= RAMIFICACAO) {
+            niveis[nivel] = new AtomicLongArray(tamanho);
+        }
+        for (int i = 0; i < FOLHAS; i++) {
+            contasPorGrupo.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Define o hash atual de uma conta. Deve ser chamado sob o lock da conta, para que duas
+     * atualizações da mesma conta não se cruzem.
+     * @param numeroConta O número da conta.
+     * @param folha O novo hash da conta (ver {@link org.example.records.AssinaturaConta#folha()}).
+     */
+    public void atualizar(String numeroConta, long folha) {
+        int grupo = grupoDe(numeroConta);
+        Long anterior = contasPorGrupo.get(grupo).put(numeroConta, folha);
+        somar(grupo, folha - (anterior == null ? 0 : anterior));
+    }
+
+    /**
+     * Retira uma conta da árvore (ex: conta migrada para outro nó).
+     */
+    public void remover(String numeroConta) {
+        int grupo = grupoDe(numeroConta);
+        Long anterior = contasPorGrupo.get(grupo).remove(numeroConta);
+        if (anterior != null) somar(grupo, -anterior);
+    }
+
+    public long raiz() {
+        return niveis[0].get(0);
+    }
+
+    /**
+     * Compara com outra árvore e lista as contas cujo hash difere (ou que só existem em uma delas).
+     * Ramos com o mesmo hash são descartados sem serem visitados.
+     * @param outra A árvore a comparar.
+     * @return Os números das contas divergentes.
+     */
+    public List<String> contasDivergentes(ArvoreMerkle outra) {
+        List<String> divergentes = new ArrayList<>();
+        comparar(outra, 0, 0, divergentes);
+        return divergentes;
+    }
+
+    /**
+     * Copia a árvore no estado atual, para comparar mais tarde com a árvore viva.
+     * As contas que recebem transações durante a cópia podem aparecer em qualquer um dos dois estados.
+     */
+    public ArvoreMerkle copiar() {
+        ArvoreMerkle copia = new ArvoreMerkle();
+        for (int grupo = 0; grupo < FOLHAS; grupo++) {
+            contasPorGrupo.get(grupo).forEach(copia::atualizar);
+        }
+        return copia;
+    }
+
+    private void comparar(ArvoreMerkle outra, int nivel, int indice, List<String> divergentes) {
+        if (niveis[nivel].get(indice) == outra.niveis[nivel].get(indice)) return;
+        if (nivel == NIVEIS - 1) {
+            Map<String, Long> nossas = contasPorGrupo.get(indice);
+            Map<String, Long> delas = outra.contasPorGrupo.get(indice);
+            nossas.forEach((numero, folha) -> {
+                if (!Objects.equals(folha, delas.get(numero))) divergentes.add(numero);
+            });
+            delas.keySet().forEach(numero -> {
+                if (!nossas.containsKey(numero)) divergentes.add(numero);
+            });
+            return;
+        }
+        for (int filho = indice * RAMIFICACAO; filho < (indice + 1) * RAMIFICACAO; filho++) {
+            comparar(outra, nivel + 1, filho, divergentes);
+        }
+    }
+
+    private void somar(int grupo, long delta) {
+        if (delta == 0) return;
+        for (int nivel = NIVEIS - 1, indice = grupo; nivel >= 0; nivel--, indice /= RAMIFICACAO) {
+            niveis[nivel].addAndGet(indice, delta);
+        }
+    }
+
+    private static int grupoDe(String numeroConta) {
+        int hash = numeroConta.hashCode() * 0x9e3779b9;
+        return (hash ^ (hash >>> 16)) & (FOLHAS - 1);
+    }
+}
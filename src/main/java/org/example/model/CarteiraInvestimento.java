@@ -1,10 +1,13 @@
 package org.example.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.example.enums.StatusInvestimento;
+import org.example.records.Snapshot;
+import org.example.repository.HistoricoSobDemanda;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Representa a carteira de investimentos de um cliente.
@@ -14,18 +17,77 @@ import java.util.List;
 public class CarteiraInvestimento {
     private final List<Investimento> investimentos;
 
+    // Incrementada, com o lock da carteira, depois de cada aplicação ou resgate (ver UnidadeDeTrabalho).
+    private volatile long revisao;
+
+    // Quando definidos, os investimentos deixam de ficar residentes e são carregados sob demanda.
+    @Getter(AccessLevel.NONE)
+    private HistoricoSobDemanda historicoSobDemanda;
+    @Getter(AccessLevel.NONE)
+    private String cpfTitular;
+
     public CarteiraInvestimento() {
-        this.investimentos = new ArrayList<>();
+        // Cópia na escrita: relatórios podem percorrer a lista enquanto novos investimentos são feitos.
+        this.investimentos = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Passa a manter os investimentos no armazenamento em camadas, movendo para lá os já existentes.
+     * @param cpfTitular O CPF do dono da carteira (chave no armazenamento).
+     * @param historicoSobDemanda O armazenamento em camadas a ser usado.
+     */
+    public void usarCarregamentoSobDemanda(String cpfTitular, HistoricoSobDemanda historicoSobDemanda) {
+        this.cpfTitular = cpfTitular;
+        this.historicoSobDemanda = historicoSobDemanda;
+        this.investimentos.forEach(inv -> historicoSobDemanda.registrarInvestimento(cpfTitular, inv));
+        this.investimentos.clear();
+    }
+
+    public List<Investimento> getInvestimentos() {
+        return historicoSobDemanda == null ? investimentos : historicoSobDemanda.investimentosDe(cpfTitular);
     }
 
     public void adicionarInvestimento(Investimento investimento) {
-        this.investimentos.add(investimento);
+        if (historicoSobDemanda != null) {
+            historicoSobDemanda.registrarInvestimento(cpfTitular, investimento);
+        } else {
+            this.investimentos.add(investimento);
+        }
+        revisao++;
+    }
+
+    /**
+     * Resgata um investimento da carteira. Deve ser chamado com o lock da carteira.
+     * No modo sob demanda o resgate é gravado na hora, no investimento da carteira em cache.
+     * @param indice A posição do investimento, ainda ativo.
+     * @param valor O valor creditado no resgate.
+     */
+    public void resgatar(int indice, double valor) {
+        if (historicoSobDemanda != null) {
+            historicoSobDemanda.resgatarInvestimento(cpfTitular, indice, valor);
+        } else {
+            investimentos.get(indice).resgatar(valor);
+        }
+        revisao++;
     }
 
     public double getSaldoTotal() {
-        return investimentos.stream()
+        return getInvestimentos().stream()
                 .filter(inv -> inv.getStatus() == StatusInvestimento.ATIVO)
                 .mapToDouble(Investimento::getValorAtual)
                 .sum();
     }
+
+    /**
+     * Soma o valor dos investimentos que estavam ativos no instante do snapshot,
+     * avaliados pelo preço de cada produto naquela mesma versão.
+     * @param snapshot O snapshot aberto.
+     * @return O total investido naquele instante.
+     */
+    public double getSaldoNoSnapshot(Snapshot snapshot) {
+        return getInvestimentos().stream()
+                .filter(inv -> inv.isAtivoNoSnapshot(snapshot))
+                .mapToDouble(inv -> inv.getValorNoSnapshot(snapshot))
+                .sum();
+    }
 }
\ No newline at end of file
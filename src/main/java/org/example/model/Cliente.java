@@ -2,8 +2,8 @@ package org.example.model;
 
 import lombok.Getter;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Classe central que representa um cliente.
@@ -19,7 +19,7 @@ public class Cliente {
     public Cliente(String nome, String cpf) {
         this.nome = nome;
         this.cpf = cpf;
-        this.contas = new ArrayList<>();
+        this.contas = new CopyOnWriteArrayList<>(); // Permite listar as contas durante escritas concorrentes.
         this.carteiraInvestimento = new CarteiraInvestimento();
     }
 
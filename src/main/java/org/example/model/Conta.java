@@ -1,12 +1,24 @@
 package org.example.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.example.enums.TipoTransacao;
+import org.example.records.AssinaturaConta;
+import org.example.records.Snapshot;
 import org.example.records.Transacao;
+import org.example.repository.ArquivamentoHistorico;
+import org.example.repository.HistoricoEmCamadas;
+import org.example.repository.HistoricoSobDemanda;
+import org.example.repository.SegmentoHistorico;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Classe Abstrata Conta.
@@ -24,9 +36,47 @@ public abstract class Conta {
     protected Cliente cliente; // Composição: Uma conta "tem-um" cliente.
     protected List<Transacao> historicoTransacoes;
 
+    // Quando definido, o histórico deixa de ficar residente e passa a ser carregado sob demanda.
+    @Getter(AccessLevel.NONE)
+    private HistoricoSobDemanda historicoSobDemanda;
+
+    // Transações antigas já seladas em arquivo, da mais antiga à mais recente; o historicoTransacoes guarda o restante.
+    @Getter(AccessLevel.NONE)
+    private final List<SegmentoHistorico> segmentosArquivados = new ArrayList<>();
+
+    // Saldos por versão, lidos pelos snapshots enquanto novas escritas acontecem.
+    @Getter(AccessLevel.NONE)
+    private final SaldoVersionado saldoVersionado = new SaldoVersionado();
+    // Quantidade de transações no histórico por versão: os relatórios leem o histórico no instante do snapshot.
+    @Getter(AccessLevel.NONE)
+    private final SaldoVersionado lancamentosVersionados = new SaldoVersionado();
+
+    // Mantidos a cada transação registrada, permitem conferir o saldo sem reler o histórico.
+    @Getter(AccessLevel.NONE)
+    private double totalLancamentos;
+    @Getter(AccessLevel.NONE)
+    private long quantidadeLancamentos;
+    @Getter(AccessLevel.NONE)
+    private long checksum = AssinaturaConta.CHECKSUM_INICIAL;
+    @Getter(AccessLevel.NONE)
+    private final IndiceSaldos indiceSaldos = new IndiceSaldos();
+    @Getter(AccessLevel.NONE)
+    private ArvoreMerkle arvoreMerkle; // null = conta fora de uma árvore de integridade.
+
+    // Incrementada, com o lock da conta, depois de cada alteração de saldo, histórico ou posição de compensação.
+    // Permite ler a conta sem lock e conferir depois que nada mudou (ver UnidadeDeTrabalho).
+    @Getter(AccessLevel.NONE)
+    private volatile long revisao;
+
+    // Soma líquida dos PIX aceitos pela compensação e ainda não liquidados (créditos - débitos).
+    protected double posicaoCompensacao;
+    // Soma só dos PIX enviados e ainda não liquidados: o valor reservado, que não pode ser gasto de novo.
+    protected double enviosPendentes;
+
     // Constantes para valores padrão.
     private static final String AGENCIA_PADRAO = "0001";
-    private static int SEQUENCIAL = 1; // Variável estática para gerar números de conta únicos.
+    private static final int TRECHO_LEITURA = 1024; // Transações copiadas por vez sob o lock da conta.
+    private static final AtomicInteger SEQUENCIAL = new AtomicInteger(1); // Gera números de conta únicos, mesmo com várias threads.
 
     /**
      * Construtor da Conta.
@@ -34,11 +84,102 @@ public abstract class Conta {
      * @param cliente O cliente titular da conta.
      */
     public Conta(Cliente cliente) {
+        this(cliente, String.format("%04d", SEQUENCIAL.getAndIncrement())); // Formata o número da conta com 4 dígitos.
+    }
+
+    /**
+     * Construtor que recebe um número de conta já definido (ex: ao reproduzir uma conta criada em outro nó).
+     * O sequencial é avançado para que as próximas contas geradas localmente não repitam este número.
+     * @param cliente O cliente titular da conta.
+     * @param numero O número da conta.
+     */
+    public Conta(Cliente cliente, String numero) {
         this.agencia = AGENCIA_PADRAO;
-        this.numero = String.format("%04d", SEQUENCIAL++); // Formata o número da conta com 4 dígitos.
+        this.numero = numero;
         this.cliente = cliente;
         this.saldo = 0.0;
         this.historicoTransacoes = new ArrayList<>(); // Inicializa a lista de transações.
+        // Números além do sequencial nunca serão gerados localmente, então não precisam avançá-lo.
+        if (!numero.isEmpty() && numero.length() <= 18 && numero.chars().allMatch(Character::isDigit)) {
+            long valor = Long.parseLong(numero);
+            if (valor < Integer.MAX_VALUE) SEQUENCIAL.accumulateAndGet((int) valor + 1, Math::max);
+        }
+    }
+
+    /**
+     * Passa a manter o histórico de transações no armazenamento em camadas.
+     * As transações já registradas são movidas para lá; saldo e dados da conta continuam em memória.
+     * @param historicoSobDemanda O armazenamento em camadas a ser usado.
+     */
+    public synchronized void usarHistoricoSobDemanda(HistoricoSobDemanda historicoSobDemanda) {
+        List<Transacao> existentes = getHistoricoTransacoes();
+        this.historicoSobDemanda = historicoSobDemanda;
+        existentes.forEach(t -> historicoSobDemanda.registrarTransacao(numero, t));
+        this.historicoTransacoes.clear();
+        this.segmentosArquivados.forEach(SegmentoHistorico::liberar);
+        this.segmentosArquivados.clear();
+    }
+
+    /**
+     * Libera os segmentos arquivados da conta, que está deixando este nó (ex: partição migrada), para que
+     * os arquivos sem outros segmentos em uso sejam apagados. Cópias do histórico já obtidas continuam legíveis.
+     */
+    public synchronized void liberarSegmentosArquivados() {
+        segmentosArquivados.forEach(SegmentoHistorico::liberar);
+    }
+
+    /**
+     * Sela em um segmento compactado as transações mais antigas que a idade mínima do arquivamento, tirando-as do heap.
+     * Elas continuam no histórico, lidas do arquivo mapeado. No modo sob demanda o histórico já não é residente
+     * e nada é arquivado.
+     * @param arquivamento O estágio de arquivamento, com o diretório e a idade mínima.
+     * @return A quantidade de transações arquivadas (0 se houver menos que {@link ArquivamentoHistorico#MINIMO_POR_SEGMENTO}).
+     */
+    public synchronized int arquivarHistorico(ArquivamentoHistorico arquivamento) {
+        if (historicoSobDemanda != null) return 0;
+        LocalDateTime limite = arquivamento.limite();
+        // Só o início da lista: a ordem do histórico (e a posição de cada transação no índice de saldos) não muda.
+        int antigas = 0;
+        while (antigas < historicoTransacoes.size() && historicoTransacoes.get(antigas).data().isBefore(limite)) {
+            antigas++;
+        }
+        if (antigas < ArquivamentoHistorico.MINIMO_POR_SEGMENTO) return 0;
+        List<Transacao> seladas = historicoTransacoes.subList(0, antigas);
+        segmentosArquivados.add(arquivamento.selar(seladas));
+        seladas.clear();
+        return antigas;
+    }
+
+    /**
+     * Retorna o histórico de transações, carregando-o do armazenamento se estiver no modo sob demanda.
+     * Com transações arquivadas, devolve uma lista que lê os segmentos e as transações recentes em sequência.
+     * @return A lista de transações da conta.
+     */
+    public synchronized List<Transacao> getHistoricoTransacoes() {
+        if (historicoSobDemanda != null) return historicoSobDemanda.historicoDe(numero);
+        if (segmentosArquivados.isEmpty()) return historicoTransacoes;
+        // Cópia das recentes: um arquivamento posterior remove o início da lista em memória.
+        return new HistoricoEmCamadas(List.copyOf(segmentosArquivados), List.copyOf(historicoTransacoes));
+    }
+
+    /**
+     * Retorna uma cópia do histórico que pode ser percorrida sem o lock da conta, enquanto novas transações
+     * são registradas. As transações arquivadas continuam sendo lidas dos segmentos; só as demais são copiadas.
+     * @return A cópia do histórico da conta.
+     */
+    public synchronized List<Transacao> copiarHistoricoTransacoes() {
+        if (historicoSobDemanda != null) return List.copyOf(historicoSobDemanda.historicoDe(numero));
+        if (segmentosArquivados.isEmpty()) return List.copyOf(historicoTransacoes);
+        return new HistoricoEmCamadas(List.copyOf(segmentosArquivados), List.copyOf(historicoTransacoes));
+    }
+
+    /**
+     * Passa a publicar o checksum da conta em uma árvore de integridade.
+     * @param arvoreMerkle A árvore do banco ao qual a conta pertence.
+     */
+    public synchronized void usarArvoreMerkle(ArvoreMerkle arvoreMerkle) {
+        this.arvoreMerkle = arvoreMerkle;
+        arvoreMerkle.atualizar(numero, AssinaturaConta.folha(numero, quantidadeLancamentos, checksum));
     }
 
     /**
@@ -46,9 +187,23 @@ public abstract class Conta {
      * @param valor O valor a ser depositado. Deve ser maior que zero.
      */
     public void depositar(double valor) {
+        depositar(valor, TipoTransacao.DEPOSITO, "Depósito recebido");
+    }
+
+    /**
+     * Credita a conta registrando uma única transação do tipo informado (ex: PIX recebido).
+     * @param valor O valor a ser creditado. Deve ser maior que zero.
+     * @param tipo O tipo da transação registrada; deve ser um tipo de entrada.
+     * @param descricao A descrição da transação.
+     */
+    public synchronized void depositar(double valor, TipoTransacao tipo, String descricao) {
         if (valor > 0) {
-            saldo += valor;
-            adicionarTransacao(TipoTransacao.DEPOSITO, valor, "Depósito recebido");
+            RelogioVersoes.escrever(versao -> {
+                saldo += valor;
+                saldoVersionado.registrar(versao, saldo);
+                adicionarTransacao(tipo, valor, descricao);
+                return null;
+            });
         }
     }
 
@@ -58,12 +213,27 @@ public abstract class Conta {
      * @return true se o saque for bem-sucedido, false caso contrário.
      */
     public boolean sacar(double valor) {
-        if (valor > 0 && saldo >= valor) {
-            saldo -= valor;
-            adicionarTransacao(TipoTransacao.SAQUE, valor, "Saque realizado");
+        return sacar(valor, TipoTransacao.SAQUE, "Saque realizado");
+    }
+
+    /**
+     * Debita a conta registrando uma única transação do tipo informado (ex: PIX enviado, aplicação).
+     * @param valor O valor a ser debitado. Deve ser maior que zero e menor ou igual ao saldo.
+     * @param tipo O tipo da transação registrada; deve ser um tipo de saída.
+     * @param descricao A descrição da transação.
+     * @return true se o débito for bem-sucedido, false caso contrário.
+     */
+    public synchronized boolean sacar(double valor, TipoTransacao tipo, String descricao) {
+        // PIX enviados e ainda não liquidados já comprometem parte do saldo.
+        if (valor > 0 && getSaldoDisponivel() >= valor) {
+            RelogioVersoes.escrever(versao -> {
+                saldo -= valor;
+                saldoVersionado.registrar(versao, saldo);
+                adicionarTransacao(tipo, valor, descricao);
+                return null;
+            });
             return true;
         }
-        System.out.println("Saldo insuficiente ou valor de saque inválido.");
         return false;
     }
 
@@ -74,18 +244,158 @@ public abstract class Conta {
      * @param contaDestino A conta que receberá o valor.
      */
     public void transferir(double valor, Conta contaDestino) {
-        // Tenta sacar o valor da conta de origem.
-        if (this.sacar(valor)) {
-            // Se o saque for bem-sucedido, deposita na conta de destino.
-            contaDestino.depositar(valor);
-            // Registra as transações em ambas as contas para clareza no extrato.
-            this.adicionarTransacao(TipoTransacao.TRANSFERENCIA_PIX_ENVIADA, valor, "PIX para " + contaDestino.getCliente().getNome());
-            contaDestino.adicionarTransacao(TipoTransacao.TRANSFERENCIA_PIX_RECEBIDA, valor, "PIX de " + this.getCliente().getNome());
-        } else {
+        // Saque e depósito precisam ficar visíveis juntos para quem lê um snapshot.
+        boolean realizada = executarAtomicamente(() -> transferirSemVersao(valor, contaDestino), this, contaDestino);
+        if (!realizada) {
             System.out.println("Transferência não realizada.");
         }
     }
 
+    private boolean transferirSemVersao(double valor, Conta contaDestino) {
+        // Tenta debitar o valor da conta de origem, registrando o PIX no extrato.
+        if (this.sacar(valor, TipoTransacao.TRANSFERENCIA_PIX_ENVIADA, "PIX para " + contaDestino.getCliente().getNome())) {
+            // Se o débito for bem-sucedido, credita a conta de destino.
+            contaDestino.depositar(valor, TipoTransacao.TRANSFERENCIA_PIX_RECEBIDA, "PIX de " + this.getCliente().getNome());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Executa uma operação que altera várias contas como uma única escrita versionada:
+     * um snapshot verá todas as alterações ou nenhuma delas.
+     * Os locks são adquiridos sempre na ordem do número da conta, evitando deadlocks.
+     * @param operacao A operação a ser executada.
+     * @param contas As contas alteradas pela operação.
+     * @return O resultado da operação.
+     */
+    public static <T> T executarAtomicamente(Supplier<T> operacao, Conta... contas) {
+        Conta[] ordenadas = Arrays.stream(contas).distinct()
+                .sorted(Comparator.comparing(Conta::getNumero))
+                .toArray(Conta[]::new);
+        return executarComLocks(operacao, ordenadas, 0);
+    }
+
+    private static <T> T executarComLocks(Supplier<T> operacao, Conta[] contas, int indice) {
+        if (indice == contas.length) {
+            // A versão só é obtida com todos os locks em mãos (ver RelogioVersoes).
+            return RelogioVersoes.escrever(versao -> operacao.get());
+        }
+        synchronized (contas[indice]) {
+            return executarComLocks(operacao, contas, indice + 1);
+        }
+    }
+
+    /**
+     * Restaura o saldo e o histórico de uma conta trazida de outro nó (ex: migração de partição).
+     * O histórico é anexado com as datas originais; o saldo é definido diretamente, em uma única escrita.
+     * @param saldo O saldo da conta no nó de origem.
+     * @param historico As transações já registradas no nó de origem.
+     */
+    public synchronized void restaurarEstado(double saldo, List<Transacao> historico) {
+        RelogioVersoes.escrever(versao -> {
+            this.saldo = saldo;
+            saldoVersionado.registrar(versao, saldo);
+            historico.forEach(t -> adicionarTransacao(t.tipo(), t.valor(), t.descricao(), t.data()));
+            revisao++;
+            return null;
+        });
+    }
+
+    /**
+     * Retorna o saldo que ainda pode ser gasto: o saldo menos os PIX enviados e ainda não liquidados.
+     * Créditos pendentes não entram, pois só existem de fato depois da liquidação.
+     * @return O saldo disponível.
+     */
+    public synchronized double getSaldoDisponivel() {
+        return saldo - enviosPendentes;
+    }
+
+    /**
+     * Reserva o valor de um PIX aceito pela compensação, sem alterar o saldo.
+     * Créditos ainda não liquidados não contam como disponíveis: o saldo nunca fica negativo,
+     * qualquer que seja a ordem em que as janelas forem liquidadas.
+     * @param valor O valor do PIX enviado.
+     * @return true se o saldo disponível cobrir o valor.
+     */
+    public synchronized boolean reservarEnvioCompensacao(double valor) {
+        if (valor > 0 && getSaldoDisponivel() >= valor) {
+            posicaoCompensacao -= valor;
+            enviosPendentes += valor;
+            revisao++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Registra um PIX a receber, aceito pela compensação e ainda não liquidado.
+     * @param valor O valor do PIX recebido.
+     */
+    public synchronized void registrarRecebimentoCompensacao(double valor) {
+        posicaoCompensacao += valor;
+        revisao++;
+    }
+
+    /**
+     * Aplica ao saldo o resultado líquido de uma janela de compensação, em uma única escrita.
+     * Deve ser chamado dentro de {@link #executarAtomicamente} junto com as demais contas da janela.
+     * @param delta A posição líquida da conta na janela (créditos - débitos).
+     * @param enviado O total enviado pela conta na janela, cuja reserva é liberada.
+     */
+    public synchronized void liquidarCompensacao(double delta, double enviado) {
+        RelogioVersoes.escrever(versao -> {
+            saldo += delta;
+            posicaoCompensacao -= delta;
+            enviosPendentes -= enviado;
+            saldoVersionado.registrar(versao, saldo);
+            revisao++;
+            return null;
+        });
+    }
+
+    /**
+     * Retorna o saldo da conta no instante representado pelo snapshot.
+     * @param snapshot O snapshot aberto em {@link RelogioVersoes#abrirSnapshot()}.
+     * @return O saldo naquela versão.
+     */
+    public double getSaldoNoSnapshot(Snapshot snapshot) {
+        return saldoVersionado.saldoEm(snapshot.versao());
+    }
+
+    /**
+     * Percorre as transações registradas até a versão do snapshot, na ordem do histórico, sem copiar o
+     * histórico inteiro: as transações em memória são copiadas aos trechos, soltando o lock da conta entre
+     * eles, e no modo sob demanda o histórico é lido sem ser carregado no cache.
+     * @param snapshot O snapshot aberto em {@link RelogioVersoes#abrirSnapshot()}.
+     * @param acao A ação executada para cada transação.
+     */
+    public void percorrerHistoricoNoSnapshot(Snapshot snapshot, Consumer<Transacao> acao) {
+        int total = (int) lancamentosVersionados.saldoEm(snapshot.versao());
+        int lidas = 0;
+        while (lidas < total) {
+            List<Transacao> trecho;
+            HistoricoSobDemanda sobDemanda;
+            synchronized (this) {
+                sobDemanda = historicoSobDemanda;
+                trecho = sobDemanda != null ? null : trechoResidente(lidas, Math.min(total - lidas, TRECHO_LEITURA));
+            }
+            // Fora do lock: a leitura pode ir ao disco.
+            if (sobDemanda != null) trecho = sobDemanda.trechoDoHistorico(numero, lidas, total - lidas);
+            if (trecho.isEmpty()) return;
+            trecho.forEach(acao);
+            lidas += trecho.size();
+        }
+    }
+
+    // Deve ser chamado com o lock da conta. As posições não mudam com o arquivamento: os segmentos vêm antes das recentes.
+    private List<Transacao> trechoResidente(int inicio, int quantidade) {
+        List<Transacao> historico = segmentosArquivados.isEmpty()
+                ? historicoTransacoes : new HistoricoEmCamadas(segmentosArquivados, historicoTransacoes);
+        int fim = Math.min(historico.size(), inicio + quantidade);
+        return List.copyOf(historico.subList(Math.min(inicio, fim), fim));
+    }
+
     /**
      * Adiciona uma nova transação ao histórico da conta.
      * Este é um método auxiliar para manter o código organizado.
@@ -94,8 +404,70 @@ public abstract class Conta {
      * @param descricao Uma breve descrição da operação.
      */
     public void adicionarTransacao(TipoTransacao tipo, double valor, String descricao) {
-        Transacao transacao = new Transacao(tipo, valor, LocalDateTime.now(), descricao);
-        this.historicoTransacoes.add(transacao);
+        adicionarTransacao(tipo, valor, descricao, LocalDateTime.now());
+    }
+
+    /**
+     * Adiciona ao histórico uma transação ocorrida em um instante anterior (ex: um PIX compensado depois).
+     * @param tipo O tipo da transação (usando o Enum).
+     * @param valor O valor da transação.
+     * @param descricao Uma breve descrição da operação.
+     * @param data O instante em que a operação foi aceita.
+     */
+    public synchronized void adicionarTransacao(TipoTransacao tipo, double valor, String descricao, LocalDateTime data) {
+        Transacao transacao = new Transacao(tipo, valor, data, descricao);
+        if (historicoSobDemanda != null) {
+            historicoSobDemanda.registrarTransacao(numero, transacao);
+        } else {
+            this.historicoTransacoes.add(transacao);
+        }
+        totalLancamentos += tipo.efeitoNoSaldo(valor);
+        indiceSaldos.registrar(data, tipo.efeitoNoSaldo(valor));
+        quantidadeLancamentos++;
+        RelogioVersoes.escrever(versao -> {
+            lancamentosVersionados.registrar(versao, quantidadeLancamentos);
+            return null;
+        });
+        checksum = AssinaturaConta.encadear(checksum, tipo, valor);
+        if (arvoreMerkle != null) {
+            arvoreMerkle.atualizar(numero, AssinaturaConta.folha(numero, quantidadeLancamentos, checksum));
+        }
+        revisao++;
+    }
+
+    /**
+     * Calcula o saldo da conta em uma data passada, a partir do histórico de transações.
+     * Usa os pontos de controle do histórico: custa uma busca binária mais a soma de poucas transações.
+     * @param data O instante da consulta (inclusive).
+     * @return O saldo naquele instante (0 antes da primeira transação).
+     */
+    public synchronized double saldoEm(LocalDateTime data) {
+        if (historicoSobDemanda != null) {
+            // Só o trecho após o ponto de controle é lido, e sem carregar o histórico no cache.
+            int inicio = indiceSaldos.primeiraTransacaoLida(data);
+            return indiceSaldos.saldoEm(data, historicoSobDemanda.trechoDoHistorico(numero, inicio, IndiceSaldos.INTERVALO), inicio);
+        }
+        // Sob o lock da conta não há arquivamento concorrente, então as recentes não precisam ser copiadas.
+        List<Transacao> historico = segmentosArquivados.isEmpty()
+                ? historicoTransacoes : new HistoricoEmCamadas(segmentosArquivados, historicoTransacoes);
+        return indiceSaldos.saldoEm(data, historico, 0);
+    }
+
+    /**
+     * Retorna a revisão da conta, que muda a cada alteração. Lida antes do saldo, garante que o saldo lido
+     * é pelo menos tão recente quanto ela; se a revisão não mudou depois, o saldo lido ainda é o atual.
+     * @return A revisão atual.
+     */
+    public long getRevisao() {
+        return revisao;
+    }
+
+    /**
+     * Lê saldo, total e checksum do histórico de uma só vez, sob o lock da conta.
+     * @return A assinatura atual da conta.
+     */
+    public synchronized AssinaturaConta getAssinatura() {
+        return new AssinaturaConta(numero, saldo, totalLancamentos, quantidadeLancamentos, checksum);
     }
 
     /**
@@ -110,11 +482,12 @@ public abstract class Conta {
         System.out.printf("Saldo: R$ %.2f%n", this.saldo);
         System.out.println("-------------------------");
         System.out.println("Histórico de Transações:");
-        if (historicoTransacoes.isEmpty()) {
+        List<Transacao> historico = getHistoricoTransacoes();
+        if (historico.isEmpty()) {
             System.out.println("Nenhuma transação registrada.");
         } else {
             // Itera sobre o histórico e imprime cada transação.
-            historicoTransacoes.forEach(System.out::println);
+            historico.forEach(System.out::println);
         }
         System.out.println("========================\n");
     }
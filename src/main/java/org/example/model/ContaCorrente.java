@@ -14,6 +14,15 @@ public class ContaCorrente extends Conta {
         super(cliente);
     }
 
+    /**
+     * Construtor com número de conta já definido.
+     * @param cliente O titular da conta.
+     * @param numero O número da conta.
+     */
+    public ContaCorrente(Cliente cliente, String numero) {
+        super(cliente, numero);
+    }
+
     /**
      * Sobrescreve o método da classe mãe para adicionar um cabeçalho específico.
      * Demonstra o conceito de Polimorfismo.
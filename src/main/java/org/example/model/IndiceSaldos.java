@@ -0,0 +1,105 @@
+package org.example.model;
+
+import org.example.records.Transacao;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Índice esparso de saldos acumulados do histórico de uma conta (uma "soma de prefixos" a cada
+ * {@value #INTERVALO} transações). Para saber o saldo em uma data, uma busca binária acha o último
+ * ponto de controle até a data e só as transações seguintes, no máximo {@value #INTERVALO}, são somadas.
+ * <p>
+ * As transações são indexadas na ordem em que foram registradas. Um PIX compensado entra no histórico
+ * com a data em que foi aceito, que pode ser anterior a transações já registradas; como o saldo só muda
+ * na liquidação, cada transação conta a partir da maior data registrada até ela.
+ */
+class IndiceSaldos {
+
+    static final int INTERVALO = 64;
+
+    // Ponto de controle k: após a transação (k + 1) * INTERVALO - 1.
+    private long[] instantes = new long[4]; // Maior data registrada até o ponto, em µs desde a época (UTC).
+    private double[] saldos = new double[4]; // Soma dos efeitos até o ponto.
+    private int pontos;
+
+    private long ultimoInstante = Long.MIN_VALUE;
+    private double saldoAcumulado;
+    private int transacoes;
+
+    /**
+     * Registra a próxima transação do histórico. Deve ser chamado com o lock da conta adquirido.
+     * @param data A data da transação.
+     * @param efeito O efeito da transação no saldo.
+     */
+    void registrar(LocalDateTime data, double efeito) {
+        ultimoInstante = Math.max(ultimoInstante, instante(data));
+        saldoAcumulado += efeito;
+        if (++transacoes % INTERVALO == 0) {
+            if (pontos == instantes.length) {
+                instantes = Arrays.copyOf(instantes, pontos * 2);
+                saldos = Arrays.copyOf(saldos, pontos * 2);
+            }
+            instantes[pontos] = ultimoInstante;
+            saldos[pontos] = saldoAcumulado;
+            pontos++;
+        }
+    }
+
+    /**
+     * Indica a partir de qual transação {@link #saldoEm} precisa do histórico para a data informada.
+     * Bastam as {@value #INTERVALO} transações a partir dela: o ponto de controle seguinte já passa da data.
+     * @param data O instante da consulta (inclusive).
+     * @return A posição, no histórico, da primeira transação lida.
+     */
+    int primeiraTransacaoLida(LocalDateTime data) {
+        return (pontoAte(instante(data)) + 1) * INTERVALO;
+    }
+
+    /**
+     * Calcula o saldo ao final do instante informado.
+     * @param data O instante da consulta (inclusive).
+     * @param trecho O histórico da conta, na ordem em que foi registrado, a partir da posição {@code inicioTrecho}.
+     * @param inicioTrecho A posição da primeira transação do trecho; no máximo {@link #primeiraTransacaoLida}.
+     * @return A soma dos efeitos das transações até a data.
+     */
+    double saldoEm(LocalDateTime data, List<Transacao> trecho, int inicioTrecho) {
+        long limite = instante(data);
+        int ponto = pontoAte(limite);
+        double saldo = ponto < 0 ? 0 : saldos[ponto];
+        long corrente = ponto < 0 ? Long.MIN_VALUE : instantes[ponto];
+        int fim = Math.min(inicioTrecho + trecho.size(), transacoes);
+        for (int i = (ponto + 1) * INTERVALO; i < fim; i++) {
+            Transacao t = trecho.get(i - inicioTrecho);
+            corrente = Math.max(corrente, instante(t.data()));
+            if (corrente > limite) break;
+            saldo += t.tipo().efeitoNoSaldo(t.valor());
+        }
+        return saldo;
+    }
+
+    // Último ponto de controle com instante <= limite (os instantes dos pontos nunca diminuem), ou -1.
+    private int pontoAte(long limite) {
+        int baixo = 0, alto = pontos - 1, ponto = -1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (instantes[meio] <= limite) {
+                ponto = meio;
+                baixo = meio + 1;
+            } else {
+                alto = meio - 1;
+            }
+        }
+        return ponto;
+    }
+
+    private static long instante(LocalDateTime data) {
+        long segundos = data.toEpochSecond(ZoneOffset.UTC);
+        // Datas extremas (ex: LocalDateTime.MAX) não cabem em µs; ficam no limite do long.
+        if (segundos >= Long.MAX_VALUE / 1_000_000) return Long.MAX_VALUE;
+        if (segundos <= Long.MIN_VALUE / 1_000_000) return Long.MIN_VALUE;
+        return segundos * 1_000_000 + data.getNano() / 1_000;
+    }
+}
@@ -1,8 +1,10 @@
 package org.example.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.example.enums.StatusInvestimento;
+import org.example.records.Snapshot;
 
 import java.time.LocalDate;
 
@@ -12,23 +14,120 @@ public class Investimento {
     private final double valorAplicado;
     private final LocalDate dataAplicacao;
 
-    // Campos adicionados para permitir atualização e resgate.
-    @Setter
-    private double valorAtual;
+    // A posição acompanha o preço do produto: valor = valorBase × (preço atual / precoBase).
+    // Guardar a razão dos preços, e não a quantidade, mantém o valor exatamente igual ao aplicado enquanto o preço não muda.
+    private final Produto produto;
+    @Getter(AccessLevel.NONE)
+    private final double valorBase;
+    @Getter(AccessLevel.NONE)
+    private final double precoBase;
+    @Getter(AccessLevel.NONE)
+    private volatile double valorNoResgate;
+
     @Setter
-    private StatusInvestimento status;
+    private volatile StatusInvestimento status;
 
-    public Investimento(String nome, double valorAplicado) {
-        this.nome = nome;
+    // Versões de escrita (RelogioVersoes) da aplicação e do resgate; 0 = anterior a qualquer snapshot.
+    private final long versaoCriacao;
+    private volatile long versaoResgate;
+
+    /**
+     * Aplica um valor em um produto, comprando-o pelo preço atual.
+     * @param produto O produto, compartilhado com as demais posições (ver {@link org.example.repository.TabelaPrecos}).
+     * @param valorAplicado O valor aplicado.
+     */
+    public Investimento(Produto produto, double valorAplicado) {
+        this.nome = produto.getNome();
         this.valorAplicado = valorAplicado;
         this.dataAplicacao = LocalDate.now();
-        this.valorAtual = valorAplicado; // O valor atual começa igual ao aplicado.
+        this.produto = produto;
+        this.valorBase = valorAplicado; // O valor atual começa igual ao aplicado.
+        this.precoBase = produto.getPreco();
         this.status = StatusInvestimento.ATIVO;
+        this.versaoCriacao = RelogioVersoes.versaoEscritaAtual();
+    }
+
+    /**
+     * Aplica um valor em um produto próprio desta posição, fora de qualquer tabela de preços.
+     */
+    public Investimento(String nome, double valorAplicado) {
+        this(new Produto(nome), valorAplicado);
+    }
+
+    /**
+     * Construtor usado para reconstruir um investimento já existente (ex: lido do armazenamento ou migrado de outro nó).
+     * A posição volta a acompanhar o produto compartilhado da tabela de preços: vale a quantidade pelo preço atual.
+     * @param produto O produto, obtido da tabela de preços de quem reconstrói (ver {@link org.example.repository.TabelaPrecos}).
+     * @param valorAplicado O valor aplicado originalmente.
+     * @param dataAplicacao A data da aplicação.
+     * @param quantidade A quantidade do produto que a posição detém (ver {@link #getQuantidade()}).
+     * @param status O status da posição.
+     * @param valorNoResgate O valor resgatado; só é usado se a posição já estiver resgatada.
+     */
+    public Investimento(Produto produto, double valorAplicado, LocalDate dataAplicacao, double quantidade,
+                        StatusInvestimento status, double valorNoResgate) {
+        this.nome = produto.getNome();
+        this.valorAplicado = valorAplicado;
+        this.dataAplicacao = dataAplicacao;
+        this.produto = produto;
+        this.precoBase = produto.getPreco();
+        this.valorBase = quantidade * precoBase;
+        this.valorNoResgate = valorNoResgate;
+        this.status = status;
+        this.versaoCriacao = 0;
+    }
+
+    /**
+     * Calcula o valor da posição pelo preço atual do produto; depois do resgate, é o valor resgatado.
+     * @return O valor atual do investimento.
+     */
+    public double getValorAtual() {
+        if (status == StatusInvestimento.RESGATADO) return valorNoResgate;
+        return valorBase * (produto.getPreco() / precoBase);
+    }
+
+    /**
+     * Calcula o valor da posição no instante do snapshot, pelo preço do produto naquela versão.
+     * Só faz sentido para posições ativas no snapshot (ver {@link #isAtivoNoSnapshot}).
+     * @param snapshot O snapshot aberto.
+     * @return O valor do investimento naquele instante.
+     */
+    public double getValorNoSnapshot(Snapshot snapshot) {
+        if (status == StatusInvestimento.RESGATADO && versaoResgate <= snapshot.versao()) return valorNoResgate;
+        return valorBase * (produto.getPrecoNoSnapshot(snapshot) / precoBase);
+    }
+
+    /**
+     * @return A quantidade do produto que a posição detém.
+     */
+    public double getQuantidade() {
+        return valorBase / precoBase;
+    }
+
+    /**
+     * Marca o investimento como resgatado, registrando a versão da escrita em andamento.
+     * @param valorResgatado O valor creditado no resgate, que passa a ser o valor fixo da posição.
+     */
+    public void resgatar(double valorResgatado) {
+        // Valor e versão são gravados antes do status, para que quem veja RESGATADO já enxergue os dois.
+        this.valorNoResgate = valorResgatado;
+        this.versaoResgate = RelogioVersoes.versaoEscritaAtual();
+        this.status = StatusInvestimento.RESGATADO;
+    }
+
+    /**
+     * Indica se o investimento estava ativo no instante representado pelo snapshot.
+     * @param snapshot O snapshot aberto.
+     * @return true se já aplicado e ainda não resgatado naquela versão.
+     */
+    public boolean isAtivoNoSnapshot(Snapshot snapshot) {
+        if (versaoCriacao > snapshot.versao()) return false;
+        return status != StatusInvestimento.RESGATADO || versaoResgate > snapshot.versao();
     }
 
     @Override
     public String toString() {
         return String.format("Investimento: %s | Aplicado: R$%.2f | Valor Atual: R$%.2f | Status: %s | Data: %s",
-                nome, valorAplicado, valorAtual, status, dataAplicacao);
+                nome, valorAplicado, getValorAtual(), status, dataAplicacao);
     }
 }
\ No newline at end of file
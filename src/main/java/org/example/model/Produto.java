@@ -0,0 +1,57 @@
+package org.example.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.example.records.Snapshot;
+
+/**
+ * Produto de investimento negociado (ex: um fundo ou uma ação) e seu preço unitário mais recente.
+ * As posições dos clientes apenas apontam para o produto; o valor de cada uma é calculado a partir
+ * deste preço quando é lido, então uma nova cotação altera um único objeto, e não cada posição.
+ * Cada cotação também é versionada, para que snapshots avaliem as posições pelo preço daquele instante.
+ */
+@Getter
+public class Produto {
+
+    // Preço de um produto que ainda não recebeu cotação: a quantidade comprada é igual ao valor aplicado.
+    public static final double PRECO_INICIAL = 1.0;
+
+    private final String nome;
+    private volatile double preco;
+    private volatile long cotacoes; // Quantas cotações já foram aplicadas.
+
+    // Preço por versão de escrita (RelogioVersoes), lido pelos snapshots.
+    @Getter(AccessLevel.NONE)
+    private final SaldoVersionado precosVersionados = new SaldoVersionado();
+
+    public Produto(String nome) {
+        this.nome = nome;
+        this.preco = PRECO_INICIAL;
+        this.precosVersionados.registrar(0, PRECO_INICIAL);
+    }
+
+    /**
+     * Aplica uma nova cotação. As atualizações de um produto devem ser feitas com o lock do produto
+     * (ver {@code BancoService.atualizarPreco}), que também ordena as aplicações e resgates.
+     * @param novoPreco O novo preço unitário; deve ser positivo e finito.
+     */
+    public void cotar(double novoPreco) {
+        if (!(novoPreco > 0) || Double.isInfinite(novoPreco)) {
+            throw new IllegalArgumentException("Preço inválido para " + nome + ": " + novoPreco);
+        }
+        RelogioVersoes.escrever(versao -> {
+            precosVersionados.registrar(versao, novoPreco);
+            this.preco = novoPreco;
+            this.cotacoes++;
+            return null;
+        });
+    }
+
+    /**
+     * @param snapshot O snapshot aberto.
+     * @return O preço unitário vigente na versão do snapshot.
+     */
+    public double getPrecoNoSnapshot(Snapshot snapshot) {
+        return precosVersionados.saldoEm(snapshot.versao());
+    }
+}
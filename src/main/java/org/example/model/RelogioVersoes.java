@@ -0,0 +1,120 @@
+package org.example.model;
+
+import org.example.records.Snapshot;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Relógio global de versões usado para leituras consistentes (MVCC) sem bloquear as escritas.
+ * <p>
+ * Cada operação de escrita recebe uma versão e a "versão confirmada" é uma marca d'água: a maior
+ * versão até a qual todas as escritas já terminaram por completo. Uma escrita que termina fora de ordem
+ * não espera as anteriores; ela só fica registrada até que a marca a alcance. Um {@link Snapshot} guarda essa versão, e as contas mantêm uma pequena
+ * cadeia de saldos versionados para responder "qual era o saldo na versão X".
+ * <p>
+ * Regra para evitar deadlock: a versão só pode ser obtida (via {@link #escrever}) depois de
+ * adquirir o lock de todas as contas envolvidas na operação.
+ */
+public final class RelogioVersoes {
+
+    private static final AtomicLong ultimaVersaoIniciada = new AtomicLong();
+    private static final AtomicLong versaoConfirmada = new AtomicLong();
+    // Escritas já terminadas à frente da marca, aguardando as anteriores terminarem.
+    private static final ConcurrentSkipListSet<Long> versoesTerminadas = new ConcurrentSkipListSet<>();
+
+    // Versão -> quantidade de snapshots abertos nela. A menor chave limita a poda das cadeias de saldo.
+    private static final ConcurrentSkipListMap<Long, Integer> snapshotsAbertos = new ConcurrentSkipListMap<>();
+    private static final AtomicInteger snapshotsSendoAbertos = new AtomicInteger();
+
+    // Versão de escrita em andamento na thread atual (0 = nenhuma). Permite aninhar operações.
+    private static final ThreadLocal<long[]> escritaAtual = ThreadLocal.withInitial(() -> new long[1]);
+
+    private RelogioVersoes() {
+    }
+
+    /**
+     * Executa uma operação de escrita sob uma única versão.
+     * Chamadas aninhadas na mesma thread reutilizam a versão da operação externa,
+     * garantindo que todas as alterações fiquem visíveis de uma só vez.
+     * @param operacao A operação, que recebe a versão atribuída.
+     * @return O resultado da operação.
+     */
+    public static <T> T escrever(LongFunction<T> operacao) {
+        long[] atual = escritaAtual.get();
+        if (atual[0] != 0) {
+            return operacao.apply(atual[0]);
+        }
+        long versao = ultimaVersaoIniciada.incrementAndGet();
+        atual[0] = versao;
+        try {
+            return operacao.apply(versao);
+        } finally {
+            atual[0] = 0;
+            confirmar(versao);
+        }
+    }
+
+    /**
+     * @return A versão da escrita em andamento na thread atual, ou 0 se não houver.
+     */
+    public static long versaoEscritaAtual() {
+        return escritaAtual.get()[0];
+    }
+
+    /**
+     * Abre um snapshot na última versão confirmada. Deve ser fechado após o uso
+     * (de preferência com try-with-resources) para liberar a poda das versões antigas.
+     * @return O snapshot aberto.
+     */
+    public static Snapshot abrirSnapshot() {
+        snapshotsSendoAbertos.incrementAndGet();
+        try {
+            long versao = versaoConfirmada.get();
+            snapshotsAbertos.merge(versao, 1, Integer::sum);
+            return new Snapshot(versao);
+        } finally {
+            snapshotsSendoAbertos.decrementAndGet();
+        }
+    }
+
+    /**
+     * Libera um snapshot aberto por {@link #abrirSnapshot()}.
+     * @param versao A versão do snapshot.
+     */
+    public static void fecharSnapshot(long versao) {
+        snapshotsAbertos.computeIfPresent(versao, (v, quantidade) -> quantidade == 1 ? null : quantidade - 1);
+    }
+
+    /**
+     * Calcula até qual versão os saldos antigos ainda podem ser necessários.
+     * Versões anteriores à retornada não serão lidas por nenhum snapshot.
+     * @return A versão horizonte, ou -1 se a poda não for segura neste momento.
+     */
+    static long horizonteDePoda() {
+        long horizonte = versaoConfirmada.get();
+        // Um snapshot sendo aberto pode ter lido uma versão menor que a nossa; não arrisca podar.
+        if (snapshotsSendoAbertos.get() > 0) return -1;
+        Map.Entry<Long, Integer> maisAntigo = snapshotsAbertos.firstEntry();
+        return maisAntigo == null ? horizonte : Math.min(horizonte, maisAntigo.getKey());
+    }
+
+    // Registra a versão como terminada e avança a marca enquanto a próxima versão também tiver terminado.
+    // Quem termina antes de uma versão anterior apenas deixa o registro: a escrita atrasada, ao terminar,
+    // encontra-o e leva a marca adiante. Nenhuma thread espera por outra.
+    private static void confirmar(long versao) {
+        versoesTerminadas.add(versao);
+        while (true) {
+            long marca = versaoConfirmada.get();
+            long proxima = marca + 1;
+            if (!versoesTerminadas.contains(proxima)) return;
+            if (versaoConfirmada.compareAndSet(marca, proxima)) {
+                versoesTerminadas.remove(proxima);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.model;
+
+/**
+ * Cadeia de saldos de uma conta, um por versão de escrita (do mais novo para o mais antigo).
+ * Permite que snapshots leiam o saldo de uma versão passada enquanto novas escritas acontecem.
+ * Versões que nenhum snapshot aberto pode mais ler são descartadas a cada nova escrita.
+ * A mesma cadeia guarda o preço de cada {@link Produto} e a quantidade de transações de cada conta por versão.
+ */
+class SaldoVersionado {
+
+    private static final class No {
+        private final long versao;
+        private final double saldo;
+        private volatile No anterior;
+
+        private No(long versao, double saldo, No anterior) {
+            this.versao = versao;
+            this.saldo = saldo;
+            this.anterior = anterior;
+        }
+    }
+
+    private volatile No cabeca;
+    // Horizonte da última poda. Enquanto um snapshot longo (ex: um relatório em lote) segura o horizonte,
+    // não há nada novo a descartar, e percorrer a cadeia a cada escrita a deixaria mais lenta quanto mais ela cresce.
+    private long horizontePodado = -1;
+
+    /**
+     * Registra o saldo resultante de uma escrita. Deve ser chamado com o lock da conta adquirido.
+     * Várias alterações na mesma versão apenas substituem o saldo daquela versão.
+     */
+    void registrar(long versao, double saldo) {
+        No atual = cabeca;
+        No anterior = (atual != null && atual.versao == versao) ? atual.anterior : atual;
+        No novo = new No(versao, saldo, anterior);
+        cabeca = novo;
+        long horizonte = RelogioVersoes.horizonteDePoda();
+        if (horizonte != horizontePodado) {
+            podar(novo, horizonte);
+            if (horizonte >= 0) horizontePodado = horizonte;
+        }
+    }
+
+    /**
+     * @return O saldo vigente na versão informada (0 se a conta não tinha movimentação até lá).
+     */
+    double saldoEm(long versao) {
+        for (No no = cabeca; no != null; no = no.anterior) {
+            if (no.versao <= versao) return no.saldo;
+        }
+        return 0.0;
+    }
+
+    // Mantém o nó mais novo visível no horizonte e descarta todos os anteriores a ele.
+    private static void podar(No inicio, long horizonte) {
+        if (horizonte < 0) return;
+        for (No no = inicio; no != null; no = no.anterior) {
+            if (no.versao <= horizonte) {
+                no.anterior = null;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package org.example.particao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cliente do banco particionado: encaminha cada operação ao nó dono do CPF, segundo a
+ * {@link TabelaParticoes}, e coordena as transferências entre nós.
+ * <p>
+ * Transferências com as duas contas no mesmo nó são feitas lá, de uma vez. Entre nós, são feitas
+ * em duas etapas: reserva (débito) na origem, crédito no destino e confirmação na origem. Um crédito
+ * sem resposta é repetido (o CREDITAR é idempotente pelo id); se ainda assim não houver resposta, ou se
+ * o destino recusar, o crédito é abortado no destino e só então a reserva é estornada. Uma reserva sem
+ * resposta é cancelada pelo id: a origem estorna o débito, se ele aconteceu, e recusa um RESERVAR atrasado.
+ * <p>
+ * Um nó novo recebe partições uma de cada vez ({@link #adicionarNo}); só a partição em
+ * movimento fica indisponível, e os pedidos para ela são repetidos até o novo dono assumi-la.
+ * Se a cópia falhar, a partição volta ao dono antigo.
+ */
+public class ClienteRoteador implements AutoCloseable {
+
+    private static final long ESPERA_MAXIMA_MOVIDA_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int TENTATIVAS_ETAPA = 3; // Envios de cada etapa da transferência antes de desistir dela.
+
+    private final TabelaParticoes tabela = new TabelaParticoes();
+    private final List<String> nos = new CopyOnWriteArrayList<>();
+    private final Map<String, Queue<ConexaoNo>> conexoes = new ConcurrentHashMap<>();
+    private final AtomicLong transferenciasLocais = new AtomicLong();
+    private final AtomicLong transferenciasEntreNos = new AtomicLong();
+    private final AtomicLong pedidosRepetidos = new AtomicLong();
+    private volatile long maiorBloqueioNanos;
+
+    /**
+     * Distribui as partições entre os nós iniciais, em rodízio.
+     * @param enderecos Os endereços ("host:porta") dos nós.
+     */
+    public ClienteRoteador(List<String> enderecos) {
+        nos.addAll(enderecos);
+        for (int p = 0; p < TabelaParticoes.QUANTIDADE_PARTICOES; p++) {
+            String dono = enderecos.get(p % enderecos.size());
+            exigirOk(enviar(dono, "ATRIBUIR", Integer.toString(p)));
+            tabela.definirDono(p, dono);
+        }
+    }
+
+    // --- OPERAÇÕES ---
+
+    public boolean criarCliente(String nome, String cpf) {
+        return ok(enviarPorCpf(cpf, "CRIAR_CLIENTE", cpf, nome));
+    }
+
+    /**
+     * @return O número da conta criada, ou null se o cliente não existir.
+     */
+    public String adicionarConta(String cpf, String tipoConta) {
+        String[] resposta = enviarPorCpf(cpf, "ADICIONAR_CONTA", cpf, tipoConta);
+        return ok(resposta) ? resposta[1] : null;
+    }
+
+    public boolean depositar(String cpf, String tipoConta, double valor) {
+        return ok(enviarPorCpf(cpf, "DEPOSITAR", cpf, tipoConta, Double.toString(valor)));
+    }
+
+    public boolean sacar(String cpf, String tipoConta, double valor) {
+        return ok(enviarPorCpf(cpf, "SACAR", cpf, tipoConta, Double.toString(valor)));
+    }
+
+    public boolean fazerInvestimento(String cpf, String tipoConta, String nomeInvestimento, double valor) {
+        return ok(enviarPorCpf(cpf, "INVESTIR", cpf, tipoConta, nomeInvestimento, Double.toString(valor)));
+    }
+
+    public boolean resgatarInvestimento(String cpf, int indice, String tipoContaDestino) {
+        return ok(enviarPorCpf(cpf, "RESGATAR", cpf, tipoContaDestino, Integer.toString(indice)));
+    }
+
+    /**
+     * @return O saldo da conta, ou NaN se ela não existir.
+     */
+    public double saldo(String cpf, String tipoConta) {
+        String[] resposta = enviarPorCpf(cpf, "SALDO", cpf, tipoConta);
+        return ok(resposta) ? Double.parseDouble(resposta[1]) : Double.NaN;
+    }
+
+    /**
+     * Transfere entre as contas de dois clientes, estejam eles no mesmo nó ou não.
+     * @return true se o valor foi creditado no destino; false se nada mudou.
+     */
+    public boolean transferir(String cpfOrigem, String tipoOrigem, String cpfDestino, String tipoDestino, double valor) {
+        String dono = tabela.donoDoCpf(cpfOrigem);
+        if (dono.equals(tabela.donoDoCpf(cpfDestino))) {
+            String[] resposta = enviar(dono, "TRANSFERIR_LOCAL", cpfOrigem, tipoOrigem, cpfDestino, tipoDestino, Double.toString(valor));
+            if (!"MOVIDA".equals(resposta[0])) {
+                transferenciasLocais.incrementAndGet();
+                return ok(resposta);
+            }
+            // Uma das partições está em movimento: as duas etapas funcionam mesmo assim.
+        }
+        transferenciasEntreNos.incrementAndGet();
+        String id = UUID.randomUUID().toString();
+        String[] reserva = tentarEnviarPorCpf(cpfOrigem, "RESERVAR", id, cpfOrigem, tipoOrigem, Double.toString(valor));
+        if (reserva == null) {
+            // Sem resposta, a origem pode ter debitado: o CANCELAR estorna e impede que um RESERVAR atrasado debite.
+            exigirOk(repetirEnvioPorCpf(cpfOrigem, "CANCELAR", id, cpfOrigem));
+            return false;
+        }
+        if (!ok(reserva)) return false;
+
+        String[] credito = null;
+        int tentativas = 0;
+        while (credito == null && tentativas++ < TENTATIVAS_ETAPA) {
+            credito = tentarEnviarPorCpf(cpfDestino, "CREDITAR", id, cpfDestino, tipoDestino, Double.toString(valor));
+        }
+        // Com um único CREDITAR enviado e respondido, nenhuma cópia atrasada pode chegar depois.
+        boolean semCopiasAtrasadas = tentativas == 1 && credito != null;
+        boolean creditado = credito != null && ok(credito);
+        if (!creditado) {
+            // Sem resposta, o crédito pode ter sido aplicado: o destino decide, e um CREDITAR atrasado passa a ser recusado.
+            String[] aborto = repetirEnvioPorCpf(cpfDestino, "ABORTAR_CREDITO", id, cpfDestino);
+            exigirOk(aborto);
+            creditado = "CREDITADO".equals(aborto[1]);
+        }
+        if (creditado) {
+            exigirOk(repetirEnvioPorCpf(cpfOrigem, "CONFIRMAR", id, cpfOrigem));
+            if (semCopiasAtrasadas) tentarEnviarPorCpf(cpfDestino, "ESQUECER_CREDITO", id, cpfDestino);
+            return true;
+        }
+        exigirOk(repetirEnvioPorCpf(cpfOrigem, "CANCELAR", id, cpfOrigem));
+        if (semCopiasAtrasadas) tentarEnviarPorCpf(cpfDestino, "ESQUECER_CREDITO", id, cpfDestino);
+        return false;
+    }
+
+    // --- REBALANCEAMENTO ---
+
+    /**
+     * Acrescenta um nó e move para ele partições dos nós mais carregados até a divisão ficar equilibrada.
+     * Cada partição é bloqueada no dono antigo, copiada, importada no novo nó e só então removida do antigo;
+     * as demais continuam atendendo normalmente.
+     * @param endereco O endereço ("host:porta") do novo nó.
+     */
+    public synchronized void adicionarNo(String endereco) {
+        nos.add(endereco);
+        int meta = TabelaParticoes.QUANTIDADE_PARTICOES / nos.size();
+        try {
+            for (int movidas = 0; movidas < meta; movidas++) {
+                moverParticao(particaoDoNoMaisCarregado(), endereco);
+            }
+        } catch (RuntimeException e) {
+            // Um nó que não recebeu nenhuma partição não participa dos totais.
+            if (particoesPorNo().get(endereco) == 0) nos.remove(endereco);
+            throw e;
+        }
+    }
+
+    private int particaoDoNoMaisCarregado() {
+        Map<String, List<Integer>> porNo = new HashMap<>();
+        for (int p = 0; p < TabelaParticoes.QUANTIDADE_PARTICOES; p++) {
+            porNo.computeIfAbsent(tabela.donoDaParticao(p), k -> new ArrayList<>()).add(p);
+        }
+        List<Integer> maior = porNo.values().stream().max(Comparator.comparingInt(List::size)).orElseThrow();
+        return maior.get(maior.size() - 1);
+    }
+
+    private void moverParticao(int particao, String destino) {
+        String origem = tabela.donoDaParticao(particao);
+        long inicio = System.nanoTime();
+        exigirOk(enviar(origem, "BLOQUEAR", Integer.toString(particao)));
+        boolean importando = false;
+        try {
+            List<String> linhas = exportar(origem, particao);
+            ConexaoNo conexao = obterConexao(destino);
+            importando = true;
+            exigirOk(enviar(destino, conexao, List.of("IMPORTAR", Integer.toString(particao), Integer.toString(linhas.size())), linhas));
+        } catch (RuntimeException e) {
+            desfazerMovimento(particao, origem, importando ? destino : null, e);
+            throw e;
+        }
+        tabela.definirDono(particao, destino);
+        maiorBloqueioNanos = Math.max(maiorBloqueioNanos, System.nanoTime() - inicio);
+        exigirOk(enviar(origem, "REMOVER", Integer.toString(particao)));
+    }
+
+    private List<String> exportar(String origem, int particao) {
+        ConexaoNo conexao = obterConexao(origem);
+        try {
+            String[] resposta = conexao.enviar(SerializadorParticao.linha("EXPORTAR", Integer.toString(particao)), List.of());
+            List<String> linhas = ok(resposta) ? conexao.lerLinhas(Integer.parseInt(resposta[1])) : List.of();
+            devolverConexao(origem, conexao);
+            exigirOk(resposta);
+            return linhas;
+        } catch (IOException e) {
+            fechar(conexao, e);
+            throw new UncheckedIOException("Falha ao exportar a partição " + particao + " de " + origem, e);
+        }
+    }
+
+    // Descarta o que o destino possa ter importado (null se o IMPORTAR nem foi enviado) e devolve a partição
+    // ao dono antigo, que ainda tem os dados. Se o destino não responder, a partição fica bloqueada:
+    // indisponível, mas nunca com dois donos.
+    private void desfazerMovimento(int particao, String origem, String destino, RuntimeException falha) {
+        try {
+            if (destino != null) {
+                exigirOk(enviar(destino, "BLOQUEAR", Integer.toString(particao)));
+                exigirOk(enviar(destino, "REMOVER", Integer.toString(particao)));
+            }
+            exigirOk(enviar(origem, "DESBLOQUEAR", Integer.toString(particao)));
+        } catch (RuntimeException e) {
+            falha.addSuppressed(e);
+        }
+    }
+
+    // --- CONSULTAS ---
+
+    /**
+     * @return Quantas partições cada nó possui, na ordem em que os nós foram adicionados.
+     */
+    public Map<String, Integer> particoesPorNo() {
+        Map<String, Integer> contagem = new LinkedHashMap<>();
+        nos.forEach(no -> contagem.put(no, 0));
+        for (int p = 0; p < TabelaParticoes.QUANTIDADE_PARTICOES; p++) {
+            contagem.merge(tabela.donoDaParticao(p), 1, Integer::sum);
+        }
+        return contagem;
+    }
+
+    /**
+     * Soma dos saldos e das reservas pendentes em todos os nós.
+     * @return {saldos, reservado, quantidade de reservas pendentes}.
+     */
+    public double[] totais() {
+        double[] totais = new double[3];
+        for (String no : nos) {
+            String[] resposta = enviar(no, "TOTAL");
+            exigirOk(resposta);
+            for (int i = 0; i < totais.length; i++) {
+                totais[i] += Double.parseDouble(resposta[i + 1]);
+            }
+        }
+        return totais;
+    }
+
+    public long getTransferenciasLocais() {
+        return transferenciasLocais.get();
+    }
+
+    public long getTransferenciasEntreNos() {
+        return transferenciasEntreNos.get();
+    }
+
+    public long getPedidosRepetidos() {
+        return pedidosRepetidos.get();
+    }
+
+    public double getMaiorBloqueioMillis() {
+        return maiorBloqueioNanos / 1e6;
+    }
+
+    @Override
+    public void close() {
+        conexoes.values().forEach(fila -> fila.forEach(conexao -> {
+            try {
+                conexao.close();
+            } catch (IOException e) {
+                // Nada a fazer ao encerrar.
+            }
+        }));
+    }
+
+    // --- COMUNICAÇÃO ---
+
+    /**
+     * Envia ao dono atual do CPF, consultando a tabela de novo enquanto a partição estiver em movimento.
+     */
+    private String[] enviarPorCpf(String cpf, String... campos) {
+        long limite = System.nanoTime() + ESPERA_MAXIMA_MOVIDA_NANOS;
+        while (true) {
+            String[] resposta = enviar(tabela.donoDoCpf(cpf), campos);
+            if (!"MOVIDA".equals(resposta[0])) return resposta;
+            if (System.nanoTime() > limite) throw new IllegalStateException("Partição do CPF " + cpf + " indisponível.");
+            pedidosRepetidos.incrementAndGet();
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrompido aguardando a partição do CPF " + cpf + ".", e);
+            }
+        }
+    }
+
+    /**
+     * Como {@link #enviarPorCpf}, mas devolve null se o nó não responder (ex: prazo esgotado).
+     */
+    private String[] tentarEnviarPorCpf(String cpf, String... campos) {
+        try {
+            return enviarPorCpf(cpf, campos);
+        } catch (UncheckedIOException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Repete um pedido idempotente até o nó responder, falhando depois de {@link #TENTATIVAS_ETAPA} envios.
+     */
+    private String[] repetirEnvioPorCpf(String cpf, String... campos) {
+        for (int tentativa = 1; tentativa < TENTATIVAS_ETAPA; tentativa++) {
+            String[] resposta = tentarEnviarPorCpf(cpf, campos);
+            if (resposta != null) return resposta;
+        }
+        return enviarPorCpf(cpf, campos);
+    }
+
+    private String[] enviar(String endereco, String... campos) {
+        return enviar(endereco, List.of(campos), List.of());
+    }
+
+    private String[] enviar(String endereco, List<String> campos, List<String> dados) {
+        return enviar(endereco, obterConexao(endereco), campos, dados);
+    }
+
+    private String[] enviar(String endereco, ConexaoNo conexao, List<String> campos, List<String> dados) {
+        try {
+            String[] resposta = conexao.enviar(SerializadorParticao.linha(campos.toArray(String[]::new)), dados);
+            devolverConexao(endereco, conexao);
+            return resposta;
+        } catch (IOException e) {
+            fechar(conexao, e);
+            throw new UncheckedIOException("Falha ao falar com o nó " + endereco, e);
+        }
+    }
+
+    private static void fechar(ConexaoNo conexao, IOException falha) {
+        try {
+            conexao.close();
+        } catch (IOException ignorada) {
+            falha.addSuppressed(ignorada);
+        }
+    }
+
+    private ConexaoNo obterConexao(String endereco) {
+        ConexaoNo conexao = conexoes.computeIfAbsent(endereco, k -> new ConcurrentLinkedQueue<>()).poll();
+        if (conexao != null) return conexao;
+        try {
+            return new ConexaoNo(endereco);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível conectar ao nó " + endereco, e);
+        }
+    }
+
+    private void devolverConexao(String endereco, ConexaoNo conexao) {
+        conexoes.get(endereco).offer(conexao);
+    }
+
+    private static boolean ok(String[] resposta) {
+        return "OK".equals(resposta[0]);
+    }
+
+    private static void exigirOk(String[] resposta) {
+        if (!ok(resposta)) throw new IllegalStateException("Resposta inesperada do nó: " + String.join(" ", resposta));
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.particao;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conexão do roteador com um {@link NoParticao}: envia uma linha de pedido e lê a resposta.
+ * Não é thread-safe; o {@link ClienteRoteador} mantém um pool de conexões por nó.
+ * Conexão e leitura têm prazo: um nó parado faz o pedido falhar com {@link java.net.SocketTimeoutException}
+ * em vez de prender a thread do roteador, e a conexão é descartada.
+ */
+class ConexaoNo implements AutoCloseable {
+
+    static final int PRAZO_CONEXAO_MILLIS = 2_000;
+    static final int PRAZO_RESPOSTA_MILLIS = 10_000;
+
+    private final Socket socket;
+    private final BufferedReader entrada;
+    private final BufferedWriter saida;
+
+    ConexaoNo(String endereco) throws IOException {
+        int separador = endereco.lastIndexOf(':');
+        this.socket = new Socket();
+        socket.connect(new InetSocketAddress(endereco.substring(0, separador), Integer.parseInt(endereco.substring(separador + 1))), PRAZO_CONEXAO_MILLIS);
+        socket.setSoTimeout(PRAZO_RESPOSTA_MILLIS);
+        socket.setTcpNoDelay(true);
+        this.entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.saida = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Envia um pedido, seguido de linhas de dados (usadas no IMPORTAR).
+     * @return Os campos da linha de resposta.
+     */
+    String[] enviar(String pedido, List<String> dados) throws IOException {
+        saida.write(pedido);
+        saida.newLine();
+        for (String linha : dados) {
+            saida.write(linha);
+            saida.newLine();
+        }
+        saida.flush();
+        String resposta = entrada.readLine();
+        if (resposta == null) throw new IOException("Conexão encerrada pelo nó.");
+        return resposta.split(SerializadorParticao.SEPARADOR, -1);
+    }
+
+    /**
+     * Lê as linhas extras de uma resposta (ex: as linhas de uma partição exportada).
+     */
+    List<String> lerLinhas(int quantidade) throws IOException {
+        List<String> linhas = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            String linha = entrada.readLine();
+            if (linha == null) throw new IOException("Conexão encerrada pelo nó.");
+            linhas.add(linha);
+        }
+        return linhas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.particao;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Demonstra o banco particionado com processos reais:
+ * <ol>
+ *     <li>sobe dois {@link NoParticao} e cadastra clientes com saldo inicial pelo {@link ClienteRoteador};</li>
+ *     <li>dispara transferências concorrentes entre CPFs aleatórios (no mesmo nó e entre nós);</li>
+ *     <li>no meio do tráfego, sobe um terceiro nó e rebalanceia as partições, sem parar as threads;</li>
+ *     <li>ao final confere que o total de dinheiro não mudou e que não sobrou nenhuma reserva pendente.</li>
+ * </ol>
+ * Argumentos opcionais: [clientes] [threads] [transferenciasPorThread]
+ */
+public class DemonstracaoParticionamento {
+
+    private static final double SALDO_INICIAL = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int transferenciasPorThread = args.length > 2 ? Integer.parseInt(args[2]) : 5_000;
+
+        List<Process> processos = new ArrayList<>();
+        try {
+            List<String> iniciais = List.of(iniciarNo(processos, 1), iniciarNo(processos, 2));
+            try (ClienteRoteador roteador = new ClienteRoteador(iniciais)) {
+                String[] cpfs = new String[clientes];
+                for (int i = 0; i < clientes; i++) {
+                    cpfs[i] = String.format("%011d", i);
+                    roteador.criarCliente("Cliente " + i, cpfs[i]);
+                    roteador.adicionarConta(cpfs[i], "corrente");
+                    roteador.depositar(cpfs[i], "corrente", SALDO_INICIAL);
+                }
+                double totalEsperado = clientes * SALDO_INICIAL;
+
+                AtomicLong realizadas = new AtomicLong();
+                List<Thread> trabalhadores = new ArrayList<>();
+                long inicio = System.nanoTime();
+                for (int t = 0; t < threads; t++) {
+                    SplittableRandom random = new SplittableRandom(42 + t);
+                    Thread trabalhador = new Thread(() -> {
+                        for (int i = 0; i < transferenciasPorThread; i++) {
+                            String origem = cpfs[random.nextInt(cpfs.length)];
+                            String destino = cpfs[random.nextInt(cpfs.length)];
+                            if (roteador.transferir(origem, "corrente", destino, "corrente", 1 + random.nextInt(100))) {
+                                realizadas.incrementAndGet();
+                            }
+                        }
+                    });
+                    trabalhador.start();
+                    trabalhadores.add(trabalhador);
+                }
+
+                // Espera parte do tráfego passar antes de acrescentar o nó.
+                long metaAntesDoNovoNo = (long) threads * transferenciasPorThread / 3;
+                while (realizadas.get() < metaAntesDoNovoNo && trabalhadores.stream().anyMatch(Thread::isAlive)) {
+                    Thread.sleep(5);
+                }
+                long inicioRebalanceamento = System.nanoTime();
+                roteador.adicionarNo(iniciarNo(processos, 3));
+                long fimRebalanceamento = System.nanoTime();
+                long realizadasDuranteRebalanceamento = realizadas.get() - metaAntesDoNovoNo;
+
+                for (Thread trabalhador : trabalhadores) {
+                    trabalhador.join();
+                }
+                long fim = System.nanoTime();
+
+                double[] totais = roteador.totais();
+                System.out.printf("Transferências: %d realizadas em %.2f s (%.0f op/s) | no mesmo nó: %d | entre nós: %d%n",
+                        realizadas.get(), (fim - inicio) / 1e9, realizadas.get() / ((fim - inicio) / 1e9),
+                        roteador.getTransferenciasLocais(), roteador.getTransferenciasEntreNos());
+                System.out.printf("Rebalanceamento: %.0f ms | ~%d transferências durante | maior bloqueio de uma partição: %.2f ms | pedidos repetidos (MOVIDA): %d%n",
+                        (fimRebalanceamento - inicioRebalanceamento) / 1e6, Math.max(0, realizadasDuranteRebalanceamento),
+                        roteador.getMaiorBloqueioMillis(), roteador.getPedidosRepetidos());
+                for (Map.Entry<String, Integer> entrada : roteador.particoesPorNo().entrySet()) {
+                    System.out.printf("  Nó %s: %d partições%n", entrada.getKey(), entrada.getValue());
+                }
+                boolean conservado = Math.abs(totais[0] + totais[1] - totalEsperado) < 0.005;
+                System.out.printf("Total: R$%.2f (esperado R$%.2f) -> %s | reservas pendentes: %d%n",
+                        totais[0] + totais[1], totalEsperado, conservado ? "CONSERVADO" : "DIVERGENTE", (long) totais[2]);
+            }
+        } finally {
+            processos.forEach(Process::destroy);
+        }
+    }
+
+    private static String iniciarNo(List<Process> processos, int idNo) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process processo = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                NoParticao.class.getName(), "0", String.valueOf(idNo))
+                .redirectErrorStream(true).start();
+        processos.add(processo);
+        BufferedReader saida = new BufferedReader(new InputStreamReader(processo.getInputStream(), StandardCharsets.UTF_8));
+        String linha;
+        while ((linha = saida.readLine()) != null) {
+            if (linha.startsWith("PRONTO ")) {
+                return "127.0.0.1:" + linha.substring("PRONTO ".length());
+            }
+        }
+        throw new IllegalStateException("O nó " + idNo + " terminou sem ficar pronto.");
+    }
+}
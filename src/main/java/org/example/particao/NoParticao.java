@@ -0,0 +1,435 @@
+package org.example.particao;
+
+import org.example.enums.TipoTransacao;
+import org.example.model.Cliente;
+import org.example.model.Conta;
+import org.example.model.ContaCorrente;
+import org.example.model.ContaPoupanca;
+import org.example.repository.ClienteRepository;
+import org.example.service.BancoService;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Um nó do banco particionado por CPF. Cada nó tem o seu próprio {@link ClienteRepository} e
+ * {@link BancoService} e atende, por TCP, apenas os CPFs das partições que possui
+ * (ver {@link TabelaParticoes}). Pedidos para outras partições recebem "MOVIDA", e o
+ * {@link ClienteRoteador} consulta a tabela de novo.
+ * <p>
+ * Protocolo: uma linha por pedido e uma por resposta, com campos separados por tabulação.
+ * As respostas começam com "OK", "ERRO" ou "MOVIDA". Contas são endereçadas por (CPF, tipo),
+ * já que o número da conta não diz em qual nó ela está.
+ * <p>
+ * Transferências entre nós usam duas etapas: RESERVAR debita a origem e guarda a reserva,
+ * CREDITAR (idempotente pelo id) credita o destino, e CONFIRMAR descarta a reserva,
+ * ou CANCELAR a estorna. Antes de cancelar, o roteador envia ABORTAR_CREDITO ao destino, que marca o id
+ * como abortado (um CREDITAR atrasado é recusado) ou responde que o crédito já foi aplicado.
+ * ESQUECER_CREDITO descarta o registro de um crédito já confirmado na origem.
+ * <p>
+ * Se o RESERVAR ficar sem resposta, o roteador envia CANCELAR: o nó estorna a reserva, se ela chegou a ser
+ * feita, e guarda o id como cancelado, para recusar um RESERVAR atrasado. Os registros de créditos e de
+ * cancelamentos só servem enquanto uma cópia atrasada do pedido ainda pode chegar; são descartados depois de
+ * {@link #RETENCAO_REGISTROS}, muito mais que os prazos de resposta do roteador ({@link ConexaoNo}).
+ * Reservas, créditos e cancelamentos registrados migram junto com a partição do CPF.
+ * <p>
+ * Cada partição tem um lock de leitura/escrita: as operações seguram o de leitura, e BLOQUEAR
+ * espera as operações em andamento, com o de escrita, antes de abrir mão da partição.
+ */
+public class NoParticao implements AutoCloseable {
+
+    static final Duration RETENCAO_REGISTROS = Duration.ofMinutes(5);
+
+    private final int idNo;
+    private final ClienteRepository clienteRepository = new ClienteRepository();
+    private final BancoService bancoService = new BancoService(clienteRepository);
+    private final Set<Integer> particoesProprias = ConcurrentHashMap.newKeySet();
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[TabelaParticoes.QUANTIDADE_PARTICOES];
+    private final Map<String, Reserva> reservas = new ConcurrentHashMap<>(); // id -> débito ainda não confirmado, ou cancelado.
+    private final Map<String, Credito> creditos = new ConcurrentHashMap<>(); // id -> crédito aplicado ou abortado.
+    private final long retencaoNanos;
+    private final AtomicLong proximoDescarte = new AtomicLong(System.nanoTime());
+    private final AtomicLong sequencialContas = new AtomicLong();
+    private final ServerSocket servidor;
+
+    // Uma reserva cancelada não tem valor: só impede que o id seja reservado depois.
+    // Os instantes são de System.nanoTime deste nó; registros importados contam a partir da importação.
+    private record Reserva(String cpf, String tipoConta, double valor, boolean cancelada, long registradaEm) {
+    }
+
+    private record Credito(String cpf, boolean aplicado, long registradoEm) {
+    }
+
+    /**
+     * Abre o nó no endereço de loopback.
+     * @param porta A porta a escutar, ou 0 para uma porta livre.
+     * @param idNo O identificador do nó, usado como prefixo dos números de conta criados aqui.
+     */
+    public NoParticao(int porta, int idNo) throws IOException {
+        this(porta, idNo, RETENCAO_REGISTROS);
+    }
+
+    /**
+     * @param retencao Por quanto tempo os registros de créditos e cancelamentos são guardados.
+     */
+    NoParticao(int porta, int idNo, Duration retencao) throws IOException {
+        this.idNo = idNo;
+        this.retencaoNanos = retencao.toNanos();
+        // As mensagens de feedback do BancoService não interessam a quem lê a saída do nó.
+        bancoService.setSaida(new PrintStream(OutputStream.nullOutputStream()));
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        this.servidor = new ServerSocket(porta, 50, InetAddress.getLoopbackAddress());
+        Thread aceitador = new Thread(this::aceitarConexoes, "particao-no-" + idNo);
+        aceitador.setDaemon(true);
+        aceitador.start();
+    }
+
+    public int getPorta() {
+        return servidor.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        servidor.close();
+    }
+
+    private void aceitarConexoes() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket socket = servidor.accept();
+                socket.setTcpNoDelay(true);
+                Thread atendente = new Thread(() -> atender(socket), "particao-conexao");
+                atendente.setDaemon(true);
+                atendente.start();
+            } catch (IOException e) {
+                return; // Servidor fechado.
+            }
+        }
+    }
+
+    private void atender(Socket socket) {
+        try (socket;
+             BufferedReader entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter saida = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String linha;
+            while ((linha = entrada.readLine()) != null) {
+                String[] campos = linha.split(SerializadorParticao.SEPARADOR, -1);
+                List<String> extras = new ArrayList<>();
+                String status;
+                if ("IMPORTAR".equals(campos[0])) {
+                    List<String> linhas = new ArrayList<>();
+                    for (int i = Integer.parseInt(campos[2]); i > 0; i--) {
+                        linhas.add(entrada.readLine());
+                    }
+                    try {
+                        status = importar(Integer.parseInt(campos[1]), linhas);
+                    } catch (RuntimeException e) {
+                        status = erro(String.valueOf(e.getMessage()));
+                    }
+                } else {
+                    try {
+                        status = executar(campos, extras);
+                    } catch (RuntimeException e) {
+                        status = erro(String.valueOf(e.getMessage()));
+                        extras.clear();
+                    }
+                }
+                saida.write(status);
+                saida.newLine();
+                for (String extra : extras) {
+                    saida.write(extra);
+                    saida.newLine();
+                }
+                saida.flush();
+            }
+        } catch (IOException e) {
+            // Conexão encerrada pelo roteador.
+        }
+    }
+
+    /**
+     * Executa um pedido. Linhas extras da resposta (EXPORTAR) são adicionadas a {@code extras}.
+     * @return A linha de status da resposta.
+     */
+    private String executar(String[] c, List<String> extras) {
+        return switch (c[0]) {
+            case "CRIAR_CLIENTE" -> naParticao(c[1], () ->
+                    bancoService.criarCliente(c[2], c[1]) != null ? "OK" : erro("CPF já cadastrado."));
+            case "ADICIONAR_CONTA" -> naParticao(c[1], () -> {
+                String numero = String.format("%d%06d", idNo, sequencialContas.incrementAndGet());
+                Conta conta = bancoService.adicionarContaParaCliente(c[1], c[2], numero);
+                return conta != null ? ok(conta.getNumero()) : erro("Cliente não encontrado ou tipo de conta inválido.");
+            });
+            case "DEPOSITAR" -> naParticao(c[1], () -> comConta(c[1], c[2], conta -> {
+                bancoService.depositar(conta, valor(c[3]));
+                return ok(conta.getSaldo());
+            }));
+            case "SACAR" -> naParticao(c[1], () -> comConta(c[1], c[2], conta ->
+                    resultado(bancoService.sacar(conta, valor(c[3])), "Saque de", conta)));
+            case "TRANSFERIR_LOCAL" -> naParticoes(c[1], c[3], () -> comConta(c[1], c[2], origem -> comConta(c[3], c[4], destino ->
+                    resultado(bancoService.transferir(origem.getNumero(), destino.getNumero(), valor(c[5])), "Transferência de", origem))));
+            case "INVESTIR" -> naParticao(c[1], () -> comConta(c[1], c[2], conta ->
+                    resultado(bancoService.fazerInvestimento(conta, c[3], valor(c[4])), "Investimento em", conta)));
+            case "RESGATAR" -> naParticao(c[1], () -> comConta(c[1], c[2], conta ->
+                    resultado(bancoService.resgatarInvestimento(conta.getCliente(), Integer.parseInt(c[3]), conta), "Investimento resgatado", conta)));
+            case "SALDO" -> naParticao(c[1], () -> comConta(c[1], c[2], conta -> ok(conta.getSaldo())));
+            case "CARTEIRA" -> naParticao(c[1], () -> clienteRepository.buscarPorCpf(c[1])
+                    .map(cliente -> ok(cliente.getCarteiraInvestimento().getSaldoTotal()))
+                    .orElse(erro("Cliente não encontrado.")));
+            case "RESERVAR" -> naParticao(c[2], () -> reservar(c[1], c[2], c[3], valor(c[4])));
+            case "CREDITAR" -> naParticao(c[2], () -> creditar(c[1], c[2], c[3], valor(c[4])));
+            case "CONFIRMAR" -> naParticao(c[2], () -> {
+                reservas.computeIfPresent(c[1], (id, reserva) -> reserva.cancelada() ? reserva : null);
+                return "OK";
+            });
+            case "CANCELAR" -> naParticao(c[2], () -> cancelar(c[1], c[2]));
+            case "ABORTAR_CREDITO" -> naParticao(c[2], () -> abortarCredito(c[1], c[2]));
+            case "ESQUECER_CREDITO" -> naParticao(c[2], () -> {
+                creditos.remove(c[1]);
+                return "OK";
+            });
+            case "ATRIBUIR" -> {
+                particoesProprias.add(Integer.parseInt(c[1]));
+                yield "OK";
+            }
+            case "BLOQUEAR" -> bloquear(Integer.parseInt(c[1]));
+            case "DESBLOQUEAR" -> {
+                particoesProprias.add(Integer.parseInt(c[1]));
+                yield "OK";
+            }
+            case "EXPORTAR" -> exportar(Integer.parseInt(c[1]), extras);
+            case "REMOVER" -> remover(Integer.parseInt(c[1]));
+            case "TOTAL" -> totais();
+            default -> erro("Comando desconhecido: " + c[0]);
+        };
+    }
+
+    // --- TRANSFERÊNCIA EM DUAS ETAPAS ---
+
+    private String reservar(String id, String cpf, String tipoConta, double valor) {
+        descartarRegistrosAntigos();
+        return comConta(cpf, tipoConta, conta -> Conta.executarAtomicamente(() -> {
+            String[] resposta = new String[1];
+            // Atômico com o CANCELAR do mesmo id: ou a reserva é feita antes e estornada por ele, ou é recusada.
+            reservas.compute(id, (chave, existente) -> {
+                if (existente != null) {
+                    resposta[0] = existente.cancelada() ? erro("Transferência " + id + " cancelada.") : "OK";
+                    return existente;
+                }
+                if (!conta.sacar(valor, TipoTransacao.TRANSFERENCIA_PIX_ENVIADA, "PIX para outro nó (" + id + ")")) {
+                    resposta[0] = erro("Saldo insuficiente na conta de origem.");
+                    return null;
+                }
+                resposta[0] = "OK";
+                return new Reserva(cpf, tipoConta, valor, false, System.nanoTime());
+            });
+            return resposta[0];
+        }, conta));
+    }
+
+    private String creditar(String id, String cpf, String tipoConta, double valor) {
+        descartarRegistrosAntigos();
+        return comConta(cpf, tipoConta, conta -> Conta.executarAtomicamente(() -> {
+            // Um CREDITAR repetido (ex: roteador que não recebeu a resposta) não credita de novo.
+            Credito existente = creditos.putIfAbsent(id, new Credito(cpf, true, System.nanoTime()));
+            if (existente == null) {
+                conta.depositar(valor, TipoTransacao.TRANSFERENCIA_PIX_RECEBIDA, "PIX de outro nó (" + id + ")");
+                return "OK";
+            }
+            return existente.aplicado() ? "OK" : erro("Transferência " + id + " abortada.");
+        }, conta));
+    }
+
+    // Decide, de forma atômica com o CREDITAR, se o crédito ainda pode ser aplicado.
+    private String abortarCredito(String id, String cpf) {
+        Credito existente = creditos.putIfAbsent(id, new Credito(cpf, false, System.nanoTime()));
+        return existente != null && existente.aplicado() ? ok("CREDITADO") : ok("ABORTADO");
+    }
+
+    // Idempotente: só a primeira chamada encontra a reserva ativa e a estorna.
+    private String cancelar(String id, String cpf) {
+        Reserva reserva = reservas.put(id, new Reserva(cpf, "", 0, true, System.nanoTime()));
+        if (reserva == null || reserva.cancelada()) return "OK";
+        return comConta(reserva.cpf(), reserva.tipoConta(), conta -> Conta.executarAtomicamente(() -> {
+            conta.depositar(reserva.valor(), TipoTransacao.TRANSFERENCIA_PIX_RECEBIDA, "Estorno do PIX " + id);
+            return "OK";
+        }, conta));
+    }
+
+    // No máximo uma vez a cada período de retenção: descarta os registros de créditos e os cancelamentos
+    // mais antigos que ela. Reservas ativas guardam dinheiro e só saem com CONFIRMAR ou CANCELAR.
+    private void descartarRegistrosAntigos() {
+        long agora = System.nanoTime();
+        long proximo = proximoDescarte.get();
+        if (agora - proximo < 0 || !proximoDescarte.compareAndSet(proximo, agora + retencaoNanos)) return;
+        long limite = agora - retencaoNanos;
+        creditos.values().removeIf(credito -> credito.registradoEm() - limite < 0);
+        reservas.values().removeIf(reserva -> reserva.cancelada() && reserva.registradaEm() - limite < 0);
+    }
+
+    // --- MIGRAÇÃO DE PARTIÇÕES ---
+
+    private String bloquear(int particao) {
+        Lock escrita = locks[particao].writeLock();
+        escrita.lock();
+        try {
+            // Depois daqui, todo pedido para a partição recebe MOVIDA até o novo dono importá-la.
+            particoesProprias.remove(particao);
+        } finally {
+            escrita.unlock();
+        }
+        return "OK";
+    }
+
+    private String exportar(int particao, List<String> extras) {
+        if (particoesProprias.contains(particao)) return erro("A partição precisa ser bloqueada antes de exportada.");
+        for (Cliente cliente : clienteRepository.buscarTodos()) {
+            if (TabelaParticoes.particaoDe(cliente.getCpf()) == particao) {
+                SerializadorParticao.exportar(cliente, extras);
+            }
+        }
+        reservas.forEach((id, r) -> {
+            if (TabelaParticoes.particaoDe(r.cpf()) == particao) {
+                extras.add(SerializadorParticao.linha("RESERVA", id, r.cpf(), r.tipoConta(), Double.toString(r.valor()), Boolean.toString(r.cancelada())));
+            }
+        });
+        creditos.forEach((id, credito) -> {
+            if (TabelaParticoes.particaoDe(credito.cpf()) == particao) {
+                extras.add(SerializadorParticao.linha("CREDITO", id, credito.cpf(), Boolean.toString(credito.aplicado())));
+            }
+        });
+        return ok(extras.size());
+    }
+
+    private String importar(int particao, List<String> linhas) {
+        List<String> dados = new ArrayList<>();
+        for (String linha : linhas) {
+            String[] c = linha.split(SerializadorParticao.SEPARADOR, -1);
+            switch (c[0]) {
+                case "RESERVA" -> reservas.put(c[1], new Reserva(c[2], c[3], valor(c[4]), Boolean.parseBoolean(c[5]), System.nanoTime()));
+                case "CREDITO" -> creditos.put(c[1], new Credito(c[2], Boolean.parseBoolean(c[3]), System.nanoTime()));
+                default -> dados.add(linha);
+            }
+        }
+        SerializadorParticao.importar(dados, bancoService.getTabelaPrecos()).forEach(bancoService::importarCliente);
+        particoesProprias.add(particao);
+        return "OK";
+    }
+
+    private String remover(int particao) {
+        if (particoesProprias.contains(particao)) return erro("A partição ainda pertence a este nó.");
+        for (Cliente cliente : clienteRepository.buscarTodos()) {
+            if (TabelaParticoes.particaoDe(cliente.getCpf()) == particao) {
+                bancoService.removerCliente(cliente.getCpf());
+            }
+        }
+        reservas.values().removeIf(r -> TabelaParticoes.particaoDe(r.cpf()) == particao);
+        creditos.values().removeIf(credito -> TabelaParticoes.particaoDe(credito.cpf()) == particao);
+        return "OK";
+    }
+
+    /**
+     * Soma dos saldos e das reservas das partições deste nó.
+     * Com o sistema parado, a soma em todos os nós não muda com transferências.
+     */
+    private String totais() {
+        double saldos = 0;
+        for (Cliente cliente : clienteRepository.buscarTodos()) {
+            if (particoesProprias.contains(TabelaParticoes.particaoDe(cliente.getCpf()))) {
+                for (Conta conta : cliente.getContas()) {
+                    saldos += conta.getSaldo();
+                }
+            }
+        }
+        double reservado = 0;
+        int pendentes = 0;
+        for (Reserva reserva : reservas.values()) {
+            if (reserva.cancelada()) continue;
+            reservado += reserva.valor();
+            pendentes++;
+        }
+        return SerializadorParticao.linha("OK", String.format(Locale.ROOT, "%.2f", saldos),
+                String.format(Locale.ROOT, "%.2f", reservado), Integer.toString(pendentes));
+    }
+
+    // --- AUXILIARES ---
+
+    private String naParticao(String cpf, Supplier<String> operacao) {
+        int particao = TabelaParticoes.particaoDe(cpf);
+        Lock leitura = locks[particao].readLock();
+        leitura.lock();
+        try {
+            return particoesProprias.contains(particao) ? operacao.get() : "MOVIDA";
+        } finally {
+            leitura.unlock();
+        }
+    }
+
+    private String naParticoes(String cpfA, String cpfB, Supplier<String> operacao) {
+        int a = TabelaParticoes.particaoDe(cpfA);
+        int b = TabelaParticoes.particaoDe(cpfB);
+        // Ordem fixa entre as partições, como os locks de conta em Conta.executarAtomicamente.
+        return a <= b ? naParticao(cpfA, () -> naParticao(cpfB, operacao)) : naParticao(cpfB, () -> naParticao(cpfA, operacao));
+    }
+
+    private String comConta(String cpf, String tipoConta, Function<Conta, String> operacao) {
+        Optional<Conta> conta = clienteRepository.buscarPorCpf(cpf).flatMap(cliente -> cliente.getContas().stream()
+                .filter(c -> "corrente".equalsIgnoreCase(tipoConta) ? c instanceof ContaCorrente : c instanceof ContaPoupanca)
+                .findFirst());
+        return conta.map(operacao).orElse(erro("Conta não encontrada."));
+    }
+
+    private static String resultado(String feedback, String prefixoSucesso, Conta conta) {
+        return feedback.startsWith(prefixoSucesso) ? ok(conta.getSaldo()) : erro(feedback);
+    }
+
+    private static double valor(String campo) {
+        return Double.parseDouble(campo);
+    }
+
+    private static String ok(Object valor) {
+        return SerializadorParticao.linha("OK", valor instanceof Double d ? String.format(Locale.ROOT, "%.2f", d) : String.valueOf(valor));
+    }
+
+    private static String erro(String mensagem) {
+        return SerializadorParticao.linha("ERRO", mensagem);
+    }
+
+    /**
+     * Executa um nó como processo independente, até o processo ser encerrado.
+     * Imprime "PRONTO porta" quando já aceita conexões.
+     * Argumentos: [porta] [idNo]
+     */
+    public static void main(String[] args) throws Exception {
+        int porta = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int idNo = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        NoParticao no = new NoParticao(porta, idNo);
+        System.out.println("PRONTO " + no.getPorta());
+        System.out.flush();
+        Thread.currentThread().join();
+    }
+}
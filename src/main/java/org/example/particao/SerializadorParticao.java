@@ -0,0 +1,106 @@
+package org.example.particao;
+
+import org.example.enums.StatusInvestimento;
+import org.example.enums.TipoTransacao;
+import org.example.model.Cliente;
+import org.example.model.Conta;
+import org.example.model.ContaCorrente;
+import org.example.model.ContaPoupanca;
+import org.example.model.Investimento;
+import org.example.records.Transacao;
+import org.example.repository.TabelaPrecos;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converte os clientes de uma partição (com contas, históricos e investimentos) em linhas de texto
+ * separadas por tabulação, para transferi-los entre nós durante o rebalanceamento, e reconstrói
+ * os objetos no nó de destino.
+ * <pre>
+ * CLIENTE  cpf  nome
+ * CONTA    corrente|poupanca  numero  saldo
+ * TX       tipo  valor  data  descricao        (transações da última CONTA)
+ * INV      nome  aplicado  dataAplicacao  valorAtual  status  quantidade
+ * </pre>
+ * As posições importadas passam a usar os produtos da tabela de preços do nó de destino.
+ */
+class SerializadorParticao {
+
+    static final String SEPARADOR = "\t";
+
+    private SerializadorParticao() {
+    }
+
+    static void exportar(Cliente cliente, List<String> linhas) {
+        linhas.add(linha("CLIENTE", cliente.getCpf(), cliente.getNome()));
+        for (Conta conta : cliente.getContas()) {
+            synchronized (conta) {
+                linhas.add(linha("CONTA", conta instanceof ContaCorrente ? "corrente" : "poupanca",
+                        conta.getNumero(), Double.toString(conta.getSaldo())));
+                for (Transacao t : conta.getHistoricoTransacoes()) {
+                    linhas.add(linha("TX", t.tipo().name(), Double.toString(t.valor()), t.data().toString(), t.descricao()));
+                }
+            }
+        }
+        for (Investimento inv : cliente.getCarteiraInvestimento().getInvestimentos()) {
+            linhas.add(linha("INV", inv.getNome(), Double.toString(inv.getValorAplicado()), inv.getDataAplicacao().toString(),
+                    Double.toString(inv.getValorAtual()), inv.getStatus().name(), Double.toString(inv.getQuantidade())));
+        }
+    }
+
+    /**
+     * Reconstrói os clientes a partir das linhas exportadas.
+     * @param linhas As linhas geradas por {@link #exportar}.
+     * @param tabelaPrecos A tabela de preços do nó de destino, de onde vêm os produtos das posições.
+     * @return Os clientes com suas contas e investimentos restaurados.
+     */
+    static List<Cliente> importar(List<String> linhas, TabelaPrecos tabelaPrecos) {
+        List<Cliente> clientes = new ArrayList<>();
+        Cliente cliente = null;
+        Conta conta = null;
+        double saldo = 0;
+        List<Transacao> historico = new ArrayList<>();
+        for (String linha : linhas) {
+            String[] campos = linha.split(SEPARADOR, -1);
+            switch (campos[0]) {
+                case "CLIENTE" -> {
+                    restaurar(conta, saldo, historico);
+                    conta = null;
+                    cliente = new Cliente(campos[2], campos[1]);
+                    clientes.add(cliente);
+                }
+                case "CONTA" -> {
+                    restaurar(conta, saldo, historico);
+                    conta = "corrente".equals(campos[1]) ? new ContaCorrente(cliente, campos[2]) : new ContaPoupanca(cliente, campos[2]);
+                    cliente.adicionarConta(conta);
+                    saldo = Double.parseDouble(campos[3]);
+                    historico = new ArrayList<>();
+                }
+                case "TX" -> historico.add(new Transacao(TipoTransacao.valueOf(campos[1]), Double.parseDouble(campos[2]),
+                        LocalDateTime.parse(campos[3]), campos[4]));
+                case "INV" -> cliente.getCarteiraInvestimento().adicionarInvestimento(new Investimento(
+                        tabelaPrecos.produto(campos[1]), Double.parseDouble(campos[2]), LocalDate.parse(campos[3]),
+                        Double.parseDouble(campos[6]), StatusInvestimento.valueOf(campos[5]), Double.parseDouble(campos[4])));
+                default -> throw new IllegalArgumentException("Linha de partição inválida: " + linha);
+            }
+        }
+        restaurar(conta, saldo, historico);
+        return clientes;
+    }
+
+    static String linha(String... campos) {
+        String[] limpos = new String[campos.length];
+        for (int i = 0; i < campos.length; i++) {
+            // Tabulações e quebras de linha quebrariam o formato de uma linha por registro.
+            limpos[i] = campos[i] == null ? "" : campos[i].replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+        }
+        return String.join(SEPARADOR, limpos);
+    }
+
+    private static void restaurar(Conta conta, double saldo, List<Transacao> historico) {
+        if (conta != null) conta.restaurarEstado(saldo, historico);
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.particao;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Tabela de roteamento do banco particionado.
+ * O espaço de CPFs é dividido em um número fixo de partições lógicas ({@value #QUANTIDADE_PARTICOES});
+ * cada partição pertence a exatamente um nó. Mover uma partição inteira de nó é o que permite
+ * rebalancear sem redistribuir CPF a CPF.
+ */
+public class TabelaParticoes {
+
+    public static final int QUANTIDADE_PARTICOES = 64;
+
+    // Endereço ("host:porta") do nó dono de cada partição.
+    private final AtomicReferenceArray<String> donos = new AtomicReferenceArray<>(QUANTIDADE_PARTICOES);
+
+    /**
+     * Calcula a partição de um CPF. Usa apenas os dígitos, para que "123.456.789-00" e
+     * "12345678900" caiam na mesma partição.
+     * @param cpf O CPF do cliente.
+     * @return A partição, de 0 a {@value #QUANTIDADE_PARTICOES} - 1.
+     */
+    public static int particaoDe(String cpf) {
+        long hash = 1125899906842597L;
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (Character.isDigit(c)) hash = 31 * hash + c;
+        }
+        // Espalha os bits antes do módulo (finalizador do SplitMix64).
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        hash = hash ^ (hash >>> 31);
+        return (int) Math.floorMod(hash, (long) QUANTIDADE_PARTICOES);
+    }
+
+    public String donoDaParticao(int particao) {
+        return donos.get(particao);
+    }
+
+    public String donoDoCpf(String cpf) {
+        return donos.get(particaoDe(cpf));
+    }
+
+    public void definirDono(int particao, String endereco) {
+        donos.set(particao, endereco);
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.records;
+
+import org.example.codec.CodecTransacao;
+import org.example.enums.TipoTransacao;
+
+/**
+ * Estado de integridade de uma conta, lido de uma vez sob o lock da conta.
+ * O total e o checksum são mantidos a cada transação registrada, então conferir o saldo
+ * não exige reler o histórico.
+ * @param numeroConta O número da conta.
+ * @param saldo O saldo atual.
+ * @param totalLancamentos A soma dos efeitos de todas as transações do histórico.
+ * @param quantidadeLancamentos Quantas transações foram registradas.
+ * @param checksum O hash encadeado das transações, na ordem em que foram registradas.
+ */
+public record AssinaturaConta(String numeroConta, double saldo, double totalLancamentos,
+                              long quantidadeLancamentos, long checksum) {
+
+    public static final long CHECKSUM_INICIAL = 0xcbf29ce484222325L;
+
+    /**
+     * Acrescenta uma transação ao checksum. Usa só o tipo e o valor em centavos: data e descrição
+     * variam entre réplicas que aplicam as mesmas operações (ex: o seguidor da replicação).
+     * O tipo entra pelo código fixo do {@link CodecTransacao}, não pela posição no enum, para que
+     * réplicas com versões diferentes do enum calculem o mesmo checksum.
+     * @param checksum O checksum das transações anteriores.
+     * @return O novo checksum.
+     */
+    public static long encadear(long checksum, TipoTransacao tipo, double valor) {
+        long elemento = ((long) CodecTransacao.codigo(tipo) << 56) ^ Math.round(valor * 100);
+        return misturar((checksum ^ misturar(elemento)) * 0x100000001b3L);
+    }
+
+    /**
+     * Hash da conta usado como folha da {@link org.example.model.ArvoreMerkle}.
+     */
+    public static long folha(String numeroConta, long quantidadeLancamentos, long checksum) {
+        return misturar(numeroConta.hashCode() * 0x9e3779b97f4a7c15L ^ misturar(checksum + quantidadeLancamentos));
+    }
+
+    public long folha() {
+        return folha(numeroConta, quantidadeLancamentos, checksum);
+    }
+
+    // Finalizador do SplitMix64: espalha cada bit da entrada por toda a saída.
+    private static long misturar(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+}
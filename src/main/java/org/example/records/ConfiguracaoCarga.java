@@ -0,0 +1,42 @@
+package org.example.records;
+
+import org.example.enums.DistribuicaoChaves;
+import org.example.enums.TipoOperacaoCarga;
+
+/**
+ * Record com os parâmetros de uma execução do gerador de carga.
+ * @param semente Semente dos geradores aleatórios; a mesma semente gera a mesma sequência de operações por thread.
+ * @param quantidadeClientes Quantos clientes (cada um com conta corrente e poupança) são criados antes da carga.
+ * @param saldoInicial Depósito inicial em cada conta.
+ * @param threads Quantidade de threads disparando operações em paralelo.
+ * @param operacoesPorThread Quantas operações cada thread executa.
+ * @param distribuicao Como as contas de cada operação são escolhidas.
+ * @param expoenteZipf O expoente da distribuição Zipf (quanto maior, mais concentrada nas contas quentes).
+ * @param pesos Peso relativo de cada {@link TipoOperacaoCarga}, na ordem do enum.
+ * @param tamanhoRajadaPix Quantas transferências PIX seguidas são feitas quando uma rajada começa.
+ * @param intervaloCompensacaoMillis Se maior que zero, os PIX passam pela compensação, liquidada nesse intervalo.
+ * @param threadsLote Quantas threads repetem a listagem de todos os clientes (trabalho em lote) enquanto a carga roda.
+ * @param orcamentoP99Micros Se maior que zero, as operações passam pelo {@link org.example.service.AgendadorOperacoes},
+ *                           com esse orçamento de p99 para as interativas; senão chamam o BancoService direto.
+ */
+public record ConfiguracaoCarga(long semente,
+                                int quantidadeClientes,
+                                double saldoInicial,
+                                int threads,
+                                int operacoesPorThread,
+                                DistribuicaoChaves distribuicao,
+                                double expoenteZipf,
+                                int[] pesos,
+                                int tamanhoRajadaPix,
+                                long intervaloCompensacaoMillis,
+                                int threadsLote,
+                                long orcamentoP99Micros) {
+
+    /**
+     * @return Uma configuração padrão: 10 mil clientes, 4 threads, acesso Zipf e predominância de PIX, sem lotes.
+     */
+    public static ConfiguracaoCarga padrao() {
+        return new ConfiguracaoCarga(42L, 10_000, 1_000.0, 4, 50_000,
+                DistribuicaoChaves.ZIPF, 1.1, new int[]{25, 20, 40, 10, 5}, 8, 0, 0, 0);
+    }
+}
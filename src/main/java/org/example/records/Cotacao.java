@@ -0,0 +1,12 @@
+package org.example.records;
+
+/**
+ * Record que representa uma cotação (tick) de mercado: o novo preço unitário de um produto de investimento.
+ */
+public record Cotacao(String produto, double preco) {
+
+    /**
+     * Marca o fim do fluxo em uma fila de cotações; comparada por identidade, nunca é aplicada.
+     */
+    public static final Cotacao FIM = new Cotacao("", Double.NaN);
+}
@@ -0,0 +1,24 @@
+package org.example.records;
+
+/**
+ * Record com a distribuição dos saldos das contas em um snapshot.
+ * O valor em {@code valores[i]} é o saldo no percentil {@code percentis[i]} (ex: 50, 90, 99).
+ */
+public record DistribuicaoSaldos(long versao,
+                                 int quantidadeContas,
+                                 double minimo,
+                                 double maximo,
+                                 double media,
+                                 double[] percentis,
+                                 double[] valores) {
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("Distribuição de saldos (versão %d) | Contas: %d | Mín: R$ %.2f | Máx: R$ %.2f | Média: R$ %.2f",
+                versao, quantidadeContas, minimo, maximo, media));
+        for (int i = 0; i < percentis.length; i++) {
+            sb.append(String.format(" | P%.0f: R$ %.2f", percentis[i], valores[i]));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.records;
+
+/**
+ * Uma conta reprovada na reconciliação.
+ * @param numeroConta O número da conta.
+ * @param cpfTitular O CPF do titular.
+ * @param saldo O saldo registrado na conta.
+ * @param saldoCalculado O saldo que o histórico de transações justifica.
+ * @param motivo A descrição da divergência encontrada.
+ */
+public record DivergenciaConta(String numeroConta, String cpfTitular, double saldo, double saldoCalculado, String motivo) {
+
+    @Override
+    public String toString() {
+        return String.format("Conta %s (CPF %s): saldo R$ %.2f, histórico R$ %.2f - %s",
+                numeroConta, cpfTitular, saldo, saldoCalculado, motivo);
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.records;
+
+/**
+ * Record que representa uma posição no ranking de clientes por valor investido.
+ */
+public record InvestidorRanking(int posicao, String nome, String cpf, double valorInvestido) {
+
+    @Override
+    public String toString() {
+        return String.format("%3dº %-30s | CPF: %s | Investido: R$ %.2f", posicao, nome, cpf, valorInvestido);
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.records;
+
+/**
+ * Record com as métricas do agendador de operações. Tempos em nanossegundos.
+ * @param interativasConcluidas Operações interativas concluídas.
+ * @param lotesConcluidos Trabalhos em lote concluídos.
+ * @param interativasNoLote Quantas das interativas foram executadas por um lote, em um ponto de cessão.
+ * @param cessoes Quantas vezes um lote parou no fim da fatia porque havia interativas esperando ou em execução.
+ * @param latenciaP99Interativa O p99 das interativas (da submissão ao fim) na última janela medida.
+ * @param orcamentoP99Interativa O p99 que o agendador tenta manter.
+ * @param fatiaLote A fatia de tempo atual do lote entre cessões, ajustada pelo orçamento.
+ */
+public record MetricasAgendador(long interativasConcluidas,
+                                long lotesConcluidos,
+                                long interativasNoLote,
+                                long cessoes,
+                                long latenciaP99Interativa,
+                                long orcamentoP99Interativa,
+                                long fatiaLote) {
+
+    public boolean dentroDoOrcamento() {
+        return latenciaP99Interativa <= orcamentoP99Interativa;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Interativas: %d (%d no lote) | Lotes: %d | Cessões: %d | p99 interativa: %.1fµs (orçamento %.1fµs) | Fatia do lote: %.1fµs",
+                interativasConcluidas, interativasNoLote, lotesConcluidos, cessoes,
+                latenciaP99Interativa / 1_000.0, orcamentoP99Interativa / 1_000.0, fatiaLote / 1_000.0);
+    }
+}
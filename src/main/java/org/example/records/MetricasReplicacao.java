@@ -0,0 +1,21 @@
+package org.example.records;
+
+/**
+ * Record com o atraso de replicação de um seguidor, medido no primário.
+ * @param seguidor Endereço do seguidor.
+ * @param ultimaSequencia A última sequência registrada no log do primário.
+ * @param sequenciaConfirmada A última sequência confirmada (aplicada) pelo seguidor.
+ * @param atrasoMillis Tempo entre o registro e a confirmação da última mutação confirmada.
+ */
+public record MetricasReplicacao(String seguidor, long ultimaSequencia, long sequenciaConfirmada, double atrasoMillis) {
+
+    public long atrasoMutacoes() {
+        return ultimaSequencia - sequenciaConfirmada;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Seguidor %s | Confirmado: %d de %d | Atraso: %d mutações, %.3f ms",
+                seguidor, sequenciaConfirmada, ultimaSequencia, atrasoMutacoes(), atrasoMillis);
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.records;
+
+import org.example.enums.TipoMutacao;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Record que representa uma alteração de estado já aplicada com sucesso, na ordem do log de mutações.
+ * O significado dos campos depende do tipo:
+ * <ul>
+ *   <li>CRIACAO_CLIENTE: chave = CPF, texto = nome</li>
+ *   <li>CRIACAO_CONTA: chave = CPF, chaveSecundaria = número da conta, texto = tipo ("corrente"/"poupanca")</li>
+ *   <li>DEPOSITO / SAQUE: chave = número da conta, valor</li>
+ *   <li>TRANSFERENCIA: chave = conta de origem, chaveSecundaria = conta de destino, valor</li>
+ *   <li>INVESTIMENTO: chave = número da conta debitada, texto = nome do investimento, valor</li>
+ *   <li>RESGATE: chave = CPF, chaveSecundaria = conta de destino, indice = posição na carteira</li>
+ *   <li>ATUALIZACAO_PRECO: chave = nome do produto, valor = novo preço unitário</li>
+ * </ul>
+ */
+public record Mutacao(long sequencia, TipoMutacao tipo, String chave, String chaveSecundaria,
+                      String texto, int indice, double valor) {
+
+    /**
+     * Grava a mutação no fluxo binário usado entre primário e seguidores.
+     */
+    public void escrever(DataOutputStream saida) throws IOException {
+        saida.writeLong(sequencia);
+        saida.writeByte(codigo(tipo));
+        saida.writeUTF(chave == null ? "" : chave);
+        saida.writeUTF(chaveSecundaria == null ? "" : chaveSecundaria);
+        saida.writeUTF(texto == null ? "" : texto);
+        saida.writeInt(indice);
+        saida.writeDouble(valor);
+    }
+
+    /**
+     * Lê uma mutação gravada por {@link #escrever}.
+     */
+    public static Mutacao ler(DataInputStream entrada) throws IOException {
+        return new Mutacao(entrada.readLong(), tipoDoCodigo(entrada.readByte()),
+                entrada.readUTF(), entrada.readUTF(), entrada.readUTF(), entrada.readInt(), entrada.readDouble());
+    }
+
+    // Códigos fixos do protocolo entre processos: não dependem da ordem das constantes do enum.
+    static byte codigo(TipoMutacao tipo) {
+        return switch (tipo) {
+            case CRIACAO_CLIENTE -> 0;
+            case CRIACAO_CONTA -> 1;
+            case DEPOSITO -> 2;
+            case SAQUE -> 3;
+            case TRANSFERENCIA -> 4;
+            case INVESTIMENTO -> 5;
+            case RESGATE -> 6;
+            case ATUALIZACAO_PRECO -> 7;
+        };
+    }
+
+    static TipoMutacao tipoDoCodigo(byte codigo) throws IOException {
+        return switch (codigo) {
+            case 0 -> TipoMutacao.CRIACAO_CLIENTE;
+            case 1 -> TipoMutacao.CRIACAO_CONTA;
+            case 2 -> TipoMutacao.DEPOSITO;
+            case 3 -> TipoMutacao.SAQUE;
+            case 4 -> TipoMutacao.TRANSFERENCIA;
+            case 5 -> TipoMutacao.INVESTIMENTO;
+            case 6 -> TipoMutacao.RESGATE;
+            case 7 -> TipoMutacao.ATUALIZACAO_PRECO;
+            default -> throw new IOException("Código de tipo de mutação desconhecido: " + (codigo & 0xFF));
+        };
+    }
+}
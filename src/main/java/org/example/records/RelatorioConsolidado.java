@@ -0,0 +1,27 @@
+package org.example.records;
+
+/**
+ * Record com os totais do banco em um instante consistente (a versão do snapshot usado).
+ */
+public record RelatorioConsolidado(long versao,
+                                   int quantidadeClientes,
+                                   int quantidadeContas,
+                                   double saldoContasCorrente,
+                                   double saldoContasPoupanca,
+                                   double exposicaoInvestimentos) {
+
+    /**
+     * @return A soma dos saldos de todas as contas (total de depósitos do banco).
+     */
+    public double totalDepositos() {
+        return saldoContasCorrente + saldoContasPoupanca;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Relatório (versão %d) | Clientes: %d | Contas: %d | Depósitos: R$ %.2f "
+                        + "(Corrente: R$ %.2f, Poupança: R$ %.2f) | Investimentos: R$ %.2f",
+                versao, quantidadeClientes, quantidadeContas, totalDepositos(),
+                saldoContasCorrente, saldoContasPoupanca, exposicaoInvestimentos);
+    }
+}
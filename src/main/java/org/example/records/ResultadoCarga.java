@@ -0,0 +1,35 @@
+package org.example.records;
+
+import java.util.List;
+
+/**
+ * Record com o resultado de uma execução do gerador de carga: vazão, latências e a verificação das invariantes.
+ * Latências em nanossegundos. Os lotes (listagens completas rodando junto com a carga) não entram nas latências.
+ */
+public record ResultadoCarga(long operacoes,
+                             long operacoesRecusadas,
+                             double duracaoSegundos,
+                             long latenciaP50,
+                             long latenciaP99,
+                             long latenciaP999,
+                             long latenciaMaxima,
+                             long lotesConcluidos,
+                             List<String> violacoes) {
+
+    public double vazao() {
+        return operacoes / duracaoSegundos;
+    }
+
+    public boolean invariantesOk() {
+        return violacoes.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Operações: %d (recusadas: %d) em %.2fs | Vazão: %.0f op/s | Latência p50: %.1fµs p99: %.1fµs p99.9: %.1fµs máx: %.1fµs%s | Invariantes: %s",
+                operacoes, operacoesRecusadas, duracaoSegundos, vazao(),
+                latenciaP50 / 1_000.0, latenciaP99 / 1_000.0, latenciaP999 / 1_000.0, latenciaMaxima / 1_000.0,
+                lotesConcluidos > 0 ? " | Lotes: " + lotesConcluidos : "",
+                invariantesOk() ? "OK" : String.join("; ", violacoes));
+    }
+}
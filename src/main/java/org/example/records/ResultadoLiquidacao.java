@@ -0,0 +1,14 @@
+package org.example.records;
+
+/**
+ * Record com o resumo da liquidação de uma janela de compensação PIX.
+ * Cada conta recebe uma única alteração de saldo, em vez de uma por transferência.
+ */
+public record ResultadoLiquidacao(int transferencias, int contas, double volumeBruto, double volumeLiquido) {
+
+    @Override
+    public String toString() {
+        return String.format("Liquidação: %d PIX entre %d contas | Bruto: R$ %.2f | Líquido movimentado: R$ %.2f | Escritas de saldo: %d (em vez de %d)",
+                transferencias, contas, volumeBruto, volumeLiquido, contas, transferencias * 2);
+    }
+}
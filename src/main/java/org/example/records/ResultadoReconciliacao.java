@@ -0,0 +1,22 @@
+package org.example.records;
+
+import java.util.List;
+
+/**
+ * Resultado de uma reconciliação de saldos contra os históricos de transações.
+ * @param contasVerificadas Quantas contas foram conferidas.
+ * @param divergencias As contas cujo saldo não bate com o histórico.
+ * @param duracaoNanos O tempo gasto na verificação.
+ */
+public record ResultadoReconciliacao(int contasVerificadas, List<DivergenciaConta> divergencias, long duracaoNanos) {
+
+    public boolean isConsistente() {
+        return divergencias.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Reconciliação: %d contas em %.1f ms | %d divergentes",
+                contasVerificadas, duracaoNanos / 1e6, divergencias.size());
+    }
+}
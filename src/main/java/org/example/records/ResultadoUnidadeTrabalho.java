@@ -0,0 +1,19 @@
+package org.example.records;
+
+/**
+ * Resultado da confirmação de uma unidade de trabalho.
+ * @param confirmada true se todas as operações foram aplicadas.
+ * @param tentativas Quantas vezes a unidade foi lida e validada (1 = sem conflito).
+ * @param comLocks true se, depois de conflitos em todas as tentativas otimistas, a unidade foi confirmada com os locks.
+ * @param motivo Por que a unidade foi recusada (ex: saldo insuficiente), ou null se confirmada.
+ */
+public record ResultadoUnidadeTrabalho(boolean confirmada, int tentativas, boolean comLocks, String motivo) {
+
+    @Override
+    public String toString() {
+        String caminho = comLocks ? "com locks, após conflitos" : tentativas + " tentativa(s)";
+        return confirmada
+                ? String.format("Unidade de trabalho confirmada (%s)", caminho)
+                : String.format("Unidade de trabalho recusada (%s): %s", caminho, motivo);
+    }
+}
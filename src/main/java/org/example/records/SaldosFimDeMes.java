@@ -0,0 +1,61 @@
+package org.example.records;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Record com o saldo de fechamento de cada conta em cada mês de um período.
+ * Os saldos ficam em um vetor achatado (um bloco por conta, uma posição por mês);
+ * use {@link #saldo} e {@link #totalDoMes} para consultá-los.
+ */
+public record SaldosFimDeMes(YearMonth inicio, int meses, String[] numerosContas, double[] saldos,
+                             Map<String, Integer> indiceContas) {
+
+    public SaldosFimDeMes(YearMonth inicio, int meses, String[] numerosContas, double[] saldos) {
+        this(inicio, meses, numerosContas, saldos, indexar(numerosContas));
+    }
+
+    // Posição de cada conta no vetor de saldos, para a consulta não percorrer todas as contas.
+    private static Map<String, Integer> indexar(String[] numerosContas) {
+        Map<String, Integer> indice = new HashMap<>(numerosContas.length * 2);
+        for (int i = 0; i < numerosContas.length; i++) {
+            indice.put(numerosContas[i], i);
+        }
+        return indice;
+    }
+
+    /**
+     * @return O saldo da conta no último instante do mês (NaN para conta ou mês fora do resultado).
+     */
+    public double saldo(String numeroConta, YearMonth mes) {
+        int conta = indiceContas.getOrDefault(numeroConta, -1);
+        long deslocamento = ChronoUnit.MONTHS.between(inicio, mes);
+        if (conta < 0 || deslocamento < 0 || deslocamento >= meses) return Double.NaN;
+        return saldos[conta * meses + (int) deslocamento];
+    }
+
+    /**
+     * @return A soma dos saldos de fechamento de todas as contas no mês.
+     */
+    public double totalDoMes(YearMonth mes) {
+        long deslocamento = ChronoUnit.MONTHS.between(inicio, mes);
+        if (deslocamento < 0 || deslocamento >= meses) return Double.NaN;
+        double total = 0;
+        for (int i = (int) deslocamento; i < saldos.length; i += meses) {
+            total += saldos[i];
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("Saldos de fechamento | Contas: %d%n", numerosContas.length));
+        for (int m = 0; m < meses; m++) {
+            YearMonth mes = inicio.plusMonths(m);
+            sb.append(String.format("  %s | Total: R$ %.2f%n", mes, totalDoMes(mes)));
+        }
+        return sb.toString();
+    }
+}
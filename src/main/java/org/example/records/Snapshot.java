@@ -0,0 +1,17 @@
+package org.example.records;
+
+import org.example.model.RelogioVersoes;
+
+/**
+ * Record que representa uma visão consistente (ponto no tempo) do banco.
+ * Enquanto estiver aberto, os saldos lidos com ele refletem exatamente as escritas confirmadas
+ * até a sua versão, mesmo que transferências continuem acontecendo em paralelo.
+ * Deve ser fechado uma única vez, de preferência com try-with-resources.
+ */
+public record Snapshot(long versao) implements AutoCloseable {
+
+    @Override
+    public void close() {
+        RelogioVersoes.fecharSnapshot(versao);
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.records;
+
+import org.example.enums.TipoTransacao;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Record com o volume diário de transações por tipo, em um período.
+ * Os valores ficam em vetores achatados (um bloco por dia, uma posição por {@link TipoTransacao})
+ * para evitar objetos por dia/tipo; use {@link #volume} e {@link #quantidade} para consultá-los.
+ */
+public record VolumeDiarioTransacoes(LocalDate inicio, int dias, double[] valores, long[] quantidades) {
+
+    public static final int TIPOS = TipoTransacao.values().length;
+
+    /**
+     * @return A soma dos valores das transações do tipo no dia (0 fora do período).
+     */
+    public double volume(LocalDate dia, TipoTransacao tipo) {
+        int indice = indice(dia, tipo);
+        return indice < 0 ? 0.0 : valores[indice];
+    }
+
+    /**
+     * @return A quantidade de transações do tipo no dia (0 fora do período).
+     */
+    public long quantidade(LocalDate dia, TipoTransacao tipo) {
+        int indice = indice(dia, tipo);
+        return indice < 0 ? 0 : quantidades[indice];
+    }
+
+    private int indice(LocalDate dia, TipoTransacao tipo) {
+        long deslocamento = ChronoUnit.DAYS.between(inicio, dia);
+        if (deslocamento < 0 || deslocamento >= dias) return -1;
+        return (int) deslocamento * TIPOS + tipo.ordinal();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Volume diário de transações:\n");
+        for (int d = 0; d < dias; d++) {
+            LocalDate dia = inicio.plusDays(d);
+            for (TipoTransacao tipo : TipoTransacao.values()) {
+                long quantidade = quantidade(dia, tipo);
+                if (quantidade > 0) {
+                    sb.append(String.format("  %s %-28s | Qtd: %d | Total: R$ %.2f%n", dia, tipo, quantidade, volume(dia, tipo)));
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
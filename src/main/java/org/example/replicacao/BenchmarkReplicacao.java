@@ -0,0 +1,134 @@
+package org.example.replicacao;
+
+import org.example.model.Conta;
+import org.example.records.MetricasReplicacao;
+import org.example.repository.ClienteRepository;
+import org.example.service.BancoService;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark de vazão da replicação primário/backup com seguidores em processos locais separados.
+ * <ol>
+ *   <li>Modo em pipeline: o primário executa as operações sem esperar os seguidores; mede-se a vazão
+ *   até a última confirmação e o atraso máximo observado durante a carga.</li>
+ *   <li>Modo síncrono: cada operação espera a confirmação de todos os seguidores antes da próxima,
+ *   mostrando o custo de uma ida e volta por operação.</li>
+ * </ol>
+ * Ao final, o estado de cada seguidor (última sequência, soma dos saldos e raiz da árvore de checksums) é comparado com o do primário.
+ * Argumentos opcionais: [seguidores] [operacoes]
+ */
+public class BenchmarkReplicacao {
+
+    private static final int CLIENTES = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        int quantidadeSeguidores = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int operacoes = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        LogMutacoes log = new LogMutacoes();
+        ClienteRepository repository = new ClienteRepository();
+        BancoService banco = new BancoService(repository, null, null, log);
+        banco.setSaida(new PrintStream(OutputStream.nullOutputStream()));
+        PrimarioReplicacao primario = new PrimarioReplicacao(log, 0);
+
+        List<Process> processos = new ArrayList<>();
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        for (int i = 0; i < quantidadeSeguidores; i++) {
+            processos.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    SeguidorReplicacao.class.getName(), "127.0.0.1", String.valueOf(primario.getPorta()))
+                    .redirectErrorStream(true).start());
+        }
+        while (primario.metricas().size() < quantidadeSeguidores) {
+            Thread.sleep(10);
+        }
+
+        Conta[] contas = new Conta[CLIENTES * 2];
+        for (int i = 0; i < CLIENTES; i++) {
+            String cpf = String.format("%011d", i);
+            banco.criarCliente("Cliente " + i, cpf);
+            contas[2 * i] = banco.adicionarContaParaCliente(cpf, "corrente");
+            contas[2 * i + 1] = banco.adicionarContaParaCliente(cpf, "poupanca");
+            banco.depositar(contas[2 * i], 10_000);
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        long maiorAtrasoMutacoes = 0;
+        double maiorAtrasoMillis = 0;
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < operacoes; i++) {
+            executarOperacao(banco, contas, random);
+            if (i % 5_000 == 0) {
+                for (MetricasReplicacao m : primario.metricas()) {
+                    maiorAtrasoMutacoes = Math.max(maiorAtrasoMutacoes, m.atrasoMutacoes());
+                    maiorAtrasoMillis = Math.max(maiorAtrasoMillis, m.atrasoMillis());
+                }
+            }
+        }
+        long fimPrimario = System.nanoTime();
+        primario.aguardarConfirmacao(log.ultimaSequencia(), 120_000);
+        long fimPipeline = System.nanoTime();
+
+        int operacoesSincronas = Math.max(1, operacoes / 20);
+        long inicioSincrono = System.nanoTime();
+        for (int i = 0; i < operacoesSincronas; i++) {
+            executarOperacao(banco, contas, random);
+            primario.aguardarConfirmacao(log.ultimaSequencia(), 10_000);
+        }
+        long fimSincrono = System.nanoTime();
+
+        System.out.printf("Seguidores: %d | Mutações no log: %d%n", quantidadeSeguidores, log.ultimaSequencia());
+        System.out.printf("Pipeline: %d operações | Primário: %.0f op/s | Até a última confirmação: %.0f op/s | Atraso máximo: %d mutações / %.2f ms%n",
+                operacoes, operacoes / segundos(inicio, fimPrimario), operacoes / segundos(inicio, fimPipeline),
+                maiorAtrasoMutacoes, maiorAtrasoMillis);
+        System.out.printf("Síncrono: %d operações | %.0f op/s | %.1f µs por operação confirmada%n",
+                operacoesSincronas, operacoesSincronas / segundos(inicioSincrono, fimSincrono),
+                (fimSincrono - inicioSincrono) / 1e3 / operacoesSincronas);
+        primario.metricas().forEach(System.out::println);
+
+        double saldosPrimario = repository.buscarTodos().stream()
+                .flatMap(c -> c.getContas().stream()).mapToDouble(Conta::getSaldo).sum();
+        String esperado = String.format(Locale.ROOT, "RESUMO sequencia=%d saldos=%.2f raiz=%016x erro=null",
+                log.ultimaSequencia(), saldosPrimario, banco.getArvoreMerkle().raiz());
+        primario.close();
+        for (Process processo : processos) {
+            String resumo = lerResumo(processo);
+            System.out.printf("Seguidor: %s -> %s%n", resumo, esperado.equals(resumo) ? "CONSISTENTE" : "DIVERGENTE (esperado: " + esperado + ")");
+        }
+    }
+
+    private static void executarOperacao(BancoService banco, Conta[] contas, SplittableRandom random) {
+        Conta conta = contas[random.nextInt(contas.length)];
+        double valor = 1 + random.nextInt(100);
+        switch (random.nextInt(4)) {
+            case 0 -> banco.depositar(conta, valor);
+            case 1 -> banco.sacar(conta, valor);
+            default -> banco.transferir(conta.getNumero(), contas[random.nextInt(contas.length)].getNumero(), valor);
+        }
+    }
+
+    private static String lerResumo(Process processo) throws Exception {
+        String resumo = "(sem resumo)";
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(processo.getInputStream()))) {
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                if (linha.startsWith("RESUMO")) resumo = linha;
+            }
+        }
+        processo.waitFor();
+        return resumo;
+    }
+
+    private static double segundos(long inicioNanos, long fimNanos) {
+        return (fimNanos - inicioNanos) / 1e9;
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.replicacao;
+
+import org.example.enums.TipoMutacao;
+import org.example.records.Mutacao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Log ordenado, em memória, de todas as mutações aplicadas pelo BancoService.
+ * A ordem do log é a ordem em que as alterações aconteceram em cada conta, pois o registro é
+ * feito ainda com os locks das contas adquiridos. Seguidores reproduzem o log na mesma ordem
+ * e chegam ao mesmo estado. As sequências começam em 1.
+ * <p>
+ * O início do log pode ser descartado depois de confirmado por todos os seguidores
+ * ({@link #descartarAte}); a partir daí, só quem já aplicou essas mutações pode continuar a ler o log.
+ * <p>
+ * A retenção também é limitada, com ou sem seguidores: o log guarda no máximo {@code retencaoMaxima}
+ * mutações. Ao passar disso, as mais antigas são descartadas até restarem três quartos do limite (em lote,
+ * para não deslocar o log a cada registro). Um seguidor atrasado além da retenção é desconectado ao pedir
+ * as mutações descartadas e precisaria de uma cópia completa do estado.
+ */
+public class LogMutacoes {
+
+    public static final int RETENCAO_PADRAO = 1 << 20;
+
+    private final int retencaoMaxima;
+
+    // mutacoes.get(i) e instantesRegistro[i] são da sequência descartadas + i + 1.
+    private final List<Mutacao> mutacoes = new ArrayList<>();
+    private long[] instantesRegistro = new long[1024]; // System.nanoTime() de cada registro, para medir atraso.
+    private long descartadas;
+
+    /**
+     * Cria o log com a retenção padrão ({@value #RETENCAO_PADRAO} mutações).
+     */
+    public LogMutacoes() {
+        this(RETENCAO_PADRAO);
+    }
+
+    /**
+     * @param retencaoMaxima Quantas mutações, no máximo, o log guarda.
+     */
+    public LogMutacoes(int retencaoMaxima) {
+        if (retencaoMaxima < 4) throw new IllegalArgumentException("Retenção do log muito pequena: " + retencaoMaxima);
+        this.retencaoMaxima = retencaoMaxima;
+    }
+
+    /**
+     * Registra uma nova mutação e acorda quem estiver esperando por ela.
+     * @return A sequência atribuída.
+     */
+    public synchronized long registrar(TipoMutacao tipo, String chave, String chaveSecundaria, String texto, int indice, double valor) {
+        long sequencia = descartadas + mutacoes.size() + 1L;
+        mutacoes.add(new Mutacao(sequencia, tipo, chave, chaveSecundaria, texto, indice, valor));
+        if (mutacoes.size() > instantesRegistro.length) {
+            instantesRegistro = Arrays.copyOf(instantesRegistro, instantesRegistro.length * 2);
+        }
+        instantesRegistro[mutacoes.size() - 1] = System.nanoTime();
+        if (mutacoes.size() > retencaoMaxima) {
+            descartarAte(sequencia - retencaoMaxima * 3L / 4);
+        }
+        notifyAll();
+        return sequencia;
+    }
+
+    public synchronized long ultimaSequencia() {
+        return descartadas + mutacoes.size();
+    }
+
+    /**
+     * @return A última sequência já descartada (0 se nenhuma).
+     */
+    public synchronized long ultimaDescartada() {
+        return descartadas;
+    }
+
+    /**
+     * @return O System.nanoTime() em que a mutação da sequência foi registrada, ou -1 se ela não estiver no log.
+     */
+    public synchronized long instanteRegistro(long sequencia) {
+        if (sequencia <= descartadas || sequencia > ultimaSequencia()) return -1;
+        return instantesRegistro[(int) (sequencia - descartadas - 1)];
+    }
+
+    /**
+     * Descarta as mutações até a sequência informada (inclusive), liberando a memória do início do log.
+     * Deve receber uma sequência já aplicada por todos os seguidores.
+     * @param sequencia A última sequência a descartar; valores além do fim do log são limitados a ele.
+     */
+    public synchronized void descartarAte(long sequencia) {
+        int quantidade = (int) (Math.min(sequencia, ultimaSequencia()) - descartadas);
+        if (quantidade <= 0) return;
+        mutacoes.subList(0, quantidade).clear();
+        System.arraycopy(instantesRegistro, quantidade, instantesRegistro, 0, mutacoes.size());
+        descartadas += quantidade;
+    }
+
+    /**
+     * Espera até existirem mutações após a sequência informada e retorna um lote delas.
+     * @param aposSequencia A última sequência já lida.
+     * @param maximo O tamanho máximo do lote.
+     * @param esperaMillis Quanto esperar por novas mutações antes de retornar um lote vazio.
+     * @return As mutações seguintes, em ordem.
+     * @throws IllegalStateException se as mutações seguintes à sequência já tiverem sido descartadas.
+     */
+    public synchronized List<Mutacao> lerApos(long aposSequencia, int maximo, long esperaMillis) throws InterruptedException {
+        if (aposSequencia < descartadas) {
+            throw new IllegalStateException("Mutações após a sequência " + aposSequencia + " já foram descartadas do log.");
+        }
+        if (ultimaSequencia() <= aposSequencia) {
+            wait(esperaMillis);
+            if (aposSequencia < descartadas) {
+                throw new IllegalStateException("Mutações após a sequência " + aposSequencia + " já foram descartadas do log.");
+            }
+        }
+        int inicio = (int) (aposSequencia - descartadas);
+        int fim = (int) Math.min(mutacoes.size(), aposSequencia - descartadas + maximo);
+        return inicio >= fim ? List.of() : new ArrayList<>(mutacoes.subList(inicio, fim));
+    }
+}
@@ -0,0 +1,192 @@
+package org.example.replicacao;
+
+import org.example.records.MetricasReplicacao;
+import org.example.records.Mutacao;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Lado primário da replicação primário/backup.
+ * Aceita conexões TCP locais de seguidores e transmite o {@link LogMutacoes} em ordem, a partir da
+ * última sequência que cada seguidor já aplicou. O envio é em pipeline: o primário não espera a
+ * confirmação de um lote para enviar o próximo; as confirmações chegam por conta própria em outra
+ * thread e alimentam as métricas de atraso.
+ * <p>
+ * Protocolo: o seguidor envia um long com a última sequência aplicada; o primário envia mutações
+ * ({@link Mutacao#escrever}); o seguidor envia longs com a maior sequência já aplicada.
+ * <p>
+ * O que todos os seguidores conectados já confirmaram é descartado do log, e o log nunca passa da sua
+ * retenção máxima, mesmo sem seguidores (ver {@link LogMutacoes}). Um seguidor que peça mutações já
+ * descartadas é desconectado: ele precisaria de uma cópia completa do estado.
+ */
+public class PrimarioReplicacao implements AutoCloseable {
+
+    private static final int TAMANHO_LOTE = 512;
+    private static final long ESPERA_LOG_MILLIS = 50;
+
+    private final LogMutacoes log;
+    private final ServerSocket servidor;
+    private final List<ConexaoSeguidor> seguidores = new CopyOnWriteArrayList<>();
+    private volatile boolean ativo = true;
+
+    /**
+     * Abre a porta e começa a aceitar seguidores em uma thread própria.
+     * @param log O log de mutações do BancoService primário.
+     * @param porta A porta TCP local (0 = escolher uma livre).
+     */
+    public PrimarioReplicacao(LogMutacoes log, int porta) throws IOException {
+        this.log = log;
+        this.servidor = new ServerSocket(porta, 50, InetAddress.getLoopbackAddress());
+        iniciarThread("replicacao-aceite", this::aceitarSeguidores);
+    }
+
+    public int getPorta() {
+        return servidor.getLocalPort();
+    }
+
+    /**
+     * @return O atraso atual de cada seguidor conectado.
+     */
+    public List<MetricasReplicacao> metricas() {
+        List<MetricasReplicacao> metricas = new ArrayList<>();
+        long ultima = log.ultimaSequencia();
+        for (ConexaoSeguidor seguidor : seguidores) {
+            metricas.add(new MetricasReplicacao(seguidor.endereco, ultima, seguidor.sequenciaConfirmada, seguidor.atrasoNanos / 1e6));
+        }
+        return metricas;
+    }
+
+    /**
+     * Espera até que todos os seguidores conectados confirmem a sequência informada.
+     * @return true se confirmada dentro do prazo.
+     */
+    public boolean aguardarConfirmacao(long sequencia, long timeoutMillis) throws InterruptedException {
+        long limite = System.currentTimeMillis() + timeoutMillis;
+        for (ConexaoSeguidor seguidor : seguidores) {
+            synchronized (seguidor) {
+                while (seguidor.sequenciaConfirmada < sequencia && seguidor.conectado) {
+                    long restante = limite - System.currentTimeMillis();
+                    if (restante <= 0) return false;
+                    seguidor.wait(restante);
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        ativo = false;
+        servidor.close();
+        for (ConexaoSeguidor seguidor : seguidores) {
+            seguidor.socket.close();
+        }
+    }
+
+    private void aceitarSeguidores() {
+        while (ativo) {
+            try {
+                Socket socket = servidor.accept();
+                socket.setTcpNoDelay(true);
+                DataInputStream entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                ConexaoSeguidor seguidor = new ConexaoSeguidor(socket, entrada, saida, entrada.readLong());
+                seguidores.add(seguidor);
+                iniciarThread("replicacao-envio-" + seguidor.endereco, seguidor::enviar);
+                iniciarThread("replicacao-confirmacao-" + seguidor.endereco, seguidor::receberConfirmacoes);
+            } catch (IOException e) {
+                if (ativo) System.out.println("Erro ao aceitar seguidor: " + e.getMessage());
+            }
+        }
+    }
+
+    // Descarta o início do log já aplicado por todos os seguidores conectados. Espera acumular um lote,
+    // para não deslocar o restante do log a cada confirmação recebida.
+    private void descartarConfirmadas() {
+        long menor = Long.MAX_VALUE;
+        for (ConexaoSeguidor seguidor : seguidores) {
+            menor = Math.min(menor, seguidor.sequenciaConfirmada);
+        }
+        if (menor != Long.MAX_VALUE && menor - log.ultimaDescartada() >= TAMANHO_LOTE) {
+            log.descartarAte(menor);
+        }
+    }
+
+    private static void iniciarThread(String nome, Runnable tarefa) {
+        Thread thread = new Thread(tarefa, nome);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private final class ConexaoSeguidor {
+        private final Socket socket;
+        private final DataInputStream entrada;
+        private final DataOutputStream saida;
+        private final String endereco;
+        private volatile long sequenciaConfirmada;
+        private volatile long atrasoNanos;
+        private volatile boolean conectado = true;
+
+        private ConexaoSeguidor(Socket socket, DataInputStream entrada, DataOutputStream saida, long sequenciaAplicada) {
+            this.socket = socket;
+            this.entrada = entrada;
+            this.saida = saida;
+            this.endereco = socket.getRemoteSocketAddress().toString();
+            this.sequenciaConfirmada = sequenciaAplicada;
+        }
+
+        private void enviar() {
+            try {
+                long enviada = sequenciaConfirmada;
+                while (ativo && conectado) {
+                    List<Mutacao> lote = log.lerApos(enviada, TAMANHO_LOTE, ESPERA_LOG_MILLIS);
+                    for (Mutacao mutacao : lote) {
+                        mutacao.escrever(saida);
+                    }
+                    if (!lote.isEmpty()) {
+                        saida.flush();
+                        enviada = lote.get(lote.size() - 1).sequencia();
+                    }
+                }
+            } catch (IOException | InterruptedException | IllegalStateException e) {
+                desconectar();
+            }
+        }
+
+        private void receberConfirmacoes() {
+            try {
+                while (ativo && conectado) {
+                    long confirmada = entrada.readLong();
+                    long agora = System.nanoTime();
+                    long instante = log.instanteRegistro(confirmada);
+                    if (instante >= 0) atrasoNanos = agora - instante;
+                    synchronized (this) {
+                        sequenciaConfirmada = confirmada;
+                        notifyAll();
+                    }
+                    descartarConfirmadas();
+                }
+            } catch (IOException e) {
+                desconectar();
+            }
+        }
+
+        private void desconectar() {
+            synchronized (this) {
+                conectado = false;
+                notifyAll();
+            }
+            seguidores.remove(this);
+        }
+    }
+}
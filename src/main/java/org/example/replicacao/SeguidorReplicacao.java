@@ -0,0 +1,183 @@
+package org.example.replicacao;
+
+import org.example.model.Cliente;
+import org.example.model.Conta;
+import org.example.records.Mutacao;
+import org.example.repository.ClienteRepository;
+import org.example.service.BancoService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Locale;
+
+/**
+ * Lado seguidor (backup) da replicação primário/backup.
+ * Conecta-se ao primário, recebe o log de mutações em ordem e o aplica no seu próprio
+ * {@link ClienteRepository} por meio de um BancoService local, que registra as mesmas mutações
+ * no seu próprio log. Assim, ao ser promovido, o seguidor já tem o log recente (até a retenção
+ * do {@link LogMutacoes}) para servir de primário para os demais.
+ * <p>
+ * Enquanto seguidor, atende apenas consultas (extrato e carteira). As confirmações são enviadas
+ * em lote: quando não há mais dados disponíveis no socket ou a cada {@value #CONFIRMAR_A_CADA} mutações.
+ */
+public class SeguidorReplicacao implements AutoCloseable {
+
+    private static final int CONFIRMAR_A_CADA = 256;
+
+    private final ClienteRepository clienteRepository = new ClienteRepository();
+    private final LogMutacoes log = new LogMutacoes();
+    private final BancoService bancoService = new BancoService(clienteRepository, null, null, log);
+    private final Socket socket;
+    private final Thread aplicador;
+    private volatile long sequenciaAplicada;
+    private volatile boolean promovido;
+    private volatile String erro;
+
+    /**
+     * Conecta ao primário e começa a aplicar o log desde o início.
+     * @param host O endereço do primário.
+     * @param porta A porta de replicação do primário.
+     */
+    public SeguidorReplicacao(String host, int porta) throws IOException {
+        this.socket = new Socket(host, porta);
+        socket.setTcpNoDelay(true);
+        this.aplicador = new Thread(this::aplicarLog, "replicacao-seguidor");
+        aplicador.setDaemon(true);
+        aplicador.start();
+    }
+
+    public long getSequenciaAplicada() {
+        return sequenciaAplicada;
+    }
+
+    /**
+     * @return A mensagem do erro que interrompeu a replicação, ou null se não houve erro.
+     */
+    public String getErro() {
+        return erro;
+    }
+
+    /**
+     * Consulta somente leitura: imprime o extrato de uma conta da réplica.
+     */
+    public void verHistorico(String numeroConta) {
+        bancoService.verHistorico(numeroConta);
+    }
+
+    /**
+     * Consulta somente leitura: imprime a carteira de investimentos de um cliente da réplica.
+     */
+    public void listarCarteira(String cpf) {
+        bancoService.listarCarteira(cpf);
+    }
+
+    /**
+     * Promove o seguidor a primário: para de aplicar o log, libera o BancoService para escritas
+     * e passa a transmitir o próprio log para novos seguidores.
+     * @param porta A porta onde o novo primário aceitará seguidores (0 = escolher uma livre).
+     * @return O novo primário de replicação.
+     */
+    public PrimarioReplicacao promover(int porta) throws IOException, InterruptedException {
+        promovido = true;
+        socket.close();
+        aplicador.join();
+        return new PrimarioReplicacao(log, porta);
+    }
+
+    /**
+     * @return O BancoService da réplica, liberado para escritas após {@link #promover}.
+     */
+    public BancoService getBancoService() {
+        if (!promovido) {
+            throw new IllegalStateException("Réplica somente leitura: promova o seguidor antes de alterar dados.");
+        }
+        return bancoService;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private void aplicarLog() {
+        try {
+            DataInputStream entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            saida.writeLong(sequenciaAplicada);
+            saida.flush();
+            int pendentes = 0;
+            while (!promovido) {
+                Mutacao mutacao = Mutacao.ler(entrada);
+                if (mutacao.sequencia() != sequenciaAplicada + 1) {
+                    throw new IllegalStateException("Sequência fora de ordem: esperada " + (sequenciaAplicada + 1) + ", recebida " + mutacao.sequencia());
+                }
+                aplicar(mutacao);
+                if (log.ultimaSequencia() != mutacao.sequencia()) {
+                    throw new IllegalStateException("Réplica divergente ao aplicar a mutação " + mutacao.sequencia());
+                }
+                sequenciaAplicada = mutacao.sequencia();
+                if (++pendentes >= CONFIRMAR_A_CADA || entrada.available() == 0) {
+                    saida.writeLong(sequenciaAplicada);
+                    saida.flush();
+                    pendentes = 0;
+                }
+            }
+        } catch (EOFException e) {
+            // O primário encerrou a conexão.
+        } catch (IOException e) {
+            if (!promovido) erro = e.getMessage();
+        } catch (RuntimeException e) {
+            erro = e.getMessage();
+        }
+    }
+
+    private void aplicar(Mutacao mutacao) {
+        switch (mutacao.tipo()) {
+            case CRIACAO_CLIENTE -> bancoService.criarCliente(mutacao.texto(), mutacao.chave());
+            case CRIACAO_CONTA -> bancoService.adicionarContaParaCliente(mutacao.chave(), mutacao.texto(), mutacao.chaveSecundaria());
+            case DEPOSITO -> bancoService.depositar(conta(mutacao.chave()), mutacao.valor());
+            case SAQUE -> bancoService.sacar(conta(mutacao.chave()), mutacao.valor());
+            case TRANSFERENCIA -> bancoService.transferir(mutacao.chave(), mutacao.chaveSecundaria(), mutacao.valor());
+            case INVESTIMENTO -> bancoService.fazerInvestimento(conta(mutacao.chave()), mutacao.texto(), mutacao.valor());
+            case RESGATE -> bancoService.resgatarInvestimento(cliente(mutacao.chave()), mutacao.indice(), conta(mutacao.chaveSecundaria()));
+            case ATUALIZACAO_PRECO -> bancoService.atualizarPreco(mutacao.chave(), mutacao.valor());
+        }
+    }
+
+    private Conta conta(String numero) {
+        return bancoService.buscarContaPorNumero(numero)
+                .orElseThrow(() -> new IllegalStateException("Conta " + numero + " não existe na réplica."));
+    }
+
+    private Cliente cliente(String cpf) {
+        return bancoService.buscarClientePorCpf(cpf)
+                .orElseThrow(() -> new IllegalStateException("Cliente " + cpf + " não existe na réplica."));
+    }
+
+    /**
+     * Soma dos saldos de todas as contas da réplica, usada para comparar com o primário.
+     */
+    double totalSaldos() {
+        return clienteRepository.buscarTodos().stream()
+                .flatMap(c -> c.getContas().stream())
+                .mapToDouble(Conta::getSaldo)
+                .sum();
+    }
+
+    /**
+     * Executa um seguidor como processo independente até o primário encerrar a conexão.
+     * Ao final imprime uma linha de resumo lida pelo {@link BenchmarkReplicacao}.
+     * Argumentos: [host] [porta]
+     */
+    public static void main(String[] args) throws Exception {
+        SeguidorReplicacao seguidor = new SeguidorReplicacao(args[0], Integer.parseInt(args[1]));
+        seguidor.aplicador.join();
+        System.out.println(String.format(Locale.ROOT, "RESUMO sequencia=%d saldos=%.2f raiz=%016x erro=%s",
+                seguidor.getSequenciaAplicada(), seguidor.totalSaldos(), seguidor.bancoService.getArvoreMerkle().raiz(), seguidor.getErro()));
+    }
+}
@@ -0,0 +1,212 @@
+package org.example.repository;
+
+import org.example.enums.StatusInvestimento;
+import org.example.enums.TipoTransacao;
+import org.example.model.Investimento;
+import org.example.records.Transacao;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Armazenamento persistente (em arquivos texto) dos dados "frios" dos clientes:
+ * o histórico de transações de cada conta e a lista de investimentos de cada carteira.
+ * Cada conta tem um arquivo de histórico onde as transações são apenas anexadas, e cada carteira
+ * tem um arquivo onde novos investimentos são anexados e que é regravado por completo a cada resgate.
+ */
+public class ArmazenamentoHistorico {
+
+    private static final String SEPARADOR = ";";
+
+    private final Path diretorio;
+
+    /**
+     * @param diretorio O diretório onde os arquivos serão gravados. É criado se não existir.
+     */
+    public ArmazenamentoHistorico(Path diretorio) {
+        this.diretorio = diretorio;
+        try {
+            Files.createDirectories(diretorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar o diretório de histórico: " + diretorio, e);
+        }
+    }
+
+    /**
+     * Anexa uma transação ao final do arquivo de histórico da conta.
+     * @param numeroConta O número da conta.
+     * @param transacao A transação a ser gravada.
+     */
+    public void anexarTransacao(String numeroConta, Transacao transacao) {
+        String linha = String.join(SEPARADOR,
+                transacao.tipo().name(),
+                Double.toString(transacao.valor()),
+                transacao.data().toString(),
+                limpar(transacao.descricao()));
+        anexarLinha(arquivoHistorico(numeroConta), linha, "Falha ao gravar transação da conta " + numeroConta);
+    }
+
+    /**
+     * Anexa um novo investimento ao final do arquivo da carteira, sem regravar os anteriores.
+     * @param cpf O CPF do titular da carteira.
+     * @param investimento O investimento a ser gravado.
+     */
+    public void anexarInvestimento(String cpf, Investimento investimento) {
+        anexarLinha(arquivoCarteira(cpf), linhaInvestimento(investimento), "Falha ao gravar investimento do CPF " + cpf);
+    }
+
+    /**
+     * Lê todo o histórico de transações de uma conta.
+     * @param numeroConta O número da conta.
+     * @return A lista de transações, na ordem em que foram gravadas (vazia se não houver arquivo).
+     */
+    public List<Transacao> carregarTransacoes(String numeroConta) {
+        List<Transacao> transacoes = new ArrayList<>();
+        for (String linha : lerLinhas(arquivoHistorico(numeroConta))) {
+            transacoes.add(lerTransacao(linha));
+        }
+        return transacoes;
+    }
+
+    /**
+     * Lê um trecho do histórico de transações de uma conta. As linhas anteriores ao trecho são puladas
+     * contando as quebras de linha nos bytes do arquivo, sem decodificá-las nem interpretá-las.
+     * @param numeroConta O número da conta.
+     * @param inicio A posição (a partir de 0) da primeira transação do trecho.
+     * @param quantidade A quantidade máxima de transações lidas.
+     * @return As transações do trecho, na ordem em que foram gravadas.
+     */
+    public List<Transacao> carregarTransacoes(String numeroConta, int inicio, int quantidade) {
+        Path arquivo = arquivoHistorico(numeroConta);
+        List<Transacao> transacoes = new ArrayList<>();
+        if (!Files.exists(arquivo)) return transacoes;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long posicao = posicaoDaLinha(canal, inicio);
+            if (posicao < 0) return transacoes;
+            canal.position(posicao);
+            BufferedReader leitor = new BufferedReader(Channels.newReader(canal, StandardCharsets.UTF_8));
+            String linha;
+            while (transacoes.size() < quantidade && (linha = leitor.readLine()) != null) {
+                transacoes.add(lerTransacao(linha));
+            }
+            return transacoes;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler " + arquivo, e);
+        }
+    }
+
+    // Posição em bytes do início da linha informada, ou -1 se o arquivo tiver menos linhas.
+    // Em UTF-8 o byte '\n' nunca aparece dentro de um caractere de vários bytes.
+    private static long posicaoDaLinha(FileChannel canal, int linha) throws IOException {
+        if (linha == 0) return 0;
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long posicao = 0;
+        int encontradas = 0;
+        while (canal.read(buffer) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                posicao++;
+                if (buffer.get() == '\n' && ++encontradas == linha) return posicao;
+            }
+            buffer.clear();
+        }
+        return -1;
+    }
+
+    private static Transacao lerTransacao(String linha) {
+        // O limite 4 preserva a descrição inteira, que é sempre o último campo.
+        String[] campos = linha.split(SEPARADOR, 4);
+        return new Transacao(TipoTransacao.valueOf(campos[0]), Double.parseDouble(campos[1]),
+                LocalDateTime.parse(campos[2]), campos[3]);
+    }
+
+    /**
+     * Regrava por completo a lista de investimentos de uma carteira.
+     * @param cpf O CPF do titular da carteira.
+     * @param investimentos Os investimentos a serem gravados.
+     */
+    public void salvarInvestimentos(String cpf, List<Investimento> investimentos) {
+        List<String> linhas = new ArrayList<>(investimentos.size());
+        for (Investimento inv : investimentos) {
+            linhas.add(linhaInvestimento(inv));
+        }
+        try {
+            Files.write(arquivoCarteira(cpf), linhas, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar carteira do CPF " + cpf, e);
+        }
+    }
+
+    /**
+     * Lê a lista de investimentos de uma carteira.
+     * @param cpf O CPF do titular da carteira.
+     * @param tabelaPrecos A tabela de onde vêm os produtos das posições, que voltam a acompanhar o preço atual.
+     * @return A lista de investimentos (vazia se não houver arquivo).
+     */
+    public List<Investimento> carregarInvestimentos(String cpf, TabelaPrecos tabelaPrecos) {
+        List<Investimento> investimentos = new ArrayList<>();
+        for (String linha : lerLinhas(arquivoCarteira(cpf))) {
+            // O limite 6 preserva o nome inteiro, que é sempre o último campo.
+            String[] campos = linha.split(SEPARADOR, 6);
+            investimentos.add(new Investimento(tabelaPrecos.produto(campos[5]), Double.parseDouble(campos[1]),
+                    LocalDate.parse(campos[0]), Double.parseDouble(campos[4]), StatusInvestimento.valueOf(campos[3]),
+                    Double.parseDouble(campos[2])));
+        }
+        return investimentos;
+    }
+
+    private static String linhaInvestimento(Investimento inv) {
+        return String.join(SEPARADOR,
+                inv.getDataAplicacao().toString(),
+                Double.toString(inv.getValorAplicado()),
+                Double.toString(inv.getValorAtual()),
+                inv.getStatus().name(),
+                Double.toString(inv.getQuantidade()),
+                limpar(inv.getNome()));
+    }
+
+    private static void anexarLinha(Path arquivo, String linha, String mensagemErro) {
+        try (BufferedWriter writer = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(linha);
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(mensagemErro, e);
+        }
+    }
+
+    private List<String> lerLinhas(Path arquivo) {
+        if (!Files.exists(arquivo)) return new ArrayList<>();
+        try {
+            return Files.readAllLines(arquivo, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler " + arquivo, e);
+        }
+    }
+
+    private Path arquivoHistorico(String numeroConta) {
+        return diretorio.resolve("historico-" + numeroConta + ".log");
+    }
+
+    private Path arquivoCarteira(String cpf) {
+        return diretorio.resolve("carteira-" + cpf.replaceAll("[^0-9A-Za-z]", "") + ".log");
+    }
+
+    // Quebras de linha quebrariam o formato de uma linha por registro.
+    private static String limpar(String texto) {
+        return texto == null ? "" : texto.replace('\n', ' ').replace('\r', ' ');
+    }
+}
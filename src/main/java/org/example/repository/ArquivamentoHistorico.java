@@ -0,0 +1,147 @@
+package org.example.repository;
+
+import org.example.records.Transacao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Estágio de arquivamento do histórico das contas: as transações mais antigas que a idade mínima
+ * são seladas em {@link SegmentoHistorico}s imutáveis neste diretório, e só as recentes continuam no heap.
+ * <p>
+ * Diferente do {@link HistoricoSobDemanda}, que tira o histórico inteiro da memória e o relê como texto,
+ * aqui a parte quente continua residente e a fria é lida direto do arquivo mapeado, sem recarregar nada.
+ * <p>
+ * Os segmentos de todas as contas são gravados em sequência em arquivos compartilhados de
+ * {@value #CAPACIDADE_ARQUIVO} bytes ({@link ArquivoSegmentos}), cada um com um único mapeamento. Assim a
+ * quantidade de arquivos e de mapeamentos cresce com o volume arquivado, e não com contas x ciclos
+ * (o Linux limita os mapeamentos por processo em {@code vm.max_map_count}, ~65 mil por padrão).
+ * <p>
+ * Cada instância grava em um subdiretório próprio do diretório informado, que pode ser compartilhado por outras
+ * instâncias e processos. O subdiretório tem um arquivo de trava, travado pelo sistema operacional enquanto
+ * a instância existir; um subdiretório cuja trava está livre foi deixado por um processo que já terminou,
+ * e os seus segmentos não pertencem a mais ninguém.
+ */
+public class ArquivamentoHistorico {
+
+    // Menos transações que isso não compensam um segmento novo; ficam para o próximo ciclo.
+    public static final int MINIMO_POR_SEGMENTO = 64;
+    public static final int CAPACIDADE_ARQUIVO = 64 << 20;
+
+    private static final String EXTENSAO = ".hseg";
+    private static final String PREFIXO_INSTANCIA = "arquivamento-";
+    private static final String TRAVA = "instancia.trava";
+
+    private final Path diretorio;
+    private final FileChannel trava; // Aberto, e travado, durante toda a vida da instância.
+    private final Duration idadeMinima;
+    private final int capacidadeArquivo;
+    private long sequencial;
+    private ArquivoSegmentos atual;
+    private long bytesGravados;
+
+    /**
+     * Os subdiretórios de instâncias que já terminaram são apagados; os das instâncias ativas não são tocados.
+     * @param diretorio O diretório onde fica o subdiretório desta instância. É criado se não existir.
+     * @param idadeMinima A idade a partir da qual uma transação é arquivada.
+     */
+    public ArquivamentoHistorico(Path diretorio, Duration idadeMinima) {
+        this(diretorio, idadeMinima, CAPACIDADE_ARQUIVO);
+    }
+
+    ArquivamentoHistorico(Path diretorio, Duration idadeMinima, int capacidadeArquivo) {
+        this.idadeMinima = idadeMinima;
+        this.capacidadeArquivo = capacidadeArquivo;
+        try {
+            Files.createDirectories(diretorio);
+            this.diretorio = Files.createTempDirectory(diretorio, PREFIXO_INSTANCIA);
+            this.trava = FileChannel.open(this.diretorio.resolve(TRAVA), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            trava.lock();
+            apagarInstanciasEncerradas(diretorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível preparar o diretório de arquivamento: " + diretorio, e);
+        }
+    }
+
+    /**
+     * @return O subdiretório onde esta instância grava os seus segmentos.
+     */
+    public Path getDiretorio() {
+        return diretorio;
+    }
+
+    private void apagarInstanciasEncerradas(Path raiz) throws IOException {
+        try (Stream<Path> instancias = Files.list(raiz)) {
+            for (Path instancia : (Iterable<Path>) instancias::iterator) {
+                if (!instancia.equals(diretorio) && instancia.getFileName().toString().startsWith(PREFIXO_INSTANCIA)) {
+                    apagarSeEncerrada(instancia);
+                }
+            }
+        }
+    }
+
+    // Sem o arquivo de trava, a instância pode estar sendo criada agora: o subdiretório fica para a próxima vez.
+    private static void apagarSeEncerrada(Path instancia) {
+        try (FileChannel canal = FileChannel.open(instancia.resolve(TRAVA), StandardOpenOption.WRITE)) {
+            FileLock travaAlheia = canal.tryLock();
+            if (travaAlheia == null) return; // Outro processo ainda usa o subdiretório.
+            try (Stream<Path> arquivos = Files.list(instancia)) {
+                for (Path arquivo : (Iterable<Path>) arquivos::iterator) {
+                    if (arquivo.getFileName().toString().endsWith(EXTENSAO)) Files.deleteIfExists(arquivo);
+                }
+            }
+            Files.deleteIfExists(instancia.resolve(TRAVA));
+            Files.deleteIfExists(instancia);
+        } catch (OverlappingFileLockException e) {
+            // Travado por outra instância deste mesmo processo.
+        } catch (IOException e) {
+            // Sem perda: a limpeza é repetida por cada instância criada depois.
+        }
+    }
+
+    /**
+     * @return O instante antes do qual as transações já podem ser arquivadas.
+     */
+    public LocalDateTime limite() {
+        return LocalDateTime.now().minus(idadeMinima);
+    }
+
+    /**
+     * Grava as transações de uma conta em um novo segmento, no fim do arquivo compartilhado atual.
+     * A conta deve chamar {@link SegmentoHistorico#liberar()} quando não precisar mais dele.
+     * @param transacoes As transações a serem seladas, na ordem do histórico.
+     * @return O segmento gravado, já mapeado em memória.
+     */
+    public SegmentoHistorico selar(List<Transacao> transacoes) {
+        // A codificação, que é a parte cara, não precisa do lock.
+        ByteBuffer bytes = SegmentoHistorico.codificar(transacoes);
+        synchronized (this) {
+            if (atual == null || atual.livre() < bytes.remaining()) {
+                if (atual != null) atual.encerrarGravacao();
+                // Um segmento maior que a capacidade ganha um arquivo só para ele.
+                atual = new ArquivoSegmentos(diretorio.resolve("segmentos-" + ++sequencial + EXTENSAO),
+                        Math.max(capacidadeArquivo, bytes.remaining()));
+            }
+            bytesGravados += bytes.remaining();
+            return atual.acrescentar(bytes);
+        }
+    }
+
+    /**
+     * @return Quantos bytes de segmentos já foram gravados (os arquivos são esparsos, então é o espaço usado em disco).
+     */
+    public synchronized long getBytesGravados() {
+        return bytesGravados;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Arquivo compartilhado pelos {@link SegmentoHistorico}s de várias contas: os segmentos são gravados um após
+ * o outro e cada um é uma fatia do mesmo mapeamento em memória. O arquivo é mapeado uma única vez, com a
+ * capacidade inteira (o espaço ainda não gravado não ocupa disco).
+ * <p>
+ * Conta quantos segmentos ainda pertencem a alguma conta; quando não resta nenhum e o arquivo já não recebe
+ * segmentos novos, ele é apagado. O mapeamento continua válido para quem ainda estiver lendo.
+ */
+final class ArquivoSegmentos {
+
+    private final Path arquivo;
+    private final MappedByteBuffer mapeamento;
+    private int ocupado;
+    private int vivos;
+    private boolean recebendo = true;
+
+    /**
+     * Cria o arquivo e o mapeia para leitura e escrita.
+     * @param arquivo O arquivo a ser criado; não pode existir.
+     * @param capacidade O tamanho máximo, em bytes, da soma dos segmentos do arquivo.
+     */
+    ArquivoSegmentos(Path arquivo, int capacidade) {
+        this.arquivo = arquivo;
+        // O mapeamento continua válido depois que o canal é fechado.
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            this.mapeamento = canal.map(FileChannel.MapMode.READ_WRITE, 0, capacidade);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao criar o arquivo de segmentos " + arquivo, e);
+        }
+    }
+
+    Path getArquivo() {
+        return arquivo;
+    }
+
+    synchronized int livre() {
+        return mapeamento.capacity() - ocupado;
+    }
+
+    /**
+     * Grava um segmento já codificado no fim do arquivo.
+     * @param bytes O segmento codificado (ver {@link SegmentoHistorico#codificar}); deve caber em {@link #livre()}.
+     * @return O segmento, lido da fatia do mapeamento onde foi gravado.
+     */
+    synchronized SegmentoHistorico acrescentar(ByteBuffer bytes) {
+        int inicio = ocupado;
+        int tamanho = bytes.remaining();
+        mapeamento.put(inicio, bytes, bytes.position(), tamanho);
+        ocupado += tamanho;
+        vivos++;
+        return new SegmentoHistorico(this, mapeamento.slice(inicio, tamanho).asReadOnlyBuffer());
+    }
+
+    /**
+     * Registra que um segmento do arquivo não pertence mais a nenhuma conta.
+     */
+    synchronized void liberar() {
+        vivos--;
+        apagarSeVazio();
+    }
+
+    /**
+     * Indica que o arquivo não receberá mais segmentos (um novo arquivo passa a recebê-los).
+     */
+    synchronized void encerrarGravacao() {
+        recebendo = false;
+        apagarSeVazio();
+    }
+
+    private void apagarSeVazio() {
+        if (vivos > 0 || recebendo) return;
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            // Sem perda: o arquivo não é lido por mais ninguém e é apagado na próxima inicialização do arquivamento.
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.repository;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cache LRU (Least Recently Used) com despejo baseado em tamanho.
+ * Cada entrada tem um "peso" (por exemplo, o número de transações de um histórico) e,
+ * quando a soma dos pesos ultrapassa o limite configurado, as entradas usadas há mais
+ * tempo são removidas. Um callback opcional é chamado a cada remoção, permitindo
+ * gravar de volta dados alterados antes que saiam da memória.
+ * @param <K> O tipo da chave.
+ * @param <V> O tipo do valor armazenado.
+ */
+public class CacheLRU<K, V> {
+
+    // accessOrder = true faz o LinkedHashMap manter as entradas da menos para a mais recentemente usada.
+    private final LinkedHashMap<K, V> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, Integer> pesos = new HashMap<>();
+    private final long pesoMaximo;
+    private final ToIntFunction<V> pesador;
+    private final BiConsumer<K, V> aoRemover;
+    private long pesoTotal;
+
+    /**
+     * @param pesoMaximo A soma máxima dos pesos mantidos em memória.
+     * @param pesador Função que calcula o peso de um valor.
+     * @param aoRemover Callback executado quando uma entrada é despejada (pode ser null).
+     */
+    public CacheLRU(long pesoMaximo, ToIntFunction<V> pesador, BiConsumer<K, V> aoRemover) {
+        this.pesoMaximo = pesoMaximo;
+        this.pesador = pesador;
+        this.aoRemover = aoRemover;
+    }
+
+    /**
+     * Retorna o valor da chave, carregando-o com a função informada em caso de ausência.
+     * @param chave A chave procurada.
+     * @param carregador Função usada para carregar o valor quando ele não está em cache.
+     * @return O valor em cache ou recém-carregado.
+     */
+    public synchronized V obter(K chave, Function<K, V> carregador) {
+        V valor = entradas.get(chave);
+        if (valor == null) {
+            valor = carregador.apply(chave);
+            entradas.put(chave, valor);
+            pesos.put(chave, 0);
+            recalcularPeso(chave);
+        }
+        return valor;
+    }
+
+    /**
+     * Consulta a entrada sem carregá-la no cache: usa o valor em cache, se houver, ou lê direto da origem.
+     * Leituras avulsas (ex: um relatório que passa por todas as chaves) assim não despejam as entradas quentes.
+     * @param chave A chave consultada.
+     * @param seCarregada A consulta ao valor em cache.
+     * @param seAusente A consulta feita direto na origem quando a chave não está em cache.
+     * @return O resultado da consulta.
+     */
+    public synchronized <R> R consultar(K chave, Function<V, R> seCarregada, Function<K, R> seAusente) {
+        V valor = entradas.get(chave);
+        return valor != null ? seCarregada.apply(valor) : seAusente.apply(chave);
+    }
+
+    /**
+     * Altera a entrada da chave, carregando-a se necessário, e recalcula o seu peso. A alteração roda com o
+     * lock do cache: a entrada não é despejada nem recarregada no meio dela.
+     * @param chave A chave da entrada.
+     * @param carregador Função usada para carregar o valor quando ele não está em cache.
+     * @param alteracao A alteração a ser aplicada ao valor.
+     */
+    public synchronized void alterar(K chave, Function<K, V> carregador, Consumer<V> alteracao) {
+        alteracao.accept(obter(chave, carregador));
+        recalcularPeso(chave);
+    }
+
+    /**
+     * Grava uma alteração no armazenamento e a aplica também à entrada, se ela estiver em cache, sem carregá-la.
+     * As duas acontecem com o lock do cache, então um carregamento concorrente nunca vê a alteração duas vezes
+     * (uma no armazenamento e outra na entrada) nem deixa de vê-la.
+     * @param chave A chave da entrada.
+     * @param gravacao A gravação no armazenamento.
+     * @param seCarregada A mesma alteração, aplicada à entrada em cache.
+     */
+    public synchronized void gravar(K chave, Runnable gravacao, Consumer<V> seCarregada) {
+        gravacao.run();
+        V valor = entradas.get(chave);
+        if (valor != null) {
+            seCarregada.accept(valor);
+            recalcularPeso(chave);
+        }
+    }
+
+    /**
+     * Recalcula o peso de uma entrada após ela ter sido alterada (ex: uma transação anexada)
+     * e despeja as entradas mais antigas se o limite for excedido.
+     * @param chave A chave da entrada alterada.
+     */
+    public synchronized void recalcularPeso(K chave) {
+        V valor = entradas.get(chave);
+        if (valor == null) return;
+        int novoPeso = pesador.applyAsInt(valor);
+        Integer anterior = pesos.put(chave, novoPeso);
+        pesoTotal += novoPeso - (anterior == null ? 0 : anterior);
+        despejarExcedente(chave);
+    }
+
+    /**
+     * Remove todas as entradas, chamando o callback de remoção para cada uma.
+     */
+    public synchronized void esvaziar() {
+        entradas.forEach(this::notificarRemocao);
+        entradas.clear();
+        pesos.clear();
+        pesoTotal = 0;
+    }
+
+    public synchronized int quantidadeEntradas() {
+        return entradas.size();
+    }
+
+    public synchronized long getPesoTotal() {
+        return pesoTotal;
+    }
+
+    // A entrada recém-usada nunca é despejada, mesmo que sozinha ultrapasse o limite.
+    private void despejarExcedente(K preservada) {
+        Iterator<Map.Entry<K, V>> it = entradas.entrySet().iterator();
+        while (pesoTotal > pesoMaximo && it.hasNext()) {
+            Map.Entry<K, V> maisAntiga = it.next();
+            if (maisAntiga.getKey().equals(preservada)) continue;
+            it.remove();
+            pesoTotal -= pesos.remove(maisAntiga.getKey());
+            notificarRemocao(maisAntiga.getKey(), maisAntiga.getValue());
+        }
+    }
+
+    private void notificarRemocao(K chave, V valor) {
+        if (aoRemover != null) aoRemover.accept(chave, valor);
+    }
+}
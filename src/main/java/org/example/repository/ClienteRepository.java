@@ -2,25 +2,64 @@ package org.example.repository;
 
 import org.example.model.Cliente;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Repositório para gerenciar a persistência de Clientes em memória.
  * A chave do Map é o CPF do cliente.
+ * O ConcurrentHashMap permite percorrer os clientes enquanto outros são cadastrados.
+ * Os nomes são mantidos também em um {@link IndiceNomes}, para buscas por parte do nome; o índice é
+ * atualizado dentro do compute do Map, então operações no mesmo CPF chegam ao índice na ordem do Map.
  */
 public class ClienteRepository {
-    private final Map<String, Cliente> clientes = new HashMap<>();
+    private final Map<String, Cliente> clientes = new ConcurrentHashMap<>();
+    private final IndiceNomes indiceNomes = new IndiceNomes();
 
     public void salvar(Cliente cliente) {
-        clientes.put(cliente.getCpf(), cliente);
+        clientes.compute(cliente.getCpf(), (cpf, anterior) -> {
+            indiceNomes.adicionar(cliente);
+            return cliente;
+        });
+    }
+
+    /**
+     * Salva o cliente apenas se o CPF ainda não estiver cadastrado, de forma atômica.
+     * @return true se o cliente foi salvo.
+     */
+    public boolean salvarSeAusente(Cliente cliente) {
+        boolean[] salvo = {false};
+        clientes.computeIfAbsent(cliente.getCpf(), cpf -> {
+            indiceNomes.adicionar(cliente);
+            salvo[0] = true;
+            return cliente;
+        });
+        return salvo[0];
+    }
+
+    public void remover(String cpf) {
+        clientes.computeIfPresent(cpf, (chave, removido) -> {
+            indiceNomes.remover(chave);
+            return null;
+        });
     }
 
     public Optional<Cliente> buscarPorCpf(String cpf) {
         return Optional.ofNullable(clientes.get(cpf));
     }
 
+    /**
+     * Busca clientes por parte do nome, ignorando acentos e maiúsculas e tolerando pequenos erros de digitação.
+     * @param consulta O nome ou parte dele (ex: "jose sil").
+     * @param limite A quantidade máxima de resultados.
+     * @return Os clientes mais parecidos com a consulta, do mais ao menos parecido.
+     */
+    public List<Cliente> buscarPorNome(String consulta, int limite) {
+        return indiceNomes.buscar(consulta, limite);
+    }
+
     public Collection<Cliente> buscarTodos() {
         return clientes.values();
     }
@@ -0,0 +1,83 @@
+package org.example.repository;
+
+import org.example.records.Transacao;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * O histórico de uma conta visto como uma única lista (somente leitura): as transações dos segmentos
+ * arquivados, em ordem, seguidas das recentes que ainda estão em memória.
+ * <p>
+ * A leitura sequencial (iteração ou índices crescentes) decodifica cada transação arquivada uma única vez;
+ * um acesso fora de sequência recomeça do ponto mais próximo do índice do segmento. Por guardar essa
+ * posição de leitura, uma instância não deve ser compartilhada entre threads.
+ */
+public class HistoricoEmCamadas extends AbstractList<Transacao> {
+
+    private final List<SegmentoHistorico> segmentos;
+    private final List<Transacao> recentes;
+    private final int[] inicios; // inicios[s] = posição, no histórico, da primeira transação do segmento s.
+    private final int arquivadas;
+
+    private int segmentoAtual = -1;
+    private SegmentoHistorico.Leitor leitor;
+
+    /**
+     * @param segmentos Os segmentos arquivados, do mais antigo ao mais recente.
+     * @param recentes As transações que ainda estão em memória.
+     */
+    public HistoricoEmCamadas(List<SegmentoHistorico> segmentos, List<Transacao> recentes) {
+        this.segmentos = segmentos;
+        this.recentes = recentes;
+        this.inicios = new int[segmentos.size()];
+        int total = 0;
+        for (int s = 0; s < segmentos.size(); s++) {
+            inicios[s] = total;
+            total += segmentos.get(s).getQuantidade();
+        }
+        this.arquivadas = total;
+    }
+
+    @Override
+    public Transacao get(int indice) {
+        if (indice < 0 || indice >= size()) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " fora do histórico de " + size() + " transações");
+        }
+        if (indice >= arquivadas) return recentes.get(indice - arquivadas);
+
+        int segmento = segmentoDe(indice);
+        int local = indice - inicios[segmento];
+        if (segmento != segmentoAtual || leitor.getProximoIndice() != local) {
+            leitor = segmentos.get(segmento).leitor(local);
+            segmentoAtual = segmento;
+        }
+        return leitor.proxima();
+    }
+
+    @Override
+    public int size() {
+        return arquivadas + recentes.size();
+    }
+
+    /**
+     * @return Quantas transações do histórico estão em segmentos arquivados.
+     */
+    public int getArquivadas() {
+        return arquivadas;
+    }
+
+    // Último segmento que começa antes ou na posição (segmentos vazios nunca são gravados).
+    private int segmentoDe(int indice) {
+        int baixo = 0, alto = inicios.length - 1;
+        while (baixo < alto) {
+            int meio = (baixo + alto + 1) >>> 1;
+            if (inicios[meio] <= indice) {
+                baixo = meio;
+            } else {
+                alto = meio - 1;
+            }
+        }
+        return baixo;
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.repository;
+
+import org.example.model.Investimento;
+import org.example.records.Transacao;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Modo em camadas para os dados volumosos dos clientes.
+ * Os metadados e o saldo das contas continuam em memória, enquanto o histórico de transações
+ * e as listas de investimentos ficam no {@link ArmazenamentoHistorico} e são carregados
+ * sob demanda para caches LRU com limite de tamanho.
+ * <p>
+ * Transações e investimentos são gravados no disco assim que registrados, e um resgate regrava a carteira
+ * na hora (write-through): sair do cache nunca perde nada, e registrar em uma conta ou carteira fria só anexa
+ * uma linha ao arquivo, sem carregá-lo. Cada entrada pesa 1 mais o tamanho da lista, para que históricos e
+ * carteiras vazios também contem no limite e sejam despejados.
+ */
+public class HistoricoSobDemanda {
+
+    private final ArmazenamentoHistorico armazenamento;
+    private final CacheLRU<String, List<Transacao>> historicos;
+    private final CacheLRU<String, List<Investimento>> carteiras;
+    private volatile TabelaPrecos tabelaPrecos = new TabelaPrecos(); // Produtos das posições lidas do disco.
+
+    /**
+     * @param diretorio O diretório onde os dados frios serão persistidos.
+     * @param maxTransacoesEmMemoria Quantidade máxima de transações mantidas em cache.
+     * @param maxInvestimentosEmMemoria Quantidade máxima de investimentos mantidos em cache.
+     */
+    public HistoricoSobDemanda(Path diretorio, long maxTransacoesEmMemoria, long maxInvestimentosEmMemoria) {
+        this.armazenamento = new ArmazenamentoHistorico(diretorio);
+        this.historicos = new CacheLRU<>(maxTransacoesEmMemoria, HistoricoSobDemanda::peso, null);
+        this.carteiras = new CacheLRU<>(maxInvestimentosEmMemoria, HistoricoSobDemanda::peso, null);
+    }
+
+    /**
+     * Define a tabela de onde vêm os produtos das posições carregadas do disco, para que elas acompanhem
+     * o mesmo preço das posições residentes (ver {@link org.example.service.BancoService}).
+     * @param tabelaPrecos A tabela de preços do banco.
+     */
+    public void usarTabelaPrecos(TabelaPrecos tabelaPrecos) {
+        this.tabelaPrecos = tabelaPrecos;
+    }
+
+    private static int peso(List<?> lista) {
+        return 1 + lista.size();
+    }
+
+    /**
+     * Retorna o histórico de uma conta, lendo-o do disco se não estiver em cache.
+     * @param numeroConta O número da conta.
+     * @return A lista de transações da conta.
+     */
+    public List<Transacao> historicoDe(String numeroConta) {
+        return historicos.obter(numeroConta, armazenamento::carregarTransacoes);
+    }
+
+    /**
+     * Lê um trecho do histórico de uma conta sem carregá-lo no cache (ver {@link CacheLRU#consultar}).
+     * Do disco, só as transações do trecho são interpretadas.
+     * @param numeroConta O número da conta.
+     * @param inicio A posição da primeira transação do trecho.
+     * @param quantidade A quantidade máxima de transações.
+     * @return As transações do trecho, na ordem do histórico (menos que a quantidade no fim do histórico).
+     */
+    public List<Transacao> trechoDoHistorico(String numeroConta, int inicio, int quantidade) {
+        return historicos.consultar(numeroConta,
+                historico -> List.copyOf(historico.subList(Math.min(inicio, historico.size()), Math.min(historico.size(), inicio + quantidade))),
+                numero -> armazenamento.carregarTransacoes(numero, inicio, quantidade));
+    }
+
+    /**
+     * Registra uma nova transação: anexa ao arquivo e, se o histórico estiver em cache, também à lista.
+     * @param numeroConta O número da conta.
+     * @param transacao A transação a ser registrada.
+     */
+    public void registrarTransacao(String numeroConta, Transacao transacao) {
+        historicos.gravar(numeroConta, () -> armazenamento.anexarTransacao(numeroConta, transacao), historico -> historico.add(transacao));
+    }
+
+    /**
+     * Retorna os investimentos de uma carteira, lendo-os do disco se não estiverem em cache.
+     * @param cpf O CPF do titular.
+     * @return A lista de investimentos da carteira.
+     */
+    public List<Investimento> investimentosDe(String cpf) {
+        return carteiras.obter(cpf, this::carregarCarteira);
+    }
+
+    private List<Investimento> carregarCarteira(String cpf) {
+        return new CopyOnWriteArrayList<>(armazenamento.carregarInvestimentos(cpf, tabelaPrecos));
+    }
+
+    /**
+     * Adiciona um investimento à carteira: anexa ao arquivo e, se a carteira estiver em cache, também à lista.
+     * @param cpf O CPF do titular.
+     * @param investimento O novo investimento.
+     */
+    public void registrarInvestimento(String cpf, Investimento investimento) {
+        carteiras.gravar(cpf, () -> armazenamento.anexarInvestimento(cpf, investimento), investimentos -> investimentos.add(investimento));
+    }
+
+    /**
+     * Resgata um investimento e regrava a carteira. O investimento é buscado na carteira em cache (carregada,
+     * se preciso) no momento do resgate, e não em uma lista obtida antes, que pode já ter saído do cache.
+     * @param cpf O CPF do titular.
+     * @param indice A posição do investimento na carteira.
+     * @param valor O valor creditado no resgate.
+     */
+    public void resgatarInvestimento(String cpf, int indice, double valor) {
+        carteiras.alterar(cpf, this::carregarCarteira, investimentos -> {
+            investimentos.get(indice).resgatar(valor);
+            armazenamento.salvarInvestimentos(cpf, investimentos);
+        });
+    }
+
+    /**
+     * Libera a memória ocupada pelos caches. Tudo já está gravado no disco.
+     */
+    public void descarregar() {
+        carteiras.esvaziar();
+        historicos.esvaziar();
+    }
+}
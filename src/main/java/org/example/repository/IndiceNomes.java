@@ -0,0 +1,412 @@
+package org.example.repository;
+
+import org.example.model.Cliente;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de busca por nome de cliente, atualizado a cada cadastro.
+ * <p>
+ * Os nomes são normalizados (sem acentos, minúsculos, sem "da/de/do/dos/das/e") e quebrados em palavras.
+ * Cada palavra distinta recebe um id e uma lista de postagens (ids dos clientes) em vetores de int;
+ * o vocabulário de nomes é pequeno mesmo com milhões de clientes, então as buscas trabalham sobre ele:
+ * <ul>
+ *     <li>palavra exata e prefixo: vocabulário ordenado (faixa de chaves);</li>
+ *     <li>aproximada (erros de digitação): trigramas do vocabulário e distância de edição até 1 ou 2.</li>
+ * </ul>
+ * Com várias palavras na consulta, só a lista de postagens mais curta é percorrida; as demais palavras
+ * são conferidas nas palavras do próprio cliente, e a busca para assim que os k melhores não podem mais mudar.
+ * <p>
+ * Cada CPF tem no máximo um id ativo. Retirar um cliente só marca o id como vazio; quando os vazios passam
+ * da metade, o índice é reconstruído só com os clientes ativos.
+ */
+public class IndiceNomes {
+
+    private static final Set<String> PARTICULAS = Set.of("da", "de", "do", "das", "dos", "e");
+    private static final int EXATA = 3;
+    private static final int PREFIXO = 2;
+    private static final int APROXIMADA = 1;
+    private static final int MAXIMO_PALAVRAS_POR_PREFIXO = 1_000;
+    private static final int PALAVRAS_NA_ESTIMATIVA = 64;
+    private static final int MINIMO_PARA_COMPACTAR = 1_024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Vocabulário: id da palavra -> texto e postagens.
+    private final Map<String, Integer> idsPalavras = new HashMap<>();
+    private final List<String> palavras = new ArrayList<>();
+    private final List<ListaInteiros> postagens = new ArrayList<>();
+    private final TreeMap<String, Integer> vocabularioOrdenado = new TreeMap<>();
+    private final Map<String, ListaInteiros> trigramas = new HashMap<>(); // trigrama -> ids de palavras.
+
+    // Clientes: id -> cliente (null se removido) e as palavras de cada um, em vetores achatados.
+    private Cliente[] clientes = new Cliente[1024];
+    private int[] inicioPalavras = new int[1025];
+    private final ListaInteiros palavrasClientes = new ListaInteiros();
+    private final Map<String, Integer> idsClientes = new HashMap<>(); // CPF -> id ativo.
+    private int quantidadeClientes;
+    private int vazios;
+
+    /**
+     * Acrescenta um cliente ao índice, no lugar do cliente de mesmo CPF, se houver.
+     * @param cliente O cliente recém-cadastrado.
+     */
+    public void adicionar(Cliente cliente) {
+        String[] tokens = normalizar(cliente.getNome());
+        lock.writeLock().lock();
+        try {
+            retirar(cliente.getCpf());
+            indexar(cliente, tokens);
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retira um cliente do índice (ex: cliente migrado para outro nó). O espaço só é marcado como vazio.
+     * @param cpf O CPF do cliente a ser retirado.
+     */
+    public void remover(String cpf) {
+        lock.writeLock().lock();
+        try {
+            retirar(cpf);
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Chamado com o lock de escrita adquirido.
+    private void indexar(Cliente cliente, String[] tokens) {
+        if (quantidadeClientes == clientes.length) {
+            clientes = Arrays.copyOf(clientes, clientes.length * 2);
+            inicioPalavras = Arrays.copyOf(inicioPalavras, clientes.length + 1);
+        }
+        int id = quantidadeClientes++;
+        clientes[id] = cliente;
+        idsClientes.put(cliente.getCpf(), id);
+        for (String token : tokens) {
+            int palavra = idPalavra(token);
+            palavrasClientes.adicionar(palavra);
+            ListaInteiros lista = postagens.get(palavra);
+            if (lista.tamanho == 0 || lista.valores[lista.tamanho - 1] != id) lista.adicionar(id);
+        }
+        inicioPalavras[id + 1] = palavrasClientes.tamanho;
+    }
+
+    private void retirar(String cpf) {
+        Integer id = idsClientes.remove(cpf);
+        if (id == null) return;
+        clientes[id] = null;
+        vazios++;
+    }
+
+    /**
+     * Reconstrói o índice só com os clientes ativos quando os ids vazios passam da metade,
+     * para que as listas de postagens não cresçam com clientes que já saíram. Custo amortizado constante.
+     */
+    private void compactarSeNecessario() {
+        if (vazios < MINIMO_PARA_COMPACTAR || vazios * 2 < quantidadeClientes) return;
+        Cliente[] antigos = clientes;
+        int[] inicioAntigo = inicioPalavras;
+        int[] palavrasAntigas = Arrays.copyOf(palavrasClientes.valores, palavrasClientes.tamanho);
+        List<String> vocabularioAntigo = new ArrayList<>(palavras);
+        int quantidadeAntiga = quantidadeClientes;
+
+        idsPalavras.clear();
+        palavras.clear();
+        postagens.clear();
+        vocabularioOrdenado.clear();
+        trigramas.clear();
+        idsClientes.clear();
+        palavrasClientes.tamanho = 0;
+        clientes = new Cliente[Math.max(1024, quantidadeAntiga - vazios)];
+        inicioPalavras = new int[clientes.length + 1];
+        quantidadeClientes = 0;
+        vazios = 0;
+        for (int id = 0; id < quantidadeAntiga; id++) {
+            if (antigos[id] == null) continue;
+            String[] tokens = new String[inicioAntigo[id + 1] - inicioAntigo[id]];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = vocabularioAntigo.get(palavrasAntigas[inicioAntigo[id] + i]);
+            }
+            indexar(antigos[id], tokens);
+        }
+    }
+
+    /**
+     * Busca clientes cujo nome contenha todas as palavras da consulta (cada uma exata, como prefixo
+     * ou com pequenos erros de digitação). Acentos e maiúsculas são ignorados.
+     * @param consulta O nome ou parte dele (ex: "jose sil").
+     * @param limite A quantidade máxima de resultados (k).
+     * @return Os clientes encontrados, dos mais aos menos parecidos com a consulta.
+     */
+    public List<Cliente> buscar(String consulta, int limite) {
+        String[] termos = normalizar(consulta);
+        if (termos.length == 0 || limite <= 0) return List.of();
+        lock.readLock().lock();
+        try {
+            // O termo condutor é o de menos clientes; os demais são conferidos nas palavras de cada candidato.
+            int condutor = 0;
+            long menorVolume = Long.MAX_VALUE;
+            for (int i = 0; i < termos.length; i++) {
+                long volume = volumeEstimado(termos[i]);
+                if (volume < menorVolume) {
+                    menorVolume = volume;
+                    condutor = i;
+                }
+            }
+            return melhores(termos, condutor, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normaliza um nome para indexação e busca: sem acentos, minúsculo, só letras e dígitos.
+     * @return As palavras do nome, sem partículas como "da" e "dos".
+     */
+    static String[] normalizar(String texto) {
+        if (texto == null) return new String[0];
+        boolean ascii = texto.chars().allMatch(c -> c < 128);
+        // A decomposição separa a letra do acento ("é" -> "e" + acento), que é descartado abaixo.
+        String decomposto = ascii ? texto : Normalizer.normalize(texto, Normalizer.Form.NFD);
+        List<String> palavras = new ArrayList<>(4);
+        StringBuilder atual = new StringBuilder();
+        for (int i = 0; i <= decomposto.length(); i++) {
+            char c = i < decomposto.length() ? decomposto.charAt(i) : ' ';
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            if (Character.isLetterOrDigit(c)) {
+                atual.append(Character.toLowerCase(c));
+            } else if (!atual.isEmpty()) {
+                String palavra = atual.toString();
+                if (!PARTICULAS.contains(palavra)) palavras.add(palavra);
+                atual.setLength(0);
+            }
+        }
+        return palavras.toArray(String[]::new);
+    }
+
+    // --- BUSCA ---
+
+    /**
+     * Quantos clientes o termo alcança por palavra exata ou prefixo, parando de contar a partir de
+     * {@value #PALAVRAS_NA_ESTIMATIVA} palavras (o termo já é amplo o suficiente para não ser o condutor).
+     */
+    private long volumeEstimado(String termo) {
+        long volume = 0;
+        int contadas = 0;
+        for (int palavra : vocabularioOrdenado.subMap(termo, termo + Character.MAX_VALUE).values()) {
+            volume += postagens.get(palavra).tamanho;
+            if (++contadas == PALAVRAS_NA_ESTIMATIVA) return Long.MAX_VALUE - 1;
+        }
+        return volume;
+    }
+
+    private List<Cliente> melhores(String[] termos, int condutor, int limite) {
+        // Melhor pontuação que os demais termos podem somar; com ela a busca sabe quando o topo não muda mais.
+        int maximoOutros = 0;
+        for (int t = 0; t < termos.length; t++) {
+            if (t != condutor) maximoOutros += melhorQualidadePossivel(termos[t]);
+        }
+        // Menor pontuação no topo; em empate, o cliente mais recente sai primeiro.
+        PriorityQueue<long[]> topo = new PriorityQueue<>(Comparator.<long[]>comparingLong(r -> r[0]).thenComparingLong(r -> -r[1]));
+        Set<Integer> vistos = new HashSet<>();
+        // Qualidade de cada termo contra cada palavra já vista: a distância de edição roda uma vez por palavra.
+        List<Map<Integer, Integer>> qualidades = new ArrayList<>(termos.length);
+        for (int t = 0; t < termos.length; t++) qualidades.add(new HashMap<>());
+        String termo = termos[condutor];
+        long alcancados = 0;
+
+        // Palavras do condutor em ordem de qualidade: a exata, depois os prefixos, e só então as aproximadas.
+        Integer exata = idsPalavras.get(termo);
+        if (exata != null) alcancados += percorrer(exata, EXATA, termos, condutor, limite, maximoOutros, topo, vistos, qualidades);
+        int prefixos = 0;
+        for (Map.Entry<String, Integer> e : vocabularioOrdenado.subMap(termo, false, termo + Character.MAX_VALUE, false).entrySet()) {
+            if (cheio(topo, limite, PREFIXO + maximoOutros) || ++prefixos > MAXIMO_PALAVRAS_POR_PREFIXO) break;
+            alcancados += percorrer(e.getValue(), PREFIXO, termos, condutor, limite, maximoOutros, topo, vistos, qualidades);
+        }
+        // Um termo que existe como palavra não é tratado como erro de digitação.
+        if (exata == null && alcancados < limite && termo.length() >= 3) {
+            for (int palavra : palavrasAproximadas(termo)) {
+                if (cheio(topo, limite, APROXIMADA + maximoOutros)) break;
+                percorrer(palavra, APROXIMADA, termos, condutor, limite, maximoOutros, topo, vistos, qualidades);
+            }
+        }
+
+        List<long[]> ordenados = new ArrayList<>(topo);
+        ordenados.sort(Comparator.<long[]>comparingLong(r -> -r[0]).thenComparingLong(r -> r[1]));
+        List<Cliente> resultado = new ArrayList<>(ordenados.size());
+        ordenados.forEach(r -> resultado.add(clientes[(int) r[1]]));
+        return resultado;
+    }
+
+    /**
+     * Pontua os clientes de uma palavra do condutor, até o topo ficar cheio com pontuações que
+     * nenhum cliente restante desta palavra consegue superar.
+     * @return Quantos clientes da palavra casaram com todos os termos.
+     */
+    private int percorrer(int palavra, int qualidade, String[] termos, int condutor, int limite, int maximoOutros,
+                          PriorityQueue<long[]> topo, Set<Integer> vistos, List<Map<Integer, Integer>> qualidades) {
+        ListaInteiros lista = postagens.get(palavra);
+        int casaram = 0;
+        for (int i = 0; i < lista.tamanho && !cheio(topo, limite, qualidade + maximoOutros); i++) {
+            int id = lista.valores[i];
+            if (clientes[id] == null || !vistos.add(id)) continue;
+            int pontuacao = pontuar(id, termos, condutor, qualidades);
+            if (pontuacao < 0) continue;
+            casaram++;
+            pontuacao += qualidade;
+            if (topo.size() < limite) {
+                topo.add(new long[]{pontuacao, id});
+            } else if (pontuacao > topo.peek()[0]) {
+                topo.poll();
+                topo.add(new long[]{pontuacao, id});
+            }
+        }
+        return casaram;
+    }
+
+    private int melhorQualidadePossivel(String termo) {
+        if (idsPalavras.containsKey(termo)) return EXATA;
+        String seguinte = vocabularioOrdenado.higherKey(termo);
+        return seguinte != null && seguinte.startsWith(termo) ? PREFIXO : APROXIMADA;
+    }
+
+    private static boolean cheio(PriorityQueue<long[]> topo, int limite, int melhorPossivel) {
+        return topo.size() == limite && topo.peek()[0] >= melhorPossivel;
+    }
+
+    /**
+     * Soma, para cada termo da consulta exceto o condutor, a melhor qualidade entre as palavras do cliente.
+     * @return A pontuação, ou -1 se algum termo não casar com nenhuma palavra do cliente.
+     */
+    private int pontuar(int id, String[] termos, int condutor, List<Map<Integer, Integer>> qualidades) {
+        int pontuacao = 0;
+        for (int t = 0; t < termos.length; t++) {
+            if (t == condutor) continue;
+            String termo = termos[t];
+            Map<Integer, Integer> doTermo = qualidades.get(t);
+            int melhor = 0;
+            for (int i = inicioPalavras[id]; i < inicioPalavras[id + 1] && melhor < EXATA; i++) {
+                melhor = Math.max(melhor, doTermo.computeIfAbsent(palavrasClientes.valores[i], p -> qualidade(termo, palavras.get(p))));
+            }
+            if (melhor == 0) return -1;
+            pontuacao += melhor;
+        }
+        return pontuacao;
+    }
+
+    private static int qualidade(String termo, String palavra) {
+        if (palavra.startsWith(termo)) return palavra.length() == termo.length() ? EXATA : PREFIXO;
+        if (termo.length() < 3) return 0;
+        int maximo = distanciaMaxima(termo);
+        return distancia(termo, palavra, maximo) <= maximo ? APROXIMADA : 0;
+    }
+
+    private List<Integer> palavrasAproximadas(String termo) {
+        int distanciaMaxima = distanciaMaxima(termo);
+        // Cada edição destrói no máximo 3 trigramas; palavras com poucos trigramas em comum são descartadas.
+        String[] deTermo = trigramasDe(termo);
+        int minimoEmComum = Math.max(1, deTermo.length - 3 * distanciaMaxima);
+        Map<Integer, Integer> emComum = new HashMap<>();
+        for (String trigrama : new HashSet<>(Arrays.asList(deTermo))) {
+            ListaInteiros lista = trigramas.get(trigrama);
+            if (lista == null) continue;
+            for (int i = 0; i < lista.tamanho; i++) {
+                emComum.merge(lista.valores[i], 1, Integer::sum);
+            }
+        }
+        List<Integer> resultado = new ArrayList<>();
+        emComum.forEach((palavra, comum) -> {
+            if (comum >= minimoEmComum && !palavras.get(palavra).startsWith(termo)
+                    && distancia(termo, palavras.get(palavra), distanciaMaxima) <= distanciaMaxima) {
+                resultado.add(palavra);
+            }
+        });
+        return resultado;
+    }
+
+    private static int distanciaMaxima(String termo) {
+        return termo.length() <= 5 ? 1 : 2;
+    }
+
+    // --- VOCABULÁRIO ---
+
+    private int idPalavra(String token) {
+        Integer id = idsPalavras.get(token);
+        if (id != null) return id;
+        id = palavras.size();
+        idsPalavras.put(token, id);
+        palavras.add(token);
+        postagens.add(new ListaInteiros());
+        vocabularioOrdenado.put(token, id);
+        for (String trigrama : new HashSet<>(Arrays.asList(trigramasDe(token)))) {
+            trigramas.computeIfAbsent(trigrama, k -> new ListaInteiros()).adicionar(id);
+        }
+        return id;
+    }
+
+    private static String[] trigramasDe(String palavra) {
+        String marcada = "$" + palavra + "$";
+        String[] resultado = new String[marcada.length() - 2];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = marcada.substring(i, i + 3);
+        }
+        return resultado;
+    }
+
+    /**
+     * Distância de edição (com transposição de letras vizinhas), interrompida ao passar do máximo.
+     */
+    private static int distancia(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) return maximo + 1;
+        int[] anterior2 = new int[b.length() + 1];
+        int[] anterior = new int[b.length() + 1];
+        int[] atual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) anterior[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            atual[0] = i;
+            int menorDaLinha = atual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int custo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                atual[j] = Math.min(Math.min(atual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + custo);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    atual[j] = Math.min(atual[j], anterior2[j - 2] + 1);
+                }
+                menorDaLinha = Math.min(menorDaLinha, atual[j]);
+            }
+            if (menorDaLinha > maximo) return maximo + 1;
+            int[] reciclado = anterior2;
+            anterior2 = anterior;
+            anterior = atual;
+            atual = reciclado;
+        }
+        return anterior[b.length()];
+    }
+
+    /**
+     * Lista de int que cresce sob demanda, sem um objeto por elemento.
+     */
+    private static final class ListaInteiros {
+        private int[] valores = new int[4];
+        private int tamanho;
+
+        private void adicionar(int valor) {
+            if (tamanho == valores.length) valores = Arrays.copyOf(valores, tamanho * 2);
+            valores[tamanho++] = valor;
+        }
+    }
+}
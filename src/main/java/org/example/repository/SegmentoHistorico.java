@@ -0,0 +1,282 @@
+package org.example.repository;
+
+import org.example.codec.CodecTransacao;
+import org.example.records.Transacao;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Segmento imutável do histórico arquivado de uma conta: um trecho compactado de um {@link ArquivoSegmentos},
+ * lido por mapeamento em memória (as transações ficam fora do heap e o sistema operacional decide o que manter
+ * em cache). Os offsets abaixo são relativos ao início do segmento dentro do arquivo.
+ * <p>
+ * Cada transação guarda só a diferença para a anterior: o instante (em µs) e o valor (em centavos) viram inteiros
+ * pequenos, gravados com tamanho variável (varint, com zigzag para diferenças negativas). As descrições se repetem
+ * muito ("Depósito recebido", "PIX para ...") e ficam em um dicionário no fim do arquivo.
+ * <pre>
+ * Cabeçalho:  mágico i32 | versao u16 | reservado u16 | quantidade i32 | offsetIndice i32 | offsetDicionario i32
+ * Transação:  tipo u8 (código de {@link CodecTransacao#codigo}; bit 4: valor fora dos centavos) | Δµs varint | Δcentavos varint ou valor f64 | descrição varint
+ * Índice:     a cada {@value #INTERVALO_INDICE} transações: offset i32 | µs anterior i64 | centavos anteriores i64
+ * Dicionário: quantidade varint | (comprimento varint | bytes UTF-8)...
+ * </pre>
+ * O índice permite começar a leitura no meio do segmento sem decodificar as transações anteriores.
+ */
+public final class SegmentoHistorico {
+
+    static final int MAGICO = 0x48534547; // "HSEG"
+    static final int VERSAO = 1;
+    static final int INTERVALO_INDICE = 64;
+
+    private static final int TAMANHO_CABECALHO = 20;
+    private static final int TAMANHO_ENTRADA_INDICE = 20;
+    private static final int TAMANHO_MAXIMO_TRANSACAO = 1 + 10 + 10 + 5;
+    private static final int VALOR_BRUTO = 0x10;
+    private static final int MASCARA_TIPO = 0x0F;
+
+    private final ArquivoSegmentos origem;
+    private final ByteBuffer dados;
+    private final int quantidade;
+    private final int offsetIndice;
+    private final String[] descricoes; // Índice 0 = descrição nula.
+    private boolean liberado;
+
+    SegmentoHistorico(ArquivoSegmentos origem, ByteBuffer dados) {
+        this.origem = origem;
+        this.dados = dados;
+        Path arquivo = origem.getArquivo();
+        dados.order(ByteOrder.LITTLE_ENDIAN);
+        if (dados.capacity() < TAMANHO_CABECALHO || dados.getInt(0) != MAGICO) {
+            throw new IllegalStateException("Arquivo não é um segmento de histórico: " + arquivo);
+        }
+        if ((dados.getShort(4) & 0xFFFF) != VERSAO) {
+            throw new IllegalStateException("Versão de segmento não suportada (" + (dados.getShort(4) & 0xFFFF) + "): " + arquivo);
+        }
+        this.quantidade = dados.getInt(8);
+        this.offsetIndice = dados.getInt(12);
+
+        Leitor leitor = new Leitor();
+        leitor.posicao = dados.getInt(16);
+        this.descricoes = new String[(int) leitor.lerVarint() + 1];
+        for (int i = 1; i < descricoes.length; i++) {
+            byte[] bytes = new byte[(int) leitor.lerVarint()];
+            dados.get(leitor.posicao, bytes);
+            leitor.posicao += bytes.length;
+            descricoes[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Codifica as transações no formato do segmento (ver {@link ArquivoSegmentos#acrescentar}).
+     * @param transacoes As transações, na ordem do histórico.
+     * @return O segmento codificado, pronto para leitura (da posição ao limite).
+     */
+    static ByteBuffer codificar(List<Transacao> transacoes) {
+        Map<String, Integer> dicionario = new LinkedHashMap<>();
+        int tamanhoDicionario = 5;
+        for (Transacao t : transacoes) {
+            if (t.descricao() != null && dicionario.putIfAbsent(t.descricao(), dicionario.size() + 1) == null) {
+                tamanhoDicionario += 5 + t.descricao().getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        int blocos = (transacoes.size() + INTERVALO_INDICE - 1) / INTERVALO_INDICE;
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_CABECALHO + transacoes.size() * TAMANHO_MAXIMO_TRANSACAO
+                + blocos * TAMANHO_ENTRADA_INDICE + tamanhoDicionario).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer indice = ByteBuffer.allocate(blocos * TAMANHO_ENTRADA_INDICE).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.position(TAMANHO_CABECALHO);
+        long micros = 0;
+        long centavos = 0;
+        for (int i = 0; i < transacoes.size(); i++) {
+            Transacao t = transacoes.get(i);
+            if (i % INTERVALO_INDICE == 0) {
+                indice.putInt(buffer.position()).putLong(micros).putLong(centavos);
+            }
+            long instante = paraMicros(t.data());
+            long emCentavos = Math.round(t.valor() * 100);
+            // Valores que não são um número exato de centavos (ex: rendimentos) são gravados por inteiro.
+            boolean exato = emCentavos / 100.0 == t.valor();
+            buffer.put((byte) (CodecTransacao.codigo(t.tipo()) | (exato ? 0 : VALOR_BRUTO)));
+            escreverVarint(buffer, zigzag(instante - micros));
+            micros = instante;
+            if (exato) {
+                escreverVarint(buffer, zigzag(emCentavos - centavos));
+                centavos = emCentavos;
+            } else {
+                buffer.putDouble(t.valor());
+            }
+            escreverVarint(buffer, t.descricao() == null ? 0 : dicionario.get(t.descricao()));
+        }
+        int offsetIndice = buffer.position();
+        buffer.put(indice.flip());
+        int offsetDicionario = buffer.position();
+        escreverVarint(buffer, dicionario.size());
+        for (String descricao : dicionario.keySet()) {
+            byte[] bytes = descricao.getBytes(StandardCharsets.UTF_8);
+            escreverVarint(buffer, bytes.length);
+            buffer.put(bytes);
+        }
+        buffer.putInt(0, MAGICO)
+                .putShort(4, (short) VERSAO)
+                .putShort(6, (short) 0)
+                .putInt(8, transacoes.size())
+                .putInt(12, offsetIndice)
+                .putInt(16, offsetDicionario);
+        return buffer.flip();
+    }
+
+    /**
+     * @return O arquivo compartilhado onde o segmento está gravado.
+     */
+    public Path getArquivo() {
+        return origem.getArquivo();
+    }
+
+    /**
+     * Indica que a conta dona do segmento não precisa mais dele (ex: a conta saiu deste nó).
+     * O arquivo é apagado quando nenhum de seus segmentos é mais usado; leituras em andamento continuam válidas.
+     * Chamadas repetidas não têm efeito.
+     */
+    public synchronized void liberar() {
+        if (liberado) return;
+        liberado = true;
+        origem.liberar();
+    }
+
+    /**
+     * @return Quantas transações o segmento guarda.
+     */
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    /**
+     * @return O tamanho do segmento em bytes.
+     */
+    public long getTamanhoEmBytes() {
+        return dados.capacity();
+    }
+
+    /**
+     * Cria um leitor posicionado na transação informada.
+     * @param indice A posição da transação dentro do segmento (0 = a mais antiga).
+     * @return O leitor; cada chamada a {@link Leitor#proxima()} devolve a transação seguinte.
+     */
+    public Leitor leitor(int indice) {
+        if (indice < 0 || indice > quantidade) {
+            throw new IndexOutOfBoundsException("Transação " + indice + " fora do segmento de " + quantidade);
+        }
+        Leitor leitor = new Leitor();
+        int bloco = Math.min(indice, quantidade - 1) / INTERVALO_INDICE;
+        if (quantidade > 0) {
+            int entrada = offsetIndice + bloco * TAMANHO_ENTRADA_INDICE;
+            leitor.posicao = dados.getInt(entrada);
+            leitor.micros = dados.getLong(entrada + 4);
+            leitor.centavos = dados.getLong(entrada + 12);
+            leitor.proximo = bloco * INTERVALO_INDICE;
+        }
+        while (leitor.proximo < indice) {
+            leitor.ler(false);
+        }
+        return leitor;
+    }
+
+    /**
+     * Cursor de leitura sequencial de um segmento. Lê o arquivo mapeado por posições absolutas,
+     * então vários leitores podem percorrer o mesmo segmento ao mesmo tempo; cada leitor, porém,
+     * deve ser usado por uma única thread.
+     */
+    public final class Leitor {
+
+        private int posicao;
+        private int proximo;
+        private long micros;
+        private long centavos;
+
+        private Leitor() {
+        }
+
+        /**
+         * @return A posição, no segmento, da transação que {@link #proxima()} devolverá.
+         */
+        public int getProximoIndice() {
+            return proximo;
+        }
+
+        public boolean temProxima() {
+            return proximo < quantidade;
+        }
+
+        /**
+         * Decodifica a próxima transação do segmento.
+         * @return A transação.
+         */
+        public Transacao proxima() {
+            if (!temProxima()) {
+                throw new IndexOutOfBoundsException("Fim do segmento em " + getArquivo());
+            }
+            return ler(true);
+        }
+
+        private Transacao ler(boolean criar) {
+            int cabecalho = dados.get(posicao++);
+            micros += unzigzag(lerVarint());
+            double valor;
+            if ((cabecalho & VALOR_BRUTO) == 0) {
+                centavos += unzigzag(lerVarint());
+                valor = centavos / 100.0;
+            } else {
+                valor = dados.getDouble(posicao);
+                posicao += 8;
+            }
+            String descricao = descricoes[(int) lerVarint()];
+            proximo++;
+            return criar ? new Transacao(CodecTransacao.tipoDoCodigo((byte) (cabecalho & MASCARA_TIPO)), valor, deMicros(micros), descricao) : null;
+        }
+
+        private long lerVarint() {
+            long resultado = 0;
+            int deslocamento = 0;
+            byte b;
+            do {
+                b = dados.get(posicao++);
+                resultado |= (long) (b & 0x7F) << deslocamento;
+                deslocamento += 7;
+            } while (b < 0);
+            return resultado;
+        }
+    }
+
+    // --- CODIFICAÇÃO ---
+
+    private static void escreverVarint(ByteBuffer buffer, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            buffer.put((byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        buffer.put((byte) valor);
+    }
+
+    private static long zigzag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    private static long unzigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    private static long paraMicros(LocalDateTime data) {
+        return data.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + data.getNano() / 1_000;
+    }
+
+    private static LocalDateTime deMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
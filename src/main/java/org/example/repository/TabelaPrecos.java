@@ -0,0 +1,33 @@
+package org.example.repository;
+
+import org.example.model.Produto;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repositório em memória dos produtos de investimento, com o preço atual de cada um.
+ * A chave do Map é o nome do produto, o mesmo nome usado nos investimentos.
+ */
+public class TabelaPrecos {
+    private final Map<String, Produto> produtos = new ConcurrentHashMap<>();
+
+    /**
+     * Retorna o produto com o nome informado, cadastrando-o com o preço inicial se ainda não existir.
+     * @param nome O nome do produto.
+     * @return O produto, compartilhado por todas as posições com esse nome.
+     */
+    public Produto produto(String nome) {
+        return produtos.computeIfAbsent(nome, Produto::new);
+    }
+
+    public Optional<Produto> buscar(String nome) {
+        return Optional.ofNullable(produtos.get(nome));
+    }
+
+    public Collection<Produto> buscarTodos() {
+        return produtos.values();
+    }
+}
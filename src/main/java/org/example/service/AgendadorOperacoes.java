@@ -0,0 +1,338 @@
+package org.example.service;
+
+import org.example.enums.ClassePrioridade;
+import org.example.model.Cliente;
+import org.example.model.Conta;
+import org.example.records.MetricasAgendador;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Agendador na frente do {@link BancoService} que separa operações interativas de trabalhos em lote,
+ * para que um relatório longo não segure depósitos e saques atrás dele.
+ * <p>
+ * A divisão acontece em dois níveis:
+ * <ul>
+ *     <li>threads: no máximo {@code maximoLotesSimultaneos} trabalhadores rodam lotes ao mesmo tempo, e uma
+ *     interativa na fila sempre passa na frente de qualquer lote que ainda não começou;</li>
+ *     <li>fatias de tempo: um lote em execução chama {@link PontoDeCessao#ceder()} entre um item e outro.
+ *     Quando a sua fatia acabou e há interativas pendentes, ele mesmo executa as que estão na fila e espera
+ *     as que estão rodando em outras threads, até o limite da sua parcela justa: para cada fatia usada, o lote
+ *     cede no máximo {@code fatia × (1 − parcelaLote) / parcelaLote}, então nunca fica parado indefinidamente.</li>
+ * </ul>
+ * A fatia do lote é ajustada pelo orçamento de latência: a cada {@value #TAMANHO_JANELA} interativas o p99
+ * da janela (da submissão ao fim da operação) é recalculado; acima de três quartos do orçamento a fatia cai
+ * pela metade, abaixo da metade do orçamento ela dobra, até um quarto do orçamento.
+ */
+public class AgendadorOperacoes {
+
+    public static final double PARCELA_LOTE_PADRAO = 0.2;
+
+    private static final int TAMANHO_JANELA = 1_024;
+    private static final long FATIA_MINIMA_NANOS = 20_000;
+
+    private final BancoService bancoService;
+    private final int maximoLotesSimultaneos;
+    private final long orcamentoNanos;
+    private final double parcelaLote;
+    private final Thread[] trabalhadores;
+
+    // Protegidos pelo monitor do agendador.
+    private final ArrayDeque<Tarefa> interativas = new ArrayDeque<>();
+    private final ArrayDeque<Tarefa> lotes = new ArrayDeque<>();
+    private int lotesEmExecucao;
+    private boolean encerrado;
+
+    private final AtomicInteger interativasPendentes = new AtomicInteger(); // Na fila ou em execução.
+    // Lotes cedendo a vez dormem aqui até as interativas acabarem, sem ocupar a CPU que elas precisam.
+    private final ReentrantLock travaCessao = new ReentrantLock();
+    private final Condition semInterativas = travaCessao.newCondition();
+    private final AtomicInteger lotesCedendo = new AtomicInteger();
+    private volatile long fatiaNanos;
+    private volatile long ultimoP99;
+    private final long[] janela = new long[TAMANHO_JANELA]; // Protegida pelo próprio vetor.
+    private int posicaoJanela;
+
+    private final LongAdder interativasConcluidas = new LongAdder();
+    private final LongAdder lotesConcluidos = new LongAdder();
+    private final LongAdder interativasNoLote = new LongAdder();
+    private final LongAdder cessoes = new LongAdder();
+
+    /**
+     * Uma operação na fila. Interativas recebem {@link PontoDeCessao#NENHUM}: não cedem a vez a ninguém.
+     */
+    private record Tarefa(ClassePrioridade classe, long enfileiradaEm, Consumer<PontoDeCessao> corpo) {
+    }
+
+    /**
+     * Cria o agendador com a parcela de lote padrão ({@value #PARCELA_LOTE_PADRAO}).
+     * @see #AgendadorOperacoes(BancoService, int, int, Duration, double)
+     */
+    public AgendadorOperacoes(BancoService bancoService, int threads, int maximoLotesSimultaneos, Duration orcamentoP99Interativa) {
+        this(bancoService, threads, maximoLotesSimultaneos, orcamentoP99Interativa, PARCELA_LOTE_PADRAO);
+    }
+
+    /**
+     * @param bancoService O serviço cujas operações serão agendadas.
+     * @param threads Quantidade de trabalhadores.
+     * @param maximoLotesSimultaneos Quantos trabalhadores podem rodar lotes ao mesmo tempo. Com menos que
+     *                               {@code threads}, sempre sobra um trabalhador livre para as interativas.
+     * @param orcamentoP99Interativa O p99 de latência que as interativas devem respeitar com lotes rodando.
+     * @param parcelaLote A fração mínima do tempo de uma thread de lote que fica com o lote, entre 0 e 1.
+     */
+    public AgendadorOperacoes(BancoService bancoService, int threads, int maximoLotesSimultaneos,
+                              Duration orcamentoP99Interativa, double parcelaLote) {
+        if (threads < 1 || maximoLotesSimultaneos < 1 || maximoLotesSimultaneos > threads) {
+            throw new IllegalArgumentException("Configuração de threads inválida: " + threads + " trabalhadores, " + maximoLotesSimultaneos + " lotes simultâneos");
+        }
+        if (!(parcelaLote > 0 && parcelaLote < 1)) {
+            throw new IllegalArgumentException("A parcela do lote deve estar entre 0 e 1: " + parcelaLote);
+        }
+        this.bancoService = bancoService;
+        this.maximoLotesSimultaneos = maximoLotesSimultaneos;
+        this.orcamentoNanos = orcamentoP99Interativa.toNanos();
+        this.parcelaLote = parcelaLote;
+        this.fatiaNanos = Math.max(FATIA_MINIMA_NANOS, orcamentoNanos / 4);
+        this.trabalhadores = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            trabalhadores[i] = new Thread(this::trabalhar, "agendador-operacoes-" + i);
+            trabalhadores[i].setDaemon(true);
+            trabalhadores[i].start();
+        }
+    }
+
+    // --- OPERAÇÕES INTERATIVAS ---
+
+    public CompletableFuture<String> depositar(Conta conta, double valor) {
+        return submeter(ClassePrioridade.INTERATIVA, () -> bancoService.depositar(conta, valor));
+    }
+
+    public CompletableFuture<String> sacar(Conta conta, double valor) {
+        return submeter(ClassePrioridade.INTERATIVA, () -> bancoService.sacar(conta, valor));
+    }
+
+    public CompletableFuture<String> transferir(String numContaOrigem, String numContaDestino, double valor) {
+        return submeter(ClassePrioridade.INTERATIVA, () -> bancoService.transferir(numContaOrigem, numContaDestino, valor));
+    }
+
+    public CompletableFuture<String> fazerInvestimento(Conta conta, String nomeInvestimento, double valor) {
+        return submeter(ClassePrioridade.INTERATIVA, () -> bancoService.fazerInvestimento(conta, nomeInvestimento, valor));
+    }
+
+    public CompletableFuture<String> resgatarInvestimento(Cliente cliente, int indice, Conta contaDestino) {
+        return submeter(ClassePrioridade.INTERATIVA, () -> bancoService.resgatarInvestimento(cliente, indice, contaDestino));
+    }
+
+    // --- TRABALHOS EM LOTE ---
+
+    public CompletableFuture<Void> listarClientes() {
+        return submeterLote(cessao -> {
+            bancoService.listarClientes(cessao);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> simularAtualizacaoInvestimentos() {
+        return submeterLote(cessao -> {
+            bancoService.simularAtualizacaoInvestimentos(cessao);
+            return null;
+        });
+    }
+
+    // --- SUBMISSÃO ---
+
+    /**
+     * Agenda uma operação qualquer. Um lote submetido por aqui não tem pontos de cessão:
+     * só é contido pelo limite de lotes simultâneos.
+     * @param classe A classe de prioridade da operação.
+     * @param operacao A operação.
+     * @return O resultado, completado pelo trabalhador que executar a operação.
+     */
+    public <T> CompletableFuture<T> submeter(ClassePrioridade classe, Supplier<T> operacao) {
+        if (classe == ClassePrioridade.LOTE) return submeterLote(cessao -> operacao.get());
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        enfileirar(new Tarefa(ClassePrioridade.INTERATIVA, System.nanoTime(), cessao -> completar(futuro, operacao)));
+        return futuro;
+    }
+
+    /**
+     * Agenda um trabalho em lote que cede a vez às interativas nos pontos de cessão que ele mesmo chama.
+     * O ponto de cessão recebido só pode ser usado pela thread que executa o trabalho, e sem locks adquiridos.
+     * @param trabalho O trabalho, que recebe o seu ponto de cessão.
+     * @return O resultado, completado ao fim do trabalho.
+     */
+    public <T> CompletableFuture<T> submeterLote(Function<PontoDeCessao, T> trabalho) {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        enfileirar(new Tarefa(ClassePrioridade.LOTE, System.nanoTime(), cessao -> completar(futuro, () -> trabalho.apply(cessao))));
+        return futuro;
+    }
+
+    private synchronized void enfileirar(Tarefa tarefa) {
+        if (encerrado) throw new IllegalStateException("O agendador de operações foi encerrado.");
+        if (tarefa.classe() == ClassePrioridade.INTERATIVA) {
+            interativasPendentes.incrementAndGet();
+            interativas.add(tarefa);
+        } else {
+            lotes.add(tarefa);
+        }
+        notify();
+    }
+
+    private static <T> void completar(CompletableFuture<T> futuro, Supplier<T> operacao) {
+        try {
+            futuro.complete(operacao.get());
+        } catch (Throwable e) {
+            futuro.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * @return As métricas de latência, cessões e a fatia atual do lote.
+     */
+    public MetricasAgendador metricas() {
+        return new MetricasAgendador(interativasConcluidas.sum(), lotesConcluidos.sum(), interativasNoLote.sum(),
+                cessoes.sum(), ultimoP99, orcamentoNanos, fatiaNanos);
+    }
+
+    /**
+     * Para de aceitar operações, executa as que já estão nas filas e espera os trabalhadores terminarem.
+     */
+    public void encerrar() throws InterruptedException {
+        synchronized (this) {
+            encerrado = true;
+            notifyAll();
+        }
+        for (Thread trabalhador : trabalhadores) {
+            trabalhador.join();
+        }
+    }
+
+    // --- TRABALHADORES ---
+
+    private void trabalhar() {
+        Tarefa tarefa;
+        while ((tarefa = proxima()) != null) {
+            executar(tarefa);
+        }
+    }
+
+    // Interativas primeiro; um lote só começa se houver vaga entre os lotes simultâneos.
+    private synchronized Tarefa proxima() {
+        while (true) {
+            if (!interativas.isEmpty()) return interativas.poll();
+            if (!lotes.isEmpty() && lotesEmExecucao < maximoLotesSimultaneos) {
+                lotesEmExecucao++;
+                return lotes.poll();
+            }
+            if (encerrado && lotes.isEmpty()) return null;
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    private synchronized Tarefa proximaInterativa() {
+        return interativas.poll();
+    }
+
+    private void executar(Tarefa tarefa) {
+        if (tarefa.classe() == ClassePrioridade.INTERATIVA) {
+            tarefa.corpo().accept(PontoDeCessao.NENHUM);
+            if (interativasPendentes.decrementAndGet() == 0 && lotesCedendo.get() > 0) {
+                travaCessao.lock();
+                try {
+                    semInterativas.signalAll();
+                } finally {
+                    travaCessao.unlock();
+                }
+            }
+            interativasConcluidas.increment();
+            registrarLatencia(System.nanoTime() - tarefa.enfileiradaEm());
+            return;
+        }
+        try {
+            tarefa.corpo().accept(new Cessao());
+        } finally {
+            lotesConcluidos.increment();
+            // Todos: depois do encerramento, quem não pega o próximo lote precisa acordar para sair.
+            synchronized (this) {
+                lotesEmExecucao--;
+                notifyAll();
+            }
+        }
+    }
+
+    private void registrarLatencia(long nanos) {
+        synchronized (janela) {
+            janela[posicaoJanela++] = nanos;
+            if (posicaoJanela < TAMANHO_JANELA) return;
+            posicaoJanela = 0;
+            long[] ordenadas = janela.clone();
+            Arrays.sort(ordenadas);
+            long p99 = ordenadas[(int) Math.ceil(0.99 * TAMANHO_JANELA) - 1];
+            ultimoP99 = p99;
+            // A margem de um quarto do orçamento evita que a fatia só encolha depois de estourá-lo.
+            if (p99 > orcamentoNanos - orcamentoNanos / 4) {
+                fatiaNanos = Math.max(FATIA_MINIMA_NANOS, fatiaNanos / 2);
+            } else if (p99 < orcamentoNanos / 2) {
+                fatiaNanos = Math.max(FATIA_MINIMA_NANOS, Math.min(orcamentoNanos / 4, fatiaNanos * 2));
+            }
+        }
+    }
+
+    /**
+     * Ponto de cessão de um lote em execução. Guarda quando a fatia atual começou.
+     */
+    private final class Cessao implements PontoDeCessao {
+
+        private long inicioFatia = System.nanoTime();
+
+        @Override
+        public void ceder() {
+            long agora = System.nanoTime();
+            long usado = agora - inicioFatia;
+            if (usado < fatiaNanos) return;
+            if (interativasPendentes.get() > 0) {
+                cessoes.increment();
+                long limite = agora + (long) (usado * (1 - parcelaLote) / parcelaLote);
+                Tarefa interativa;
+                while (System.nanoTime() < limite && (interativa = proximaInterativa()) != null) {
+                    interativasNoLote.increment();
+                    executar(interativa);
+                }
+                esperarInterativas(limite);
+            }
+            inicioFatia = System.nanoTime();
+        }
+
+        // As que sobraram estão rodando em outras threads: dorme até acabarem ou até o limite da parcela.
+        private void esperarInterativas(long limite) {
+            lotesCedendo.incrementAndGet();
+            travaCessao.lock();
+            try {
+                long restante;
+                while (interativasPendentes.get() > 0 && (restante = limite - System.nanoTime()) > 0) {
+                    semInterativas.awaitNanos(restante);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                travaCessao.unlock();
+                lotesCedendo.decrementAndGet();
+            }
+        }
+    }
+}
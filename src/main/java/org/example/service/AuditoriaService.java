@@ -0,0 +1,112 @@
+package org.example.service;
+
+import org.example.model.ArvoreMerkle;
+import org.example.model.Conta;
+import org.example.records.AssinaturaConta;
+import org.example.records.DivergenciaConta;
+import org.example.records.ResultadoReconciliacao;
+import org.example.records.Transacao;
+import org.example.repository.ClienteRepository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Serviço de auditoria: confere se o saldo de cada conta é justificado pelo seu histórico de transações.
+ * <p>
+ * Cada conta mantém, a cada transação registrada, a soma dos efeitos no saldo e um checksum encadeado
+ * (ver {@link AssinaturaConta}). A reconciliação rápida só compara esses valores com o saldo, sem ler o
+ * histórico; a completa relê o histórico e confere também o checksum, detectando transações perdidas
+ * ou alteradas no armazenamento. As duas rodam em paralelo sobre todas as contas.
+ * <p>
+ * Para comparar réplicas, a {@link ArvoreMerkle} de cada banco aponta as contas com checksums diferentes
+ * visitando só os ramos divergentes.
+ */
+public class AuditoriaService {
+
+    // Diferenças de arredondamento de double ao somar muitos lançamentos.
+    private static final double TOLERANCIA = 0.005;
+
+    private final ClienteRepository clienteRepository;
+
+    public AuditoriaService(ClienteRepository clienteRepository) {
+        this.clienteRepository = clienteRepository;
+    }
+
+    /**
+     * Reconciliação rápida: compara o saldo de cada conta com o total mantido a cada transação.
+     * Custa O(1) por conta e não carrega históricos do disco.
+     * @return As contas cujo saldo difere do total dos lançamentos.
+     */
+    public ResultadoReconciliacao reconciliar() {
+        long inicio = System.nanoTime();
+        Conta[] contas = todasAsContas();
+        List<DivergenciaConta> divergencias = Arrays.stream(contas).parallel()
+                .map(this::verificarTotal)
+                .filter(Objects::nonNull)
+                .toList();
+        return new ResultadoReconciliacao(contas.length, divergencias, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Reconciliação completa: recalcula o total e o checksum de cada conta a partir do histórico
+     * e os compara com os valores mantidos e com o saldo.
+     * @return As contas com saldo, total ou checksum divergentes.
+     */
+    public ResultadoReconciliacao reconciliarComHistorico() {
+        long inicio = System.nanoTime();
+        Conta[] contas = todasAsContas();
+        List<DivergenciaConta> divergencias = Arrays.stream(contas).parallel()
+                .map(this::verificarHistorico)
+                .filter(Objects::nonNull)
+                .toList();
+        return new ResultadoReconciliacao(contas.length, divergencias, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Compara as árvores de integridade de dois bancos (ex: primário e seguidor).
+     * @return Os números das contas cujo histórico difere entre os dois.
+     */
+    public static List<String> contasDivergentes(BancoService banco, BancoService outro) {
+        return banco.getArvoreMerkle().contasDivergentes(outro.getArvoreMerkle());
+    }
+
+    private DivergenciaConta verificarTotal(Conta conta) {
+        AssinaturaConta assinatura = conta.getAssinatura();
+        if (Math.abs(assinatura.saldo() - assinatura.totalLancamentos()) <= TOLERANCIA) return null;
+        return new DivergenciaConta(conta.getNumero(), conta.getCliente().getCpf(), assinatura.saldo(),
+                assinatura.totalLancamentos(), "saldo diferente da soma dos lançamentos");
+    }
+
+    private DivergenciaConta verificarHistorico(Conta conta) {
+        AssinaturaConta assinatura;
+        List<Transacao> historico;
+        // Saldo e histórico lidos juntos: nenhuma transação entra entre as duas leituras.
+        synchronized (conta) {
+            assinatura = conta.getAssinatura();
+            historico = List.copyOf(conta.getHistoricoTransacoes());
+        }
+        double total = 0;
+        long checksum = AssinaturaConta.CHECKSUM_INICIAL;
+        for (Transacao t : historico) {
+            total += t.tipo().efeitoNoSaldo(t.valor());
+            checksum = AssinaturaConta.encadear(checksum, t.tipo(), t.valor());
+        }
+        String motivo = null;
+        if (historico.size() != assinatura.quantidadeLancamentos() || checksum != assinatura.checksum()) {
+            motivo = String.format("histórico com %d transações não confere com o checksum de %d registradas",
+                    historico.size(), assinatura.quantidadeLancamentos());
+        } else if (Math.abs(assinatura.saldo() - total) > TOLERANCIA) {
+            motivo = "saldo diferente da soma do histórico";
+        }
+        return motivo == null ? null
+                : new DivergenciaConta(conta.getNumero(), conta.getCliente().getCpf(), assinatura.saldo(), total, motivo);
+    }
+
+    private Conta[] todasAsContas() {
+        return clienteRepository.buscarTodos().stream()
+                .flatMap(cliente -> cliente.getContas().stream())
+                .toArray(Conta[]::new);
+    }
+}
@@ -1,10 +1,22 @@
 package org.example.service;
 
 import org.example.enums.StatusInvestimento;
+import org.example.enums.TipoMutacao;
+import org.example.enums.TipoTransacao;
 import org.example.model.*;
+import org.example.records.ResultadoUnidadeTrabalho;
+import org.example.records.Snapshot;
+import org.example.repository.ArquivamentoHistorico;
 import org.example.repository.ClienteRepository;
+import org.example.repository.HistoricoSobDemanda;
+import org.example.repository.TabelaPrecos;
+import org.example.replicacao.LogMutacoes;
 
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Camada de Serviço (Service Layer) que centraliza todas as regras de negócio do banco.
@@ -15,13 +27,71 @@ import java.util.Optional;
 public class BancoService {
 
     private final ClienteRepository clienteRepository;
+    private final HistoricoSobDemanda historicoSobDemanda; // null = tudo residente em memória.
+    private final CompensacaoPix compensacaoPix; // null = cada transferência é liquidada na hora (bruta).
+    private final LogMutacoes logMutacoes; // null = sem replicação.
+    private final Map<String, Conta> contasPorNumero = new ConcurrentHashMap<>(); // Índice para findContaByNumero.
+    private final ArvoreMerkle arvoreMerkle = new ArvoreMerkle(); // Checksums de todas as contas deste banco.
+    private final TabelaPrecos tabelaPrecos = new TabelaPrecos(); // Preço atual de cada produto de investimento.
+    private PrintStream saida = System.out; // Destino das listagens e avisos impressos pelo serviço.
 
     /**
      * Construtor do serviço. Recebe o repositório como uma dependência (Injeção de Dependência).
      * @param clienteRepository O repositório que gerencia os dados dos clientes.
      */
     public BancoService(ClienteRepository clienteRepository) {
+        this(clienteRepository, null);
+    }
+
+    /**
+     * Construtor do serviço no modo em camadas: históricos de transações e carteiras de novos
+     * clientes e contas são mantidos em disco e carregados sob demanda.
+     * @param clienteRepository O repositório que gerencia os dados dos clientes.
+     * @param historicoSobDemanda O armazenamento em camadas, ou null para manter tudo em memória.
+     */
+    public BancoService(ClienteRepository clienteRepository, HistoricoSobDemanda historicoSobDemanda) {
+        this(clienteRepository, historicoSobDemanda, null);
+    }
+
+    /**
+     * Construtor do serviço com modo de compensação: as transferências são aceitas e reservadas
+     * na hora, mas liquidadas pelo saldo líquido de cada conta ao fechar a janela de compensação.
+     * @param clienteRepository O repositório que gerencia os dados dos clientes.
+     * @param historicoSobDemanda O armazenamento em camadas, ou null para manter tudo em memória.
+     * @param compensacaoPix O motor de compensação, ou null para liquidar cada transferência individualmente.
+     */
+    public BancoService(ClienteRepository clienteRepository, HistoricoSobDemanda historicoSobDemanda, CompensacaoPix compensacaoPix) {
+        this(clienteRepository, historicoSobDemanda, compensacaoPix, null);
+    }
+
+    /**
+     * Construtor completo. Com um log de mutações, toda alteração bem-sucedida é registrada em ordem
+     * para ser replicada em outros processos (ver {@link org.example.replicacao.PrimarioReplicacao}).
+     * @param clienteRepository O repositório que gerencia os dados dos clientes.
+     * @param historicoSobDemanda O armazenamento em camadas, ou null para manter tudo em memória.
+     * @param compensacaoPix O motor de compensação, ou null para liquidar cada transferência individualmente.
+     * @param logMutacoes O log de mutações, ou null para não registrar as alterações.
+     */
+    public BancoService(ClienteRepository clienteRepository, HistoricoSobDemanda historicoSobDemanda,
+                        CompensacaoPix compensacaoPix, LogMutacoes logMutacoes) {
+        // Na compensação o saldo só muda na liquidação; o log bruto não reproduziria a exposição intradiária.
+        if (compensacaoPix != null && logMutacoes != null) {
+            throw new IllegalArgumentException("A replicação exige transferências liquidadas individualmente (sem compensação).");
+        }
         this.clienteRepository = clienteRepository;
+        this.historicoSobDemanda = historicoSobDemanda;
+        this.compensacaoPix = compensacaoPix;
+        this.logMutacoes = logMutacoes;
+        if (historicoSobDemanda != null) historicoSobDemanda.usarTabelaPrecos(tabelaPrecos);
+    }
+
+    /**
+     * Define onde o serviço imprime listagens e avisos. Simulações passam um fluxo nulo
+     * para silenciar apenas este serviço, sem trocar a saída padrão do processo.
+     * @param saida O fluxo de saída.
+     */
+    public void setSaida(PrintStream saida) {
+        this.saida = saida;
     }
 
     // --- MÉTODOS DE CLIENTE E CONTA ---
@@ -34,11 +104,21 @@ public class BancoService {
      */
     public Cliente criarCliente(String nome, String cpf) {
         if (clienteRepository.buscarPorCpf(cpf).isPresent()) {
-            System.out.println("Erro: CPF já cadastrado.");
+            saida.println("Erro: CPF já cadastrado.");
             return null;
         }
         Cliente cliente = new Cliente(nome, cpf);
-        clienteRepository.salvar(cliente);
+        if (historicoSobDemanda != null) {
+            cliente.getCarteiraInvestimento().usarCarregamentoSobDemanda(cpf, historicoSobDemanda);
+        }
+        synchronized (clienteRepository) {
+            // putIfAbsent cobre dois cadastros simultâneos do mesmo CPF; o lock mantém o log na mesma ordem.
+            if (!clienteRepository.salvarSeAusente(cliente)) {
+                saida.println("Erro: CPF já cadastrado.");
+                return null;
+            }
+            registrarMutacao(TipoMutacao.CRIACAO_CLIENTE, cpf, null, nome, 0, 0);
+        }
         return cliente;
     }
 
@@ -49,26 +129,100 @@ public class BancoService {
      * @return O objeto Conta recém-criado, ou null se ocorrer um erro.
      */
     public Conta adicionarContaParaCliente(String cpf, String tipoConta) {
+        return adicionarContaParaCliente(cpf, tipoConta, null);
+    }
+
+    /**
+     * Adiciona uma nova conta com um número já definido, como ao reproduzir uma conta criada em outro nó.
+     * @param cpf O CPF do cliente ao qual a conta será adicionada.
+     * @param tipoConta O tipo da conta, "corrente" ou "poupanca".
+     * @param numeroConta O número da conta, ou null para gerar um novo.
+     * @return O objeto Conta recém-criado, ou null se ocorrer um erro.
+     */
+    public Conta adicionarContaParaCliente(String cpf, String tipoConta, String numeroConta) {
         Optional<Cliente> clienteOpt = clienteRepository.buscarPorCpf(cpf);
         if (clienteOpt.isEmpty()) {
-            System.out.println("Erro: Cliente não encontrado.");
+            saida.println("Erro: Cliente não encontrado.");
             return null;
         }
         Cliente cliente = clienteOpt.get();
+        synchronized (cliente) {
+            return adicionarConta(cliente, tipoConta, numeroConta);
+        }
+    }
+
+    private Conta adicionarConta(Cliente cliente, String tipoConta, String numeroConta) {
         boolean tipoJaExiste = cliente.getContas().stream().anyMatch(c ->
                 ("corrente".equalsIgnoreCase(tipoConta) && c instanceof ContaCorrente) ||
                         ("poupanca".equalsIgnoreCase(tipoConta) && c instanceof ContaPoupanca)
         );
         if(tipoJaExiste){
-            System.out.println("Erro: O cliente já possui uma conta deste tipo.");
+            saida.println("Erro: O cliente já possui uma conta deste tipo.");
             return null;
         }
 
-        Conta novaConta = "corrente".equalsIgnoreCase(tipoConta) ? new ContaCorrente(cliente) : new ContaPoupanca(cliente);
+        boolean corrente = "corrente".equalsIgnoreCase(tipoConta);
+        Conta novaConta;
+        if (numeroConta == null) {
+            novaConta = corrente ? new ContaCorrente(cliente) : new ContaPoupanca(cliente);
+        } else {
+            novaConta = corrente ? new ContaCorrente(cliente, numeroConta) : new ContaPoupanca(cliente, numeroConta);
+        }
+        if (historicoSobDemanda != null) {
+            novaConta.usarHistoricoSobDemanda(historicoSobDemanda);
+        }
+        novaConta.usarArvoreMerkle(arvoreMerkle);
         cliente.adicionarConta(novaConta);
+        contasPorNumero.put(novaConta.getNumero(), novaConta);
+        registrarMutacao(TipoMutacao.CRIACAO_CONTA, cliente.getCpf(), novaConta.getNumero(), corrente ? "corrente" : "poupanca", 0, 0);
         return novaConta;
     }
 
+    /**
+     * Registra um cliente já montado, com suas contas, vindo de outro nó (ex: migração de partição).
+     * @param cliente O cliente a ser registrado.
+     * @return true se registrado; false se o CPF já existir neste nó.
+     */
+    public boolean importarCliente(Cliente cliente) {
+        if (!clienteRepository.salvarSeAusente(cliente)) return false;
+        cliente.getContas().forEach(conta -> {
+            conta.usarArvoreMerkle(arvoreMerkle);
+            contasPorNumero.put(conta.getNumero(), conta);
+        });
+        return true;
+    }
+
+    /**
+     * Remove um cliente e suas contas deste nó (ex: após migrar sua partição para outro nó).
+     * @param cpf O CPF do cliente.
+     */
+    public void removerCliente(String cpf) {
+        clienteRepository.buscarPorCpf(cpf).ifPresent(cliente -> {
+            cliente.getContas().forEach(conta -> {
+                contasPorNumero.remove(conta.getNumero());
+                arvoreMerkle.remover(conta.getNumero());
+                conta.liberarSegmentosArquivados();
+            });
+            clienteRepository.remover(cpf);
+        });
+    }
+
+    /**
+     * Retorna a árvore com os checksums das contas deste banco, usada para comparar réplicas
+     * (ver {@link AuditoriaService}).
+     */
+    public ArvoreMerkle getArvoreMerkle() {
+        return arvoreMerkle;
+    }
+
+    /**
+     * Retorna a tabela com o preço atual de cada produto de investimento deste banco.
+     * As cotações devem ser aplicadas por {@link #atualizarPreco} (ou {@link IngestaoCotacoes}), que as registra no log.
+     */
+    public TabelaPrecos getTabelaPrecos() {
+        return tabelaPrecos;
+    }
+
     /**
      * Busca um cliente pelo seu CPF.
      * @param cpf O CPF a ser pesquisado.
@@ -78,6 +232,26 @@ public class BancoService {
         return clienteRepository.buscarPorCpf(cpf);
     }
 
+    /**
+     * Busca clientes por parte do nome (sem diferenciar acentos e maiúsculas, tolerando erros de digitação).
+     * O índice de nomes é atualizado a cada cliente cadastrado por {@link #criarCliente}.
+     * @param consulta O nome ou parte dele.
+     * @param limite A quantidade máxima de resultados.
+     * @return Os clientes encontrados, do mais ao menos parecido com a consulta.
+     */
+    public List<Cliente> buscarClientesPorNome(String consulta, int limite) {
+        return clienteRepository.buscarPorNome(consulta, limite);
+    }
+
+    /**
+     * Busca uma conta pelo seu número.
+     * @param numero O número da conta.
+     * @return Um Optional contendo a Conta, se encontrada.
+     */
+    public Optional<Conta> buscarContaPorNumero(String numero) {
+        return findContaByNumero(numero);
+    }
+
     // --- OPERAÇÕES BANCÁRIAS COM FEEDBACK DETALHADO ---
 
     /**
@@ -88,7 +262,11 @@ public class BancoService {
      */
     public String depositar(Conta conta, double valor) {
         if (conta == null) return "Erro: Conta inválida.";
-        conta.depositar(valor);
+        Conta.executarAtomicamente(() -> {
+            conta.depositar(valor);
+            if (valor > 0) registrarMutacao(TipoMutacao.DEPOSITO, conta.getNumero(), null, null, 0, valor);
+            return null;
+        }, conta);
         return String.format("Depósito de R$%.2f realizado com sucesso. Novo saldo: R$%.2f", valor, conta.getSaldo());
     }
 
@@ -100,7 +278,12 @@ public class BancoService {
      */
     public String sacar(Conta conta, double valor) {
         if (conta == null) return "Erro: Conta inválida.";
-        if (conta.sacar(valor)) {
+        boolean realizado = Conta.executarAtomicamente(() -> {
+            if (!conta.sacar(valor)) return false;
+            registrarMutacao(TipoMutacao.SAQUE, conta.getNumero(), null, null, 0, valor);
+            return true;
+        }, conta);
+        if (realizado) {
             return String.format("Saque de R$%.2f realizado com sucesso. Novo saldo: R$%.2f", valor, conta.getSaldo());
         }
         return "Saque não realizado. Verifique o saldo ou o valor solicitado.";
@@ -119,8 +302,24 @@ public class BancoService {
 
         if (origemOpt.isPresent() && destinoOpt.isPresent()) {
             Conta origem = origemOpt.get();
-            if (origem.sacar(valor)) {
-                destinoOpt.get().depositar(valor);
+            Conta destino = destinoOpt.get();
+            if (compensacaoPix != null) {
+                if (compensacaoPix.submeter(origem, destino, valor)) {
+                    return String.format("Transferência de R$%.2f da conta %s para a conta %s aceita e enviada para compensação.", valor, numContaOrigem, numContaDestino);
+                }
+                return "Transferência não realizada. Saldo insuficiente na conta de origem.";
+            }
+            // Débito e crédito são publicados juntos: nenhum snapshot vê o dinheiro "em trânsito".
+            boolean realizada = Conta.executarAtomicamente(() -> {
+                // Registra o PIX nos dois extratos, como em Conta.transferir.
+                if (origem.sacar(valor, TipoTransacao.TRANSFERENCIA_PIX_ENVIADA, "PIX para " + destino.getCliente().getNome())) {
+                    destino.depositar(valor, TipoTransacao.TRANSFERENCIA_PIX_RECEBIDA, "PIX de " + origem.getCliente().getNome());
+                    registrarMutacao(TipoMutacao.TRANSFERENCIA, numContaOrigem, numContaDestino, null, 0, valor);
+                    return true;
+                }
+                return false;
+            }, origem, destino);
+            if (realizada) {
                 return String.format("Transferência de R$%.2f realizada da conta %s para a conta %s.\nSaldo atual da conta de origem: R$%.2f", valor, numContaOrigem, numContaDestino, origem.getSaldo());
             } else {
                 return "Transferência não realizada. Saldo insuficiente na conta de origem.";
@@ -140,9 +339,9 @@ public class BancoService {
      */
     public String fazerInvestimento(Conta conta, String nomeInvestimento, double valor) {
         if (conta == null) return "Erro: Conta de débito inválida.";
-        if (conta.sacar(valor)) {
-            Investimento inv = new Investimento(nomeInvestimento, valor);
-            conta.getCliente().getCarteiraInvestimento().adicionarInvestimento(inv);
+        // Débito e nova posição na mesma unidade de trabalho: acontecem os dois ou nenhum.
+        ResultadoUnidadeTrabalho resultado = iniciarUnidadeDeTrabalho().aplicar(conta, nomeInvestimento, valor).confirmar();
+        if (resultado.confirmada()) {
             return String.format("Investimento em '%s' no valor de R$%.2f realizado com sucesso.\nSaldo atual da conta: R$%.2f", nomeInvestimento, valor, conta.getSaldo());
         }
         return "Não foi possível realizar o investimento. Saldo insuficiente.";
@@ -159,35 +358,100 @@ public class BancoService {
         CarteiraInvestimento carteira = cliente.getCarteiraInvestimento();
         if (indice < 0 || indice >= carteira.getInvestimentos().size()) return "Índice de investimento inválido.";
         Investimento inv = carteira.getInvestimentos().get(indice);
-        if (inv.getStatus() == StatusInvestimento.RESGATADO) return "Este investimento já foi resgatado.";
 
-        double valorResgate = inv.getValorAtual();
-        contaDestino.depositar(valorResgate);
-        inv.setStatus(StatusInvestimento.RESGATADO);
+        // O status é conferido dentro da escrita, com o lock da carteira, para que dois resgates simultâneos não creditem duas vezes.
+        Double valorResgate = Conta.executarAtomicamente(() -> {
+            synchronized (carteira) {
+                return registrarResgate(cliente, indice, contaDestino);
+            }
+        }, contaDestino);
+        if (valorResgate == null) return "Este investimento já foi resgatado.";
 
         return String.format("Investimento resgatado. Valor de R$%.2f creditado na conta %s.\nNovo saldo da conta: R$%.2f", valorResgate, contaDestino.getNumero(), contaDestino.getSaldo());
     }
 
+    /**
+     * Inicia uma unidade de trabalho: operações em várias contas e carteiras confirmadas juntas,
+     * com controle de concorrência otimista (ver {@link UnidadeDeTrabalho}).
+     * @return Uma nova unidade de trabalho, a ser usada por uma única thread.
+     */
+    public UnidadeDeTrabalho iniciarUnidadeDeTrabalho() {
+        return new UnidadeDeTrabalho(this);
+    }
+
+    /**
+     * Debita a conta e cria a posição no produto. Deve ser chamado dentro de uma escrita com os locks
+     * da conta e da carteira do titular; o da carteira mantém a posição na lista igual à ordem do log.
+     * @return true se o débito foi realizado.
+     */
+    boolean registrarAplicacao(Conta conta, String nomeInvestimento, double valor) {
+        if (!conta.sacar(valor, TipoTransacao.CRIACAO_INVESTIMENTO, "Aplicação em " + nomeInvestimento)) return false;
+        Produto produto = tabelaPrecos.produto(nomeInvestimento);
+        // O lock do produto mantém o preço de compra igual ao da réplica (as cotações também são registradas com ele).
+        synchronized (produto) {
+            // Criado dentro da mesma escrita do saque, o investimento recebe a mesma versão.
+            conta.getCliente().getCarteiraInvestimento().adicionarInvestimento(new Investimento(produto, valor));
+            registrarMutacao(TipoMutacao.INVESTIMENTO, conta.getNumero(), null, nomeInvestimento, 0, valor);
+        }
+        return true;
+    }
+
+    /**
+     * Resgata um investimento pelo valor atual, creditando a conta de destino. Deve ser chamado dentro de
+     * uma escrita com os locks da conta de destino e da carteira.
+     * @return O valor resgatado, ou null se o investimento já tinha sido resgatado.
+     */
+    Double registrarResgate(Cliente cliente, int indice, Conta contaDestino) {
+        CarteiraInvestimento carteira = cliente.getCarteiraInvestimento();
+        Investimento inv = carteira.getInvestimentos().get(indice);
+        // O lock do produto impede que uma cotação mude o valor entre a leitura e o registro no log.
+        synchronized (inv.getProduto()) {
+            if (inv.getStatus() == StatusInvestimento.RESGATADO) return null;
+            double valor = inv.getValorAtual();
+            contaDestino.depositar(valor, TipoTransacao.DEPOSITO, "Resgate de " + inv.getNome());
+            carteira.resgatar(indice, valor);
+            registrarMutacao(TipoMutacao.RESGATE, cliente.getCpf(), contaDestino.getNumero(), null, indice, valor);
+            return valor;
+        }
+    }
+
     // --- MÉTODOS DE CONSULTA ---
 
     /**
      * Imprime no console uma lista de todos os clientes cadastrados e suas respectivas contas.
+     * Os saldos exibidos vêm de um snapshot, formando uma visão consistente mesmo com transferências em andamento.
      */
     public void listarClientes() {
-        System.out.println("\n--- LISTA DE CLIENTES E CONTAS ---");
+        listarClientes(PontoDeCessao.NENHUM);
+    }
+
+    /**
+     * Lista os clientes como {@link #listarClientes()}, cedendo a vez entre um cliente e outro
+     * (ver {@link AgendadorOperacoes}).
+     * @param cessao O ponto de cessão do trabalho em lote.
+     */
+    public void listarClientes(PontoDeCessao cessao) {
+        try (Snapshot snapshot = RelogioVersoes.abrirSnapshot()) {
+            imprimirClientes(snapshot, cessao);
+        }
+    }
+
+    private void imprimirClientes(Snapshot snapshot, PontoDeCessao cessao) {
+        saida.println("\n--- LISTA DE CLIENTES E CONTAS ---");
         clienteRepository.buscarTodos().forEach(cliente -> {
-            System.out.println("----------------------------------------");
-            System.out.printf("Cliente: %s | CPF: %s%n", cliente.getNome(), cliente.getCpf());
+            saida.println("----------------------------------------");
+            saida.printf("Cliente: %s | CPF: %s%n", cliente.getNome(), cliente.getCpf());
             if(cliente.getContas().isEmpty()){
-                System.out.println("  (Nenhuma conta cadastrada)");
+                saida.println("  (Nenhuma conta cadastrada)");
             } else {
                 cliente.getContas().forEach(conta -> {
                     String tipo = conta instanceof ContaCorrente ? "Conta Corrente" : "Conta Poupança";
-                    System.out.printf("  - Tipo: %-15s | Ag: %s | Conta: %s | Saldo: R$%.2f%n", tipo, conta.getAgencia(), conta.getNumero(), conta.getSaldo());
+                    saida.printf("  - Tipo: %-15s | Ag: %s | Conta: %s | Saldo: R$%.2f%n", tipo, conta.getAgencia(), conta.getNumero(), conta.getSaldoNoSnapshot(snapshot));
                 });
             }
+            cessao.ceder();
         });
-        System.out.println("----------------------------------------");
+        saida.println("----------------------------------------");
     }
 
     /**
@@ -196,30 +460,54 @@ public class BancoService {
      */
     public void listarCarteira(String cpf) {
         clienteRepository.buscarPorCpf(cpf).ifPresentOrElse(cliente -> {
-            System.out.printf("\n--- CARTEIRA DE INVESTIMENTOS DE %s ---%n", cliente.getNome());
+            saida.printf("\n--- CARTEIRA DE INVESTIMENTOS DE %s ---%n", cliente.getNome());
             CarteiraInvestimento carteira = cliente.getCarteiraInvestimento();
             if (carteira.getInvestimentos().isEmpty()) {
-                System.out.println("Nenhum investimento na carteira.");
+                saida.println("Nenhum investimento na carteira.");
             } else {
                 for (int i = 0; i < carteira.getInvestimentos().size(); i++) {
-                    System.out.printf("[%d] %s%n", i, carteira.getInvestimentos().get(i));
+                    saida.printf("[%d] %s%n", i, carteira.getInvestimentos().get(i));
                 }
             }
-            System.out.printf(">> Saldo Total Investido (Ativos): R$%.2f%n", carteira.getSaldoTotal());
-        }, () -> System.out.println("Cliente não encontrado."));
+            saida.printf(">> Saldo Total Investido (Ativos): R$%.2f%n", carteira.getSaldoTotal());
+        }, () -> saida.println("Cliente não encontrado."));
     }
 
     /**
-     * Simula um rendimento aleatório para todos os investimentos ativos de todos os clientes.
+     * Simula um rendimento aleatório para cada produto de investimento.
+     * Todas as posições de um produto acompanham o novo preço, então o custo é proporcional
+     * ao número de produtos, e não ao de investimentos.
      */
     public void simularAtualizacaoInvestimentos() {
-        clienteRepository.buscarTodos().forEach(cliente -> cliente.getCarteiraInvestimento().getInvestimentos().forEach(inv -> {
-            if (inv.getStatus() == StatusInvestimento.ATIVO) {
-                double rendimento = 1 + (Math.random() * 0.05);
-                inv.setValorAtual(inv.getValorAtual() * rendimento);
-            }
-        }));
-        System.out.println("Simulação de rendimentos concluída para todos os investimentos ativos.");
+        simularAtualizacaoInvestimentos(PontoDeCessao.NENHUM);
+    }
+
+    /**
+     * Simula os rendimentos como {@link #simularAtualizacaoInvestimentos()}, cedendo a vez entre um produto e outro.
+     * @param cessao O ponto de cessão do trabalho em lote.
+     */
+    public void simularAtualizacaoInvestimentos(PontoDeCessao cessao) {
+        for (Produto produto : tabelaPrecos.buscarTodos()) {
+            double rendimento = 1 + (Math.random() * 0.05);
+            atualizarPreco(produto.getNome(), produto.getPreco() * rendimento);
+            cessao.ceder();
+        }
+        saida.println("Simulação de rendimentos concluída para todos os investimentos ativos.");
+    }
+
+    /**
+     * Registra uma nova cotação de um produto (ex: atualização de mercado ou réplica de outro nó).
+     * Nenhuma posição é alterada: o valor de cada uma é calculado pelo preço do produto quando é lido.
+     * @param nomeProduto O nome do produto (o mesmo usado nos investimentos).
+     * @param preco O novo preço unitário.
+     */
+    public void atualizarPreco(String nomeProduto, double preco) {
+        Produto produto = tabelaPrecos.produto(nomeProduto);
+        // Mesmo lock da aplicação e do resgate: o log registra cotações e posições na ordem em que ocorreram.
+        synchronized (produto) {
+            produto.cotar(preco);
+            registrarMutacao(TipoMutacao.ATUALIZACAO_PRECO, nomeProduto, null, null, 0, preco);
+        }
     }
 
     /**
@@ -227,15 +515,42 @@ public class BancoService {
      * @param numeroConta O número da conta a ser consultada.
      */
     public void verHistorico(String numeroConta) {
-        findContaByNumero(numeroConta).ifPresentOrElse(Conta::imprimirExtrato, () -> System.out.println("Conta não encontrada."));
+        findContaByNumero(numeroConta).ifPresentOrElse(Conta::imprimirExtrato, () -> saida.println("Conta não encontrada."));
+    }
+
+    /**
+     * Arquiva as transações antigas de todas as contas (ver {@link Conta#arquivarHistorico}).
+     * Pode ser chamado periodicamente; cada chamada sela só o que envelheceu desde a anterior.
+     * @param arquivamento O estágio de arquivamento, com o diretório e a idade mínima.
+     * @return Quantas transações saíram do heap.
+     */
+    public long arquivarHistoricos(ArquivamentoHistorico arquivamento) {
+        return clienteRepository.buscarTodos().stream()
+                .flatMap(cliente -> cliente.getContas().stream())
+                .mapToLong(conta -> conta.arquivarHistorico(arquivamento))
+                .sum();
+    }
+
+    /**
+     * Registra a alteração no log de replicação, se houver um. Deve ser chamado com os locks
+     * das contas envolvidas ainda adquiridos, para que a ordem do log seja a ordem real das alterações.
+     */
+    void registrarMutacao(TipoMutacao tipo, String chave, String chaveSecundaria, String texto, int indice, double valor) {
+        if (logMutacoes != null) {
+            logMutacoes.registrar(tipo, chave, chaveSecundaria, texto, indice, valor);
+        }
     }
 
     /**
      * Método auxiliar privado para encontrar uma conta pelo número em todo o sistema.
+     * Consulta primeiro o índice das contas criadas por este serviço; só percorre todos os
+     * clientes para contas adicionadas por fora dele.
      * @param numero O número da conta a ser encontrada.
      * @return Um Optional contendo a Conta, se existir.
      */
     private Optional<Conta> findContaByNumero(String numero) {
+        Conta indexada = contasPorNumero.get(numero);
+        if (indexada != null) return Optional.of(indexada);
         return clienteRepository.buscarTodos().stream()
                 .flatMap(cliente -> cliente.getContas().stream())
                 .filter(conta -> conta.getNumero().equals(numero))
@@ -0,0 +1,297 @@
+package org.example.service;
+
+import org.example.enums.TipoTransacao;
+import org.example.model.Conta;
+import org.example.records.ResultadoLiquidacao;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Motor de compensação multilateral de PIX.
+ * Em vez de liquidar cada transferência bruta (um débito e um crédito), acumula as transferências
+ * de uma janela e aplica apenas a posição líquida de cada conta. Se A envia 100 para B e B envia
+ * 100 para A, nenhum saldo muda na liquidação, mas os dois PIX continuam no histórico das contas.
+ * <p>
+ * O controle de saldo acompanha a exposição intradiária: ao ser aceito, o PIX fica reservado na
+ * conta de origem ({@link Conta#reservarEnvioCompensacao}), então saques e novos PIX já enxergam o
+ * valor comprometido. Créditos pendentes só podem ser gastos depois de liquidados.
+ * <p>
+ * A janela é liquidada por {@link #liquidar()}, periodicamente ({@link #iniciarLiquidacaoPeriodica})
+ * ou automaticamente quando atinge o número máximo de contas. Janelas fechadas entram em uma fila e
+ * são liquidadas uma de cada vez, na ordem em que foram fechadas.
+ * <p>
+ * A janela é dividida em faixas, escolhidas pela conta de origem, cada uma com o próprio lock:
+ * PIX de origens diferentes são aceitos em paralelo. O monitor deste objeto só é usado para fechar
+ * a janela, quando as faixas são trocadas uma a uma e juntadas em uma única janela fechada.
+ */
+public class CompensacaoPix {
+
+    static final int FAIXAS = 16;
+
+    private final int maxContasPorJanela;
+    private final Faixa[] faixas = new Faixa[FAIXAS];
+    private final AtomicInteger contasNaJanela = new AtomicInteger(); // Soma das contas de cada faixa; pode contar uma conta mais de uma vez.
+    private final Deque<Janela> fechadas = new ArrayDeque<>(); // Protegida pelo monitor deste objeto.
+    private final ReentrantLock liquidando = new ReentrantLock(); // Só uma thread liquida por vez.
+    private ScheduledExecutorService agendador;
+
+    /**
+     * @param maxContasPorJanela Quantidade de contas distintas que força a liquidação da janela.
+     *                           Limita quantas contas ficam bloqueadas ao mesmo tempo na liquidação.
+     */
+    public CompensacaoPix(int maxContasPorJanela) {
+        this.maxContasPorJanela = maxContasPorJanela;
+        for (int i = 0; i < faixas.length; i++) {
+            faixas[i] = new Faixa();
+        }
+    }
+
+    /**
+     * Aceita um PIX na janela atual, reservando o valor na conta de origem.
+     * @param origem A conta que envia.
+     * @param destino A conta que recebe.
+     * @param valor O valor do PIX.
+     * @return true se aceito; false se o saldo disponível (saldo - envios pendentes) não cobrir o valor.
+     */
+    public boolean submeter(Conta origem, Conta destino, double valor) {
+        Faixa faixa = faixas[Math.floorMod(System.identityHashCode(origem), faixas.length)];
+        int novasContas;
+        // A reserva e a perna entram sob o lock da faixa: a troca nunca separa uma da outra.
+        synchronized (faixa) {
+            if (!origem.reservarEnvioCompensacao(valor)) return false;
+            destino.registrarRecebimentoCompensacao(valor);
+            novasContas = faixa.janela.adicionar(origem, destino, valor, System.currentTimeMillis());
+        }
+        if (novasContas > 0 && contasNaJanela.addAndGet(novasContas) >= maxContasPorJanela) {
+            synchronized (this) {
+                // Outra thread pode ter fechado a janela enquanto esta esperava o monitor.
+                if (contasNaJanela.get() >= maxContasPorJanela) trocarJanela();
+            }
+            liquidarFechadasSeLivre();
+        }
+        return true;
+    }
+
+    /**
+     * Liquida a janela atual: aplica as posições líquidas em uma única escrita e registra
+     * cada PIX individual no histórico das contas.
+     * @return O resumo da liquidação.
+     */
+    public ResultadoLiquidacao liquidar() {
+        liquidando.lock();
+        try {
+            Janela propria;
+            synchronized (this) {
+                propria = trocarJanela();
+            }
+            // As janelas fechadas antes desta são liquidadas primeiro; a fila termina vazia.
+            ResultadoLiquidacao resultado = null;
+            Janela fechada;
+            while ((fechada = proximaFechada()) != null) {
+                ResultadoLiquidacao parcial = fechada.liquidar();
+                if (fechada == propria) resultado = parcial;
+            }
+            return resultado;
+        } finally {
+            liquidando.unlock();
+        }
+    }
+
+    /**
+     * Passa a liquidar a janela automaticamente no intervalo informado.
+     * @param intervaloMillis O intervalo entre liquidações, em milissegundos.
+     */
+    public synchronized void iniciarLiquidacaoPeriodica(long intervaloMillis) {
+        if (agendador != null) return;
+        agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "compensacao-pix");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleAtFixedRate(this::liquidar, intervaloMillis, intervaloMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Interrompe a liquidação periódica, espera a liquidação agendada em andamento terminar
+     * e liquida o que ainda estiver pendente.
+     * @return O resumo da última liquidação.
+     * @throws InterruptedException se a thread for interrompida enquanto espera o agendador.
+     */
+    public ResultadoLiquidacao encerrar() throws InterruptedException {
+        ScheduledExecutorService parado;
+        synchronized (this) {
+            parado = agendador;
+            agendador = null;
+        }
+        // Fora do monitor: a liquidação agendada em andamento também precisa dele para trocar a janela.
+        if (parado != null) {
+            parado.shutdown();
+            parado.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        return liquidar();
+    }
+
+    // Deve ser chamado com o monitor deste objeto. Cada faixa fica bloqueada só o tempo de trocar a referência.
+    private Janela trocarJanela() {
+        List<Janela> parciais = new ArrayList<>(faixas.length);
+        for (Faixa faixa : faixas) {
+            Janela parcial;
+            synchronized (faixa) {
+                parcial = faixa.janela;
+                faixa.janela = new Janela();
+            }
+            contasNaJanela.addAndGet(-parcial.quantidadeContas);
+            if (parcial.quantidadeTransferencias > 0) parciais.add(parcial);
+        }
+        Janela fechada = parciais.size() == 1 ? parciais.get(0) : Janela.juntar(parciais);
+        fechadas.addLast(fechada);
+        return fechada;
+    }
+
+    private synchronized Janela proximaFechada() {
+        return fechadas.pollFirst();
+    }
+
+    private synchronized boolean haFechadas() {
+        return !fechadas.isEmpty();
+    }
+
+    // Liquida as janelas fechadas se ninguém estiver liquidando; senão, quem está as encontra na fila.
+    // Volta a conferir depois de soltar o lock, pois uma janela pode ter sido fechada logo após a última leitura da fila.
+    private void liquidarFechadasSeLivre() {
+        do {
+            if (!liquidando.tryLock()) return;
+            try {
+                Janela fechada;
+                while ((fechada = proximaFechada()) != null) {
+                    fechada.liquidar();
+                }
+            } finally {
+                liquidando.unlock();
+            }
+        } while (haFechadas());
+    }
+
+    private static final class Faixa {
+        private Janela janela = new Janela(); // Protegida pelo monitor da faixa.
+    }
+
+    /**
+     * Transferências de uma janela. As pernas ficam em vetores paralelos e as posições líquidas
+     * em vetores de double indexados pela posição da conta na janela, sem objetos por transferência.
+     */
+    private static final class Janela {
+        private final Map<Conta, Integer> indicePorConta = new IdentityHashMap<>();
+        private Conta[] contas = new Conta[16];
+        private double[] posicaoLiquida = new double[16];
+        private double[] enviado = new double[16];
+        private int quantidadeContas;
+
+        private int[] origens = new int[64];
+        private int[] destinos = new int[64];
+        private double[] valores = new double[64];
+        private long[] instantes = new long[64];
+        private int quantidadeTransferencias;
+
+        /**
+         * Junta as faixas de uma janela em ordem de chegada, para que a posição líquida de cada conta
+         * considere todas as faixas e o histórico continue em ordem cronológica.
+         */
+        private static Janela juntar(List<Janela> parciais) {
+            Janela junta = new Janela();
+            int[] proximas = new int[parciais.size()];
+            while (true) {
+                int escolhida = -1;
+                for (int p = 0; p < parciais.size(); p++) {
+                    Janela parcial = parciais.get(p);
+                    if (proximas[p] == parcial.quantidadeTransferencias) continue;
+                    if (escolhida < 0 || parcial.instantes[proximas[p]] < parciais.get(escolhida).instantes[proximas[escolhida]]) escolhida = p;
+                }
+                if (escolhida < 0) return junta;
+                Janela parcial = parciais.get(escolhida);
+                int i = proximas[escolhida]++;
+                junta.adicionar(parcial.contas[parcial.origens[i]], parcial.contas[parcial.destinos[i]], parcial.valores[i], parcial.instantes[i]);
+            }
+        }
+
+        // Retorna quantas contas entraram na janela com esta transferência.
+        private int adicionar(Conta origem, Conta destino, double valor, long instante) {
+            int contasAntes = quantidadeContas;
+            int o = indice(origem);
+            int d = indice(destino);
+            if (quantidadeTransferencias == valores.length) {
+                int novoTamanho = valores.length * 2;
+                origens = Arrays.copyOf(origens, novoTamanho);
+                destinos = Arrays.copyOf(destinos, novoTamanho);
+                valores = Arrays.copyOf(valores, novoTamanho);
+                instantes = Arrays.copyOf(instantes, novoTamanho);
+            }
+            origens[quantidadeTransferencias] = o;
+            destinos[quantidadeTransferencias] = d;
+            valores[quantidadeTransferencias] = valor;
+            instantes[quantidadeTransferencias] = instante;
+            quantidadeTransferencias++;
+            posicaoLiquida[o] -= valor;
+            posicaoLiquida[d] += valor;
+            enviado[o] += valor;
+            return quantidadeContas - contasAntes;
+        }
+
+        private int indice(Conta conta) {
+            Integer existente = indicePorConta.get(conta);
+            if (existente != null) return existente;
+            if (quantidadeContas == contas.length) {
+                contas = Arrays.copyOf(contas, contas.length * 2);
+                posicaoLiquida = Arrays.copyOf(posicaoLiquida, posicaoLiquida.length * 2);
+                enviado = Arrays.copyOf(enviado, enviado.length * 2);
+            }
+            indicePorConta.put(conta, quantidadeContas);
+            contas[quantidadeContas] = conta;
+            return quantidadeContas++;
+        }
+
+        private ResultadoLiquidacao liquidar() {
+            if (quantidadeTransferencias == 0) return new ResultadoLiquidacao(0, 0, 0, 0);
+            Conta[] envolvidas = Arrays.copyOf(contas, quantidadeContas);
+            double volumeBruto = 0;
+            for (int i = 0; i < quantidadeTransferencias; i++) volumeBruto += valores[i];
+            double volumeLiquido = 0;
+            for (int i = 0; i < quantidadeContas; i++) volumeLiquido += Math.max(0, posicaoLiquida[i]);
+
+            // Todas as contas da janela mudam na mesma versão: um snapshot nunca vê a janela pela metade.
+            Conta.executarAtomicamente(() -> {
+                for (int i = 0; i < quantidadeContas; i++) {
+                    if (posicaoLiquida[i] != 0 || enviado[i] != 0) contas[i].liquidarCompensacao(posicaoLiquida[i], enviado[i]);
+                }
+                registrarHistorico();
+                return null;
+            }, envolvidas);
+            return new ResultadoLiquidacao(quantidadeTransferencias, quantidadeContas, volumeBruto, volumeLiquido);
+        }
+
+        private void registrarHistorico() {
+            ZoneId fuso = ZoneId.systemDefault();
+            for (int i = 0; i < quantidadeTransferencias; i++) {
+                Conta origem = contas[origens[i]];
+                Conta destino = contas[destinos[i]];
+                LocalDateTime data = LocalDateTime.ofInstant(Instant.ofEpochMilli(instantes[i]), fuso);
+                origem.adicionarTransacao(TipoTransacao.TRANSFERENCIA_PIX_ENVIADA, valores[i], "PIX para " + destino.getCliente().getNome(), data);
+                destino.adicionarTransacao(TipoTransacao.TRANSFERENCIA_PIX_RECEBIDA, valores[i], "PIX de " + origem.getCliente().getNome(), data);
+            }
+        }
+    }
+}
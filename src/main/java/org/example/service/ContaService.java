@@ -50,7 +50,9 @@ public class ContaService {
     public void sacar(String numeroConta, double valor) {
         repository.buscarPorNumero(numeroConta)
                 .ifPresentOrElse(
-                        conta -> conta.sacar(valor),
+                        conta -> {
+                            if (!conta.sacar(valor)) System.out.println("Saldo insuficiente ou valor de saque inválido.");
+                        },
                         () -> System.out.println("Erro: Conta não encontrada.")
                 );
     }
@@ -74,10 +76,12 @@ public class ContaService {
      */
     public void criarInvestimento(String numeroConta, String nomeInvestimento, double valor) {
         repository.buscarPorNumero(numeroConta).ifPresentOrElse(conta -> {
-            if (conta.sacar(valor)) { // Reutiliza o método sacar para debitar o valor
+            // Reutiliza o método sacar para debitar o valor, registrando a aplicação no extrato.
+            if (conta.sacar(valor, TipoTransacao.CRIACAO_INVESTIMENTO, "Aplicação em " + nomeInvestimento)) {
                 new Investimento(nomeInvestimento, valor); // Cria o objeto Investimento (não é armazenado neste exemplo)
-                conta.adicionarTransacao(TipoTransacao.CRIACAO_INVESTIMENTO, valor, "Aplicação em " + nomeInvestimento);
                 System.out.println("Investimento criado com sucesso!");
+            } else {
+                System.out.println("Saldo insuficiente ou valor de saque inválido.");
             }
         }, () -> System.out.println("Erro: Conta não encontrada."));
     }
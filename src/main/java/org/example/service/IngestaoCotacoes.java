@@ -0,0 +1,101 @@
+package org.example.service;
+
+import org.example.records.Cotacao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Ingestão de cotações em alta frequência, vindas de um arquivo local ou de uma fila em memória.
+ * <p>
+ * As cotações são lidas em lotes de até {@value #TAMANHO_LOTE} e, dentro de um lote, só a última de cada
+ * produto é aplicada pelo {@link BancoService#atualizarPreco}. Como o valor das posições é sempre calculado
+ * pelo preço mais recente, pular as intermediárias não muda o resultado, só reduz locks e registros no log.
+ */
+public class IngestaoCotacoes {
+
+    static final int TAMANHO_LOTE = 4096;
+    private static final char SEPARADOR = ';';
+
+    private final BancoService bancoService;
+
+    public IngestaoCotacoes(BancoService bancoService) {
+        this.bancoService = bancoService;
+    }
+
+    /**
+     * Aplica as cotações de um arquivo texto, uma por linha no formato {@code produto;preco}.
+     * Linhas em branco são ignoradas.
+     * @param arquivo O arquivo de cotações.
+     * @return Quantas cotações foram lidas.
+     * @throws IllegalArgumentException se uma linha não estiver no formato esperado.
+     */
+    public long carregarArquivo(Path arquivo) {
+        Map<String, Double> lote = new LinkedHashMap<>();
+        long lidas = 0;
+        try (BufferedReader reader = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                if (linha.isBlank()) continue;
+                int separador = linha.lastIndexOf(SEPARADOR);
+                try {
+                    if (separador <= 0) throw new NumberFormatException("separador ausente");
+                    lote.put(linha.substring(0, separador), Double.parseDouble(linha.substring(separador + 1)));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Cotação inválida na linha " + (lidas + 1) + " de " + arquivo + ": " + linha, e);
+                }
+                if (++lidas % TAMANHO_LOTE == 0) aplicar(lote);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler as cotações de " + arquivo, e);
+        }
+        aplicar(lote);
+        return lidas;
+    }
+
+    /**
+     * Consome cotações de uma fila até receber {@link Cotacao#FIM} ou a thread ser interrompida.
+     * Cada lote começa com uma espera pela próxima cotação e leva junto tudo o que já estiver na fila.
+     * @param fila A fila alimentada pelos produtores de cotações.
+     * @return Quantas cotações foram consumidas (sem contar o marcador de fim).
+     */
+    public long consumir(BlockingQueue<Cotacao> fila) {
+        List<Cotacao> recebidas = new ArrayList<>(TAMANHO_LOTE);
+        Map<String, Double> lote = new LinkedHashMap<>();
+        long consumidas = 0;
+        try {
+            while (true) {
+                recebidas.add(fila.take());
+                fila.drainTo(recebidas, TAMANHO_LOTE - 1);
+                for (Cotacao cotacao : recebidas) {
+                    if (cotacao == Cotacao.FIM) {
+                        aplicar(lote);
+                        return consumidas;
+                    }
+                    lote.put(cotacao.produto(), cotacao.preco());
+                    consumidas++;
+                }
+                recebidas.clear();
+                aplicar(lote);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aplicar(lote);
+            return consumidas;
+        }
+    }
+
+    private void aplicar(Map<String, Double> lote) {
+        lote.forEach(bancoService::atualizarPreco);
+        lote.clear();
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.service;
+
+/**
+ * Ponto em que um trabalho em lote pode ceder a vez a operações interativas.
+ * Trabalhos longos chamam {@link #ceder()} entre um item e outro, sempre sem locks adquiridos;
+ * quando não há agendador, usam {@link #NENHUM}.
+ */
+@FunctionalInterface
+public interface PontoDeCessao {
+
+    PontoDeCessao NENHUM = () -> {
+    };
+
+    /**
+     * Cede a vez se a fatia de tempo do lote acabou e há operações interativas esperando.
+     * Na maior parte das chamadas só confere o relógio e retorna.
+     */
+    void ceder();
+}
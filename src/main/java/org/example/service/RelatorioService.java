@@ -0,0 +1,282 @@
+package org.example.service;
+
+import org.example.model.Cliente;
+import org.example.model.Conta;
+import org.example.model.ContaCorrente;
+import org.example.model.RelogioVersoes;
+import org.example.records.DistribuicaoSaldos;
+import org.example.records.InvestidorRanking;
+import org.example.records.RelatorioConsolidado;
+import org.example.records.SaldosFimDeMes;
+import org.example.records.Snapshot;
+import org.example.records.Transacao;
+import org.example.records.VolumeDiarioTransacoes;
+import org.example.repository.ClienteRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Serviço de relatórios somente leitura.
+ * Todas as leituras de saldo são feitas sobre um {@link Snapshot}, então os totais refletem um único
+ * instante do banco sem bloquear as transferências que continuam acontecendo.
+ * <p>
+ * Os relatórios são calculados em paralelo (streams paralelos sobre o ForkJoinPool comum) e os
+ * acumuladores usam apenas campos e vetores primitivos, evitando criar um objeto por conta somada.
+ */
+public class RelatorioService {
+
+    private final ClienteRepository clienteRepository;
+
+    public RelatorioService(ClienteRepository clienteRepository) {
+        this.clienteRepository = clienteRepository;
+    }
+
+    /**
+     * Gera os totais consolidados do banco: depósitos por tipo de conta e exposição em investimentos.
+     * @return O relatório calculado em um snapshot recém-aberto.
+     */
+    public RelatorioConsolidado gerarRelatorio() {
+        try (Snapshot snapshot = RelogioVersoes.abrirSnapshot()) {
+            return gerarRelatorio(snapshot);
+        }
+    }
+
+    /**
+     * Gera os totais consolidados em um snapshot já aberto pelo chamador,
+     * permitindo combinar vários relatórios no mesmo instante.
+     * @param snapshot O snapshot a ser usado nas leituras.
+     * @return O relatório calculado.
+     */
+    public RelatorioConsolidado gerarRelatorio(Snapshot snapshot) {
+        AcumuladorTotais totais = clienteRepository.buscarTodos().parallelStream()
+                .collect(AcumuladorTotais::new, (acc, cliente) -> acc.somar(cliente, snapshot), AcumuladorTotais::combinar);
+        return new RelatorioConsolidado(snapshot.versao(), totais.clientes, totais.contas,
+                totais.saldoCorrente, totais.saldoPoupanca, totais.investimentos);
+    }
+
+    /**
+     * Calcula a distribuição dos saldos de todas as contas (mínimo, máximo, média e percentis).
+     * @param snapshot O snapshot a ser usado nas leituras.
+     * @param percentis Os percentis desejados, entre 0 e 100 (ex: 50, 90, 99).
+     * @return A distribuição calculada.
+     */
+    public DistribuicaoSaldos distribuicaoSaldos(Snapshot snapshot, double... percentis) {
+        Conta[] contas = todasAsContas();
+        double[] saldos = new double[contas.length];
+        IntStream.range(0, contas.length).parallel().forEach(i -> saldos[i] = contas[i].getSaldoNoSnapshot(snapshot));
+        Arrays.parallelSort(saldos);
+
+        double[] valores = new double[percentis.length];
+        double media = 0;
+        if (saldos.length > 0) {
+            for (int i = 0; i < percentis.length; i++) {
+                // Método "nearest-rank": o menor saldo que cobre o percentual pedido das contas.
+                int posicao = (int) Math.ceil(percentis[i] / 100.0 * saldos.length) - 1;
+                valores[i] = saldos[Math.max(0, Math.min(saldos.length - 1, posicao))];
+            }
+            media = Arrays.stream(saldos).parallel().sum() / saldos.length;
+        }
+        return new DistribuicaoSaldos(snapshot.versao(), saldos.length,
+                saldos.length == 0 ? 0 : saldos[0], saldos.length == 0 ? 0 : saldos[saldos.length - 1],
+                media, percentis.clone(), valores);
+    }
+
+    /**
+     * Lista os N clientes com maior valor em investimentos ativos no snapshot.
+     * @param snapshot O snapshot a ser usado nas leituras.
+     * @param n A quantidade de clientes no ranking.
+     * @return O ranking, do maior para o menor valor investido.
+     * @throws IllegalArgumentException se n for negativo.
+     */
+    public List<InvestidorRanking> maioresInvestidores(Snapshot snapshot, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Tamanho do ranking inválido: " + n);
+        }
+        Cliente[] clientes = clienteRepository.buscarTodos().toArray(new Cliente[0]);
+        MelhoresN melhores = IntStream.range(0, clientes.length).parallel()
+                .collect(() -> new MelhoresN(n),
+                        (acc, i) -> acc.oferecer(i, clientes[i].getCarteiraInvestimento().getSaldoNoSnapshot(snapshot)),
+                        MelhoresN::combinar);
+
+        List<InvestidorRanking> ranking = new ArrayList<>(melhores.tamanho);
+        for (int i = 0; i < melhores.tamanho; i++) {
+            Cliente cliente = clientes[melhores.indices[i]];
+            ranking.add(new InvestidorRanking(i + 1, cliente.getNome(), cliente.getCpf(), melhores.valores[i]));
+        }
+        return ranking;
+    }
+
+    /**
+     * Soma, por dia e por tipo, as transações registradas no período informado (inclusive).
+     * @param inicio O primeiro dia do período.
+     * @param fim O último dia do período.
+     * @return O volume diário calculado em um snapshot recém-aberto.
+     * @throws IllegalArgumentException se o fim for anterior ao início.
+     */
+    public VolumeDiarioTransacoes volumeDiario(LocalDate inicio, LocalDate fim) {
+        try (Snapshot snapshot = RelogioVersoes.abrirSnapshot()) {
+            return volumeDiario(snapshot, inicio, fim);
+        }
+    }
+
+    /**
+     * Soma, por dia e por tipo, as transações registradas até o snapshot no período informado (inclusive).
+     * Os históricos são percorridos aos trechos (ver {@link Conta#percorrerHistoricoNoSnapshot}), sem cópias
+     * completas e sem passar os históricos frios pelo cache.
+     * @param snapshot O snapshot a ser usado nas leituras.
+     * @param inicio O primeiro dia do período.
+     * @param fim O último dia do período.
+     * @return O volume diário por tipo de transação.
+     * @throws IllegalArgumentException se o fim for anterior ao início.
+     */
+    public VolumeDiarioTransacoes volumeDiario(Snapshot snapshot, LocalDate inicio, LocalDate fim) {
+        if (fim.isBefore(inicio)) {
+            throw new IllegalArgumentException("Período inválido: " + inicio + " a " + fim);
+        }
+        int dias = (int) ChronoUnit.DAYS.between(inicio, fim) + 1;
+        long primeiroDia = inicio.toEpochDay();
+        Conta[] contas = todasAsContas();
+        AcumuladorVolume volume = IntStream.range(0, contas.length).parallel()
+                .collect(() -> new AcumuladorVolume(dias),
+                        (acc, i) -> acc.somar(contas[i], snapshot, primeiroDia),
+                        AcumuladorVolume::combinar);
+        return new VolumeDiarioTransacoes(inicio, dias, volume.valores, volume.quantidades);
+    }
+
+    /**
+     * Calcula o saldo de fechamento (último instante de cada mês) de todas as contas, em paralelo.
+     * Cada saldo vem dos pontos de controle do histórico da conta (ver {@link Conta#saldoEm}),
+     * sem reprocessar o histórico desde o início.
+     * @param inicio O primeiro mês do período.
+     * @param fim O último mês do período (inclusive).
+     * @return Os saldos de fechamento por conta e mês.
+     * @throws IllegalArgumentException se o fim for anterior ao início.
+     */
+    public SaldosFimDeMes saldosFimDeMes(YearMonth inicio, YearMonth fim) {
+        if (fim.isBefore(inicio)) {
+            throw new IllegalArgumentException("Período inválido: " + inicio + " a " + fim);
+        }
+        int meses = (int) ChronoUnit.MONTHS.between(inicio, fim) + 1;
+        LocalDateTime[] fechamentos = new LocalDateTime[meses];
+        for (int m = 0; m < meses; m++) {
+            fechamentos[m] = inicio.plusMonths(m).atEndOfMonth().atTime(LocalTime.MAX);
+        }
+        Conta[] contas = todasAsContas();
+        String[] numeros = new String[contas.length];
+        double[] saldos = new double[contas.length * meses];
+        IntStream.range(0, contas.length).parallel().forEach(i -> {
+            numeros[i] = contas[i].getNumero();
+            for (int m = 0; m < meses; m++) {
+                saldos[i * meses + m] = contas[i].saldoEm(fechamentos[m]);
+            }
+        });
+        return new SaldosFimDeMes(inicio, meses, numeros, saldos);
+    }
+
+    private Conta[] todasAsContas() {
+        return clienteRepository.buscarTodos().stream()
+                .flatMap(cliente -> cliente.getContas().stream())
+                .toArray(Conta[]::new);
+    }
+
+    // --- ACUMULADORES PRIMITIVOS (um por thread do stream paralelo, combinados ao final) ---
+
+    private static final class AcumuladorTotais {
+        private int clientes;
+        private int contas;
+        private double saldoCorrente;
+        private double saldoPoupanca;
+        private double investimentos;
+
+        private void somar(Cliente cliente, Snapshot snapshot) {
+            clientes++;
+            for (Conta conta : cliente.getContas()) {
+                contas++;
+                if (conta instanceof ContaCorrente) {
+                    saldoCorrente += conta.getSaldoNoSnapshot(snapshot);
+                } else {
+                    saldoPoupanca += conta.getSaldoNoSnapshot(snapshot);
+                }
+            }
+            investimentos += cliente.getCarteiraInvestimento().getSaldoNoSnapshot(snapshot);
+        }
+
+        private void combinar(AcumuladorTotais outro) {
+            clientes += outro.clientes;
+            contas += outro.contas;
+            saldoCorrente += outro.saldoCorrente;
+            saldoPoupanca += outro.saldoPoupanca;
+            investimentos += outro.investimentos;
+        }
+    }
+
+    // Mantém os N maiores valores em vetores ordenados (decrescente), sem PriorityQueue de objetos.
+    private static final class MelhoresN {
+        private final int[] indices;
+        private final double[] valores;
+        private int tamanho;
+
+        private MelhoresN(int n) {
+            this.indices = new int[n];
+            this.valores = new double[n];
+        }
+
+        private void oferecer(int indice, double valor) {
+            if (valores.length == 0 || valor <= 0) return;
+            if (tamanho == valores.length && valor <= valores[tamanho - 1]) return;
+            int posicao = Math.min(tamanho, valores.length - 1);
+            while (posicao > 0 && valores[posicao - 1] < valor) {
+                valores[posicao] = valores[posicao - 1];
+                indices[posicao] = indices[posicao - 1];
+                posicao--;
+            }
+            valores[posicao] = valor;
+            indices[posicao] = indice;
+            if (tamanho < valores.length) tamanho++;
+        }
+
+        private void combinar(MelhoresN outro) {
+            for (int i = 0; i < outro.tamanho; i++) {
+                oferecer(outro.indices[i], outro.valores[i]);
+            }
+        }
+    }
+
+    private static final class AcumuladorVolume {
+        private final double[] valores;
+        private final long[] quantidades;
+
+        private AcumuladorVolume(int dias) {
+            this.valores = new double[dias * VolumeDiarioTransacoes.TIPOS];
+            this.quantidades = new long[dias * VolumeDiarioTransacoes.TIPOS];
+        }
+
+        private void somar(Conta conta, Snapshot snapshot, long primeiroDia) {
+            conta.percorrerHistoricoNoSnapshot(snapshot, transacao -> somar(transacao, primeiroDia));
+        }
+
+        private void somar(Transacao transacao, long primeiroDia) {
+            int dias = valores.length / VolumeDiarioTransacoes.TIPOS;
+            long dia = transacao.data().toLocalDate().toEpochDay() - primeiroDia;
+            if (dia < 0 || dia >= dias) return;
+            int indice = (int) dia * VolumeDiarioTransacoes.TIPOS + transacao.tipo().ordinal();
+            valores[indice] += transacao.valor();
+            quantidades[indice]++;
+        }
+
+        private void combinar(AcumuladorVolume outro) {
+            for (int i = 0; i < valores.length; i++) {
+                valores[i] += outro.valores[i];
+                quantidades[i] += outro.quantidades[i];
+            }
+        }
+    }
+}
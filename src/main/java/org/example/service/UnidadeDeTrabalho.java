@@ -0,0 +1,274 @@
+package org.example.service;
+
+import org.example.enums.StatusInvestimento;
+import org.example.enums.TipoMutacao;
+import org.example.enums.TipoTransacao;
+import org.example.model.CarteiraInvestimento;
+import org.example.model.Cliente;
+import org.example.model.Conta;
+import org.example.model.Investimento;
+import org.example.records.ResultadoUnidadeTrabalho;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Unidade de trabalho: débitos, créditos, transferências, aplicações e resgates em várias contas e carteiras,
+ * confirmados juntos. Ou todas as operações acontecem, ou nenhuma; um snapshot vê todas ou nenhuma.
+ * <p>
+ * A confirmação usa controle de concorrência otimista, em três fases:
+ * <ol>
+ *     <li>leitura, sem locks: a revisão e o saldo de cada conta envolvida (e a revisão das carteiras com resgate);</li>
+ *     <li>validação, ainda sem locks: as operações são simuladas na ordem em que foram registradas sobre os
+ *     valores lidos; saldo insuficiente ou investimento já resgatado recusam a unidade inteira;</li>
+ *     <li>escrita: compara a revisão de cada conta e carteira com a lida (o compare-and-swap da unidade) e,
+ *     se nenhuma mudou, aplica tudo em uma única escrita versionada. Se alguma mudou, houve conflito.</li>
+ * </ol>
+ * Em caso de conflito a unidade é lida e validada de novo, após uma espera aleatória crescente, até
+ * {@value #MAXIMO_TENTATIVAS} vezes; depois disso é confirmada com os locks de todas as contas e carteiras desde
+ * a validação, o que sempre termina. Os saldos só mudam pelos métodos sincronizados de {@link Conta}, então a
+ * escrita otimista também segura os monitores, mas só durante a comparação e a aplicação: sem disputa, cada um é
+ * adquirido sem espera e nenhuma regra de negócio roda com eles.
+ * <p>
+ * Na escrita, as operações são validadas de novo sobre os valores atuais, antes de qualquer alteração: nenhuma
+ * é recusada no meio da aplicação.
+ * <p>
+ * O valor de um resgate depende da cotação no momento da escrita, então não conta como saldo para os
+ * débitos da mesma unidade. Uma unidade deve ser montada e confirmada por uma única thread.
+ */
+public class UnidadeDeTrabalho {
+
+    static final int MAXIMO_TENTATIVAS = 16;
+
+    private enum TipoOperacao { CREDITO, DEBITO, TRANSFERENCIA, APLICACAO, RESGATE }
+
+    // O significado dos campos depende do tipo, como em Mutacao.
+    private record Operacao(TipoOperacao tipo, Conta conta, Conta destino, Cliente cliente, String nome, int indice, double valor) {
+    }
+
+    private final BancoService bancoService;
+    private final List<Operacao> operacoes = new ArrayList<>();
+    private boolean encerrada;
+
+    UnidadeDeTrabalho(BancoService bancoService) {
+        this.bancoService = bancoService;
+    }
+
+    // --- OPERAÇÕES ---
+
+    /**
+     * Registra um depósito na conta.
+     */
+    public UnidadeDeTrabalho creditar(Conta conta, double valor) {
+        return registrar(new Operacao(TipoOperacao.CREDITO, conta, null, null, null, 0, valor));
+    }
+
+    /**
+     * Registra um saque da conta.
+     */
+    public UnidadeDeTrabalho debitar(Conta conta, double valor) {
+        return registrar(new Operacao(TipoOperacao.DEBITO, conta, null, null, null, 0, valor));
+    }
+
+    /**
+     * Registra um PIX entre duas contas, liquidado na hora (mesmo com a compensação ativa).
+     */
+    public UnidadeDeTrabalho transferir(Conta origem, Conta destino, double valor) {
+        return registrar(new Operacao(TipoOperacao.TRANSFERENCIA, origem, destino, null, null, 0, valor));
+    }
+
+    /**
+     * Registra uma aplicação: débito na conta e nova posição no produto, na carteira do titular.
+     */
+    public UnidadeDeTrabalho aplicar(Conta conta, String nomeProduto, double valor) {
+        return registrar(new Operacao(TipoOperacao.APLICACAO, conta, null, conta.getCliente(), nomeProduto, 0, valor));
+    }
+
+    /**
+     * Registra o resgate de um investimento pelo valor atual, creditado na conta de destino.
+     * @param cliente O dono do investimento.
+     * @param indice A posição do investimento na carteira.
+     * @param contaDestino A conta que receberá o valor.
+     */
+    public UnidadeDeTrabalho resgatar(Cliente cliente, int indice, Conta contaDestino) {
+        return registrar(new Operacao(TipoOperacao.RESGATE, contaDestino, null, cliente, null, indice, 0));
+    }
+
+    private UnidadeDeTrabalho registrar(Operacao operacao) {
+        if (encerrada) throw new IllegalStateException("A unidade de trabalho já foi confirmada.");
+        if (operacao.conta() == null || (operacao.tipo() == TipoOperacao.TRANSFERENCIA && operacao.destino() == null)) {
+            throw new IllegalArgumentException("Conta inválida na operação " + operacao.tipo());
+        }
+        operacoes.add(operacao);
+        return this;
+    }
+
+    // --- CONFIRMAÇÃO ---
+
+    /**
+     * Confirma as operações registradas, repetindo leitura e validação enquanto houver conflito e recorrendo
+     * aos locks depois de {@value #MAXIMO_TENTATIVAS} conflitos seguidos.
+     * @return O resultado: confirmada, ou recusada pela validação com o motivo.
+     */
+    public ResultadoUnidadeTrabalho confirmar() {
+        if (encerrada) throw new IllegalStateException("A unidade de trabalho já foi confirmada.");
+        encerrada = true;
+        Set<Conta> contas = new LinkedHashSet<>();
+        // Carteiras na ordem do CPF, sempre depois das contas: a mesma ordem de fazerInvestimento e resgatarInvestimento.
+        Map<String, CarteiraInvestimento> carteiras = new TreeMap<>();
+        for (Operacao op : operacoes) {
+            contas.add(op.conta());
+            if (op.destino() != null) contas.add(op.destino());
+            if (op.cliente() != null) carteiras.put(op.cliente().getCpf(), op.cliente().getCarteiraInvestimento());
+        }
+        Conta[] contasEscrita = contas.toArray(Conta[]::new);
+        List<CarteiraInvestimento> carteirasEscrita = new ArrayList<>(carteiras.values());
+
+        for (int tentativa = 1; tentativa <= MAXIMO_TENTATIVAS; tentativa++) {
+            Leitura leitura = new Leitura();
+            String recusa = leitura.validar();
+            if (recusa != null) return new ResultadoUnidadeTrabalho(false, tentativa, false, recusa);
+            ResultadoUnidadeTrabalho resultado = escrever(leitura, contasEscrita, carteirasEscrita, tentativa);
+            if (resultado != null) return resultado;
+            esperar(tentativa);
+        }
+        return escrever(null, contasEscrita, carteirasEscrita, MAXIMO_TENTATIVAS + 1);
+    }
+
+    /**
+     * Com os locks da unidade, confere as revisões lidas, valida as operações sobre os valores atuais e as aplica.
+     * @param leitura A leitura otimista a conferir, ou null para confirmar só com os locks.
+     * @return O resultado, ou null se alguma revisão mudou desde a leitura.
+     */
+    private ResultadoUnidadeTrabalho escrever(Leitura leitura, Conta[] contas, List<CarteiraInvestimento> carteiras, int tentativa) {
+        return Conta.executarAtomicamente(() -> comLocks(carteiras, 0, () -> {
+            if (leitura != null && leitura.mudou()) return null;
+            // Só falha se algo mudou sem alterar a revisão; mesmo assim, nada é aplicado pela metade.
+            String recusa = new Leitura().validar();
+            if (recusa == null) operacoes.forEach(this::aplicar);
+            return new ResultadoUnidadeTrabalho(recusa == null, tentativa, leitura == null, recusa);
+        }), contas);
+    }
+
+    private static <T> T comLocks(List<CarteiraInvestimento> carteiras, int indice, Supplier<T> operacao) {
+        if (indice == carteiras.size()) return operacao.get();
+        synchronized (carteiras.get(indice)) {
+            return comLocks(carteiras, indice + 1, operacao);
+        }
+    }
+
+    // Validada com os mesmos locks, logo antes, nenhuma destas operações pode ser recusada aqui.
+    private void aplicar(Operacao op) {
+        switch (op.tipo()) {
+            case CREDITO -> {
+                op.conta().depositar(op.valor());
+                bancoService.registrarMutacao(TipoMutacao.DEPOSITO, op.conta().getNumero(), null, null, 0, op.valor());
+            }
+            case DEBITO -> {
+                op.conta().sacar(op.valor());
+                bancoService.registrarMutacao(TipoMutacao.SAQUE, op.conta().getNumero(), null, null, 0, op.valor());
+            }
+            case TRANSFERENCIA -> {
+                op.conta().sacar(op.valor(), TipoTransacao.TRANSFERENCIA_PIX_ENVIADA, "PIX para " + op.destino().getCliente().getNome());
+                op.destino().depositar(op.valor(), TipoTransacao.TRANSFERENCIA_PIX_RECEBIDA, "PIX de " + op.conta().getCliente().getNome());
+                bancoService.registrarMutacao(TipoMutacao.TRANSFERENCIA, op.conta().getNumero(), op.destino().getNumero(), null, 0, op.valor());
+            }
+            case APLICACAO -> bancoService.registrarAplicacao(op.conta(), op.nome(), op.valor());
+            case RESGATE -> bancoService.registrarResgate(op.cliente(), op.indice(), op.conta());
+        }
+    }
+
+    // Espera aleatória e crescente, para que unidades em conflito não voltem a colidir na mesma ordem.
+    private static void esperar(int tentativa) {
+        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(1_000L << Math.min(tentativa, 10)));
+    }
+
+    /**
+     * O que a unidade leu das contas e carteiras, e a simulação das operações sobre esses valores.
+     * Feita sem locks na fase otimista e de novo, com os locks, antes da aplicação.
+     */
+    private class Leitura {
+
+        private final Map<Conta, Long> revisoesContas = new HashMap<>();
+        private final Map<CarteiraInvestimento, Long> revisoesCarteiras = new HashMap<>();
+        private final Map<Conta, Double> disponivel = new HashMap<>();
+        private final Set<Investimento> resgatados = new HashSet<>();
+
+        /**
+         * @return O motivo da recusa, ou null se todas as operações são possíveis com os valores lidos.
+         */
+        String validar() {
+            for (Operacao op : operacoes) {
+                if (op.tipo() != TipoOperacao.RESGATE && !(op.valor() > 0)) return "Valor inválido: " + op.valor();
+                String recusa = switch (op.tipo()) {
+                    case CREDITO -> creditar(op.conta(), op.valor());
+                    case DEBITO, APLICACAO -> debitar(op.conta(), op.valor());
+                    case TRANSFERENCIA -> {
+                        String debito = debitar(op.conta(), op.valor());
+                        yield debito != null ? debito : creditar(op.destino(), op.valor());
+                    }
+                    case RESGATE -> validarResgate(op);
+                };
+                if (recusa != null) return recusa;
+            }
+            return null;
+        }
+
+        /**
+         * @return true se alguma conta ou carteira lida mudou desde a leitura. Deve ser chamado com os locks delas.
+         */
+        boolean mudou() {
+            for (Map.Entry<Conta, Long> e : revisoesContas.entrySet()) {
+                if (e.getKey().getRevisao() != e.getValue()) return true;
+            }
+            for (Map.Entry<CarteiraInvestimento, Long> e : revisoesCarteiras.entrySet()) {
+                if (e.getKey().getRevisao() != e.getValue()) return true;
+            }
+            return false;
+        }
+
+        private String creditar(Conta conta, double valor) {
+            disponivel.put(conta, ler(conta) + valor);
+            return null;
+        }
+
+        private String debitar(Conta conta, double valor) {
+            double saldo = ler(conta);
+            if (saldo < valor) return "Saldo insuficiente na conta " + conta.getNumero() + ".";
+            disponivel.put(conta, saldo - valor);
+            return null;
+        }
+
+        private String validarResgate(Operacao op) {
+            CarteiraInvestimento carteira = op.cliente().getCarteiraInvestimento();
+            // A revisão é lida antes dos investimentos, como a da conta antes do saldo.
+            revisoesCarteiras.putIfAbsent(carteira, carteira.getRevisao());
+            List<Investimento> investimentos = carteira.getInvestimentos();
+            if (op.indice() < 0 || op.indice() >= investimentos.size()) return "Índice de investimento inválido.";
+            Investimento investimento = investimentos.get(op.indice());
+            if (investimento.getStatus() == StatusInvestimento.RESGATADO || !resgatados.add(investimento)) {
+                return "Este investimento já foi resgatado.";
+            }
+            return null;
+        }
+
+        // Saldo disponível como em Conta.sacar: PIX enviados e ainda não liquidados já comprometem parte dele.
+        private double ler(Conta conta) {
+            Double simulado = disponivel.get(conta);
+            if (simulado != null) return simulado;
+            revisoesContas.put(conta, conta.getRevisao());
+            double saldo = conta.getSaldoDisponivel();
+            disponivel.put(conta, saldo);
+            return saldo;
+        }
+    }
+}
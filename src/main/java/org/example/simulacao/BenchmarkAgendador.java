@@ -0,0 +1,44 @@
+package org.example.simulacao;
+
+import org.example.records.ConfiguracaoCarga;
+import org.example.records.MetricasAgendador;
+import org.example.records.ResultadoCarga;
+
+/**
+ * Mede quanto os trabalhos em lote atrasam as operações interativas, com o mesmo conjunto de operações do
+ * {@link GeradorCarga}, em três cenários: sem lote; com threads de lote listando todos os clientes direto no
+ * BancoService; e com os mesmos lotes e operações passando pelo {@link org.example.service.AgendadorOperacoes}.
+ * Ao final confere se o p99 das interativas com o agendador ficou dentro do orçamento, que deve ficar acima
+ * do p99 do cenário sem lote: o agendador protege as interativas do lote, não da disputa entre elas.
+ * Argumentos opcionais: [threads] [operacoesPorThread] [threadsLote] [orcamentoP99Micros]
+ */
+public class BenchmarkAgendador {
+
+    public static void main(String[] args) throws InterruptedException {
+        ConfiguracaoCarga padrao = ConfiguracaoCarga.padrao();
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : padrao.threads();
+        int operacoes = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int threadsLote = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        long orcamentoMicros = args.length > 3 ? Long.parseLong(args[3]) : 5_000;
+
+        ResultadoCarga semLote = new GeradorCarga(configuracao(padrao, threads, operacoes, 0, 0)).executar();
+        ResultadoCarga loteDireto = new GeradorCarga(configuracao(padrao, threads, operacoes, threadsLote, 0)).executar();
+        GeradorCarga agendado = new GeradorCarga(configuracao(padrao, threads, operacoes, threadsLote, orcamentoMicros));
+        ResultadoCarga loteAgendado = agendado.executar();
+        MetricasAgendador metricas = agendado.metricasAgendador().orElseThrow();
+
+        System.out.println("Sem lote:            " + semLote);
+        System.out.println("Lote direto:         " + loteDireto);
+        System.out.println("Lote com agendador:  " + loteAgendado);
+        System.out.println("  " + metricas);
+        System.out.printf("p99 interativo com lote: %.1fµs direto | %.1fµs com agendador | orçamento %dµs -> %s%n",
+                loteDireto.latenciaP99() / 1_000.0, loteAgendado.latenciaP99() / 1_000.0, orcamentoMicros,
+                loteAgendado.latenciaP99() <= orcamentoMicros * 1_000 ? "DENTRO DO ORÇAMENTO" : "ACIMA DO ORÇAMENTO");
+    }
+
+    private static ConfiguracaoCarga configuracao(ConfiguracaoCarga padrao, int threads, int operacoes, int threadsLote, long orcamentoMicros) {
+        return new ConfiguracaoCarga(padrao.semente(), padrao.quantidadeClientes(), padrao.saldoInicial(), threads, operacoes,
+                padrao.distribuicao(), padrao.expoenteZipf(), padrao.pesos(), padrao.tamanhoRajadaPix(),
+                padrao.intervaloCompensacaoMillis(), threadsLote, orcamentoMicros);
+    }
+}
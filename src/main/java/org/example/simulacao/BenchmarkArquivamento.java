@@ -0,0 +1,146 @@
+package org.example.simulacao;
+
+import org.example.enums.TipoTransacao;
+import org.example.model.Cliente;
+import org.example.model.Conta;
+import org.example.model.ContaCorrente;
+import org.example.records.Transacao;
+import org.example.repository.ArquivamentoHistorico;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Mede o arquivamento do histórico: registra transações com datas espalhadas pelo último ano em várias contas,
+ * arquiva as mais antigas que a idade mínima e compara heap, disco e tempo de leitura antes e depois,
+ * conferindo que o histórico e os saldos em datas passadas continuam idênticos.
+ * Argumentos opcionais: [transacoes] [contas] [diasDeIdadeMinima]
+ */
+public class BenchmarkArquivamento {
+
+    private static final String[] NOMES = {"Maria da Silva", "João Souza", "Ana Pereira", "José Oliveira", "Francisca Lima",
+            "Carlos Ferreira", "Paulo Rodrigues", "Adriana Costa", "Lucas Almeida", "Juliana Gomes"};
+
+    public static void main(String[] args) throws IOException {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int quantidadeContas = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int diasIdadeMinima = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        SplittableRandom random = new SplittableRandom(11);
+
+        List<Conta> contas = new ArrayList<>(quantidadeContas);
+        for (int i = 0; i < quantidadeContas; i++) {
+            contas.add(new ContaCorrente(new Cliente("Cliente " + i, String.format("%011d", i))));
+        }
+        long heapInicial = heapUsado();
+        LocalDateTime inicio = LocalDateTime.now().minusDays(365).truncatedTo(ChronoUnit.MICROS);
+        long passoMicros = 365L * 86_400_000_000L / quantidade;
+        for (int i = 0; i < quantidade; i++) {
+            TipoTransacao tipo = TipoTransacao.values()[random.nextInt(4)];
+            // Alguns valores fora dos centavos (ex: rendimentos), que o segmento grava por inteiro.
+            double valor = random.nextInt(50) == 0 ? random.nextDouble() * 1000 : random.nextInt(1, 500_000) / 100.0;
+            String descricao = switch (tipo) {
+                case DEPOSITO -> "Depósito recebido";
+                case SAQUE -> "Saque realizado";
+                case TRANSFERENCIA_PIX_ENVIADA -> "PIX para " + NOMES[random.nextInt(NOMES.length)];
+                default -> "PIX de " + NOMES[random.nextInt(NOMES.length)];
+            };
+            contas.get(random.nextInt(quantidadeContas)).adicionarTransacao(tipo, valor, descricao,
+                    inicio.plus(i * passoMicros + random.nextInt(1_000_000), ChronoUnit.MICROS));
+        }
+        long heapResidente = heapUsado() - heapInicial;
+
+        LocalDateTime[] datasConsulta = new LocalDateTime[200];
+        for (int i = 0; i < datasConsulta.length; i++) {
+            datasConsulta[i] = inicio.plusSeconds(random.nextLong(365L * 86_400));
+        }
+        long[] resumosAntes = resumos(contas);
+        double[] saldosAntes = saldosEm(contas, datasConsulta);
+        long leituraAntes = tempoDeLeitura(contas);
+
+        Path diretorio = Files.createTempDirectory("segmentos-historico");
+        ArquivamentoHistorico arquivamento = new ArquivamentoHistorico(diretorio, Duration.ofDays(diasIdadeMinima));
+        long inicioArquivamento = System.nanoTime();
+        long arquivadas = contas.stream().mapToLong(conta -> conta.arquivarHistorico(arquivamento)).sum();
+        double segundosArquivamento = (System.nanoTime() - inicioArquivamento) / 1e9;
+        long heapDepois = heapUsado() - heapInicial;
+        long bytesEmDisco = arquivamento.getBytesGravados();
+
+        boolean historicosIguais = Arrays.equals(resumosAntes, resumos(contas));
+        boolean saldosIguais = Arrays.equals(saldosAntes, saldosEm(contas, datasConsulta));
+        long leituraDepois = tempoDeLeitura(contas);
+
+        System.out.printf("Transações: %d em %d contas | arquivadas (mais de %d dias): %d em %.2f s%n",
+                quantidade, quantidadeContas, diasIdadeMinima, arquivadas, segundosArquivamento);
+        System.out.printf("Heap do histórico: %.1f MB antes | %.1f MB depois | %.1f MB liberados por milhão de transações arquivadas%n",
+                heapResidente / 1e6, heapDepois / 1e6, (heapResidente - heapDepois) / 1e6 * 1_000_000 / Math.max(1, arquivadas));
+        System.out.printf("Em disco: %.1f MB (%.1f bytes por transação arquivada, contra ~%.0f bytes no heap)%n",
+                bytesEmDisco / 1e6, (double) bytesEmDisco / Math.max(1, arquivadas), (double) heapResidente / quantidade);
+        System.out.printf("Leitura de todos os históricos: %.1f ms antes | %.1f ms depois (segmentos mapeados + recentes)%n",
+                leituraAntes / 1e6, leituraDepois / 1e6);
+        System.out.printf("Históricos idênticos: %s | saldos em datas passadas idênticos: %s%n", historicosIguais, saldosIguais);
+        List<Transacao> exemplo = contas.get(0).getHistoricoTransacoes();
+        System.out.println("Primeira e última transação da conta " + contas.get(0).getNumero() + ":");
+        System.out.println("  " + exemplo.get(0));
+        System.out.println("  " + exemplo.get(exemplo.size() - 1));
+
+        // O arquivamento grava em um subdiretório próprio: apaga de dentro para fora.
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            arquivos.sorted(Comparator.reverseOrder()).forEach(arquivo -> arquivo.toFile().delete());
+        }
+    }
+
+    // Um resumo por conta de todo o histórico, na ordem: qualquer transação diferente muda o resumo.
+    private static long[] resumos(List<Conta> contas) {
+        long[] resumos = new long[contas.size()];
+        for (int i = 0; i < contas.size(); i++) {
+            long resumo = 1;
+            for (Transacao t : contas.get(i).getHistoricoTransacoes()) {
+                resumo = 31 * resumo + t.hashCode();
+            }
+            resumos[i] = resumo;
+        }
+        return resumos;
+    }
+
+    private static double[] saldosEm(List<Conta> contas, LocalDateTime[] datas) {
+        double[] saldos = new double[datas.length];
+        for (int i = 0; i < datas.length; i++) {
+            saldos[i] = contas.get(i % contas.size()).saldoEm(datas[i]);
+        }
+        return saldos;
+    }
+
+    private static long tempoDeLeitura(List<Conta> contas) {
+        long melhor = Long.MAX_VALUE;
+        double controle = 0; // Impede que o JIT descarte a leitura.
+        for (int rodada = 0; rodada < 3; rodada++) {
+            long inicio = System.nanoTime();
+            for (Conta conta : contas) {
+                for (Transacao t : conta.getHistoricoTransacoes()) {
+                    controle += t.tipo().efeitoNoSaldo(t.valor());
+                }
+            }
+            melhor = Math.min(melhor, System.nanoTime() - inicio);
+        }
+        if (controle == Double.MIN_VALUE) System.out.println(controle);
+        return melhor;
+    }
+
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.simulacao;
+
+import org.example.model.Cliente;
+import org.example.repository.ClienteRepository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Mede a busca por nome do {@link ClienteRepository}: cadastra clientes com nomes brasileiros
+ * gerados (com acentos e partículas) e mede a latência de consultas por palavra inteira,
+ * prefixo, várias palavras e com erro de digitação, comparando com a varredura de todos os clientes.
+ * Argumentos opcionais: [clientes] [consultasPorTipo] [limite]
+ */
+public class BenchmarkBuscaNomes {
+
+    private static final String[] PRENOMES = {"Maria", "José", "Ana", "João", "Antônio", "Francisco", "Carlos", "Paulo",
+            "Pedro", "Lucas", "Luíz", "Marcos", "Luís", "Gabriel", "Rafael", "Daniel", "Marcelo", "Bruno", "Eduardo",
+            "Felipe", "Raimundo", "Rodrigo", "Manoel", "Mateus", "André", "Fernando", "Fábio", "Leonardo", "Gustavo",
+            "Guilherme", "Juliana", "Márcia", "Fernanda", "Patrícia", "Aline", "Adriana", "Sandra", "Camila", "Amanda",
+            "Bruna", "Jéssica", "Letícia", "Júlia", "Luciana", "Vanessa", "Mariana", "Gabriela", "Vera", "Vitória",
+            "Larissa", "Cláudia", "Beatriz", "Luana", "Rita", "Sônia", "Renata", "Eliane", "Josefa", "Simone", "Natália"};
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves",
+            "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes",
+            "Vieira", "Barbosa", "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes", "Marques", "Machado",
+            "Mendes", "Freitas", "Cardoso", "Ramos", "Gonçalves", "Santana", "Teixeira", "Araújo", "Conceição", "Moraes",
+            "Assunção", "Brandão", "Falcão", "Magalhães", "Guimarães", "Sá", "Figueirêdo", "Albuquerque", "Bezerra",
+            "Cavalcânti", "Quintanilha", "Wanderley", "Bittencourt", "Schmidt", "Yamamoto", "Kowalski", "Zanetti"};
+    private static final String[] PARTICULAS = {"da", "de", "dos", "do"};
+
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int limite = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        SplittableRandom random = new SplittableRandom(7);
+
+        ClienteRepository repository = new ClienteRepository();
+        String[] nomes = new String[quantidade];
+        long inicio = System.nanoTime();
+        for (int i = 0; i < quantidade; i++) {
+            nomes[i] = gerarNome(random, i);
+            repository.salvarSeAusente(new Cliente(nomes[i], String.format("%011d", i)));
+        }
+        double segundosCadastro = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("Clientes: %d cadastrados e indexados em %.1f s (%.2f µs por cliente)%n",
+                quantidade, segundosCadastro, segundosCadastro * 1e6 / quantidade);
+
+        medir("Palavra exata ('silva')", repository, consultas, limite, i -> "silva");
+        medir("Sobrenome raro", repository, consultas, limite, i -> "Wanderley");
+        medir("Prefixo ('guim')", repository, consultas, limite, i -> "guim");
+        medir("Duas palavras com prefixo", repository, consultas, limite,
+                i -> PRENOMES[i % PRENOMES.length] + " " + SOBRENOMES[i % SOBRENOMES.length].substring(0, Math.min(3, SOBRENOMES[i % SOBRENOMES.length].length())));
+        medir("Nome completo (poucos resultados)", repository, consultas, limite, i -> nomes[(i * 7919) % quantidade]);
+        medir("Com erro de digitação ('bitencourt')", repository, consultas, limite, i -> "bitencourt");
+        medir("Sem acento e com erro ('magalaes guimaraes')", repository, consultas, limite, i -> "magalaes guimaraes");
+
+        long inicioVarredura = System.nanoTime();
+        long encontradosVarredura = repository.buscarTodos().stream()
+                .filter(c -> c.getNome().toLowerCase().contains("wanderley")).limit(limite).count();
+        System.out.printf("Varredura de todos os clientes ('wanderley'): %.1f ms (%d encontrados)%n",
+                (System.nanoTime() - inicioVarredura) / 1e6, encontradosVarredura);
+        System.out.println("Exemplo ('jose da silva', 3): " + repository.buscarPorNome("jose da silva", 3).stream().map(Cliente::getNome).toList());
+    }
+
+    private static String gerarNome(SplittableRandom random, int indice) {
+        StringBuilder nome = new StringBuilder(PRENOMES[random.nextInt(PRENOMES.length)]);
+        if (random.nextInt(3) == 0) nome.append(' ').append(PRENOMES[random.nextInt(PRENOMES.length)]);
+        if (random.nextInt(2) == 0) nome.append(' ').append(PARTICULAS[random.nextInt(PARTICULAS.length)]);
+        nome.append(' ').append(SOBRENOMES[random.nextInt(SOBRENOMES.length)]);
+        nome.append(' ').append(SOBRENOMES[random.nextInt(SOBRENOMES.length)]);
+        // Um sufixo que aumenta o vocabulário (~27 mil palavras), como os nomes raros de uma base real.
+        if (random.nextInt(4) == 0) nome.append(' ').append(SOBRENOMES[random.nextInt(SOBRENOMES.length)]).append(indice % 500);
+        return nome.toString();
+    }
+
+    private static void medir(String descricao, ClienteRepository repository, int consultas, int limite,
+                              IntFunction<String> consulta) {
+        for (int i = 0; i < consultas; i++) {
+            repository.buscarPorNome(consulta.apply(i), limite); // Aquecimento.
+        }
+        long[] latencias = new long[consultas];
+        long encontrados = 0;
+        for (int i = 0; i < consultas; i++) {
+            long t = System.nanoTime();
+            List<Cliente> resultado = repository.buscarPorNome(consulta.apply(i), limite);
+            latencias[i] = System.nanoTime() - t;
+            encontrados += resultado.size();
+        }
+        Arrays.sort(latencias);
+        System.out.printf("%-45s p50: %8.1f µs | p99: %8.1f µs | média de resultados: %.1f%n", descricao,
+                latencias[consultas / 2] / 1e3, latencias[(int) (consultas * 0.99)] / 1e3, encontrados / (double) consultas);
+    }
+}
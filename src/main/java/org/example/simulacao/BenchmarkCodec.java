@@ -0,0 +1,182 @@
+package org.example.simulacao;
+
+import org.example.codec.CodecConta;
+import org.example.codec.CodecInvestimento;
+import org.example.codec.CodecTransacao;
+import org.example.enums.StatusInvestimento;
+import org.example.enums.TipoTransacao;
+import org.example.model.Cliente;
+import org.example.model.Conta;
+import org.example.model.ContaCorrente;
+import org.example.model.ContaPoupanca;
+import org.example.model.Investimento;
+import org.example.records.Transacao;
+import org.example.repository.TabelaPrecos;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Confere o codec binário e mede sua vazão:
+ * <ol>
+ *     <li>ida e volta: transações, contas e investimentos aleatórios são codificados, decodificados
+ *     e comparados campo a campo com os originais;</li>
+ *     <li>vazão: codificar e decodificar transações no formato binário (lendo os campos direto do buffer
+ *     ou criando os records) comparado ao formato texto de uma linha usado pelo {@code ArmazenamentoHistorico}.</li>
+ * </ol>
+ * Argumentos opcionais: [transacoes] [rodadas]
+ */
+public class BenchmarkCodec {
+
+    private static final String[] DESCRICOES = {"Depósito recebido", "Saque realizado", "PIX para Maria da Silva",
+            "PIX de João Souza", "Aplicação em Tesouro Selic 2029"};
+
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rodadas = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        SplittableRandom random = new SplittableRandom(42);
+
+        Transacao[] transacoes = new Transacao[quantidade];
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0).truncatedTo(ChronoUnit.MICROS);
+        for (int i = 0; i < quantidade; i++) {
+            transacoes[i] = new Transacao(TipoTransacao.values()[random.nextInt(TipoTransacao.values().length)],
+                    random.nextInt(1_000_000) / 100.0, base.plusNanos(random.nextLong(31_536_000_000_000L) * 1_000),
+                    DESCRICOES[random.nextInt(DESCRICOES.length)]);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(quantidade * 64);
+
+        System.out.printf("Ida e volta: transações %s | contas %s | investimentos %s%n",
+                idaEVoltaTransacoes(transacoes, buffer), idaEVoltaContas(random, buffer), idaEVoltaInvestimentos(random, buffer));
+
+        CodecTransacao.Codificador codificador = new CodecTransacao.Codificador();
+        CodecTransacao.Decodificador decodificador = new CodecTransacao.Decodificador();
+        double[] melhores = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        long bytesBinario = 0, bytesTexto = 0;
+        double controle = 0; // Impede que o JIT descarte as decodificações.
+        for (int r = 0; r < rodadas; r++) {
+            long t0 = System.nanoTime();
+            int posicao = 0;
+            for (Transacao t : transacoes) {
+                posicao += codificador.codificar(buffer, posicao, t);
+            }
+            long t1 = System.nanoTime();
+            bytesBinario = posicao;
+
+            double soma = 0;
+            long[] porTipo = new long[TipoTransacao.values().length];
+            for (int p = 0; p < bytesBinario; p += decodificador.comprimento()) {
+                decodificador.posicionar(buffer, p);
+                soma += decodificador.tipo().efeitoNoSaldo(decodificador.valor());
+                porTipo[decodificador.tipo().ordinal()]++;
+            }
+            long t2 = System.nanoTime();
+
+            List<Transacao> lidas = new ArrayList<>(quantidade);
+            for (int p = 0; p < bytesBinario; p += decodificador.comprimento()) {
+                lidas.add(decodificador.posicionar(buffer, p).paraTransacao());
+            }
+            long t3 = System.nanoTime();
+
+            String[] linhas = new String[quantidade];
+            long tamanhoTexto = 0;
+            for (int i = 0; i < quantidade; i++) {
+                Transacao t = transacoes[i];
+                linhas[i] = String.join(";", t.tipo().name(), Double.toString(t.valor()), t.data().toString(), t.descricao());
+                tamanhoTexto += linhas[i].getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+            long t4 = System.nanoTime();
+            bytesTexto = tamanhoTexto;
+
+            List<Transacao> lidasTexto = new ArrayList<>(quantidade);
+            for (String linha : linhas) {
+                String[] campos = linha.split(";", 4);
+                lidasTexto.add(new Transacao(TipoTransacao.valueOf(campos[0]), Double.parseDouble(campos[1]),
+                        LocalDateTime.parse(campos[2]), campos[3]));
+            }
+            long t5 = System.nanoTime();
+
+            controle += soma + porTipo[0] + lidas.size() + lidasTexto.size();
+            long[] tempos = {t1 - t0, t2 - t1, t3 - t2, t4 - t3, t5 - t4};
+            for (int i = 0; i < tempos.length; i++) {
+                melhores[i] = Math.min(melhores[i], tempos[i] / (double) quantidade);
+            }
+        }
+
+        System.out.printf("Transações: %d | binário: %.1f bytes/transação | texto: %.1f bytes/transação%n",
+                quantidade, bytesBinario / (double) quantidade, bytesTexto / (double) quantidade);
+        System.out.printf("  Binário - codificar:                     %7.1f ns/op (%.0f MB/s)%n", melhores[0], bytesBinario / (double) quantidade / melhores[0] * 1e3);
+        System.out.printf("  Binário - decodificar (flyweight):       %7.1f ns/op%n", melhores[1]);
+        System.out.printf("  Binário - decodificar (criando records): %7.1f ns/op%n", melhores[2]);
+        System.out.printf("  Texto   - formatar linha:                %7.1f ns/op%n", melhores[3]);
+        System.out.printf("  Texto   - interpretar linha:             %7.1f ns/op%n", melhores[4]);
+        System.out.printf("(controle: %.0f)%n", controle);
+    }
+
+    private static String idaEVoltaTransacoes(Transacao[] transacoes, ByteBuffer buffer) {
+        CodecTransacao.Codificador codificador = new CodecTransacao.Codificador();
+        CodecTransacao.Decodificador decodificador = new CodecTransacao.Decodificador();
+        int posicao = 0;
+        for (Transacao t : transacoes) {
+            posicao += codificador.codificar(buffer, posicao, t);
+        }
+        int i = 0;
+        for (int p = 0; p < posicao; p += decodificador.comprimento(), i++) {
+            if (!decodificador.posicionar(buffer, p).paraTransacao().equals(transacoes[i])) {
+                return "FALHOU na transação " + i;
+            }
+        }
+        return i == transacoes.length ? "OK (" + i + ")" : "FALHOU: " + i + " de " + transacoes.length;
+    }
+
+    private static String idaEVoltaContas(SplittableRandom random, ByteBuffer buffer) {
+        CodecConta.Codificador codificador = new CodecConta.Codificador();
+        CodecConta.Decodificador decodificador = new CodecConta.Decodificador();
+        int quantidade = 10_000;
+        for (int i = 0; i < quantidade; i++) {
+            Cliente cliente = new Cliente("Cliente " + i, String.format("%011d", i));
+            Conta conta = i % 2 == 0 ? new ContaCorrente(cliente, "B" + i) : new ContaPoupanca(cliente, "B" + i);
+            for (int t = random.nextInt(5); t > 0; t--) {
+                conta.depositar(1 + random.nextInt(1_000));
+            }
+            int comprimento = codificador.codificar(buffer, 0, conta);
+            decodificador.posicionar(buffer, 0);
+            boolean igual = decodificador.paraAssinatura().equals(conta.getAssinatura())
+                    && decodificador.cpfTitular().equals(cliente.getCpf())
+                    && decodificador.agencia().equals(conta.getAgencia())
+                    && decodificador.posicaoCompensacao() == conta.getPosicaoCompensacao()
+                    && (decodificador.tipoConta() == CodecConta.CORRENTE) == (conta instanceof ContaCorrente)
+                    && decodificador.comprimento() == comprimento;
+            if (!igual) return "FALHOU na conta " + conta.getNumero();
+        }
+        return "OK (" + quantidade + ")";
+    }
+
+    private static String idaEVoltaInvestimentos(SplittableRandom random, ByteBuffer buffer) {
+        CodecInvestimento.Codificador codificador = new CodecInvestimento.Codificador();
+        CodecInvestimento.Decodificador decodificador = new CodecInvestimento.Decodificador();
+        TabelaPrecos tabelaPrecos = new TabelaPrecos();
+        int quantidade = 10_000;
+        for (int i = 0; i < quantidade; i++) {
+            double valor = random.nextInt(100_000) / 100.0;
+            Investimento original = new Investimento(tabelaPrecos.produto("Fundo Ações " + i), random.nextInt(100_000) / 100.0,
+                    LocalDate.of(2020, 1, 1).plusDays(random.nextInt(2_000)), valor,
+                    StatusInvestimento.values()[random.nextInt(StatusInvestimento.values().length)], valor);
+            int comprimento = codificador.codificar(buffer, 0, original);
+            Investimento lido = decodificador.posicionar(buffer, 0).paraInvestimento(tabelaPrecos);
+            boolean igual = lido.getProduto() == original.getProduto()
+                    && lido.getValorAplicado() == original.getValorAplicado()
+                    && lido.getValorAtual() == original.getValorAtual()
+                    && lido.getDataAplicacao().equals(original.getDataAplicacao())
+                    && lido.getStatus() == original.getStatus()
+                    && decodificador.comprimento() == comprimento;
+            if (!igual) return "FALHOU no investimento " + i;
+        }
+        return "OK (" + quantidade + ")";
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.simulacao;
+
+import org.example.model.Cliente;
+import org.example.model.Conta;
+import org.example.model.Investimento;
+import org.example.model.Produto;
+import org.example.records.Cotacao;
+import org.example.repository.ClienteRepository;
+import org.example.service.BancoService;
+import org.example.service.IngestaoCotacoes;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Mede a precificação por produto: cria muitas posições em poucos produtos e compara o custo de uma
+ * atualização de mercado ({@link BancoService#simularAtualizacaoInvestimentos()}, uma cotação por produto)
+ * com o de percorrer todas as posições, que é o que cada atualização custava quando o valor ficava em cada posição.
+ * Também mede a vazão da ingestão de cotações por arquivo e por fila, conferindo que o último preço de cada
+ * produto é o último do fluxo e que o valor das posições acompanha o preço.
+ * Argumentos opcionais: [clientes] [investimentosPorCliente] [produtos] [cotacoes]
+ */
+public class BenchmarkPrecos {
+
+    public static void main(String[] args) throws Exception {
+        int quantidadeClientes = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int porCliente = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int quantidadeProdutos = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int quantidadeCotacoes = args.length > 3 ? Integer.parseInt(args[3]) : 5_000_000;
+        SplittableRandom random = new SplittableRandom(5);
+
+        ClienteRepository repository = new ClienteRepository();
+        BancoService bancoService = new BancoService(repository);
+        for (int c = 0; c < quantidadeClientes; c++) {
+            String cpf = String.format("%011d", c);
+            bancoService.criarCliente("Investidor " + c, cpf);
+            Conta conta = bancoService.adicionarContaParaCliente(cpf, "corrente");
+            bancoService.depositar(conta, porCliente * 1_000.0);
+            for (int i = 0; i < porCliente; i++) {
+                bancoService.fazerInvestimento(conta, "Produto " + random.nextInt(quantidadeProdutos), random.nextInt(100, 100_000) / 100.0);
+            }
+        }
+        long posicoes = (long) quantidadeClientes * porCliente;
+
+        double melhorAtualizacao = Double.MAX_VALUE;
+        double melhorVarredura = Double.MAX_VALUE;
+        double total = 0;
+        for (int rodada = 0; rodada < 5; rodada++) {
+            long inicio = System.nanoTime();
+            bancoService.simularAtualizacaoInvestimentos();
+            melhorAtualizacao = Math.min(melhorAtualizacao, (System.nanoTime() - inicio) / 1e3);
+
+            inicio = System.nanoTime();
+            total = 0;
+            for (Cliente cliente : repository.buscarTodos()) {
+                total += cliente.getCarteiraInvestimento().getSaldoTotal();
+            }
+            melhorVarredura = Math.min(melhorVarredura, (System.nanoTime() - inicio) / 1e3);
+        }
+        System.out.printf("Posições: %d em %d produtos | total investido após 5 atualizações: R$ %.2f%n",
+                posicoes, bancoService.getTabelaPrecos().buscarTodos().size(), total);
+        System.out.printf("Atualização de mercado (uma cotação por produto): %.1f µs | percorrer todas as posições: %.1f µs%n",
+                melhorAtualizacao, melhorVarredura);
+
+        // Fluxo de cotações: um passeio aleatório por produto; guarda o último preço para conferir a ingestão.
+        String[] nomes = new String[quantidadeProdutos];
+        double[] precos = new double[quantidadeProdutos];
+        for (int p = 0; p < quantidadeProdutos; p++) {
+            nomes[p] = "Produto " + p;
+            precos[p] = bancoService.getTabelaPrecos().produto(nomes[p]).getPreco();
+        }
+        IngestaoCotacoes ingestao = new IngestaoCotacoes(bancoService);
+
+        Path arquivo = Files.createTempFile("cotacoes", ".txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < quantidadeCotacoes; i++) {
+                int p = random.nextInt(quantidadeProdutos);
+                precos[p] *= 1 + (random.nextDouble() - 0.5) * 0.002;
+                writer.write(nomes[p] + ";" + precos[p]);
+                writer.newLine();
+            }
+        }
+        long inicio = System.nanoTime();
+        long lidas = ingestao.carregarArquivo(arquivo);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        Files.delete(arquivo);
+        System.out.printf("Arquivo: %d cotações em %.2f s (%.1f milhões/s) | preços finais corretos: %s%n",
+                lidas, segundos, lidas / segundos / 1e6, conferirPrecos(bancoService, nomes, precos));
+
+        BlockingQueue<Cotacao> fila = new ArrayBlockingQueue<>(65_536);
+        Thread produtor = new Thread(() -> {
+            SplittableRandom aleatorio = new SplittableRandom(9);
+            try {
+                for (int i = 0; i < quantidadeCotacoes; i++) {
+                    int p = aleatorio.nextInt(quantidadeProdutos);
+                    precos[p] *= 1 + (aleatorio.nextDouble() - 0.5) * 0.002;
+                    fila.put(new Cotacao(nomes[p], precos[p]));
+                }
+                fila.put(Cotacao.FIM);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        inicio = System.nanoTime();
+        produtor.start();
+        long consumidas = ingestao.consumir(fila);
+        segundos = (System.nanoTime() - inicio) / 1e9;
+        produtor.join();
+        System.out.printf("Fila: %d cotações em %.2f s (%.1f milhões/s) | preços finais corretos: %s%n",
+                consumidas, segundos, consumidas / segundos / 1e6, conferirPrecos(bancoService, nomes, precos));
+
+        // Cada posição vale o aplicado × (preço atual / preço na compra); todas foram compradas antes das cotações do fluxo.
+        Investimento exemplo = repository.buscarTodos().iterator().next().getCarteiraInvestimento().getInvestimentos().get(0);
+        System.out.printf("Exemplo: %s | quantidade %.4f × preço %.6f = R$ %.2f%n", exemplo.getNome(),
+                exemplo.getQuantidade(), exemplo.getProduto().getPreco(), exemplo.getQuantidade() * exemplo.getProduto().getPreco());
+        System.out.println("  " + exemplo);
+    }
+
+    private static boolean conferirPrecos(BancoService bancoService, String[] nomes, double[] precos) {
+        for (int p = 0; p < nomes.length; p++) {
+            Produto produto = bancoService.getTabelaPrecos().produto(nomes[p]);
+            if (produto.getPreco() != precos[p]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.simulacao;
+
+import org.example.enums.StatusInvestimento;
+import org.example.model.Cliente;
+import org.example.model.Conta;
+import org.example.model.Investimento;
+import org.example.records.ResultadoUnidadeTrabalho;
+import org.example.repository.ClienteRepository;
+import org.example.service.BancoService;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Mede a unidade de trabalho otimista: várias threads confirmam unidades que transferem entre duas contas,
+ * aplicam parte do valor a partir da conta de destino e resgatam uma posição, primeiro com muitas
+ * contas (quase sem conflitos) e depois com poucas (muitos conflitos). Em paralelo, depósitos e saques avulsos
+ * também alteram as contas. Ao final confere que o dinheiro foi conservado: saldos + posições ativas = total depositado.
+ * Argumentos opcionais: [threads] [unidadesPorThread] [contasPoucas] [contasMuitas]
+ */
+public class BenchmarkUnidadeTrabalho {
+
+    private static final double SALDO_INICIAL = 10_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int porThread = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        int contasPoucas = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int contasMuitas = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+
+        System.out.println(cenario(threads, porThread, contasMuitas));
+        System.out.println(cenario(threads, porThread, contasPoucas));
+    }
+
+    private static String cenario(int threads, int porThread, int quantidadeContas) throws InterruptedException {
+        BancoService bancoService = new BancoService(new ClienteRepository());
+        bancoService.setSaida(new PrintStream(OutputStream.nullOutputStream()));
+        Conta[] contas = new Conta[quantidadeContas];
+        for (int i = 0; i < quantidadeContas; i++) {
+            String cpf = String.format("%011d", i);
+            bancoService.criarCliente("Cliente " + i, cpf);
+            contas[i] = bancoService.adicionarContaParaCliente(cpf, "corrente");
+            bancoService.depositar(contas[i], SALDO_INICIAL);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<long[]>> futuros = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            futuros.add(executor.submit(() -> {
+                largada.await();
+                return rodar(bancoService, contas, porThread, random);
+            }));
+        }
+        // Operações avulsas nas mesmas contas, que mudam as revisões: cada depósito é seguido de um saque,
+        // que pode ser recusado se as unidades esvaziarem a conta entre os dois; devolve o que ficou depositado.
+        Future<Double> avulsas = executor.submit(() -> {
+            SplittableRandom random = new SplittableRandom(99);
+            largada.await();
+            double depositado = 0;
+            for (int i = 0; i < porThread; i++) {
+                Conta conta = contas[random.nextInt(contas.length)];
+                bancoService.depositar(conta, 10);
+                if (bancoService.sacar(conta, 10).startsWith("Saque não")) depositado += 10;
+            }
+            return depositado;
+        });
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        long confirmadas = 0, recusadas = 0, comLocks = 0, tentativas = 0;
+        List<long[]> latencias = new ArrayList<>();
+        double depositadoAvulso;
+        try {
+            for (Future<long[]> futuro : futuros) {
+                long[] r = futuro.get();
+                confirmadas += r[0];
+                recusadas += r[1];
+                comLocks += r[2];
+                tentativas += r[3];
+                latencias.add(Arrays.copyOfRange(r, 4, r.length));
+            }
+            depositadoAvulso = avulsas.get();
+        } catch (Exception e) {
+            throw new IllegalStateException("Falha na execução do cenário", e);
+        } finally {
+            executor.shutdown();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long[] todas = latencias.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        double total = 0;
+        for (Conta conta : contas) {
+            total += conta.getSaldo();
+            for (Investimento investimento : conta.getCliente().getCarteiraInvestimento().getInvestimentos()) {
+                if (investimento.getStatus() != StatusInvestimento.RESGATADO) total += investimento.getValorAtual();
+            }
+        }
+        boolean conservado = Math.abs(total - quantidadeContas * SALDO_INICIAL - depositadoAvulso) < 0.005 * quantidadeContas;
+        return String.format("%d contas, %d threads: %.0f unidades/s | confirmadas %d, recusadas %d, confirmadas com locks %d"
+                        + " | %.3f tentativas por unidade | p50 %.1f µs, p99 %.1f µs | dinheiro %s",
+                quantidadeContas, threads, (confirmadas + recusadas) / segundos, confirmadas, recusadas, comLocks,
+                (double) tentativas / (confirmadas + recusadas),
+                todas[todas.length / 2] / 1e3, todas[(int) (todas.length * 0.99)] / 1e3, conservado ? "CONSERVADO" : "DIVERGENTE");
+    }
+
+    // Devolve [confirmadas, recusadas, confirmadas com locks, tentativas, latências...].
+    private static long[] rodar(BancoService bancoService, Conta[] contas, int quantidade, SplittableRandom random) {
+        long[] resultado = new long[4 + quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            Conta origem = contas[random.nextInt(contas.length)];
+            Conta destino = contas[random.nextInt(contas.length)];
+            if (origem == destino) destino = contas[(random.nextInt(contas.length - 1) + 1 + indiceDe(contas, origem)) % contas.length];
+            double valor = random.nextInt(100, 10_000) / 100.0;
+
+            var unidade = bancoService.iniciarUnidadeDeTrabalho()
+                    .transferir(origem, destino, valor)
+                    .aplicar(destino, "Produto " + random.nextInt(4), valor / 4);
+            Cliente cliente = origem.getCliente();
+            int posicao = posicaoAtiva(cliente, random);
+            if (posicao >= 0) unidade.resgatar(cliente, posicao, origem);
+
+            long inicio = System.nanoTime();
+            ResultadoUnidadeTrabalho r = unidade.confirmar();
+            resultado[4 + i] = System.nanoTime() - inicio;
+            resultado[r.confirmada() ? 0 : 1]++;
+            if (r.comLocks()) resultado[2]++;
+            resultado[3] += r.tentativas();
+        }
+        return resultado;
+    }
+
+    // Uma posição ainda não resgatada, a partir de um ponto aleatório da carteira, ou -1 se não houver.
+    private static int posicaoAtiva(Cliente cliente, SplittableRandom random) {
+        List<Investimento> investimentos = cliente.getCarteiraInvestimento().getInvestimentos();
+        if (investimentos.isEmpty()) return -1;
+        int inicio = random.nextInt(investimentos.size());
+        for (int i = 0; i < investimentos.size(); i++) {
+            int posicao = (inicio + i) % investimentos.size();
+            if (investimentos.get(posicao).getStatus() != StatusInvestimento.RESGATADO) return posicao;
+        }
+        return -1;
+    }
+
+    private static int indiceDe(Conta[] contas, Conta conta) {
+        for (int i = 0; i < contas.length; i++) {
+            if (contas[i] == conta) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,340 @@
+package org.example.simulacao;
+
+import org.example.enums.ClassePrioridade;
+import org.example.enums.DistribuicaoChaves;
+import org.example.enums.TipoOperacaoCarga;
+import org.example.model.Cliente;
+import org.example.model.Conta;
+import org.example.model.RelogioVersoes;
+import org.example.records.ConfiguracaoCarga;
+import org.example.records.MetricasAgendador;
+import org.example.records.RelatorioConsolidado;
+import org.example.records.ResultadoCarga;
+import org.example.records.Snapshot;
+import org.example.repository.ClienteRepository;
+import org.example.service.AgendadorOperacoes;
+import org.example.service.AuditoriaService;
+import org.example.service.BancoService;
+import org.example.service.CompensacaoPix;
+import org.example.service.RelatorioService;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Gerador de carga determinístico para o banco.
+ * Cria os clientes, dispara operações diretamente no {@link BancoService} (sem passar pelo MenuConsole)
+ * a partir de várias threads e, ao final, confere as invariantes e mede vazão e latência.
+ * <p>
+ * Cada thread usa seu próprio gerador aleatório derivado da semente, então a sequência de operações
+ * de cada thread é sempre a mesma; apenas o entrelaçamento entre as threads varia.
+ * As mensagens de feedback do banco (ex: saldo insuficiente) vão para uma saída descartada, definida
+ * com {@link BancoService#setSaida}, pois dominariam o tempo medido; a saída padrão do processo não é alterada.
+ * <p>
+ * Opcionalmente, threads de lote repetem a listagem de todos os clientes durante a carga, e as operações
+ * passam pelo {@link AgendadorOperacoes} (interativas) em vez de chamar o BancoService direto; comparar as
+ * latências com e sem agendador mostra quanto o lote atrasa as operações interativas.
+ */
+public class GeradorCarga {
+
+    private static final double VALOR_MAXIMO_OPERACAO = 200;
+    private static final int MAX_CONTAS_POR_JANELA = 1_024;
+
+    private final ConfiguracaoCarga configuracao;
+
+    private final ClienteRepository clienteRepository = new ClienteRepository();
+    private final CompensacaoPix compensacaoPix;
+    private final BancoService bancoService;
+    private final RelatorioService relatorioService = new RelatorioService(clienteRepository);
+    private final AuditoriaService auditoriaService = new AuditoriaService(clienteRepository);
+    private final AgendadorOperacoes agendador; // null = as operações chamam o BancoService direto.
+
+    private Cliente[] clientes;
+    private Conta[] contas;
+
+    public GeradorCarga(ConfiguracaoCarga configuracao) {
+        this.configuracao = configuracao;
+        this.compensacaoPix = configuracao.intervaloCompensacaoMillis() > 0 ? new CompensacaoPix(MAX_CONTAS_POR_JANELA) : null;
+        this.bancoService = new BancoService(clienteRepository, null, compensacaoPix);
+        // As mensagens de feedback do serviço não interessam durante a carga.
+        this.bancoService.setSaida(new PrintStream(OutputStream.nullOutputStream()));
+        // Um trabalhador por thread de carga, mais as vagas dos lotes: sempre há quem atenda as interativas.
+        int vagasLote = Math.max(1, configuracao.threadsLote());
+        this.agendador = configuracao.orcamentoP99Micros() > 0
+                ? new AgendadorOperacoes(bancoService, configuracao.threads() + vagasLote, vagasLote, Duration.ofNanos(configuracao.orcamentoP99Micros() * 1_000))
+                : null;
+    }
+
+    /**
+     * @return As métricas do agendador, se a carga passou por um.
+     */
+    public Optional<MetricasAgendador> metricasAgendador() {
+        return Optional.ofNullable(agendador).map(AgendadorOperacoes::metricas);
+    }
+
+    /**
+     * Prepara os dados, executa a carga e verifica as invariantes.
+     * @return O resultado da execução.
+     */
+    public ResultadoCarga executar() throws InterruptedException {
+        popular();
+        GeradorChaves chaves = new GeradorChaves(contas.length, configuracao.distribuicao(), configuracao.expoenteZipf());
+
+        ExecutorService executor = Executors.newFixedThreadPool(configuracao.threads() + configuracao.threadsLote());
+        if (compensacaoPix != null) {
+            compensacaoPix.iniciarLiquidacaoPeriodica(configuracao.intervaloCompensacaoMillis());
+        }
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<ExecucaoThread>> futuros = new ArrayList<>();
+            for (int t = 0; t < configuracao.threads(); t++) {
+                ExecucaoThread execucao = new ExecucaoThread(configuracao.semente() + t, chaves);
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    execucao.rodar();
+                    return execucao;
+                }));
+            }
+            AtomicBoolean cargaConcluida = new AtomicBoolean();
+            LongAdder lotesConcluidos = new LongAdder();
+            List<Future<?>> lotes = new ArrayList<>();
+            for (int t = 0; t < configuracao.threadsLote(); t++) {
+                lotes.add(executor.submit(() -> {
+                    largada.await();
+                    while (!cargaConcluida.get()) {
+                        if (agendador != null) agendador.listarClientes().join();
+                        else bancoService.listarClientes();
+                        lotesConcluidos.increment();
+                    }
+                    return null;
+                }));
+            }
+            long inicio = System.nanoTime();
+            largada.countDown();
+            List<ExecucaoThread> execucoes = new ArrayList<>();
+            for (Future<ExecucaoThread> futuro : futuros) {
+                execucoes.add(futuro.get());
+            }
+            double duracao = (System.nanoTime() - inicio) / 1e9;
+            cargaConcluida.set(true);
+            for (Future<?> lote : lotes) {
+                lote.get();
+            }
+            if (agendador != null) {
+                agendador.encerrar();
+            }
+            if (compensacaoPix != null) {
+                compensacaoPix.encerrar(); // Liquida o restante antes de conferir as invariantes.
+            }
+            return consolidar(execucoes, duracao, lotesConcluidos.sum());
+        } catch (java.util.concurrent.ExecutionException e) {
+            throw new IllegalStateException("Falha durante a execução da carga", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void popular() {
+        int quantidade = configuracao.quantidadeClientes();
+        clientes = new Cliente[quantidade];
+        contas = new Conta[quantidade * 2];
+        for (int i = 0; i < quantidade; i++) {
+            String cpf = String.format("%011d", i);
+            clientes[i] = bancoService.criarCliente("Cliente " + i, cpf);
+            contas[2 * i] = bancoService.adicionarContaParaCliente(cpf, "corrente");
+            contas[2 * i + 1] = bancoService.adicionarContaParaCliente(cpf, "poupanca");
+            bancoService.depositar(contas[2 * i], configuracao.saldoInicial());
+            bancoService.depositar(contas[2 * i + 1], configuracao.saldoInicial());
+        }
+    }
+
+    private ResultadoCarga consolidar(List<ExecucaoThread> execucoes, double duracao, long lotesConcluidos) {
+        long totalOperacoes = 0;
+        long recusadas = 0;
+        double depositado = 0;
+        double sacado = 0;
+        for (ExecucaoThread e : execucoes) {
+            totalOperacoes += e.latencias.length;
+            recusadas += e.recusadas;
+            depositado += e.depositado;
+            sacado += e.sacado;
+        }
+        long[] latencias = new long[(int) totalOperacoes];
+        int posicao = 0;
+        for (ExecucaoThread e : execucoes) {
+            System.arraycopy(e.latencias, 0, latencias, posicao, e.latencias.length);
+            posicao += e.latencias.length;
+        }
+        Arrays.sort(latencias);
+
+        List<String> violacoes = verificarInvariantes(depositado, sacado);
+        return new ResultadoCarga(totalOperacoes, recusadas, duracao,
+                percentil(latencias, 50), percentil(latencias, 99), percentil(latencias, 99.9),
+                latencias.length == 0 ? 0 : latencias[latencias.length - 1], lotesConcluidos, violacoes);
+    }
+
+    /**
+     * Confere, com o banco já parado:
+     * - conservação do dinheiro: saldo inicial + depósitos - saques = saldos das contas + investimentos ativos;
+     * - nenhuma conta com saldo negativo ou com PIX pendente de compensação;
+     * - o snapshot enxerga exatamente os saldos atuais das contas;
+     * - o saldo de cada conta é a soma do seu histórico de transações.
+     */
+    private List<String> verificarInvariantes(double depositado, double sacado) {
+        List<String> violacoes = new ArrayList<>();
+        double esperado = contas.length * configuracao.saldoInicial() + depositado - sacado;
+        try (Snapshot snapshot = RelogioVersoes.abrirSnapshot()) {
+            RelatorioConsolidado relatorio = relatorioService.gerarRelatorio(snapshot);
+            double observado = relatorio.totalDepositos() + relatorio.exposicaoInvestimentos();
+            if (Math.abs(esperado - observado) > 1e-6) {
+                violacoes.add(String.format("Dinheiro não conservado: esperado R$ %.2f, encontrado R$ %.2f", esperado, observado));
+            }
+            for (Conta conta : contas) {
+                if (conta.getSaldo() < 0) {
+                    violacoes.add("Saldo negativo na conta " + conta.getNumero());
+                }
+                if (conta.getPosicaoCompensacao() != 0 || conta.getEnviosPendentes() != 0) {
+                    violacoes.add("Compensação pendente na conta " + conta.getNumero());
+                }
+                if (conta.getSaldo() != conta.getSaldoNoSnapshot(snapshot)) {
+                    violacoes.add("Snapshot divergente na conta " + conta.getNumero());
+                }
+            }
+        }
+        auditoriaService.reconciliarComHistorico().divergencias()
+                .forEach(divergencia -> violacoes.add("Histórico divergente: " + divergencia));
+        return violacoes;
+    }
+
+    private static long percentil(long[] ordenados, double percentil) {
+        if (ordenados.length == 0) return 0;
+        int posicao = (int) Math.ceil(percentil / 100.0 * ordenados.length) - 1;
+        return ordenados[Math.max(0, posicao)];
+    }
+
+    /**
+     * Estado de uma thread da carga. Os totais são acumulados localmente, sem sincronização,
+     * e somados apenas ao final.
+     */
+    private final class ExecucaoThread {
+        private final SplittableRandom random;
+        private final GeradorChaves chaves;
+        private final int pesoTotal;
+        private final long[] latencias = new long[configuracao.operacoesPorThread()];
+        private long recusadas;
+        private double depositado;
+        private double sacado;
+        private int rajadaPixRestante;
+
+        private ExecucaoThread(long semente, GeradorChaves chaves) {
+            this.random = new SplittableRandom(semente);
+            this.chaves = chaves;
+            this.pesoTotal = Arrays.stream(configuracao.pesos()).sum();
+        }
+
+        private void rodar() {
+            for (int i = 0; i < latencias.length; i++) {
+                TipoOperacaoCarga tipo = sortearOperacao();
+                long inicio = System.nanoTime();
+                executar(tipo);
+                latencias[i] = System.nanoTime() - inicio;
+            }
+        }
+
+        private TipoOperacaoCarga sortearOperacao() {
+            if (rajadaPixRestante > 0) {
+                rajadaPixRestante--;
+                return TipoOperacaoCarga.TRANSFERENCIA_PIX;
+            }
+            int sorteio = random.nextInt(pesoTotal);
+            TipoOperacaoCarga[] tipos = TipoOperacaoCarga.values();
+            for (int i = 0; i < tipos.length; i++) {
+                sorteio -= configuracao.pesos()[i];
+                if (sorteio < 0) {
+                    if (tipos[i] == TipoOperacaoCarga.TRANSFERENCIA_PIX) {
+                        rajadaPixRestante = configuracao.tamanhoRajadaPix() - 1;
+                    }
+                    return tipos[i];
+                }
+            }
+            return TipoOperacaoCarga.DEPOSITO;
+        }
+
+        // Valores inteiros mantêm as somas em double exatas, permitindo comparar os totais sem arredondamento.
+        private double sortearValor() {
+            return 1 + random.nextInt((int) VALOR_MAXIMO_OPERACAO);
+        }
+
+        private void executar(TipoOperacaoCarga tipo) {
+            Conta conta = contas[chaves.proximo(random)];
+            double valor = sortearValor();
+            switch (tipo) {
+                case DEPOSITO -> {
+                    chamar(() -> bancoService.depositar(conta, valor));
+                    depositado += valor;
+                }
+                case SAQUE -> {
+                    if (chamar(() -> bancoService.sacar(conta, valor)).startsWith("Saque de")) sacado += valor;
+                    else recusadas++;
+                }
+                case TRANSFERENCIA_PIX -> {
+                    Conta destino = contas[chaves.proximo(random)];
+                    if (!chamar(() -> bancoService.transferir(conta.getNumero(), destino.getNumero(), valor)).startsWith("Transferência de")) recusadas++;
+                }
+                case INVESTIMENTO -> {
+                    String produto = "Carga " + random.nextInt(10);
+                    if (!chamar(() -> bancoService.fazerInvestimento(conta, produto, valor)).startsWith("Investimento em")) recusadas++;
+                }
+                case RESGATE -> {
+                    Cliente cliente = conta.getCliente();
+                    int tamanho = cliente.getCarteiraInvestimento().getInvestimentos().size();
+                    int indice = tamanho == 0 ? 0 : random.nextInt(tamanho);
+                    if (!chamar(() -> bancoService.resgatarInvestimento(cliente, indice, conta)).startsWith("Investimento resgatado")) recusadas++;
+                }
+            }
+        }
+
+        // Com agendador, a operação entra na fila interativa e a latência medida inclui a espera nela.
+        private String chamar(Supplier<String> operacao) {
+            return agendador == null ? operacao.get() : agendador.submeter(ClassePrioridade.INTERATIVA, operacao).join();
+        }
+    }
+
+    /**
+     * Executa a carga pela linha de comando.
+     * Argumentos opcionais: [threads] [operacoesPorThread] [UNIFORME|ZIPF] [semente] [intervaloCompensacaoMillis]
+     * [threadsLote] [orcamentoP99Micros]
+     */
+    public static void main(String[] args) throws InterruptedException {
+        ConfiguracaoCarga padrao = ConfiguracaoCarga.padrao();
+        ConfiguracaoCarga configuracao = new ConfiguracaoCarga(
+                args.length > 3 ? Long.parseLong(args[3]) : padrao.semente(),
+                padrao.quantidadeClientes(),
+                padrao.saldoInicial(),
+                args.length > 0 ? Integer.parseInt(args[0]) : padrao.threads(),
+                args.length > 1 ? Integer.parseInt(args[1]) : padrao.operacoesPorThread(),
+                args.length > 2 ? DistribuicaoChaves.valueOf(args[2].toUpperCase()) : padrao.distribuicao(),
+                padrao.expoenteZipf(),
+                padrao.pesos(),
+                padrao.tamanhoRajadaPix(),
+                args.length > 4 ? Long.parseLong(args[4]) : padrao.intervaloCompensacaoMillis(),
+                args.length > 5 ? Integer.parseInt(args[5]) : padrao.threadsLote(),
+                args.length > 6 ? Long.parseLong(args[6]) : padrao.orcamentoP99Micros());
+        GeradorCarga gerador = new GeradorCarga(configuracao);
+        System.out.println(gerador.executar());
+        gerador.metricasAgendador().ifPresent(System.out::println);
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.simulacao;
+
+import org.example.enums.DistribuicaoChaves;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sorteia índices de contas de 0 a n-1 segundo uma distribuição uniforme ou Zipf.
+ * Para Zipf, a função de distribuição acumulada é pré-calculada uma vez e compartilhada;
+ * cada sorteio é uma busca binária nela. A conta de índice 0 é a mais "quente".
+ */
+class GeradorChaves {
+
+    private final int quantidade;
+    private final double[] acumulada; // null quando a distribuição é uniforme.
+
+    GeradorChaves(int quantidade, DistribuicaoChaves distribuicao, double expoenteZipf) {
+        this.quantidade = quantidade;
+        if (distribuicao == DistribuicaoChaves.ZIPF) {
+            acumulada = new double[quantidade];
+            double soma = 0;
+            for (int i = 0; i < quantidade; i++) {
+                soma += 1.0 / Math.pow(i + 1, expoenteZipf);
+                acumulada[i] = soma;
+            }
+            for (int i = 0; i < quantidade; i++) {
+                acumulada[i] /= soma;
+            }
+        } else {
+            acumulada = null;
+        }
+    }
+
+    int proximo(SplittableRandom random) {
+        if (acumulada == null) return random.nextInt(quantidade);
+        double alvo = random.nextDouble();
+        int baixo = 0;
+        int alto = quantidade - 1;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (acumulada[meio] < alvo) baixo = meio + 1;
+            else alto = meio;
+        }
+        return baixo;
+    }
+}
@@ -44,6 +44,7 @@ public class MenuConsole {
             System.out.println("6. Histórico da Conta");
             System.out.println("7. Listar Clientes (Contatos)");
             System.out.println("8. Menu de Investimentos");
+            System.out.println("9. Buscar Cliente por Nome");
             System.out.println("0. Sair");
             System.out.print("Escolha uma opção: ");
             opcao = lerInt();
@@ -57,6 +58,7 @@ public class MenuConsole {
                 case 6 -> verHistorico();
                 case 7 -> bancoService.listarClientes();
                 case 8 -> menuInvestimentos();
+                case 9 -> buscarClientePorNome();
                 case 0 -> System.out.println("\nObrigado por usar nossos serviços!");
                 default -> System.out.println("Opção inválida.");
             }
@@ -209,6 +211,18 @@ public class MenuConsole {
         }
     }
 
+    private void buscarClientePorNome() {
+        System.out.println("\n>> BUSCAR CLIENTE POR NOME");
+        System.out.print("Nome ou parte do nome: ");
+        String consulta = scanner.nextLine();
+        List<Cliente> encontrados = bancoService.buscarClientesPorNome(consulta, 10);
+        if (encontrados.isEmpty()) {
+            System.out.println("Nenhum cliente encontrado.");
+            return;
+        }
+        encontrados.forEach(c -> System.out.printf("%s - CPF: %s%n", c.getNome(), c.getCpf()));
+    }
+
     // --- MÉTODOS UTILITÁRIOS ---
 
     /**
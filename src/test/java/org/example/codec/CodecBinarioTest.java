@@ -0,0 +1,118 @@
+package org.example.codec;
+
+import org.example.enums.StatusInvestimento;
+import org.example.enums.TipoTransacao;
+import org.example.model.Investimento;
+import org.example.model.Produto;
+import org.example.records.Transacao;
+import org.example.repository.TabelaPrecos;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CodecBinarioTest {
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(512);
+
+    @Test
+    void transacaoIdaEVolta() {
+        CodecTransacao.Codificador codificador = new CodecTransacao.Codificador();
+        CodecTransacao.Decodificador decodificador = new CodecTransacao.Decodificador();
+        int offset = 0;
+        for (TipoTransacao tipo : TipoTransacao.values()) {
+            Transacao original = new Transacao(tipo, 123.45, LocalDateTime.of(2024, 5, 17, 8, 30, 15, 123_456_000), "Descrição ç " + tipo);
+            int comprimento = codificador.codificar(buffer, offset, original);
+            assertEquals(comprimento, decodificador.posicionar(buffer, offset).comprimento());
+            assertEquals(original, decodificador.paraTransacao());
+            offset += comprimento;
+        }
+    }
+
+    @Test
+    void investimentoIdaEVoltaNoProdutoDaTabela() {
+        TabelaPrecos tabelaPrecos = new TabelaPrecos();
+        Produto selic = tabelaPrecos.produto("Tesouro Selic");
+        Investimento original = new Investimento(selic, 1000);
+        selic.cotar(1.1);
+        new CodecInvestimento.Codificador().codificar(buffer, 0, original);
+
+        Investimento lido = new CodecInvestimento.Decodificador().posicionar(buffer, 0).paraInvestimento(tabelaPrecos);
+        assertSame(selic, lido.getProduto());
+        assertEquals(original.getValorAplicado(), lido.getValorAplicado(), 0);
+        assertEquals(original.getDataAplicacao(), lido.getDataAplicacao());
+        assertEquals(StatusInvestimento.ATIVO, lido.getStatus());
+        assertEquals(1100, lido.getValorAtual(), 1e-9);
+        selic.cotar(1.2);
+        assertEquals(original.getValorAtual(), lido.getValorAtual(), 1e-9);
+    }
+
+    @Test
+    void investimentoDaVersaoAnteriorUsaOValorAtual() {
+        TabelaPrecos tabelaPrecos = new TabelaPrecos();
+        tabelaPrecos.produto("CDB").cotar(2.0);
+        new CodecInvestimento.Codificador().codificar(buffer, 0, new Investimento("CDB", 300));
+        // Mensagem da versão 1: o bloco termina antes da quantidade.
+        buffer.order(EsquemaBinario.ORDEM).putShort(0, (short) 24);
+        EsquemaBinario.escreverTexto(buffer, EsquemaBinario.TAMANHO_CABECALHO + 24, "CDB");
+
+        CodecInvestimento.Decodificador decodificador = new CodecInvestimento.Decodificador().posicionar(buffer, 0);
+        assertTrue(Double.isNaN(decodificador.quantidade()));
+        Investimento lido = decodificador.paraInvestimento(tabelaPrecos);
+        assertEquals(300, lido.getValorAtual(), 1e-9);
+        assertEquals(150, lido.getQuantidade(), 1e-9);
+    }
+
+    @Test
+    void codigosDosEnumsSaoFixos() {
+        assertEquals(0, CodecTransacao.codigo(TipoTransacao.DEPOSITO));
+        assertEquals(4, CodecTransacao.codigo(TipoTransacao.CRIACAO_INVESTIMENTO));
+        assertEquals(1, CodecInvestimento.codigo(StatusInvestimento.RESGATADO));
+    }
+
+    @Test
+    void codigoDesconhecidoOuNegativoERecusado() {
+        CodecTransacao.Decodificador decodificador = new CodecTransacao.Decodificador();
+        new CodecTransacao.Codificador().codificar(buffer, 0, new Transacao(TipoTransacao.SAQUE, 1, LocalDateTime.now(), "x"));
+        int tipo = EsquemaBinario.TAMANHO_CABECALHO + 16;
+
+        buffer.put(tipo, (byte) 5);
+        assertThrows(IllegalArgumentException.class, () -> decodificador.posicionar(buffer, 0).tipo());
+        buffer.put(tipo, (byte) -1);
+        assertThrows(IllegalArgumentException.class, () -> decodificador.posicionar(buffer, 0).tipo());
+    }
+
+    @Test
+    void mensagemComBlocoMenorDevolveValoresNulos() {
+        // Uma versão antiga que só tinha data e valor no bloco.
+        ByteBuffer antigo = ByteBuffer.allocate(64).order(EsquemaBinario.ORDEM);
+        EsquemaBinario.escreverCabecalho(antigo, 0, 16, EsquemaBinario.MODELO_TRANSACAO);
+        antigo.putLong(EsquemaBinario.TAMANHO_CABECALHO, 0).putDouble(EsquemaBinario.TAMANHO_CABECALHO + 8, 9.5);
+        EsquemaBinario.escreverTexto(antigo, EsquemaBinario.TAMANHO_CABECALHO + 16, "antiga");
+
+        CodecTransacao.Decodificador decodificador = new CodecTransacao.Decodificador().posicionar(antigo, 0);
+        assertEquals(9.5, decodificador.valor(), 0);
+        assertNull(decodificador.tipo());
+        assertEquals("antiga", decodificador.descricao());
+
+        EsquemaBinario.escreverCabecalho(antigo, 0, 4, EsquemaBinario.MODELO_TRANSACAO);
+        decodificador.posicionar(antigo, 0);
+        assertEquals(EsquemaBinario.NULO_I64, decodificador.dataMicros());
+        assertNull(decodificador.data());
+        assertTrue(Double.isNaN(decodificador.valor()));
+    }
+
+    @Test
+    void blocoAlemDoBufferERecusado() {
+        ByteBuffer curto = ByteBuffer.allocate(EsquemaBinario.TAMANHO_CABECALHO + 10).order(EsquemaBinario.ORDEM);
+        EsquemaBinario.escreverCabecalho(curto, 0, CodecTransacao.COMPRIMENTO_BLOCO, EsquemaBinario.MODELO_TRANSACAO);
+        assertThrows(IllegalArgumentException.class, () -> new CodecTransacao.Decodificador().posicionar(curto, 0));
+    }
+}
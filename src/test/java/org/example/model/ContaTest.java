@@ -0,0 +1,52 @@
+package org.example.model;
+
+import org.example.enums.TipoTransacao;
+import org.example.repository.HistoricoSobDemanda;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContaTest {
+
+    @Test
+    void numeroMaiorQueOSequencialNaoQuebraACriacao() {
+        Cliente cliente = new Cliente("Numeração", "55566677788");
+        Conta conta = new ContaCorrente(cliente, "123456789012345678901234");
+        assertEquals("123456789012345678901234", conta.getNumero());
+        assertDoesNotThrow(() -> new ContaCorrente(cliente));
+    }
+
+    @Test
+    void saldoEmContaPixRetroativoAPartirDaLiquidacao() {
+        Conta conta = new ContaCorrente(new Cliente("Retroativo", "11122233344"));
+        verificarSaldosComPixRetroativo(conta);
+    }
+
+    @Test
+    void saldoEmSobDemandaLeSoOTrechoDoPontoDeControle(@TempDir Path diretorio) {
+        Conta conta = new ContaCorrente(new Cliente("Sob demanda", "22233344455"));
+        // Cache menor que o histórico: a consulta precisa vir do arquivo.
+        conta.usarHistoricoSobDemanda(new HistoricoSobDemanda(diretorio, 10, 10));
+        verificarSaldosComPixRetroativo(conta);
+    }
+
+    private static void verificarSaldosComPixRetroativo(Conta conta) {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 10, 0);
+        for (int i = 0; i < 150; i++) {
+            conta.adicionarTransacao(TipoTransacao.DEPOSITO, 1, "Depósito " + i, base.plusMinutes(i));
+        }
+        // Aceito às 10:10, mas registrado (liquidado) depois do depósito das 12:29.
+        conta.adicionarTransacao(TipoTransacao.TRANSFERENCIA_PIX_RECEBIDA, 100, "PIX compensado", base.plusMinutes(10));
+
+        assertEquals(0, conta.saldoEm(base.minusSeconds(1)), 1e-9);
+        assertEquals(21, conta.saldoEm(base.plusMinutes(20)), 1e-9);
+        assertEquals(149, conta.saldoEm(base.plusMinutes(149).minusSeconds(1)), 1e-9);
+        assertEquals(250, conta.saldoEm(base.plusMinutes(149)), 1e-9);
+        assertEquals(250, conta.saldoEm(base.plusDays(1)), 1e-9);
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.model;
+
+import org.example.records.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RelogioVersoesTest {
+
+    @Test
+    void escritaPosteriorNaoEsperaAnteriorEMarcaSoAvancaQuandoAmbasTerminam() throws Exception {
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        long[] versaoLenta = new long[1];
+        Thread lenta = new Thread(() -> RelogioVersoes.escrever(versao -> {
+            versaoLenta[0] = versao;
+            iniciada.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        lenta.start();
+        assertTrue(iniciada.await(5, TimeUnit.SECONDS));
+
+        // Termina antes da escrita anterior, sem ficar presa esperando por ela.
+        long versaoRapida = RelogioVersoes.escrever(versao -> versao);
+        assertTrue(versaoRapida > versaoLenta[0]);
+        try (Snapshot snapshot = RelogioVersoes.abrirSnapshot()) {
+            assertTrue(snapshot.versao() < versaoLenta[0], "a marca não pode passar da escrita em andamento");
+        }
+
+        liberar.countDown();
+        lenta.join(5_000);
+        try (Snapshot snapshot = RelogioVersoes.abrirSnapshot()) {
+            assertTrue(snapshot.versao() >= versaoRapida);
+        }
+    }
+
+    @Test
+    void snapshotAvaliaPosicaoPeloPrecoDaquelaVersao() {
+        Produto produto = new Produto("Fundo Snapshot");
+        produto.cotar(2.0);
+        CarteiraInvestimento carteira = new CarteiraInvestimento();
+        carteira.adicionarInvestimento(new Investimento(produto, 100.0));
+
+        try (Snapshot snapshot = RelogioVersoes.abrirSnapshot()) {
+            produto.cotar(3.0);
+            assertEquals(100.0, carteira.getSaldoNoSnapshot(snapshot), 1e-9);
+            assertEquals(150.0, carteira.getSaldoTotal(), 1e-9);
+        }
+    }
+}
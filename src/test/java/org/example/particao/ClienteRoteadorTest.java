@@ -0,0 +1,140 @@
+package org.example.particao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClienteRoteadorTest {
+
+    private NoParticao no0;
+    private NoParticao no1;
+    private ClienteRoteador roteador;
+    private String cpfNo0;
+    private String cpfNo1;
+
+    @BeforeEach
+    void iniciar() throws Exception {
+        no0 = new NoParticao(0, 1);
+        no1 = new NoParticao(0, 2);
+        roteador = new ClienteRoteador(List.of(endereco(no0), endereco(no1)));
+        // As partições são distribuídas em rodízio: as pares no primeiro nó, as ímpares no segundo.
+        cpfNo0 = cpfNaParidade(0);
+        cpfNo1 = cpfNaParidade(1);
+        assertTrue(roteador.criarCliente("Origem", cpfNo0));
+        assertTrue(roteador.criarCliente("Destino", cpfNo1));
+        roteador.adicionarConta(cpfNo0, "corrente");
+        roteador.adicionarConta(cpfNo1, "corrente");
+        assertTrue(roteador.depositar(cpfNo0, "corrente", 100));
+    }
+
+    @AfterEach
+    void encerrar() throws Exception {
+        roteador.close();
+        no0.close();
+        no1.close();
+    }
+
+    @Test
+    void transferenciaEntreNosCreditaDestinoENaoDeixaReserva() {
+        assertTrue(roteador.transferir(cpfNo0, "corrente", cpfNo1, "corrente", 30));
+        assertEquals(70, roteador.saldo(cpfNo0, "corrente"), 1e-9);
+        assertEquals(30, roteador.saldo(cpfNo1, "corrente"), 1e-9);
+        assertEquals(0, roteador.totais()[2], 1e-9);
+    }
+
+    @Test
+    void creditoRecusadoEstornaReserva() {
+        // O destino não tem poupança: o CREDITAR falha e a reserva na origem é cancelada.
+        assertFalse(roteador.transferir(cpfNo0, "corrente", cpfNo1, "poupanca", 30));
+        assertEquals(100, roteador.saldo(cpfNo0, "corrente"), 1e-9);
+        double[] totais = roteador.totais();
+        assertEquals(100, totais[0], 1e-9);
+        assertEquals(0, totais[2], 1e-9);
+    }
+
+    @Test
+    void creditoAtrasadoDepoisDoAbortoNaoECreditado() throws Exception {
+        try (ConexaoNo conexao = new ConexaoNo(endereco(no1))) {
+            assertEquals("ABORTADO", conexao.enviar(linha("ABORTAR_CREDITO", "t1", cpfNo1), List.of())[1]);
+            assertEquals("ERRO", conexao.enviar(linha("CREDITAR", "t1", cpfNo1, "corrente", "10"), List.of())[0]);
+            assertEquals(0, roteador.saldo(cpfNo1, "corrente"), 1e-9);
+
+            assertEquals("OK", conexao.enviar(linha("CREDITAR", "t2", cpfNo1, "corrente", "10"), List.of())[0]);
+            assertEquals("OK", conexao.enviar(linha("CREDITAR", "t2", cpfNo1, "corrente", "10"), List.of())[0]);
+            assertEquals("CREDITADO", conexao.enviar(linha("ABORTAR_CREDITO", "t2", cpfNo1), List.of())[1]);
+            assertEquals(10, roteador.saldo(cpfNo1, "corrente"), 1e-9);
+        }
+    }
+
+    @Test
+    void reservaAtrasadaDepoisDoCancelamentoERecusada() throws Exception {
+        try (ConexaoNo conexao = new ConexaoNo(endereco(no0))) {
+            assertEquals("OK", conexao.enviar(linha("CANCELAR", "t1", cpfNo0), List.of())[0]);
+            assertEquals("ERRO", conexao.enviar(linha("RESERVAR", "t1", cpfNo0, "corrente", "10"), List.of())[0]);
+            assertEquals(100, roteador.saldo(cpfNo0, "corrente"), 1e-9);
+
+            // Cancelada depois de feita: estornada uma única vez.
+            assertEquals("OK", conexao.enviar(linha("RESERVAR", "t2", cpfNo0, "corrente", "10"), List.of())[0]);
+            assertEquals("OK", conexao.enviar(linha("CANCELAR", "t2", cpfNo0), List.of())[0]);
+            assertEquals("OK", conexao.enviar(linha("CANCELAR", "t2", cpfNo0), List.of())[0]);
+            assertEquals("ERRO", conexao.enviar(linha("RESERVAR", "t2", cpfNo0, "corrente", "10"), List.of())[0]);
+        }
+        double[] totais = roteador.totais();
+        assertEquals(100, totais[0], 1e-9);
+        assertEquals(0, totais[2], 1e-9);
+    }
+
+    @Test
+    void registrosDeCreditoSaoDescartadosDepoisDaRetencao() throws Exception {
+        try (NoParticao no = new NoParticao(0, 3, Duration.ZERO);
+             ConexaoNo conexao = new ConexaoNo(endereco(no))) {
+            String cpf = "99999999999";
+            assertEquals("OK", conexao.enviar(linha("ATRIBUIR", Integer.toString(TabelaParticoes.particaoDe(cpf))), List.of())[0]);
+            assertEquals("OK", conexao.enviar(linha("CRIAR_CLIENTE", cpf, "Destino"), List.of())[0]);
+            assertEquals("OK", conexao.enviar(linha("ADICIONAR_CONTA", cpf, "corrente"), List.of())[0]);
+            assertEquals("OK", conexao.enviar(linha("CREDITAR", "t1", cpf, "corrente", "10"), List.of())[0]);
+            Thread.sleep(1);
+
+            // O próximo crédito descarta o registro de t1, já fora da retenção.
+            assertEquals("OK", conexao.enviar(linha("CREDITAR", "t2", cpf, "corrente", "10"), List.of())[0]);
+            assertEquals("ABORTADO", conexao.enviar(linha("ABORTAR_CREDITO", "t1", cpf), List.of())[1]);
+        }
+    }
+
+    @Test
+    void migracaoQueFalhaDevolveParticaoAoDonoAntigo() {
+        assertThrows(UncheckedIOException.class, () -> roteador.adicionarNo("127.0.0.1:1"));
+
+        Map<String, Integer> particoes = roteador.particoesPorNo();
+        assertEquals(2, particoes.size());
+        assertEquals(TabelaParticoes.QUANTIDADE_PARTICOES / 2, particoes.get(endereco(no0)).intValue());
+        assertTrue(roteador.depositar(cpfNo0, "corrente", 1));
+        assertTrue(roteador.depositar(cpfNo1, "corrente", 1));
+        assertEquals(102, roteador.totais()[0], 1e-9);
+    }
+
+    private static String endereco(NoParticao no) {
+        return "127.0.0.1:" + no.getPorta();
+    }
+
+    private static String linha(String... campos) {
+        return SerializadorParticao.linha(campos);
+    }
+
+    private static String cpfNaParidade(int paridade) {
+        for (int i = 0; ; i++) {
+            String cpf = String.format("%011d", i);
+            if (TabelaParticoes.particaoDe(cpf) % 2 == paridade) return cpf;
+        }
+    }
+}
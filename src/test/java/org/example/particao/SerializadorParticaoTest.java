@@ -0,0 +1,44 @@
+package org.example.particao;
+
+import org.example.enums.StatusInvestimento;
+import org.example.model.Cliente;
+import org.example.model.Investimento;
+import org.example.model.Produto;
+import org.example.repository.TabelaPrecos;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SerializadorParticaoTest {
+
+    @Test
+    void investimentosImportadosUsamOProdutoDoDestino() {
+        TabelaPrecos origem = new TabelaPrecos();
+        Cliente cliente = new Cliente("Investidora", "12345678901");
+        cliente.getCarteiraInvestimento().adicionarInvestimento(new Investimento(origem.produto("Fundo"), 200));
+        Investimento resgatado = new Investimento(origem.produto("CDB"), 80);
+        resgatado.resgatar(90);
+        cliente.getCarteiraInvestimento().adicionarInvestimento(resgatado);
+        origem.produto("Fundo").cotar(1.25);
+        List<String> linhas = new ArrayList<>();
+        SerializadorParticao.exportar(cliente, linhas);
+
+        TabelaPrecos destino = new TabelaPrecos();
+        Produto fundo = destino.produto("Fundo");
+        fundo.cotar(1.5);
+        List<Investimento> importados = SerializadorParticao.importar(linhas, destino).get(0)
+                .getCarteiraInvestimento().getInvestimentos();
+
+        assertSame(fundo, importados.get(0).getProduto());
+        assertEquals(200, importados.get(0).getQuantidade(), 1e-9);
+        assertEquals(300, importados.get(0).getValorAtual(), 1e-9);
+        fundo.cotar(2.0);
+        assertEquals(400, importados.get(0).getValorAtual(), 1e-9);
+        assertEquals(StatusInvestimento.RESGATADO, importados.get(1).getStatus());
+        assertEquals(90, importados.get(1).getValorAtual(), 1e-9);
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.records;
+
+import org.example.enums.TipoMutacao;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MutacaoTest {
+
+    @Test
+    void idaEVoltaDeTodosOsTipos() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        TipoMutacao[] tipos = TipoMutacao.values();
+        for (int i = 0; i < tipos.length; i++) {
+            new Mutacao(i + 1, tipos[i], "chave", null, "texto", i, i * 1.5).escrever(saida);
+        }
+
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (int i = 0; i < tipos.length; i++) {
+            assertEquals(new Mutacao(i + 1, tipos[i], "chave", "", "texto", i, i * 1.5), Mutacao.ler(entrada));
+        }
+    }
+
+    @Test
+    void codigosSaoFixosECodigoDesconhecidoERecusado() {
+        assertEquals(0, Mutacao.codigo(TipoMutacao.CRIACAO_CLIENTE));
+        assertEquals(7, Mutacao.codigo(TipoMutacao.ATUALIZACAO_PRECO));
+        assertThrows(IOException.class, () -> Mutacao.tipoDoCodigo((byte) 8));
+        assertThrows(IOException.class, () -> Mutacao.tipoDoCodigo((byte) -1));
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.replicacao;
+
+import org.example.enums.TipoMutacao;
+import org.example.records.Mutacao;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogMutacoesTest {
+
+    private static LogMutacoes logCom(int quantidade) {
+        LogMutacoes log = new LogMutacoes();
+        for (int i = 0; i < quantidade; i++) {
+            log.registrar(TipoMutacao.DEPOSITO, "0001", null, null, 0, i);
+        }
+        return log;
+    }
+
+    @Test
+    void descartarMantemSequenciasELeituraDoRestante() throws Exception {
+        LogMutacoes log = logCom(2_000);
+        log.descartarAte(1_500);
+
+        assertEquals(1_500, log.ultimaDescartada());
+        assertEquals(2_000, log.ultimaSequencia());
+        assertEquals(-1, log.instanteRegistro(1_500));
+        assertEquals(2_001, log.registrar(TipoMutacao.DEPOSITO, "0001", null, null, 0, 1));
+
+        List<Mutacao> lote = log.lerApos(1_500, 10, 0);
+        assertEquals(10, lote.size());
+        assertEquals(1_501, lote.get(0).sequencia());
+        assertEquals(1_501.0 - 1, lote.get(0).valor(), 1e-9);
+    }
+
+    @Test
+    void lerMutacoesDescartadasFalha() {
+        LogMutacoes log = logCom(100);
+        log.descartarAte(50);
+        assertThrows(IllegalStateException.class, () -> log.lerApos(10, 10, 0));
+    }
+
+    @Test
+    void descartarAlemDoFimLimitaAoLog() {
+        LogMutacoes log = logCom(10);
+        log.descartarAte(1_000);
+        assertEquals(10, log.ultimaDescartada());
+        assertEquals(10, log.ultimaSequencia());
+    }
+
+    @Test
+    void retencaoLimitaOLogSemSeguidores() throws Exception {
+        LogMutacoes log = new LogMutacoes(100);
+        for (int i = 0; i < 1_000; i++) {
+            log.registrar(TipoMutacao.DEPOSITO, "0001", null, null, 0, i);
+        }
+
+        assertEquals(1_000, log.ultimaSequencia());
+        assertTrue(log.ultimaSequencia() - log.ultimaDescartada() <= 100);
+        assertThrows(IllegalStateException.class, () -> log.lerApos(0, 10, 0));
+        assertEquals(1_000, log.lerApos(999, 10, 0).get(0).sequencia());
+    }
+}
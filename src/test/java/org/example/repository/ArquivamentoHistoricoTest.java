@@ -0,0 +1,114 @@
+package org.example.repository;
+
+import org.example.enums.TipoTransacao;
+import org.example.records.Transacao;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArquivamentoHistoricoTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void segmentoIdaEVoltaComLeituraNoMeio() {
+        ArquivamentoHistorico arquivamento = new ArquivamentoHistorico(diretorio, Duration.ZERO);
+        List<Transacao> transacoes = transacoes(200, 0);
+        SegmentoHistorico segmento = arquivamento.selar(transacoes);
+
+        assertEquals(200, segmento.getQuantidade());
+        assertEquals(transacoes, new HistoricoEmCamadas(List.of(segmento), List.of()));
+        SegmentoHistorico.Leitor leitor = segmento.leitor(130);
+        assertEquals(transacoes.get(130), leitor.proxima());
+        assertEquals(transacoes.get(131), leitor.proxima());
+    }
+
+    @Test
+    void contasCompartilhamOMesmoArquivo() throws IOException {
+        ArquivamentoHistorico arquivamento = new ArquivamentoHistorico(diretorio, Duration.ZERO);
+        List<SegmentoHistorico> segmentos = new ArrayList<>();
+        for (int conta = 0; conta < 500; conta++) {
+            segmentos.add(arquivamento.selar(transacoes(64, conta)));
+        }
+
+        assertEquals(1, segmentosEm(arquivamento.getDiretorio()));
+        for (int conta = 0; conta < 500; conta += 97) {
+            assertEquals(transacoes(64, conta), new HistoricoEmCamadas(List.of(segmentos.get(conta)), List.of()));
+        }
+    }
+
+    @Test
+    void arquivoSemSegmentosEmUsoEApagado() {
+        ArquivamentoHistorico arquivamento = new ArquivamentoHistorico(diretorio, Duration.ZERO, 4096);
+        SegmentoHistorico primeiro = arquivamento.selar(transacoes(64, 1));
+        Path arquivo = primeiro.getArquivo();
+        // Um segmento maior que o espaço livre abre outro arquivo e encerra a gravação no primeiro.
+        SegmentoHistorico grande = arquivamento.selar(transacoes(1000, 2));
+
+        assertTrue(Files.exists(arquivo));
+        List<Transacao> lidas = new HistoricoEmCamadas(List.of(primeiro), List.of());
+        primeiro.liberar();
+        primeiro.liberar(); // Sem efeito.
+        assertFalse(Files.exists(arquivo));
+        assertEquals(transacoes(64, 1), lidas); // O mapeamento continua legível.
+        assertTrue(grande.getTamanhoEmBytes() > 4096);
+        assertTrue(Files.exists(grande.getArquivo())); // Ainda recebe segmentos.
+    }
+
+    @Test
+    void segmentosDeOutraInstanciaAtivaSaoPreservados() {
+        ArquivamentoHistorico primeira = new ArquivamentoHistorico(diretorio, Duration.ZERO);
+        SegmentoHistorico segmento = primeira.selar(transacoes(64, 1));
+
+        ArquivamentoHistorico segunda = new ArquivamentoHistorico(diretorio, Duration.ZERO);
+
+        assertNotEquals(primeira.getDiretorio(), segunda.getDiretorio());
+        assertTrue(Files.exists(segmento.getArquivo()));
+        assertEquals(transacoes(64, 1), new HistoricoEmCamadas(List.of(segmento), List.of()));
+    }
+
+    @Test
+    void segmentosDeInstanciaEncerradaSaoApagados() throws IOException {
+        // Como o processo que a criou terminou, a trava da instância está livre.
+        Path encerrada = Files.createDirectory(diretorio.resolve("arquivamento-antiga"));
+        Files.writeString(encerrada.resolve("instancia.trava"), "");
+        Files.writeString(encerrada.resolve("segmentos-1.hseg"), "restos");
+        Files.writeString(diretorio.resolve("outro.txt"), "mantido");
+
+        new ArquivamentoHistorico(diretorio, Duration.ZERO);
+
+        assertFalse(Files.exists(encerrada));
+        assertTrue(Files.exists(diretorio.resolve("outro.txt")));
+    }
+
+    private static long segmentosEm(Path pasta) throws IOException {
+        try (Stream<Path> arquivos = Files.list(pasta)) {
+            return arquivos.filter(arquivo -> arquivo.toString().endsWith(".hseg")).count();
+        }
+    }
+
+    private static List<Transacao> transacoes(int quantidade, int semente) {
+        LocalDateTime inicio = LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(semente);
+        List<Transacao> transacoes = new ArrayList<>(quantidade);
+        TipoTransacao[] tipos = TipoTransacao.values();
+        for (int i = 0; i < quantidade; i++) {
+            double valor = i % 7 == 0 ? 10.0 / 3 : (i * 37 + semente) % 5000 / 100.0;
+            transacoes.add(new Transacao(tipos[i % tipos.length], valor, inicio.plusSeconds(i * 61L), "Operação " + (i % 5)));
+        }
+        return transacoes;
+    }
+}
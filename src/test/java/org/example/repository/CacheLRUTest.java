@@ -0,0 +1,57 @@
+package org.example.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheLRUTest {
+
+    @Test
+    void entradasVaziasContamNoLimiteESaoDespejadas() {
+        CacheLRU<Integer, List<String>> cache = new CacheLRU<>(10, lista -> 1 + lista.size(), null);
+        for (int i = 0; i < 1_000; i++) {
+            cache.obter(i, chave -> new ArrayList<>());
+        }
+        assertTrue(cache.quantidadeEntradas() <= 10, "entradas residentes: " + cache.quantidadeEntradas());
+        assertTrue(cache.getPesoTotal() <= 10);
+    }
+
+    @Test
+    void gravarNaoCarregaEntradaAusente() {
+        CacheLRU<String, List<String>> cache = new CacheLRU<>(100, lista -> 1 + lista.size(), null);
+        List<String> armazenamento = new ArrayList<>();
+
+        cache.gravar("a", () -> armazenamento.add("x"), lista -> lista.add("x"));
+
+        assertEquals(0, cache.quantidadeEntradas());
+        assertEquals(List.of("x"), armazenamento);
+    }
+
+    @Test
+    void gravarAlteraEntradaCarregadaERecalculaPeso() {
+        CacheLRU<String, List<String>> cache = new CacheLRU<>(100, lista -> 1 + lista.size(), null);
+        List<String> armazenamento = new ArrayList<>();
+        List<String> carregada = cache.obter("a", chave -> new ArrayList<>(armazenamento));
+
+        cache.gravar("a", () -> armazenamento.add("x"), lista -> lista.add("x"));
+
+        assertEquals(List.of("x"), carregada);
+        assertEquals(2, cache.getPesoTotal());
+    }
+
+    @Test
+    void despejoChamaCallbackDaEntradaMaisAntiga() {
+        List<Integer> removidas = new ArrayList<>();
+        CacheLRU<Integer, List<String>> cache = new CacheLRU<>(2, lista -> 1 + lista.size(), (chave, valor) -> removidas.add(chave));
+        cache.obter(1, chave -> new ArrayList<>());
+        cache.obter(2, chave -> new ArrayList<>());
+        cache.obter(1, chave -> new ArrayList<>()); // 1 passa a ser a mais recente.
+        cache.obter(3, chave -> new ArrayList<>());
+
+        assertEquals(List.of(2), removidas);
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.repository;
+
+import org.example.enums.StatusInvestimento;
+import org.example.enums.TipoTransacao;
+import org.example.model.Investimento;
+import org.example.model.Produto;
+import org.example.records.Transacao;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class HistoricoSobDemandaTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void transacaoEmContaFriaApareceUmaVezAoCarregar() {
+        HistoricoSobDemanda historico = new HistoricoSobDemanda(diretorio, 100, 100);
+        Transacao primeira = new Transacao(TipoTransacao.DEPOSITO, 10, LocalDateTime.of(2025, 1, 1, 10, 0), "Depósito");
+        Transacao segunda = new Transacao(TipoTransacao.SAQUE, 4, LocalDateTime.of(2025, 1, 2, 10, 0), "Saque");
+
+        historico.registrarTransacao("0001", primeira);
+        historico.registrarTransacao("0001", segunda);
+
+        assertEquals(List.of(primeira, segunda), historico.historicoDe("0001"));
+    }
+
+    @Test
+    void transacaoEmContaCarregadaEntraNaListaEmCache() {
+        HistoricoSobDemanda historico = new HistoricoSobDemanda(diretorio, 100, 100);
+        List<Transacao> carregado = historico.historicoDe("0001");
+        Transacao transacao = new Transacao(TipoTransacao.DEPOSITO, 10, LocalDateTime.of(2025, 1, 1, 10, 0), "Depósito");
+
+        historico.registrarTransacao("0001", transacao);
+
+        assertEquals(List.of(transacao), carregado);
+    }
+
+    @Test
+    void resgateSobreviveAoDespejoDaCarteira() {
+        HistoricoSobDemanda historico = new HistoricoSobDemanda(diretorio, 100, 2);
+        historico.registrarInvestimento("111", new Investimento("CDB", 100));
+        historico.registrarInvestimento("111", new Investimento("LCI", 50));
+        List<Investimento> antesDoDespejo = historico.investimentosDe("111");
+
+        // Outras carteiras tiram a do titular do cache; o resgate deve valer para a carteira recarregada.
+        historico.investimentosDe("222");
+        historico.investimentosDe("333");
+        historico.resgatarInvestimento("111", 1, 50);
+        historico.investimentosDe("222");
+        historico.investimentosDe("333");
+
+        List<Investimento> recarregada = historico.investimentosDe("111");
+        assertEquals(2, recarregada.size());
+        assertEquals(StatusInvestimento.ATIVO, recarregada.get(0).getStatus());
+        assertEquals(StatusInvestimento.RESGATADO, recarregada.get(1).getStatus());
+        assertEquals(50, recarregada.get(1).getValorAtual(), 1e-9);
+        assertEquals(2, antesDoDespejo.size());
+    }
+
+    @Test
+    void carteiraRecarregadaAcompanhaOPrecoDaTabela() {
+        TabelaPrecos tabelaPrecos = new TabelaPrecos();
+        Produto cdb = tabelaPrecos.produto("CDB");
+        HistoricoSobDemanda historico = new HistoricoSobDemanda(diretorio, 100, 1);
+        historico.usarTabelaPrecos(tabelaPrecos);
+        historico.registrarInvestimento("111", new Investimento(cdb, 100));
+        cdb.cotar(1.5);
+        historico.investimentosDe("222"); // Tira a carteira do titular do cache.
+
+        Investimento recarregado = historico.investimentosDe("111").get(0);
+        assertSame(cdb, recarregado.getProduto());
+        assertEquals(100, recarregado.getQuantidade(), 1e-9);
+        assertEquals(150, recarregado.getValorAtual(), 1e-9);
+        cdb.cotar(2.0);
+        assertEquals(200, recarregado.getValorAtual(), 1e-9);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.repository;
+
+import org.example.model.Cliente;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceNomesTest {
+
+    private final IndiceNomes indice = new IndiceNomes();
+
+    @Test
+    void encontraPorPalavraPrefixoEErroDeDigitacao() {
+        Cliente jose = new Cliente("José da Silva", "11111111111");
+        Cliente maria = new Cliente("Maria Souza", "22222222222");
+        indice.adicionar(jose);
+        indice.adicionar(maria);
+
+        assertEquals(List.of(jose), indice.buscar("jose silva", 10));
+        assertEquals(List.of(maria), indice.buscar("MAR sou", 10));
+        assertEquals(List.of(jose), indice.buscar("slva", 10));
+        assertTrue(indice.buscar("pedro", 10).isEmpty());
+    }
+
+    @Test
+    void removerRetiraSoOClienteDoCpf() {
+        Cliente ana = new Cliente("Ana Lima", "11111111111");
+        Cliente outraAna = new Cliente("Ana Lima", "22222222222");
+        indice.adicionar(ana);
+        indice.adicionar(outraAna);
+
+        indice.remover("11111111111");
+        assertEquals(List.of(outraAna), indice.buscar("ana lima", 10));
+        indice.remover("33333333333"); // CPF ausente: nada muda.
+        assertEquals(List.of(outraAna), indice.buscar("ana lima", 10));
+    }
+
+    @Test
+    void adicionarMesmoCpfSubstituiOCliente() {
+        indice.adicionar(new Cliente("Carlos Pereira", "11111111111"));
+        Cliente renomeado = new Cliente("Carla Pereira", "11111111111");
+        indice.adicionar(renomeado);
+
+        assertEquals(List.of(renomeado), indice.buscar("pereira", 10));
+        assertTrue(indice.buscar("carlos", 10).isEmpty());
+    }
+
+    @Test
+    void compactacaoPreservaOsClientesAtivos() {
+        int total = 5_000;
+        for (int i = 0; i < total; i++) {
+            indice.adicionar(new Cliente("Cliente Numero" + i + " Teste", String.format("%011d", i)));
+        }
+        // Remove bem mais da metade, o que dispara a reconstrução do índice.
+        for (int i = 0; i < total; i++) {
+            if (i % 10 != 0) indice.remover(String.format("%011d", i));
+        }
+        assertEquals(total / 10, indice.buscar("teste", total).size());
+        List<Cliente> encontrados = indice.buscar("numero4990", 10);
+        assertEquals(1, encontrados.size());
+        assertEquals("00000004990", encontrados.get(0).getCpf());
+        assertTrue(indice.buscar("numero4991", 10).stream().noneMatch(c -> c.getCpf().equals("00000004991")));
+
+        indice.remover("00000004990");
+        indice.adicionar(new Cliente("Cliente Novo", "00000004990"));
+        assertEquals(List.of("00000004990"), indice.buscar("novo", 10).stream().map(Cliente::getCpf).toList());
+    }
+}
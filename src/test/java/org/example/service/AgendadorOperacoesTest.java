@@ -0,0 +1,55 @@
+package org.example.service;
+
+import org.example.repository.ClienteRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AgendadorOperacoesTest {
+
+    @Test
+    void encerrarComMaisLotesQueVagasExecutaTodos() throws Exception {
+        AgendadorOperacoes agendador = new AgendadorOperacoes(new BancoService(new ClienteRepository()), 4, 1, Duration.ofMillis(5));
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger executados = new AtomicInteger();
+        List<CompletableFuture<Integer>> lotes = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            lotes.add(agendador.submeterLote(cessao -> {
+                try {
+                    liberar.await();
+                    Thread.sleep(2); // Dá tempo aos trabalhadores acordados de voltarem a esperar uma vaga.
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return executados.incrementAndGet();
+            }));
+        }
+        // Os outros trabalhadores estão parados esperando uma vaga de lote quando o encerramento chega.
+        Thread encerramento = new Thread(() -> {
+            try {
+                agendador.encerrar();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        encerramento.setDaemon(true);
+        encerramento.start();
+        Thread.sleep(50);
+        liberar.countDown();
+
+        encerramento.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(encerramento.isAlive(), "o encerramento não terminou");
+        assertEquals(12, executados.get());
+        assertTrue(lotes.stream().allMatch(CompletableFuture::isDone));
+    }
+}
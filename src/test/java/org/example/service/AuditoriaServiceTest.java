@@ -0,0 +1,107 @@
+package org.example.service;
+
+import org.example.enums.TipoTransacao;
+import org.example.model.Cliente;
+import org.example.model.Conta;
+import org.example.model.ContaCorrente;
+import org.example.records.DivergenciaConta;
+import org.example.records.ResultadoReconciliacao;
+import org.example.records.Transacao;
+import org.example.repository.ClienteRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditoriaServiceTest {
+
+    // Conta que permite alterar o saldo sem registrar transação, simulando uma escrita corrompida.
+    private static final class ContaAdulteravel extends ContaCorrente {
+        private ContaAdulteravel(Cliente cliente) {
+            super(cliente);
+        }
+
+        private void adulterarSaldo(double valor) {
+            saldo = valor;
+        }
+    }
+
+    private static BancoService novoBanco(ClienteRepository repository) {
+        BancoService banco = new BancoService(repository);
+        banco.setSaida(new PrintStream(OutputStream.nullOutputStream()));
+        return banco;
+    }
+
+    @Test
+    void reconciliacaoRapidaECompletaApontamSaldoAdulterado() {
+        ClienteRepository repository = new ClienteRepository();
+        BancoService banco = novoBanco(repository);
+        banco.criarCliente("Ana", "11111111111");
+        Conta integra = banco.adicionarContaParaCliente("11111111111", "corrente");
+        banco.depositar(integra, 100);
+
+        Cliente bia = new Cliente("Bia", "22222222222");
+        ContaAdulteravel adulterada = new ContaAdulteravel(bia);
+        bia.adicionarConta(adulterada);
+        banco.importarCliente(bia);
+        banco.depositar(adulterada, 100);
+        adulterada.adulterarSaldo(1_000);
+
+        AuditoriaService auditoria = new AuditoriaService(repository);
+        for (ResultadoReconciliacao resultado : List.of(auditoria.reconciliar(), auditoria.reconciliarComHistorico())) {
+            assertEquals(2, resultado.contasVerificadas());
+            assertEquals(1, resultado.divergencias().size());
+            DivergenciaConta divergencia = resultado.divergencias().get(0);
+            assertEquals(adulterada.getNumero(), divergencia.numeroConta());
+            assertEquals(1_000, divergencia.saldo(), 1e-9);
+            assertEquals(100, divergencia.saldoCalculado(), 1e-9);
+        }
+    }
+
+    @Test
+    void reconciliacaoCompletaApontaHistoricoAlterado() {
+        ClienteRepository repository = new ClienteRepository();
+        BancoService banco = novoBanco(repository);
+        banco.criarCliente("Ana", "11111111111");
+        Conta conta = banco.adicionarContaParaCliente("11111111111", "corrente");
+        banco.depositar(conta, 100);
+        banco.sacar(conta, 30);
+        // Mesmo valor e mesmo efeito no saldo, só o tipo muda: apenas o checksum percebe.
+        conta.getHistoricoTransacoes().set(1, new Transacao(TipoTransacao.CRIACAO_INVESTIMENTO, 30, LocalDateTime.now(), "alterada"));
+
+        AuditoriaService auditoria = new AuditoriaService(repository);
+        assertTrue(auditoria.reconciliar().isConsistente(), "a reconciliação rápida não relê o histórico");
+        ResultadoReconciliacao completa = auditoria.reconciliarComHistorico();
+        assertEquals(1, completa.divergencias().size());
+        assertEquals(conta.getNumero(), completa.divergencias().get(0).numeroConta());
+    }
+
+    @Test
+    void contasDivergentesListaSoAsContasDiferentesEntreReplicas() {
+        BancoService primario = novoBanco(new ClienteRepository());
+        BancoService replica = novoBanco(new ClienteRepository());
+        for (BancoService banco : List.of(primario, replica)) {
+            for (int i = 0; i < 50; i++) {
+                String cpf = String.format("%011d", i);
+                banco.criarCliente("Cliente " + i, cpf);
+                Conta conta = banco.adicionarContaParaCliente(cpf, "corrente", String.format("9%05d", i));
+                banco.depositar(conta, 10 + i);
+            }
+        }
+        assertTrue(AuditoriaService.contasDivergentes(primario, replica).isEmpty());
+
+        primario.depositar(primario.buscarContaPorNumero("900007").orElseThrow(), 1);
+        replica.sacar(replica.buscarContaPorNumero("900031").orElseThrow(), 5);
+        primario.criarCliente("Só no primário", "99999999999");
+        primario.adicionarContaParaCliente("99999999999", "corrente", "999999");
+
+        List<String> divergentes = AuditoriaService.contasDivergentes(primario, replica).stream().sorted().toList();
+        assertEquals(List.of("900007", "900031", "999999"), divergentes);
+        assertEquals(divergentes, AuditoriaService.contasDivergentes(replica, primario).stream().sorted().toList());
+    }
+}
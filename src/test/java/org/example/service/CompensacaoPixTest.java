@@ -0,0 +1,106 @@
+package org.example.service;
+
+import org.example.model.Cliente;
+import org.example.model.Conta;
+import org.example.model.ContaCorrente;
+import org.example.records.ResultadoLiquidacao;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompensacaoPixTest {
+
+    private static Conta novaConta(String nome, double saldoInicial) {
+        Cliente cliente = new Cliente(nome, nome);
+        Conta conta = new ContaCorrente(cliente);
+        cliente.adicionarConta(conta);
+        if (saldoInicial > 0) conta.depositar(saldoInicial);
+        return conta;
+    }
+
+    @Test
+    void creditoPendenteSoPodeSerGastoDepoisDaLiquidacao() throws Exception {
+        CompensacaoPix compensacao = new CompensacaoPix(1_000);
+        Conta ana = novaConta("Ana", 100);
+        Conta bia = novaConta("Bia", 0);
+        Conta caio = novaConta("Caio", 0);
+
+        assertTrue(compensacao.submeter(ana, bia, 100));
+        assertFalse(compensacao.submeter(bia, caio, 100), "crédito ainda não liquidado não é saldo");
+        assertFalse(ana.sacar(1), "o valor enviado continua reservado até a liquidação");
+
+        ResultadoLiquidacao resultado = compensacao.liquidar();
+        assertEquals(1, resultado.transferencias());
+        assertEquals(0, ana.getSaldo(), 1e-9);
+        assertEquals(100, bia.getSaldo(), 1e-9);
+        assertEquals(0, ana.getEnviosPendentes(), 1e-9);
+
+        assertTrue(compensacao.submeter(bia, caio, 100));
+        compensacao.encerrar();
+        assertEquals(100, caio.getSaldo(), 1e-9);
+    }
+
+    @Test
+    void faixasDiferentesSaoCompensadasNaMesmaJanela() {
+        CompensacaoPix compensacao = new CompensacaoPix(1_000);
+        List<Conta> contas = new ArrayList<>();
+        for (int i = 0; i < 2 * CompensacaoPix.FAIXAS; i++) {
+            contas.add(novaConta("Cliente " + i, 10));
+        }
+        // Um ciclo: cada conta envia 10 para a próxima, então nenhuma posição líquida muda.
+        for (int i = 0; i < contas.size(); i++) {
+            assertTrue(compensacao.submeter(contas.get(i), contas.get((i + 1) % contas.size()), 10));
+        }
+
+        ResultadoLiquidacao resultado = compensacao.liquidar();
+        assertEquals(contas.size(), resultado.transferencias());
+        assertEquals(contas.size(), resultado.contas());
+        assertEquals(0, resultado.volumeLiquido(), 1e-9);
+        for (Conta conta : contas) {
+            assertEquals(10, conta.getSaldo(), 1e-9);
+            assertEquals(0, conta.getEnviosPendentes(), 1e-9);
+        }
+    }
+
+    @Test
+    void janelasConcorrentesConservamDinheiroSemSaldoNegativo() throws Exception {
+        CompensacaoPix compensacao = new CompensacaoPix(4);
+        compensacao.iniciarLiquidacaoPeriodica(1);
+        List<Conta> contas = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            contas.add(novaConta("Cliente " + i, 50));
+        }
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    Conta origem = contas.get(random.nextInt(contas.size()));
+                    Conta destino = contas.get(random.nextInt(contas.size()));
+                    if (origem != destino) compensacao.submeter(origem, destino, 1 + random.nextInt(30));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        compensacao.encerrar();
+
+        double total = 0;
+        for (Conta conta : contas) {
+            assertTrue(conta.getSaldo() >= 0, "saldo negativo em " + conta.getNumero());
+            assertEquals(0, conta.getPosicaoCompensacao(), 1e-9);
+            assertEquals(0, conta.getEnviosPendentes(), 1e-9);
+            total += conta.getSaldo();
+        }
+        assertEquals(12 * 50, total, 1e-6);
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.service;
+
+import org.example.enums.TipoTransacao;
+import org.example.model.Cliente;
+import org.example.model.Conta;
+import org.example.model.ContaCorrente;
+import org.example.model.RelogioVersoes;
+import org.example.records.Snapshot;
+import org.example.records.VolumeDiarioTransacoes;
+import org.example.repository.ClienteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RelatorioServiceTest {
+
+    private RelatorioService relatorioService;
+    private Conta conta;
+
+    @BeforeEach
+    void preparar() {
+        ClienteRepository repository = new ClienteRepository();
+        Cliente cliente = new Cliente("Ana Relatório", "11122233344");
+        conta = new ContaCorrente(cliente);
+        cliente.adicionarConta(conta);
+        repository.salvar(cliente);
+        conta.depositar(100.0);
+        conta.depositar(50.0);
+        relatorioService = new RelatorioService(repository);
+    }
+
+    @Test
+    void volumeDiarioSomaTransacoesDoPeriodo() {
+        LocalDate hoje = LocalDate.now();
+        VolumeDiarioTransacoes volume = relatorioService.volumeDiario(hoje.minusDays(1), hoje);
+        assertEquals(2, volume.dias());
+        assertEquals(2, volume.quantidade(hoje, TipoTransacao.DEPOSITO));
+        assertEquals(150.0, volume.volume(hoje, TipoTransacao.DEPOSITO), 1e-9);
+    }
+
+    @Test
+    void volumeDiarioIgnoraTransacoesPosterioresAoSnapshot() {
+        LocalDate hoje = LocalDate.now();
+        try (Snapshot snapshot = RelogioVersoes.abrirSnapshot()) {
+            conta.depositar(25.0);
+            VolumeDiarioTransacoes volume = relatorioService.volumeDiario(snapshot, hoje, hoje);
+            assertEquals(2, volume.quantidade(hoje, TipoTransacao.DEPOSITO));
+            assertEquals(150.0, volume.volume(hoje, TipoTransacao.DEPOSITO), 1e-9);
+        }
+        assertEquals(175.0, relatorioService.volumeDiario(hoje, hoje).volume(hoje, TipoTransacao.DEPOSITO), 1e-9);
+    }
+
+    @Test
+    void volumeDiarioRecusaPeriodoInvertido() {
+        LocalDate hoje = LocalDate.now();
+        assertThrows(IllegalArgumentException.class, () -> relatorioService.volumeDiario(hoje, hoje.minusDays(1)));
+    }
+
+    @Test
+    void saldosFimDeMesRecusaPeriodoInvertido() {
+        YearMonth mes = YearMonth.now();
+        assertThrows(IllegalArgumentException.class, () -> relatorioService.saldosFimDeMes(mes, mes.minusMonths(1)));
+        assertEquals(1, relatorioService.saldosFimDeMes(mes, mes).meses());
+    }
+
+    @Test
+    void maioresInvestidoresRecusaTamanhoNegativo() {
+        try (Snapshot snapshot = RelogioVersoes.abrirSnapshot()) {
+            assertThrows(IllegalArgumentException.class, () -> relatorioService.maioresInvestidores(snapshot, -1));
+            assertEquals(0, relatorioService.maioresInvestidores(snapshot, 0).size());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.service;
+
+import org.example.enums.StatusInvestimento;
+import org.example.model.Conta;
+import org.example.model.Investimento;
+import org.example.records.ResultadoUnidadeTrabalho;
+import org.example.repository.ClienteRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnidadeDeTrabalhoTest {
+
+    private final BancoService bancoService = new BancoService(new ClienteRepository());
+
+    UnidadeDeTrabalhoTest() {
+        bancoService.setSaida(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    private Conta novaConta(int i, double saldoInicial) {
+        String cpf = String.format("%011d", i);
+        bancoService.criarCliente("Cliente " + i, cpf);
+        Conta conta = bancoService.adicionarContaParaCliente(cpf, "corrente");
+        if (saldoInicial > 0) bancoService.depositar(conta, saldoInicial);
+        return conta;
+    }
+
+    @Test
+    void semDisputaConfirmaNaPrimeiraTentativaSemLocks() {
+        Conta ana = novaConta(1, 100);
+        Conta bia = novaConta(2, 0);
+
+        ResultadoUnidadeTrabalho resultado = bancoService.iniciarUnidadeDeTrabalho()
+                .transferir(ana, bia, 60)
+                .aplicar(bia, "CDB", 50)
+                .confirmar();
+
+        assertTrue(resultado.confirmada());
+        assertEquals(1, resultado.tentativas());
+        assertFalse(resultado.comLocks());
+        assertEquals(40, ana.getSaldo(), 1e-9);
+        assertEquals(10, bia.getSaldo(), 1e-9);
+        assertEquals(1, bia.getCliente().getCarteiraInvestimento().getInvestimentos().size());
+    }
+
+    @Test
+    void debitoRecusadoNoFimNaoAplicaNada() {
+        Conta ana = novaConta(1, 100);
+        Conta bia = novaConta(2, 50);
+        int extratoAna = ana.getHistoricoTransacoes().size();
+        int extratoBia = bia.getHistoricoTransacoes().size();
+
+        ResultadoUnidadeTrabalho resultado = bancoService.iniciarUnidadeDeTrabalho()
+                .transferir(ana, bia, 80)
+                .aplicar(bia, "CDB", 100)
+                .debitar(ana, 30) // Sobram 20 depois da transferência.
+                .confirmar();
+
+        assertFalse(resultado.confirmada());
+        assertEquals("Saldo insuficiente na conta " + ana.getNumero() + ".", resultado.motivo());
+        assertEquals(100, ana.getSaldo(), 1e-9);
+        assertEquals(50, bia.getSaldo(), 1e-9);
+        assertEquals(extratoAna, ana.getHistoricoTransacoes().size());
+        assertEquals(extratoBia, bia.getHistoricoTransacoes().size());
+        assertTrue(bia.getCliente().getCarteiraInvestimento().getInvestimentos().isEmpty());
+    }
+
+    @Test
+    void resgateDuplicadoRecusaAUnidadeInteira() {
+        Conta ana = novaConta(1, 100);
+        bancoService.fazerInvestimento(ana, "Fundo", 40);
+
+        ResultadoUnidadeTrabalho resultado = bancoService.iniciarUnidadeDeTrabalho()
+                .debitar(ana, 10)
+                .resgatar(ana.getCliente(), 0, ana)
+                .resgatar(ana.getCliente(), 0, ana)
+                .confirmar();
+
+        assertFalse(resultado.confirmada());
+        assertEquals(60, ana.getSaldo(), 1e-9);
+        assertEquals(StatusInvestimento.ATIVO, ana.getCliente().getCarteiraInvestimento().getInvestimentos().get(0).getStatus());
+    }
+
+    @Test
+    void unidadesConcorrentesConservamDinheiroSemSaldoNegativo() throws Exception {
+        List<Conta> contas = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            contas.add(novaConta(i, 200));
+        }
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 3_000; i++) {
+                    Conta origem = contas.get(random.nextInt(contas.size()));
+                    Conta destino = contas.get(random.nextInt(contas.size()));
+                    double valor = 1 + random.nextInt(60);
+                    bancoService.iniciarUnidadeDeTrabalho()
+                            .transferir(origem, destino, valor)
+                            .aplicar(destino, "Fundo", valor / 2)
+                            .debitar(origem, 1)
+                            .creditar(destino, 1)
+                            .confirmar();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        double total = 0;
+        for (Conta conta : contas) {
+            assertTrue(conta.getSaldo() >= 0, "saldo negativo em " + conta.getNumero());
+            total += conta.getSaldo();
+            for (Investimento investimento : conta.getCliente().getCarteiraInvestimento().getInvestimentos()) {
+                total += investimento.getValorAtual();
+            }
+        }
+        assertEquals(6 * 200, total, 1e-6);
+    }
+
+    @Test
+    void investimentoComSaldoSuficienteNuncaFalhaSobDisputa() throws Exception {
+        Conta investidora = novaConta(1, 4 * 500 * 10);
+        Conta outra = novaConta(2, 1_000);
+        AtomicInteger recusados = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (!bancoService.fazerInvestimento(investidora, "Tesouro", 10).contains("sucesso")) recusados.incrementAndGet();
+                }
+            }));
+        }
+        // Movimenta a mesma conta sem reduzir o saldo disponível para os investimentos.
+        threads.add(new Thread(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                bancoService.iniciarUnidadeDeTrabalho().transferir(outra, investidora, 1).confirmar();
+                bancoService.iniciarUnidadeDeTrabalho().transferir(investidora, outra, 1).confirmar();
+            }
+        }));
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, recusados.get());
+        assertEquals(2_000, investidora.getCliente().getCarteiraInvestimento().getInvestimentos().size());
+        assertEquals(0, investidora.getSaldo(), 1e-9);
+        assertEquals(1_000, outra.getSaldo(), 1e-9);
+    }
+}